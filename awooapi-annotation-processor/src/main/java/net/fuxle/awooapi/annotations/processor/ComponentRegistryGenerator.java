@@ -0,0 +1,120 @@
+package net.fuxle.awooapi.annotations.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Generates the {@code GeneratedComponentRegistry} of the compiled module, listing every annotated component class
+ * with its annotation and a reference to its constructor.
+ * <p>
+ * The registry is registered in {@code META-INF/services}, so the components are found without scanning the classpath
+ * at runtime. It is written in the first processing round that finds components, and is not generated for modules
+ * without components.
+ */
+class ComponentRegistryGenerator {
+
+    private static final String REGISTRY_NAME = "AwooGeneratedComponentRegistry";
+    private static final String SERVICE_FILE = "META-INF/services/net.fuxle.awooapi.annotations.GeneratedComponentRegistry";
+
+    private final ProcessingEnvironment processingEnv;
+
+    /**
+     * The qualified names of the annotations of each component class, by class name.
+     */
+    private final Map<String, Set<String>> annotations = new TreeMap<>();
+    private final Map<String, TypeElement> components = new TreeMap<>();
+
+    private boolean generated;
+
+    ComponentRegistryGenerator(ProcessingEnvironment processingEnv) {
+        this.processingEnv = processingEnv;
+    }
+
+    /**
+     * Collects an annotated component class.
+     *
+     * @param component  The annotated class.
+     * @param annotation The annotation type.
+     */
+    void addComponent(TypeElement component, TypeElement annotation) {
+        if (generated) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "The component registry has already been generated, components generated by other annotation processors cannot be registered", component);
+            return;
+        }
+        String className = component.getQualifiedName().toString();
+        components.put(className, component);
+        annotations.computeIfAbsent(className, name -> new LinkedHashSet<>()).add(annotation.getQualifiedName().toString());
+    }
+
+    /**
+     * Writes the registry of the collected components. Does nothing once the registry has been generated.
+     *
+     * @throws IOException If the generated files cannot be written.
+     */
+    void generate() throws IOException {
+        if (generated || components.isEmpty()) {
+            return;
+        }
+        generated = true;
+
+        String packageName = SourceElements.commonPackage(processingEnv.getElementUtils(), components.values());
+        boolean valid = true;
+        for (TypeElement component : components.values()) {
+            if (!SourceElements.isConstructible(processingEnv.getElementUtils(), component, packageName)) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Component must be a public, non-abstract top-level or static class with a public no-argument constructor", component);
+                valid = false;
+            }
+        }
+        if (!valid) {
+            return;
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("import net.fuxle.awooapi.annotations.GeneratedComponentRegistry;\n\n")
+                .append("import java.util.List;\n\n")
+                .append("/**\n * The annotated component classes of this module.\n")
+                .append(" * Generated by the AwooAPI annotation processor, do not edit.\n */\n")
+                .append("public final class ").append(REGISTRY_NAME).append(" implements GeneratedComponentRegistry {\n\n")
+                .append("    @Override\n")
+                .append("    public List<Component<?>> getComponents() {\n")
+                .append("        return List.of(");
+        String separator = "\n";
+        for (Map.Entry<String, Set<String>> entry : annotations.entrySet()) {
+            String className = entry.getKey();
+            for (String annotation : entry.getValue()) {
+                // Reading the annotation of a known class is cheap, only searching for the classes is not
+                source.append(separator)
+                        .append("                new Component<>(").append(className).append(".class.getAnnotation(").append(annotation).append(".class), ")
+                        .append(className).append(".class, ").append(className).append("::new)");
+                separator = ",\n";
+            }
+        }
+        source.append(");\n    }\n}\n");
+
+        Element[] originatingElements = components.values().toArray(new Element[0]);
+        String qualifiedName = packageName.isEmpty() ? REGISTRY_NAME : packageName + "." + REGISTRY_NAME;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, originatingElements).openWriter()) {
+            writer.write(source.toString());
+        }
+
+        FileObject serviceFile = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE, originatingElements);
+        try (Writer writer = serviceFile.openWriter()) {
+            writer.write(qualifiedName + "\n");
+        }
+    }
+}
@@ -6,41 +6,79 @@ import javax.lang.model.element.Element;
 import javax.lang.model.element.TypeElement;
 import javax.tools.Diagnostic;
 import java.io.IOException;
-import java.io.Writer;
 import java.util.Set;
 
 @SupportedAnnotationTypes({
                 "net.fuxle.awooapi.annotations.RESTEndpoint",
                 "net.fuxle.awooapi.annotations.WebSocketEndpoint",
                 "net.fuxle.awooapi.annotations.GraphQLQuery",
-                "net.fuxle.awooapi.annotations.MultiEndpoint"
+                "net.fuxle.awooapi.annotations.MultiEndpoint",
+                "net.fuxle.awooapi.component.scheduler.annotation.CronJob"
         })
 @SupportedSourceVersion(SourceVersion.RELEASE_21)
+@SupportedOptions({GraphQLWiringGenerator.SCHEMA_DIR_OPTION, GraphQLWiringGenerator.VALIDATE_SCHEMA_OPTION})
 public class EndpointDiscoveryAnnotationProcessor extends AbstractProcessor {
 
+    private static final String MULTI_ENDPOINT = "net.fuxle.awooapi.annotations.MultiEndpoint";
+
+    /**
+     * The annotations of the classes listed in the generated component registry.
+     */
+    private static final Set<String> COMPONENT_ANNOTATIONS = Set.of(
+            MULTI_ENDPOINT,
+            "net.fuxle.awooapi.annotations.WebSocketEndpoint",
+            "net.fuxle.awooapi.component.scheduler.annotation.CronJob"
+    );
+
+    private JsonAdapterGenerator jsonAdapterGenerator;
+    private GraphQLWiringGenerator graphQLWiringGenerator;
+    private ComponentRegistryGenerator componentRegistryGenerator;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        jsonAdapterGenerator = new JsonAdapterGenerator(processingEnv);
+        graphQLWiringGenerator = new GraphQLWiringGenerator(processingEnv);
+        componentRegistryGenerator = new ComponentRegistryGenerator(processingEnv);
+    }
+
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
         for (TypeElement annotation : annotations) {
             Set<? extends Element> annotatedElements = roundEnv.getElementsAnnotatedWith(annotation);
             for (Element element : annotatedElements) {
-                try {
-                    generateMetadataFile(element);
-                } catch (IOException e) {
-                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to generate metadata: " + e.getMessage());
+                if (COMPONENT_ANNOTATIONS.contains(annotation.getQualifiedName().toString())) {
+                    componentRegistryGenerator.addComponent((TypeElement) element, annotation);
+                }
+
+                if (annotation.getQualifiedName().contentEquals(MULTI_ENDPOINT)) {
+                    // Collect the response type for reflection-free JSON adapters
+                    jsonAdapterGenerator.addEndpoint((TypeElement) element);
+                    graphQLWiringGenerator.addEndpoint((TypeElement) element);
                 }
             }
         }
-        return true;
-    }
 
-    private void generateMetadataFile(Element element) throws IOException {
-        String className = ((TypeElement) element).getQualifiedName().toString();
-        String annotation = element.getAnnotationMirrors().toString();
+        try {
+            componentRegistryGenerator.generate();
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to generate component registry: " + e.getMessage());
+        }
+
+        try {
+            jsonAdapterGenerator.generate();
+            if (roundEnv.processingOver()) {
+                jsonAdapterGenerator.writeServiceFile();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to generate JSON adapters: " + e.getMessage());
+        }
 
-        // Generate metadata file (e.g., as a JSON or properties file)
-        Writer writer = processingEnv.getFiler().createSourceFile("META-INF/endpoint-metadata.properties").openWriter();
-        writer.write("class=" + className + "\n");
-        writer.write("annotation=" + annotation + "\n");
-        writer.close();
+        try {
+            graphQLWiringGenerator.generate();
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to generate GraphQL wiring: " + e.getMessage());
+        }
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,302 @@
+package net.fuxle.awooapi.annotations.processor;
+
+import graphql.GraphQLError;
+import graphql.language.FieldDefinition;
+import graphql.language.ObjectTypeDefinition;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.TypeDefinitionRegistry;
+import graphql.schema.idl.errors.SchemaProblem;
+import net.fuxle.awooapi.annotations.GraphQlFieldType;
+import net.fuxle.awooapi.annotations.MultiEndpoint;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Assembles the GraphQL schema of the compiled module at build time and generates its field wiring.
+ * <p>
+ * The {@code graphql/*.graphql} resources, which are copied to the class output before compilation, are parsed and
+ * merged into a single schema resource, and every {@code @MultiEndpoint} field is checked against the root type it is
+ * declared or extended on, so mismatches fail the build instead of the application start. The schema of a module may
+ * extend and reference types of other modules, so it is only built and validated as a whole if
+ * {@value #VALIDATE_SCHEMA_OPTION} is set, e.g. for applications consisting of a single module. The generated
+ * {@code GeneratedGraphQLWiring} references the endpoints through their constructors and is registered in
+ * {@code META-INF/services}, so neither schema files nor endpoint classes need to be searched for at runtime.
+ * <p>
+ * If no schema files are found, nothing is generated and the schema keeps being assembled at runtime.
+ */
+class GraphQLWiringGenerator {
+
+    /**
+     * Processor option overriding the directory the schema files are read from.
+     */
+    static final String SCHEMA_DIR_OPTION = "awooapi.graphql.schemaDir";
+
+    /**
+     * Processor option enabling the validation of the complete schema, which requires the module to declare all types
+     * it uses.
+     */
+    static final String VALIDATE_SCHEMA_OPTION = "awooapi.graphql.validateSchema";
+
+    private static final String SCHEMA_DIR = "graphql";
+    private static final String SCHEMA_EXTENSION = ".graphql";
+    private static final String WIRING_NAME = "AwooGeneratedGraphQLWiring";
+    private static final String SCHEMA_RESOURCE = WIRING_NAME + ".graphqls";
+    private static final String SERVICE_FILE = "META-INF/services/net.fuxle.awooapi.annotations.GeneratedGraphQLWiring";
+
+    private final ProcessingEnvironment processingEnv;
+
+    /**
+     * The endpoints by qualified name, so the generated wiring does not depend on the compilation order.
+     */
+    private final Map<String, TypeElement> endpoints = new TreeMap<>();
+
+    private boolean generated;
+
+    GraphQLWiringGenerator(ProcessingEnvironment processingEnv) {
+        this.processingEnv = processingEnv;
+    }
+
+    /**
+     * Collects an endpoint to be wired.
+     *
+     * @param endpoint The class annotated with {@code @MultiEndpoint}.
+     */
+    void addEndpoint(TypeElement endpoint) {
+        if (generated) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "The GraphQL wiring has already been generated, endpoints generated by other annotation processors cannot be wired", endpoint);
+            return;
+        }
+        endpoints.put(endpoint.getQualifiedName().toString(), endpoint);
+    }
+
+    /**
+     * Validates the schema against the collected endpoints and writes the merged schema and the wiring. Does nothing
+     * once the wiring has been generated.
+     *
+     * @throws IOException If the schema files cannot be read or the generated files cannot be written.
+     */
+    void generate() throws IOException {
+        if (generated || endpoints.isEmpty()) {
+            return;
+        }
+        generated = true;
+
+        Path schemaDirectory = findSchemaDirectory();
+        Map<String, String> schemaFiles = schemaDirectory != null ? readSchemaFiles(schemaDirectory) : Map.of();
+        if (schemaFiles.isEmpty()) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "No GraphQL schema files found in " + schemaDirectory + ", the GraphQL schema is assembled at runtime");
+            return;
+        }
+
+        TypeDefinitionRegistry registry = new TypeDefinitionRegistry();
+        StringBuilder mergedSchema = new StringBuilder();
+        boolean valid = true;
+        for (Map.Entry<String, String> schemaFile : schemaFiles.entrySet()) {
+            try {
+                registry.merge(new SchemaParser().parse(schemaFile.getValue()));
+            } catch (SchemaProblem e) {
+                reportSchemaProblem(schemaFile.getKey(), e);
+                valid = false;
+            }
+            mergedSchema.append("# ").append(schemaFile.getKey()).append('\n').append(schemaFile.getValue()).append('\n');
+        }
+        if (!valid) {
+            return;
+        }
+        if (Boolean.parseBoolean(processingEnv.getOptions().get(VALIDATE_SCHEMA_OPTION))) {
+            try {
+                // Building the schema once finds undefined types, invalid interface implementations and the like
+                new SchemaGenerator().makeExecutableSchema(registry, RuntimeWiring.MOCKED_WIRING);
+            } catch (SchemaProblem e) {
+                reportSchemaProblem("the merged GraphQL schema", e);
+                return;
+            }
+        }
+
+        String packageName = SourceElements.commonPackage(processingEnv.getElementUtils(), endpoints.values());
+        if (!validateFields(registry, packageName)) {
+            return;
+        }
+
+        Element[] originatingElements = endpoints.values().toArray(new Element[0]);
+        FileObject schemaResource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, packageName, SCHEMA_RESOURCE, originatingElements);
+        try (Writer writer = schemaResource.openWriter()) {
+            writer.write(mergedSchema.toString());
+        }
+        writeWiring(packageName, originatingElements);
+
+        FileObject serviceFile = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE, originatingElements);
+        try (Writer writer = serviceFile.openWriter()) {
+            writer.write((packageName.isEmpty() ? "" : packageName + ".") + WIRING_NAME + "\n");
+        }
+    }
+
+    /**
+     * Checks that every endpoint resolves a declared, not yet resolved field and can be constructed by the wiring.
+     * Root fields without endpoint are only reported as a warning, as they resolve to {@code null}.
+     *
+     * @return {@code false} if an error was reported.
+     */
+    private boolean validateFields(TypeDefinitionRegistry registry, String packageName) {
+        boolean valid = true;
+        Set<String> wiredFields = new HashSet<>();
+        for (TypeElement endpoint : endpoints.values()) {
+            MultiEndpoint annotation = endpoint.getAnnotation(MultiEndpoint.class);
+            String typeName = rootTypeName(annotation.graphQLFieldType());
+            String fieldName = annotation.graphQLFieldName();
+
+            if (!declaredFields(registry, typeName).contains(fieldName)) {
+                error(endpoint, "GraphQL field " + typeName + "." + fieldName + " is not declared in the schema");
+                valid = false;
+            } else if (!wiredFields.add(typeName + "." + fieldName)) {
+                error(endpoint, "GraphQL field " + typeName + "." + fieldName + " is already resolved by another endpoint");
+                valid = false;
+            }
+            if (!SourceElements.isConstructible(processingEnv.getElementUtils(), endpoint, packageName)) {
+                // Already reported by the component registry, but the wiring could not be compiled either
+                valid = false;
+            }
+        }
+
+        for (GraphQlFieldType fieldType : GraphQlFieldType.values()) {
+            String typeName = rootTypeName(fieldType);
+            for (String fieldName : declaredFields(registry, typeName)) {
+                if (!wiredFields.contains(typeName + "." + fieldName)) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                            "GraphQL field " + typeName + "." + fieldName + " is not resolved by any endpoint");
+                }
+            }
+        }
+        return valid;
+    }
+
+    private static String rootTypeName(GraphQlFieldType fieldType) {
+        // The names the runtime wiring registers the endpoints on
+        return switch (fieldType) {
+            case QUERY -> "Query";
+            case MUTATION -> "Mutation";
+            case SUBSCRIPTION -> "Subscription";
+        };
+    }
+
+    private static List<String> declaredFields(TypeDefinitionRegistry registry, String typeName) {
+        List<String> fields = new ArrayList<>();
+        registry.getType(typeName, ObjectTypeDefinition.class).ifPresent(type -> addFieldNames(type, fields));
+        for (ObjectTypeDefinition extension : registry.objectTypeExtensions().getOrDefault(typeName, List.of())) {
+            addFieldNames(extension, fields);
+        }
+        return fields;
+    }
+
+    private static void addFieldNames(ObjectTypeDefinition type, List<String> fields) {
+        for (FieldDefinition field : type.getFieldDefinitions()) {
+            fields.add(field.getName());
+        }
+    }
+
+    private Path findSchemaDirectory() throws IOException {
+        String configured = processingEnv.getOptions().get(SCHEMA_DIR_OPTION);
+        if (configured != null) {
+            return Path.of(configured);
+        }
+        // The resources have already been copied to the class output, where the runtime scan finds them as well.
+        // Only files can be looked up there, so a file that is never created locates the directory.
+        FileObject probe = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SCHEMA_DIR + "/" + SCHEMA_RESOURCE);
+        try {
+            return Path.of(probe.toUri()).getParent();
+        } catch (IllegalArgumentException | FileSystemNotFoundException e) {
+            // The class output is not on a file system, e.g. when compiling in memory
+            return null;
+        }
+    }
+
+    /**
+     * Reads the schema files in the given directory and its subdirectories.
+     *
+     * @return The contents of the files by resource name, in the order of their names.
+     */
+    private static Map<String, String> readSchemaFiles(Path directory) throws IOException {
+        Map<String, String> schemaFiles = new TreeMap<>();
+        if (!Files.isDirectory(directory)) {
+            return schemaFiles;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (Files.isRegularFile(file) && file.getFileName().toString().endsWith(SCHEMA_EXTENSION)) {
+                    String name = SCHEMA_DIR + "/" + directory.relativize(file).toString().replace('\\', '/');
+                    schemaFiles.put(name, Files.readString(file, StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return schemaFiles;
+    }
+
+    private void reportSchemaProblem(String source, SchemaProblem problem) {
+        for (GraphQLError error : problem.getErrors()) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Invalid GraphQL schema in " + source + ": " + error.getMessage());
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private void writeWiring(String packageName, Element[] originatingElements) throws IOException {
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("import net.fuxle.awooapi.annotations.GeneratedGraphQLWiring;\n")
+                .append("import net.fuxle.awooapi.annotations.GraphQlFieldType;\n\n")
+                .append("import java.io.InputStream;\n")
+                .append("import java.util.List;\n\n")
+                .append("/**\n * The GraphQL schema and field wiring of this module, validated at build time.\n")
+                .append(" * Generated by the AwooAPI annotation processor, do not edit.\n */\n")
+                .append("public final class ").append(WIRING_NAME).append(" implements GeneratedGraphQLWiring {\n\n")
+                .append("    @Override\n")
+                .append("    public InputStream openSchema() {\n")
+                .append("        return ").append(WIRING_NAME).append(".class.getResourceAsStream(\"").append(SCHEMA_RESOURCE).append("\");\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public List<Field> getFields() {\n")
+                .append("        return List.of(");
+        String separator = "\n";
+        for (TypeElement endpoint : endpoints.values()) {
+            MultiEndpoint annotation = endpoint.getAnnotation(MultiEndpoint.class);
+            String className = endpoint.getQualifiedName().toString();
+            source.append(separator)
+                    .append("                new Field(GraphQlFieldType.").append(annotation.graphQLFieldType().name())
+                    .append(", \"").append(annotation.graphQLFieldName()).append("\", ")
+                    .append(className).append(".class, ").append(className).append("::new)");
+            separator = ",\n";
+        }
+        source.append(");\n    }\n}\n");
+
+        String qualifiedName = packageName.isEmpty() ? WIRING_NAME : packageName + "." + WIRING_NAME;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, originatingElements).openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+}
@@ -0,0 +1,603 @@
+package net.fuxle.awooapi.annotations.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates reflection-free Gson {@code TypeAdapter}s for the response types of {@code @MultiEndpoint} classes.
+ * <p>
+ * For every endpoint extending {@code AbstractEndpoint<T>}, the type {@code T} and all user-defined types reachable
+ * through its properties get an adapter in their own package. The adapters of a package are registered through a
+ * generated {@code TypeAdapterFactory}, which is listed in {@code META-INF/services/com.google.gson.TypeAdapterFactory}
+ * and picked up by the default JSON codec at runtime.
+ * <p>
+ * Like Gson's reflective adapter, records are accessed through their accessors and canonical constructor, and classes
+ * through their fields. Getters and setters are never called, as they may behave differently. Types that cannot be
+ * handled without reflection (generic, abstract or with fields that are not accessible from their package) are skipped
+ * and keep using Gson's reflective adapter. If a type can be written but not instantiated, only serialization is
+ * generated.
+ */
+class JsonAdapterGenerator {
+
+    private static final String ABSTRACT_ENDPOINT = "net.fuxle.awooapi.core.templates.AbstractEndpoint";
+    private static final String SERIALIZED_NAME = "com.google.gson.annotations.SerializedName";
+    private static final String ADAPTER_SUFFIX = "_AwooJsonAdapter";
+    private static final String FACTORY_NAME = "AwooGeneratedJsonAdapters";
+    private static final String SERVICE_FILE = "META-INF/services/com.google.gson.TypeAdapterFactory";
+
+    private final ProcessingEnvironment processingEnv;
+
+    /**
+     * Qualified names of all types already inspected, whether an adapter was generated or not.
+     */
+    private final Set<String> inspectedTypes = new HashSet<>();
+
+    /**
+     * Adapters generated in the current round, grouped by package, waiting for their factory.
+     */
+    private final Map<String, List<AdapterModel>> pendingAdapters = new LinkedHashMap<>();
+
+    /**
+     * Fully qualified names of all generated factories, written to the service file at the end.
+     */
+    private final Set<String> factories = new TreeSet<>();
+
+    JsonAdapterGenerator(ProcessingEnvironment processingEnv) {
+        this.processingEnv = processingEnv;
+    }
+
+    /**
+     * Collects the response type of the given endpoint class and all types reachable from it.
+     *
+     * @param endpoint The class annotated with {@code @MultiEndpoint}.
+     */
+    void addEndpoint(TypeElement endpoint) {
+        TypeMirror responseType = findResponseType(endpoint.asType());
+        if (responseType == null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "No AbstractEndpoint<T> supertype found, skipping JSON adapter generation", endpoint);
+            return;
+        }
+        collect(responseType);
+    }
+
+    /**
+     * Writes the adapters and factories collected in the current round.
+     *
+     * @throws IOException If a source file cannot be written.
+     */
+    void generate() throws IOException {
+        for (Map.Entry<String, List<AdapterModel>> entry : pendingAdapters.entrySet()) {
+            for (AdapterModel model : entry.getValue()) {
+                writeAdapter(model);
+            }
+            writeFactory(entry.getKey(), entry.getValue());
+        }
+        pendingAdapters.clear();
+    }
+
+    /**
+     * Writes the service file registering all generated factories. Must be called in the last processing round.
+     *
+     * @throws IOException If the service file cannot be written.
+     */
+    void writeServiceFile() throws IOException {
+        if (factories.isEmpty()) {
+            return;
+        }
+        FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+        try (Writer writer = file.openWriter()) {
+            for (String factory : factories) {
+                writer.write(factory + "\n");
+            }
+        }
+    }
+
+    /**
+     * Walks the supertypes of the given type until {@code AbstractEndpoint<T>} is found.
+     *
+     * @param type The type to start from.
+     * @return The resolved type argument {@code T}, or {@code null} if the type is not an endpoint.
+     */
+    private TypeMirror findResponseType(TypeMirror type) {
+        for (TypeMirror supertype : processingEnv.getTypeUtils().directSupertypes(type)) {
+            if (supertype instanceof DeclaredType declaredType
+                    && ((TypeElement) declaredType.asElement()).getQualifiedName().contentEquals(ABSTRACT_ENDPOINT)) {
+                List<? extends TypeMirror> arguments = declaredType.getTypeArguments();
+                return arguments.isEmpty() ? null : arguments.get(0);
+            }
+            TypeMirror found = findResponseType(supertype);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Collects the given type and, recursively, the types of its type arguments and properties.
+     *
+     * @param type The type to collect.
+     */
+    private void collect(TypeMirror type) {
+        switch (type.getKind()) {
+            case ARRAY -> collect(((ArrayType) type).getComponentType());
+            case WILDCARD -> {
+                WildcardType wildcard = (WildcardType) type;
+                if (wildcard.getExtendsBound() != null) {
+                    collect(wildcard.getExtendsBound());
+                }
+            }
+            case DECLARED -> {
+                DeclaredType declaredType = (DeclaredType) type;
+                for (TypeMirror argument : declaredType.getTypeArguments()) {
+                    collect(argument);
+                }
+
+                TypeElement element = (TypeElement) declaredType.asElement();
+                if (!inspectedTypes.add(element.getQualifiedName().toString())) {
+                    return;
+                }
+
+                AdapterModel model = analyze(element);
+                if (model != null) {
+                    pendingAdapters.computeIfAbsent(model.packageName, k -> new ArrayList<>()).add(model);
+                    for (Property property : model.properties) {
+                        collect(property.type);
+                    }
+                }
+            }
+            default -> {
+                // Primitives and type variables need no adapter
+            }
+        }
+    }
+
+    /**
+     * Determines how a type can be serialized and deserialized without reflection.
+     *
+     * @param element The type to analyze.
+     * @return The adapter model, or {@code null} if the type must be left to Gson's reflective adapter.
+     */
+    private AdapterModel analyze(TypeElement element) {
+        String qualifiedName = element.getQualifiedName().toString();
+        if (qualifiedName.startsWith("java.") || qualifiedName.startsWith("javax.") || qualifiedName.startsWith("jdk.")
+                || qualifiedName.startsWith("com.google.gson.")) {
+            return null;
+        }
+        if ((element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.RECORD)
+                || element.getModifiers().contains(Modifier.ABSTRACT)
+                || !element.getTypeParameters().isEmpty()
+                || !isReachable(element)) {
+            return null;
+        }
+
+        String packageName = processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+        AdapterModel model = element.getKind() == ElementKind.RECORD
+                ? analyzeRecord(element, packageName)
+                : analyzeClass(element, packageName);
+
+        if (model != null && !isSupported(model)) {
+            model = null;
+        }
+        if (model == null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "Properties of " + qualifiedName + " are not accessible, falling back to reflective JSON serialization", element);
+        }
+        return model;
+    }
+
+    /**
+     * Checks that all property types can be named in generated code and that JSON names are unique.
+     */
+    private boolean isSupported(AdapterModel model) {
+        Set<String> names = new HashSet<>();
+        for (Property property : model.properties) {
+            if (containsTypeVariable(property.type)) {
+                return false;
+            }
+            for (String name : property.names) {
+                if (!names.add(name)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean containsTypeVariable(TypeMirror type) {
+        return switch (type.getKind()) {
+            case TYPEVAR, INTERSECTION, UNION, ERROR -> true;
+            case ARRAY -> containsTypeVariable(((ArrayType) type).getComponentType());
+            case WILDCARD -> {
+                WildcardType wildcard = (WildcardType) type;
+                yield (wildcard.getExtendsBound() != null && containsTypeVariable(wildcard.getExtendsBound()))
+                        || (wildcard.getSuperBound() != null && containsTypeVariable(wildcard.getSuperBound()));
+            }
+            case DECLARED -> ((DeclaredType) type).getTypeArguments().stream().anyMatch(this::containsTypeVariable);
+            default -> false;
+        };
+    }
+
+    private AdapterModel analyzeRecord(TypeElement element, String packageName) {
+        List<Property> properties = new ArrayList<>();
+        for (RecordComponentElement component : element.getRecordComponents()) {
+            ExecutableElement accessor = component.getAccessor();
+            if (accessor.getModifiers().contains(Modifier.PRIVATE)) {
+                return null;
+            }
+            String name = component.getSimpleName().toString();
+            VariableElement field = findField(element, name);
+            properties.add(new Property(serializedNames(field != null ? field : component, name), name, component.asType(),
+                    name + "()", null));
+        }
+
+        // The canonical constructor of a record is never private unless declared so explicitly
+        boolean constructible = ElementFilter.constructorsIn(element.getEnclosedElements()).stream()
+                .anyMatch(constructor -> !constructor.getModifiers().contains(Modifier.PRIVATE)
+                        && constructor.getParameters().size() == properties.size());
+        return new AdapterModel(element, packageName, properties, true, constructible);
+    }
+
+    private AdapterModel analyzeClass(TypeElement element, String packageName) {
+        List<Property> properties = new ArrayList<>();
+        boolean writable = hasAccessibleNoArgConstructor(element, packageName);
+
+        // Gson serializes the fields of the class hierarchy, subclass fields first
+        TypeElement current = element;
+        while (current != null && !current.getQualifiedName().toString().startsWith("java.")) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+                // Gson reads and writes the fields themselves, getters and setters may behave differently
+                if (!isAccessible(field, packageName)) {
+                    return null;
+                }
+                String name = field.getSimpleName().toString();
+                String setter = modifiers.contains(Modifier.FINAL) ? null : name + " = %s";
+                writable &= setter != null;
+                properties.add(new Property(serializedNames(field, name), name, field.asType(), name, setter));
+            }
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        return new AdapterModel(element, packageName, properties, false, writable);
+    }
+
+    private boolean hasAccessibleNoArgConstructor(TypeElement element, String packageName) {
+        if (element.getNestingKind() == NestingKind.MEMBER && !element.getModifiers().contains(Modifier.STATIC)) {
+            return false;
+        }
+        return ElementFilter.constructorsIn(element.getEnclosedElements()).stream()
+                .anyMatch(constructor -> constructor.getParameters().isEmpty() && isAccessible(constructor, packageName));
+    }
+
+    private VariableElement findField(TypeElement owner, String name) {
+        for (VariableElement field : ElementFilter.fieldsIn(owner.getEnclosedElements())) {
+            if (field.getSimpleName().contentEquals(name)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a member can be accessed from a generated class in the given package.
+     */
+    private boolean isAccessible(Element member, String packageName) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        return processingEnv.getElementUtils().getPackageOf(member).getQualifiedName().contentEquals(packageName);
+    }
+
+    /**
+     * Checks whether a type can be referenced from a generated class in its own package.
+     */
+    private boolean isReachable(TypeElement element) {
+        Element current = element;
+        while (!(current instanceof PackageElement)) {
+            if (current.getModifiers().contains(Modifier.PRIVATE) || current.getKind() == ElementKind.METHOD) {
+                return false;
+            }
+            if (current instanceof TypeElement typeElement && typeElement.getNestingKind().isNested()
+                    && typeElement.getNestingKind() != NestingKind.MEMBER) {
+                return false; // Local or anonymous class
+            }
+            current = current.getEnclosingElement();
+        }
+        return true;
+    }
+
+    /**
+     * Retrieves the JSON names of a property, honoring Gson's {@code @SerializedName}.
+     *
+     * @return The primary name followed by all alternate names.
+     */
+    private List<String> serializedNames(Element element, String defaultName) {
+        List<String> names = new ArrayList<>();
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (!((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(SERIALIZED_NAME)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : annotation.getElementValues().entrySet()) {
+                String key = value.getKey().getSimpleName().toString();
+                if (key.equals("value")) {
+                    names.add(0, (String) value.getValue().getValue());
+                } else if (key.equals("alternate")) {
+                    for (Object alternate : (List<?>) value.getValue().getValue()) {
+                        names.add((String) ((AnnotationValue) alternate).getValue());
+                    }
+                }
+            }
+        }
+        if (names.isEmpty()) {
+            names.add(defaultName);
+        }
+        return names;
+    }
+
+    private void writeAdapter(AdapterModel model) throws IOException {
+        String typeName = model.element.getQualifiedName().toString();
+        String adapterName = model.adapterSimpleName();
+
+        StringBuilder source = new StringBuilder();
+        appendHeader(source, model.packageName);
+        source.append("import com.google.gson.Gson;\n")
+                .append("import com.google.gson.TypeAdapter;\n")
+                .append("import com.google.gson.TypeAdapterFactory;\n")
+                .append("import com.google.gson.reflect.TypeToken;\n")
+                .append("import com.google.gson.stream.JsonReader;\n")
+                .append("import com.google.gson.stream.JsonToken;\n")
+                .append("import com.google.gson.stream.JsonWriter;\n\n")
+                .append("import java.io.IOException;\n\n")
+                .append("/**\n * Reflection-free JSON adapter for {@link ").append(typeName).append("}.\n")
+                .append(" * Generated by the AwooAPI annotation processor, do not edit.\n */\n")
+                .append("public final class ").append(adapterName).append(" extends TypeAdapter<").append(typeName).append("> {\n");
+
+        // Delegate adapters for all properties, values are read the way Gson's own adapters read them
+        List<String> delegateInitializers = new ArrayList<>();
+        for (int i = 0; i < model.properties.size(); i++) {
+            Property property = model.properties.get(i);
+            String boxed = boxedName(property.type);
+            source.append("    private final TypeAdapter<").append(boxed).append("> adapter").append(i).append(";\n");
+            delegateInitializers.add("        this.adapter" + i + " = gson.getAdapter(" + typeTokenExpression(property.type, boxed) + ");\n");
+        }
+        if (!model.constructible) {
+            source.append("    private final TypeAdapter<").append(typeName).append("> reflectiveAdapter;\n");
+        }
+
+        source.append("\n    public ").append(adapterName).append("(Gson gson, TypeAdapterFactory factory) {\n");
+        delegateInitializers.forEach(source::append);
+        if (!model.constructible) {
+            source.append("        this.reflectiveAdapter = gson.getDelegateAdapter(factory, TypeToken.get(").append(typeName).append(".class));\n");
+        }
+        source.append("    }\n\n");
+
+        // Serialization
+        source.append("    @Override\n")
+                .append("    public void write(JsonWriter out, ").append(typeName).append(" value) throws IOException {\n")
+                .append("        if (value == null) {\n            out.nullValue();\n            return;\n        }\n")
+                .append("        out.beginObject();\n");
+        for (int i = 0; i < model.properties.size(); i++) {
+            Property property = model.properties.get(i);
+            source.append("        out.name(\"").append(escape(property.names.get(0))).append("\");\n");
+            String access = "value." + property.getter;
+            if (isInlined(property.type)) {
+                source.append("        out.value(").append(access).append(");\n");
+            } else {
+                source.append("        adapter").append(i).append(".write(out, ").append(access).append(");\n");
+            }
+        }
+        source.append("        out.endObject();\n    }\n\n");
+
+        // Deserialization
+        source.append("    @Override\n")
+                .append("    public ").append(typeName).append(" read(JsonReader in) throws IOException {\n");
+        if (!model.constructible) {
+            source.append("        return reflectiveAdapter.read(in);\n");
+        } else {
+            source.append("        if (in.peek() == JsonToken.NULL) {\n            in.nextNull();\n            return null;\n        }\n");
+            if (model.isRecord) {
+                for (int i = 0; i < model.properties.size(); i++) {
+                    Property property = model.properties.get(i);
+                    source.append("        ").append(property.type.toString()).append(" p").append(i).append(" = ")
+                            .append(defaultValue(property.type)).append(";\n");
+                }
+            } else {
+                source.append("        ").append(typeName).append(" instance = new ").append(typeName).append("();\n");
+            }
+            source.append("        in.beginObject();\n")
+                    .append("        while (in.hasNext()) {\n")
+                    .append("            switch (in.nextName()) {\n");
+            for (int i = 0; i < model.properties.size(); i++) {
+                Property property = model.properties.get(i);
+                source.append("                case ");
+                for (int n = 0; n < property.names.size(); n++) {
+                    source.append(n > 0 ? ", " : "").append('"').append(escape(property.names.get(n))).append('"');
+                }
+                source.append(" -> {\n");
+                String readExpression = "adapter" + i + ".read(in)";
+                String assignment = model.isRecord
+                        ? "p" + i + " = " + readExpression
+                        : "instance." + String.format(property.setter, readExpression);
+                if (property.type.getKind().isPrimitive()) {
+                    // Like Gson, null leaves primitives at their default value
+                    source.append("                    if (in.peek() == JsonToken.NULL) {\n")
+                            .append("                        in.nextNull();\n")
+                            .append("                    } else {\n")
+                            .append("                        ").append(assignment).append(";\n")
+                            .append("                    }\n");
+                } else {
+                    source.append("                    ").append(assignment).append(";\n");
+                }
+                source.append("                }\n");
+            }
+            source.append("                default -> in.skipValue();\n")
+                    .append("            }\n")
+                    .append("        }\n")
+                    .append("        in.endObject();\n");
+            if (model.isRecord) {
+                source.append("        return new ").append(typeName).append("(");
+                for (int i = 0; i < model.properties.size(); i++) {
+                    source.append(i > 0 ? ", " : "").append("p").append(i);
+                }
+                source.append(");\n");
+            } else {
+                source.append("        return instance;\n");
+            }
+        }
+        source.append("    }\n}\n");
+
+        writeSource(model.packageName, adapterName, source, model.element);
+    }
+
+    private void writeFactory(String packageName, List<AdapterModel> models) throws IOException {
+        // A later round may add adapters to a package that already has a factory, so pick a free name
+        String factoryName = FACTORY_NAME;
+        String qualifiedPrefix = packageName.isEmpty() ? "" : packageName + ".";
+        for (int i = 2; factories.contains(qualifiedPrefix + factoryName); i++) {
+            factoryName = FACTORY_NAME + i;
+        }
+
+        StringBuilder source = new StringBuilder();
+        appendHeader(source, packageName);
+        source.append("import com.google.gson.Gson;\n")
+                .append("import com.google.gson.TypeAdapter;\n")
+                .append("import com.google.gson.TypeAdapterFactory;\n")
+                .append("import com.google.gson.reflect.TypeToken;\n\n")
+                .append("/**\n * Registers the generated JSON adapters of this package with Gson.\n")
+                .append(" * Generated by the AwooAPI annotation processor, do not edit.\n */\n")
+                .append("public final class ").append(factoryName).append(" implements TypeAdapterFactory {\n\n")
+                .append("    @Override\n")
+                .append("    @SuppressWarnings(\"unchecked\")\n")
+                .append("    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {\n")
+                .append("        Class<? super T> rawType = type.getRawType();\n");
+        for (AdapterModel model : models) {
+            source.append("        if (rawType == ").append(model.element.getQualifiedName()).append(".class) {\n")
+                    .append("            return (TypeAdapter<T>) new ").append(model.adapterSimpleName()).append("(gson, this);\n")
+                    .append("        }\n");
+        }
+        source.append("        return null;\n    }\n}\n");
+
+        writeSource(packageName, factoryName, source, models.get(0).element);
+        factories.add(qualifiedPrefix + factoryName);
+    }
+
+    private void appendHeader(StringBuilder source, String packageName) {
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+    }
+
+    private void writeSource(String packageName, String simpleName, StringBuilder source, Element originatingElement) throws IOException {
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, originatingElement);
+        try (Writer writer = file.openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    /**
+     * Checks whether a property is written directly with {@code JsonWriter} calls. Floating point values are delegated
+     * to Gson so that its special value handling applies. Reading is always delegated, as Gson's adapters accept more
+     * than the plain {@code JsonReader} calls, e.g. booleans given as strings.
+     */
+    private boolean isInlined(TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN, INT, LONG, SHORT, BYTE -> true;
+            case DECLARED -> type.toString().equals("java.lang.String");
+            default -> false;
+        };
+    }
+
+    private String defaultValue(TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN -> "false";
+            case CHAR -> "'\\0'";
+            case BYTE, SHORT, INT, LONG, FLOAT, DOUBLE -> "(" + type + ") 0";
+            default -> "null";
+        };
+    }
+
+    private String boxedName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((javax.lang.model.type.PrimitiveType) type).getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    private String typeTokenExpression(TypeMirror type, String boxedName) {
+        if (type.getKind().isPrimitive()) {
+            return boxedName + ".class";
+        }
+        if (type.getKind() == TypeKind.DECLARED && ((DeclaredType) type).getTypeArguments().isEmpty()) {
+            return boxedName + ".class";
+        }
+        return "new TypeToken<" + boxedName + ">() {}";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * A JSON property of a generated type.
+     *
+     * @param names  The JSON name followed by alternate names accepted when reading.
+     * @param name   The Java name of the property.
+     * @param type   The declared type of the property.
+     * @param getter The expression reading the property from {@code value.}.
+     * @param setter The format of the statement writing the property on {@code instance.}, or {@code null} for records.
+     */
+    private record Property(List<String> names, String name, TypeMirror type, String getter, String setter) {
+    }
+
+    /**
+     * Describes the adapter generated for a single type.
+     */
+    private record AdapterModel(TypeElement element, String packageName, List<Property> properties,
+                                boolean isRecord, boolean constructible) {
+
+        String adapterSimpleName() {
+            String qualifiedName = element.getQualifiedName().toString();
+            String relativeName = packageName.isEmpty() ? qualifiedName : qualifiedName.substring(packageName.length() + 1);
+            return relativeName.replace('.', '_') + ADAPTER_SUFFIX;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package net.fuxle.awooapi.annotations.processor;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Helpers for generated classes that reference the annotated classes of a module.
+ */
+final class SourceElements {
+
+    private SourceElements() {
+    }
+
+    /**
+     * Finds the package shared by all given classes, so a class referencing them is generated next to them.
+     *
+     * @return The longest common package, empty if there is none.
+     */
+    static String commonPackage(Elements elementUtils, Collection<TypeElement> types) {
+        List<String> common = null;
+        for (TypeElement type : types) {
+            String packageName = elementUtils.getPackageOf(type).getQualifiedName().toString();
+            List<String> segments = packageName.isEmpty() ? List.of() : Arrays.asList(packageName.split("\\."));
+            if (common == null) {
+                common = segments;
+                continue;
+            }
+            int length = 0;
+            while (length < common.size() && length < segments.size() && common.get(length).equals(segments.get(length))) {
+                length++;
+            }
+            common = common.subList(0, length);
+        }
+        return common == null ? "" : String.join(".", common);
+    }
+
+    /**
+     * Checks whether a class generated in the given package can call the no-argument constructor of a type.
+     */
+    static boolean isConstructible(Elements elementUtils, TypeElement type, String packageName) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        boolean samePackage = elementUtils.getPackageOf(type).getQualifiedName().contentEquals(packageName);
+        for (Element element = type; element.getKind().isClass(); element = element.getEnclosingElement()) {
+            if (!isAccessible(element, samePackage)
+                    || element.getEnclosingElement().getKind() != ElementKind.PACKAGE && !element.getModifiers().contains(Modifier.STATIC)) {
+                return false;
+            }
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()) {
+                return isAccessible(constructor, samePackage);
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAccessible(Element element, boolean samePackage) {
+        Set<Modifier> modifiers = element.getModifiers();
+        return modifiers.contains(Modifier.PUBLIC) || samePackage && !modifiers.contains(Modifier.PRIVATE);
+    }
+}
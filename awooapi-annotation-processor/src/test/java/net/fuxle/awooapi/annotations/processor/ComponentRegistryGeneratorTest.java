@@ -0,0 +1,126 @@
+package net.fuxle.awooapi.annotations.processor;
+
+import net.fuxle.awooapi.annotations.GeneratedComponentRegistry;
+import net.fuxle.awooapi.annotations.MultiEndpoint;
+import net.fuxle.awooapi.annotations.WebSocketEndpoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ComponentRegistryGenerator} class.
+ */
+class ComponentRegistryGeneratorTest {
+
+    private static final String REGISTRY = "sample.AwooGeneratedComponentRegistry";
+    private static final String SERVICE_FILE = "META-INF/services/net.fuxle.awooapi.annotations.GeneratedComponentRegistry";
+
+    private static final String PET_ENDPOINT = """
+            package sample.api;
+
+            import net.fuxle.awooapi.annotations.GraphQlFieldType;
+            import net.fuxle.awooapi.annotations.HandlerType;
+            import net.fuxle.awooapi.annotations.MultiEndpoint;
+            import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+
+            @MultiEndpoint(graphQLFieldName = "pet", graphQLFieldType = GraphQlFieldType.QUERY, restType = HandlerType.GET, restPath = "/pet")
+            public class PetEndpoint extends AbstractEndpoint<String> {
+                @Override
+                public String handleRequest() {
+                    return "Rex";
+                }
+            }
+            """;
+
+    private static final String CHAT_SOCKET = """
+            package sample.ws;
+
+            import net.fuxle.awooapi.annotations.WebSocketEndpoint;
+
+            public class Sockets {
+                @WebSocketEndpoint(path = "/chat")
+                public static class ChatSocket {
+                }
+            }
+            """;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void testRegistryListsAnnotatedComponents() throws Exception {
+        TestCompiler.Result result = new TestCompiler(directory).compile(Map.of(
+                "net.fuxle.awooapi.core.templates.AbstractEndpoint", TestCompiler.ABSTRACT_ENDPOINT,
+                "sample.api.PetEndpoint", PET_ENDPOINT,
+                "sample.ws.Sockets", CHAT_SOCKET,
+                "sample.Plain", "package sample;\n\npublic class Plain {\n}\n"));
+        assertTrue(result.success(), () -> "Generated sources should compile: " + result.diagnostics());
+
+        assertEquals(REGISTRY + "\n", Files.readString(result.classOutput().resolve(SERVICE_FILE)),
+                "The registry should be generated in the common package of the components");
+        try (URLClassLoader classLoader = result.classLoader()) {
+            GeneratedComponentRegistry registry = (GeneratedComponentRegistry) classLoader.loadClass(REGISTRY).getConstructor().newInstance();
+
+            List<GeneratedComponentRegistry.Component<?>> components = registry.getComponents();
+            assertEquals(2, components.size(), () -> "Only annotated classes should be listed: " + components);
+            assertEquals("sample.api.PetEndpoint", components.get(0).type().getName());
+            assertEquals("sample.ws.Sockets$ChatSocket", components.get(1).type().getName());
+
+            List<GeneratedComponentRegistry.Component<MultiEndpoint>> endpoints = registry.getComponents(MultiEndpoint.class);
+            assertEquals(1, endpoints.size());
+            assertEquals("pet", endpoints.getFirst().annotation().graphQLFieldName());
+            assertSame(endpoints.getFirst().type(), endpoints.getFirst().constructor().get().getClass());
+
+            List<GeneratedComponentRegistry.Component<WebSocketEndpoint>> sockets = registry.getComponents(WebSocketEndpoint.class);
+            assertEquals(1, sockets.size());
+            assertEquals("/chat", sockets.getFirst().annotation().path());
+            assertSame(sockets.getFirst().type(), sockets.getFirst().constructor().get().getClass());
+        }
+    }
+
+    @Test
+    void testComponentsMustBeConstructible() throws Exception {
+        TestCompiler.Result result = new TestCompiler(directory).compile(Map.of(
+                "sample.Sockets", """
+                        package sample;
+
+                        import net.fuxle.awooapi.annotations.WebSocketEndpoint;
+
+                        public class Sockets {
+                            @WebSocketEndpoint(path = "/inner")
+                            public class InnerSocket {
+                            }
+
+                            @WebSocketEndpoint(path = "/hidden")
+                            public static class HiddenSocket {
+                                private HiddenSocket() {
+                                }
+                            }
+                        }
+                        """));
+
+        assertFalse(result.success());
+        assertEquals(2, result.messages(Diagnostic.Kind.ERROR).size(), () -> result.diagnostics().toString());
+        assertTrue(result.messages(Diagnostic.Kind.ERROR).stream().allMatch(message -> message.startsWith("Component must be a public, non-abstract")));
+        assertFalse(result.isGenerated(REGISTRY));
+        assertFalse(result.isGenerated(SERVICE_FILE));
+    }
+
+    @Test
+    void testNoRegistryIsGeneratedWithoutComponents() throws Exception {
+        TestCompiler.Result result = new TestCompiler(directory).compile(Map.of(
+                "sample.Plain", "package sample;\n\npublic class Plain {\n}\n"));
+
+        assertTrue(result.success(), () -> result.diagnostics().toString());
+        assertFalse(result.isGenerated(REGISTRY));
+        assertFalse(result.isGenerated(SERVICE_FILE));
+    }
+}
@@ -0,0 +1,167 @@
+package net.fuxle.awooapi.annotations.processor;
+
+import net.fuxle.awooapi.annotations.GeneratedGraphQLWiring;
+import net.fuxle.awooapi.annotations.GraphQlFieldType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import java.io.InputStream;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link GraphQLWiringGenerator} class.
+ */
+class GraphQLWiringGeneratorTest {
+
+    private static final String WIRING = "sample.AwooGeneratedGraphQLWiring";
+
+    @TempDir
+    private Path directory;
+
+    private static String endpoint(String packageName, String className, String fieldName, GraphQlFieldType fieldType) {
+        return """
+                package %s;
+
+                import net.fuxle.awooapi.annotations.GraphQlFieldType;
+                import net.fuxle.awooapi.annotations.HandlerType;
+                import net.fuxle.awooapi.annotations.MultiEndpoint;
+                import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+
+                @MultiEndpoint(graphQLFieldName = "%s", graphQLFieldType = GraphQlFieldType.%s, restType = HandlerType.GET, restPath = "/%s")
+                public class %s extends AbstractEndpoint<String> {
+                    @Override
+                    public String handleRequest() {
+                        return "%s";
+                    }
+                }
+                """.formatted(packageName, fieldName, fieldType.name(), fieldName, className, fieldName);
+    }
+
+    private static Map<String, String> sources(String... endpoints) {
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("net.fuxle.awooapi.core.templates.AbstractEndpoint", TestCompiler.ABSTRACT_ENDPOINT);
+        for (int i = 0; i < endpoints.length; i += 2) {
+            sources.put(endpoints[i], endpoints[i + 1]);
+        }
+        return sources;
+    }
+
+    @Test
+    void testWiringIsGeneratedFromSchemaFiles() throws Exception {
+        TestCompiler compiler = new TestCompiler(directory);
+        compiler.addResource("graphql/query.graphql", "type Query {\n  version: String\n}\n");
+        compiler.addResource("graphql/mutations/mutation.graphql", "type Mutation {\n  reset: String\n}\n");
+
+        TestCompiler.Result result = compiler.compile(sources(
+                "sample.api.VersionEndpoint", endpoint("sample.api", "VersionEndpoint", "version", GraphQlFieldType.QUERY),
+                "sample.admin.ResetEndpoint", endpoint("sample.admin", "ResetEndpoint", "reset", GraphQlFieldType.MUTATION)));
+        assertTrue(result.success(), () -> "Generated sources should compile: " + result.diagnostics());
+        assertTrue(result.messages(Diagnostic.Kind.WARNING).isEmpty(), () -> "All fields are resolved: " + result.diagnostics());
+
+        assertEquals(WIRING + "\n",
+                Files.readString(result.classOutput().resolve("META-INF/services/net.fuxle.awooapi.annotations.GeneratedGraphQLWiring")));
+        try (URLClassLoader classLoader = result.classLoader()) {
+            GeneratedGraphQLWiring wiring = (GeneratedGraphQLWiring) classLoader.loadClass(WIRING).getConstructor().newInstance();
+
+            List<GeneratedGraphQLWiring.Field> fields = wiring.getFields();
+            assertEquals(2, fields.size());
+            assertEquals(GraphQlFieldType.MUTATION, fields.get(0).type());
+            assertEquals("reset", fields.get(0).name());
+            assertEquals("sample.admin.ResetEndpoint", fields.get(0).endpointClass().getName());
+            assertEquals(GraphQlFieldType.QUERY, fields.get(1).type());
+            assertEquals("version", fields.get(1).name());
+            assertSame(fields.get(1).endpointClass(), fields.get(1).constructor().get().getClass());
+
+            try (InputStream schema = wiring.openSchema()) {
+                assertNotNull(schema, "The merged schema should be generated next to the wiring");
+                String content = new String(schema.readAllBytes(), StandardCharsets.UTF_8);
+                assertTrue(content.contains("type Mutation") && content.contains("type Query"), content);
+            }
+        }
+    }
+
+    @Test
+    void testUndeclaredFieldFailsTheBuild() throws Exception {
+        TestCompiler compiler = new TestCompiler(directory);
+        compiler.addResource("graphql/query.graphql", "type Query {\n  version: String\n  build: String\n}\n");
+
+        TestCompiler.Result result = compiler.compile(sources(
+                "sample.VersionEndpoint", endpoint("sample", "VersionEndpoint", "version", GraphQlFieldType.QUERY),
+                "sample.ReleaseEndpoint", endpoint("sample", "ReleaseEndpoint", "release", GraphQlFieldType.QUERY),
+                "sample.BuildEndpoint", endpoint("sample", "BuildEndpoint", "build", GraphQlFieldType.MUTATION)));
+
+        assertFalse(result.success());
+        assertEquals(List.of(
+                        "GraphQL field Mutation.build is not declared in the schema",
+                        "GraphQL field Query.release is not declared in the schema"),
+                result.messages(Diagnostic.Kind.ERROR).stream().sorted().toList());
+        assertTrue(result.messages(Diagnostic.Kind.WARNING).contains("GraphQL field Query.build is not resolved by any endpoint"));
+        assertFalse(result.isGenerated(WIRING), "No wiring should be generated for an invalid schema");
+    }
+
+    @Test
+    void testFieldResolvedTwiceFailsTheBuild() throws Exception {
+        TestCompiler compiler = new TestCompiler(directory);
+        compiler.addResource("graphql/query.graphql", "type Query {\n  version: String\n}\n");
+
+        TestCompiler.Result result = compiler.compile(sources(
+                "sample.VersionEndpoint", endpoint("sample", "VersionEndpoint", "version", GraphQlFieldType.QUERY),
+                "sample.OtherVersionEndpoint", endpoint("sample", "OtherVersionEndpoint", "version", GraphQlFieldType.QUERY)));
+
+        assertFalse(result.success());
+        assertEquals(List.of("GraphQL field Query.version is already resolved by another endpoint"), result.messages(Diagnostic.Kind.ERROR));
+    }
+
+    @Test
+    void testInvalidSchemaSyntaxFailsTheBuild() throws Exception {
+        TestCompiler compiler = new TestCompiler(directory);
+        compiler.addResource("graphql/query.graphql", "type Query {\n  version: String\n");
+
+        TestCompiler.Result result = compiler.compile(sources(
+                "sample.VersionEndpoint", endpoint("sample", "VersionEndpoint", "version", GraphQlFieldType.QUERY)));
+
+        assertFalse(result.success());
+        assertTrue(result.messages(Diagnostic.Kind.ERROR).stream().allMatch(message -> message.startsWith("Invalid GraphQL schema in graphql/query.graphql")),
+                () -> result.messages(Diagnostic.Kind.ERROR).toString());
+    }
+
+    @Test
+    void testExtensionsMayReferenceTypesOfOtherModules() throws Exception {
+        Path schemaDirectory = Files.createDirectories(directory.resolve("schema"));
+        Files.writeString(schemaDirectory.resolve("owner.graphql"), "extend type Query {\n  owner: Owner\n}\n");
+        Map<String, String> sources = sources(
+                "sample.OwnerEndpoint", endpoint("sample", "OwnerEndpoint", "owner", GraphQlFieldType.QUERY));
+
+        TestCompiler.Result result = new TestCompiler(directory.resolve("module")).compile(sources,
+                "-A" + GraphQLWiringGenerator.SCHEMA_DIR_OPTION + "=" + schemaDirectory);
+        assertTrue(result.success(), () -> "Fields of extensions should be wired: " + result.diagnostics());
+        assertTrue(result.isGenerated(WIRING));
+
+        TestCompiler.Result validated = new TestCompiler(directory.resolve("validated")).compile(sources,
+                "-A" + GraphQLWiringGenerator.SCHEMA_DIR_OPTION + "=" + schemaDirectory,
+                "-A" + GraphQLWiringGenerator.VALIDATE_SCHEMA_OPTION + "=true");
+        assertFalse(validated.success(), "Validating the schema should require all referenced types");
+        assertFalse(validated.messages(Diagnostic.Kind.ERROR).isEmpty());
+        assertTrue(validated.messages(Diagnostic.Kind.ERROR).stream().allMatch(message -> message.startsWith("Invalid GraphQL schema in the merged GraphQL schema")),
+                () -> validated.messages(Diagnostic.Kind.ERROR).toString());
+    }
+
+    @Test
+    void testNothingIsGeneratedWithoutSchemaFiles() throws Exception {
+        TestCompiler.Result result = new TestCompiler(directory).compile(sources(
+                "sample.VersionEndpoint", endpoint("sample", "VersionEndpoint", "version", GraphQlFieldType.QUERY)));
+
+        assertTrue(result.success(), () -> result.diagnostics().toString());
+        assertFalse(result.isGenerated(WIRING), "The schema should be assembled at runtime");
+        assertFalse(result.isGenerated("META-INF/services/net.fuxle.awooapi.annotations.GeneratedGraphQLWiring"));
+    }
+}
@@ -0,0 +1,204 @@
+package net.fuxle.awooapi.annotations.processor;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapterFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link JsonAdapterGenerator} class, comparing the generated adapters with Gson's reflective ones.
+ */
+class JsonAdapterGeneratorTest {
+
+    private static final Map<String, String> SOURCES = Map.of(
+            "net.fuxle.awooapi.core.templates.AbstractEndpoint", TestCompiler.ABSTRACT_ENDPOINT,
+            "sample.PetEndpoint", """
+                    package sample;
+
+                    import net.fuxle.awooapi.annotations.GraphQlFieldType;
+                    import net.fuxle.awooapi.annotations.HandlerType;
+                    import net.fuxle.awooapi.annotations.MultiEndpoint;
+                    import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+
+                    @MultiEndpoint(graphQLFieldName = "pet", graphQLFieldType = GraphQlFieldType.QUERY, restType = HandlerType.GET, restPath = "/pet")
+                    public class PetEndpoint extends AbstractEndpoint<Pet> {
+                        @Override
+                        public Pet handleRequest() {
+                            return null;
+                        }
+                    }
+                    """,
+            "sample.Pet", """
+                    package sample;
+
+                    import com.google.gson.annotations.SerializedName;
+                    import java.util.List;
+
+                    public record Pet(String name, int age, @SerializedName(value = "owner_name", alternate = "owner") String ownerName,
+                                      Tag tag, List<Tag> tags, Box<Tag> box, Secret secret) {
+                    }
+                    """,
+            "sample.Tag", """
+                    package sample;
+
+                    public class Tag {
+                        public String label;
+                        public double weight;
+                        boolean visible;
+                    }
+                    """,
+            "sample.Box", """
+                    package sample;
+
+                    public class Box<T> {
+                        public T content;
+                    }
+                    """,
+            "sample.Secret", """
+                    package sample;
+
+                    public class Secret {
+                        private String value;
+
+                        public String getValue() {
+                            return "***";
+                        }
+
+                        public void setValue(String value) {
+                            this.value = value.trim();
+                        }
+                    }
+                    """);
+
+    private static final String PET = """
+            {"name":"Rex","age":3,"owner_name":"Ada",
+             "tag":{"label":"good boy","weight":1.5,"visible":true},
+             "tags":[{"label":"a","weight":0.0,"visible":false},{"weight":2.25}],
+             "box":{"content":{"label":"boxed","weight":3.0,"visible":true}},
+             "secret":{"value":"hidden"},
+             "unknown":{"ignored":[1,2,3]}}
+            """;
+
+    @TempDir
+    private Path directory;
+
+    private TestCompiler.Result result;
+    private URLClassLoader classLoader;
+    private Class<?> petClass;
+    private TypeAdapterFactory factory;
+
+    @BeforeEach
+    void compile() throws Exception {
+        result = new TestCompiler(directory).compile(SOURCES);
+        assertTrue(result.success(), () -> "Generated sources should compile: " + result.diagnostics());
+
+        classLoader = result.classLoader();
+        petClass = classLoader.loadClass("sample.Pet");
+        factory = (TypeAdapterFactory) classLoader.loadClass("sample.AwooGeneratedJsonAdapters").getConstructor().newInstance();
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        classLoader.close();
+    }
+
+    private Gson generated(GsonBuilder builder) {
+        return builder.registerTypeAdapterFactory(factory).create();
+    }
+
+    @Test
+    void testAdaptersAreGeneratedForReachableTypes() throws Exception {
+        assertTrue(result.isGenerated("sample.Pet_AwooJsonAdapter"), "The response type should get an adapter");
+        assertTrue(result.isGenerated("sample.Tag_AwooJsonAdapter"), "Types reachable through properties and type arguments should get an adapter");
+        assertFalse(result.isGenerated("sample.Box_AwooJsonAdapter"), "Generic types should be left to Gson");
+        assertFalse(result.isGenerated("sample.Secret_AwooJsonAdapter"), "Types with inaccessible state should be left to Gson");
+        assertTrue(result.messages(Diagnostic.Kind.NOTE).stream().anyMatch(message -> message.contains("sample.Secret")),
+                "Skipping a type should be reported");
+        assertFalse(Files.readString(result.generatedSources().resolve("sample/Tag_AwooJsonAdapter.java")).matches("(?s).*in\\.next(Boolean|String|Int|Long|Double)\\(.*"),
+                "Values should be read by Gson's adapters");
+
+        assertEquals("sample.AwooGeneratedJsonAdapters\n",
+                Files.readString(result.classOutput().resolve("META-INF/services/com.google.gson.TypeAdapterFactory")));
+
+        Gson gson = generated(new GsonBuilder());
+        assertEquals("Pet_AwooJsonAdapter", gson.getAdapter(petClass).getClass().getSimpleName());
+        assertNotEquals("Box_AwooJsonAdapter", gson.getAdapter(classLoader.loadClass("sample.Box")).getClass().getSimpleName());
+    }
+
+    @Test
+    void testRoundTripMatchesReflection() {
+        Gson reflective = new Gson();
+        Gson gson = generated(new GsonBuilder());
+
+        Object expected = reflective.fromJson(PET, petClass);
+        Object actual = gson.fromJson(PET, petClass);
+        assertEquals(reflective.toJson(expected), reflective.toJson(actual), "Reading should match reflection");
+        assertEquals(reflective.toJson(expected), gson.toJson(expected), "Writing should match reflection");
+        assertEquals(reflective.toJson(expected), gson.toJson(gson.fromJson(gson.toJson(expected), petClass)));
+        assertTrue(gson.toJson(expected).contains("\"owner_name\":\"Ada\""), "The serialized name should be written");
+    }
+
+    @Test
+    void testAlternateNamesAreRead() {
+        Gson reflective = new Gson();
+        Gson gson = generated(new GsonBuilder());
+        String json = "{\"name\":\"Rex\",\"owner\":\"Ada\"}";
+
+        assertEquals(reflective.toJson(reflective.fromJson(json, petClass)), gson.toJson(gson.fromJson(json, petClass)));
+        assertTrue(gson.toJson(gson.fromJson(json, petClass)).contains("\"owner_name\":\"Ada\""));
+    }
+
+    @Test
+    void testAccessorsAreNotCalled() {
+        Gson gson = generated(new GsonBuilder());
+        String json = "{\"secret\":{\"value\":\" hidden \"}}";
+
+        String written = gson.toJson(gson.fromJson(json, petClass));
+        assertEquals(new Gson().toJson(new Gson().fromJson(json, petClass)), written);
+        assertTrue(written.contains("\" hidden \""), "Fields should be read and written without their getters and setters");
+    }
+
+    @Test
+    void testLenientValuesMatchReflection() {
+        Gson reflective = new Gson();
+        Gson gson = generated(new GsonBuilder());
+        String json = "{\"name\":true,\"age\":\"3\",\"tag\":{\"label\":42,\"weight\":\"1.5\",\"visible\":\"true\"}}";
+
+        String expected = reflective.toJson(reflective.fromJson(json, petClass));
+        assertEquals(expected, gson.toJson(gson.fromJson(json, petClass)), "Values given as strings should be read like Gson does");
+        assertTrue(expected.contains("\"visible\":true"), expected);
+    }
+
+    @Test
+    void testNullsMatchReflection() {
+        String json = "{\"name\":null,\"owner_name\":null,\"tag\":{\"label\":null,\"weight\":1.0},\"tags\":null,\"box\":{\"content\":null}}";
+        for (boolean serializeNulls : new boolean[]{false, true}) {
+            GsonBuilder reflectiveBuilder = new GsonBuilder();
+            GsonBuilder generatedBuilder = new GsonBuilder();
+            if (serializeNulls) {
+                reflectiveBuilder.serializeNulls();
+                generatedBuilder.serializeNulls();
+            }
+            Gson reflective = reflectiveBuilder.create();
+            Gson gson = generated(generatedBuilder);
+
+            Object expected = reflective.fromJson(json, petClass);
+            assertEquals(reflective.toJson(expected), gson.toJson(gson.fromJson(json, petClass)), "serializeNulls=" + serializeNulls);
+            assertEquals(reflective.toJson(expected), gson.toJson(expected), "serializeNulls=" + serializeNulls);
+        }
+
+        assertEquals("null", generated(new GsonBuilder()).toJson(null, petClass));
+        assertNull(generated(new GsonBuilder()).fromJson("null", petClass));
+    }
+}
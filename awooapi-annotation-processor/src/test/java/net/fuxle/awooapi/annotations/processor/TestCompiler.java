@@ -0,0 +1,152 @@
+package net.fuxle.awooapi.annotations.processor;
+
+import com.google.gson.Gson;
+import net.fuxle.awooapi.annotations.MultiEndpoint;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compiles sample sources with the {@link EndpointDiscoveryAnnotationProcessor}, the way a module using AwooAPI is
+ * built.
+ * <p>
+ * The processor module does not depend on the core module, so the samples declare their own
+ * {@code AbstractEndpoint}. Only the annotations and Gson are on the class path of the samples.
+ */
+final class TestCompiler {
+
+    /**
+     * Stand-in for {@code net.fuxle.awooapi.core.templates.AbstractEndpoint}, which is recognized by its name.
+     */
+    static final String ABSTRACT_ENDPOINT = """
+            package net.fuxle.awooapi.core.templates;
+
+            public abstract class AbstractEndpoint<T> {
+                public abstract T handleRequest() throws Exception;
+            }
+            """;
+
+    private final Path sourceDirectory;
+    private final Path classOutput;
+    private final Path generatedSources;
+
+    /**
+     * Constructs a new compiler working in the given directory.
+     *
+     * @param directory The directory the sources, generated sources and classes are written to.
+     */
+    TestCompiler(Path directory) throws IOException {
+        this.sourceDirectory = Files.createDirectories(directory.resolve("src"));
+        this.classOutput = Files.createDirectories(directory.resolve("classes"));
+        this.generatedSources = Files.createDirectories(directory.resolve("generated"));
+    }
+
+    /**
+     * Places a resource in the class output, as the resources of a module are copied there before compilation.
+     *
+     * @param name    The resource name, e.g. {@code graphql/schema.graphql}.
+     * @param content The content of the resource.
+     */
+    void addResource(String name, String content) throws IOException {
+        Path file = classOutput.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compiles the given sources with the annotation processor.
+     *
+     * @param sources The sources by qualified class name.
+     * @param options Additional compiler options, e.g. processor options.
+     * @return The outcome of the compilation.
+     */
+    Result compile(Map<String, String> sources, String... options) throws IOException {
+        List<File> files = new ArrayList<>();
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            Path file = sourceDirectory.resolve(source.getKey().replace('.', '/') + ".java");
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, source.getValue(), StandardCharsets.UTF_8);
+            files.add(file.toFile());
+        }
+
+        List<String> arguments = new ArrayList<>(List.of(
+                "-classpath", locationOf(MultiEndpoint.class) + File.pathSeparator + locationOf(Gson.class),
+                "-d", classOutput.toString(),
+                "-s", generatedSources.toString()));
+        arguments.addAll(List.of(options));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, Locale.ROOT, StandardCharsets.UTF_8)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, arguments, null,
+                    fileManager.getJavaFileObjectsFromFiles(files));
+            task.setProcessors(List.of(new EndpointDiscoveryAnnotationProcessor()));
+            boolean success = task.call();
+            return new Result(success, diagnostics.getDiagnostics(), classOutput, generatedSources);
+        }
+    }
+
+    private static String locationOf(Class<?> type) {
+        try {
+            return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The outcome of a compilation.
+     *
+     * @param success          Whether the compilation succeeded.
+     * @param diagnostics      All diagnostics reported by the compiler and the processor.
+     * @param classOutput      The directory the classes and generated resources were written to.
+     * @param generatedSources The directory the generated sources were written to.
+     */
+    record Result(boolean success, List<Diagnostic<? extends JavaFileObject>> diagnostics, Path classOutput,
+                  Path generatedSources) {
+
+        /**
+         * Retrieves the messages of all diagnostics of the given kind.
+         */
+        List<String> messages(Diagnostic.Kind kind) {
+            return diagnostics.stream()
+                    .filter(diagnostic -> diagnostic.getKind() == kind)
+                    .map(diagnostic -> diagnostic.getMessage(Locale.ROOT))
+                    .toList();
+        }
+
+        /**
+         * Checks whether a source or resource was generated.
+         *
+         * @param name The qualified class name of a source, or the path of a resource in the class output.
+         */
+        boolean isGenerated(String name) {
+            return Files.exists(generatedSources.resolve(name.replace('.', '/') + ".java"))
+                    || Files.exists(classOutput.resolve(name));
+        }
+
+        /**
+         * Creates a class loader for the compiled classes, delegating to the class loader of the tests.
+         */
+        URLClassLoader classLoader() throws MalformedURLException {
+            return new URLClassLoader(new URL[]{classOutput.toUri().toURL()}, TestCompiler.class.getClassLoader());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package net.fuxle.awooapi.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a handler method parameter to the deserialized REST request body, or to a GraphQL input argument.
+ * Generic parameter types such as {@code List<Item>} are supported.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.PARAMETER})
+public @interface Body {
+
+    /**
+     * Name of the GraphQL argument holding the input object
+     */
+    String value() default "input";
+}
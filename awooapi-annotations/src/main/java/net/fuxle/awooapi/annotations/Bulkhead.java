@@ -0,0 +1,34 @@
+package net.fuxle.awooapi.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Isolates a {@link MultiEndpoint} from the rest of the server by limiting its concurrent executions and their duration.
+ * <p>
+ * The limits apply to the endpoint as a whole, REST requests and GraphQL fields share them. Requests exceeding
+ * the limits are rejected quickly: with {@code 503 Service Unavailable} if all slots and queue places are taken,
+ * and with {@code 504 Gateway Timeout} if the deadline passes. GraphQL fields fail with a field error instead.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface Bulkhead {
+
+    /**
+     * Maximum number of concurrent executions of the handler, 0 for no limit
+     */
+    int maxConcurrent() default 0;
+
+    /**
+     * Maximum number of requests waiting for a free execution slot, further requests are rejected immediately
+     */
+    int maxQueued() default 0;
+
+    /**
+     * Time in milliseconds from the start of a request after which it is aborted, including the time spent queued, 0 to disable
+     */
+    long deadlineMillis() default 0;
+
+}
@@ -0,0 +1,36 @@
+package net.fuxle.awooapi.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Opts a {@link MultiEndpoint} into server-side caching of its GraphQL field results, shared across requests.
+ * <p>
+ * Cached results are keyed by the field, its arguments (compared as maps, so their order does not matter) and the
+ * parent object, plus the request headers listed in {@link #headers()}. A handler annotated with this must therefore
+ * only depend on these values; results depending on the user need the header identifying the user, e.g.
+ * "Authorization". Cached results are shared by all requests hitting them and must not be modified. Failed
+ * fetches are not cached.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface CachedField {
+
+    /**
+     * Time in seconds a cached result is considered fresh
+     */
+    long ttlSeconds() default 60;
+
+    /**
+     * Maximum number of cached results for this endpoint, least recently used entries are evicted first
+     */
+    int maxEntries() default 1000;
+
+    /**
+     * Names of the request headers that are part of the cache key (e.g. "Authorization" or "Accept-Language")
+     */
+    String[] headers() default {};
+
+}
@@ -0,0 +1,52 @@
+package net.fuxle.awooapi.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Opts a {@link MultiEndpoint} into server-side caching of its serialized REST response.
+ * <p>
+ * Cached responses are keyed by HTTP method and request path (which includes all path parameters) plus the
+ * query parameters and request headers listed in {@link #queryParams()} and {@link #headers()}. A handler
+ * annotated with this must therefore only depend on these values. Only idempotent handlers should be cached.
+ * Only responses with status 200 or 204 are cached. Other responses are always recomputed. Endpoints streaming
+ * their response as a {@code Stream}, {@code Iterator} or {@code Flow.Publisher} cannot be cached, as every cached
+ * result set would be held in memory.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface CachedResponse {
+
+    /**
+     * Time in seconds a cached response is considered fresh
+     */
+    long ttlSeconds() default 60;
+
+    /**
+     * Maximum number of cached responses for this endpoint, least recently used entries are evicted first
+     */
+    int maxEntries() default 1000;
+
+    /**
+     * Names of the query parameters that are part of the cache key
+     */
+    String[] queryParams() default {};
+
+    /**
+     * Names of the request headers that are part of the cache key (e.g. "Accept-Language")
+     */
+    String[] headers() default {};
+
+    /**
+     * Time in seconds an expired response may still be served while it is recomputed in the background, 0 to disable
+     */
+    long staleWhileRevalidateSeconds() default 0;
+
+    /**
+     * Time in seconds before expiry in which a hit triggers a background refresh, 0 to disable
+     */
+    long refreshAheadSeconds() default 0;
+
+}
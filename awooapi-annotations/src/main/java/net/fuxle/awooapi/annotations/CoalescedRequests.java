@@ -0,0 +1,38 @@
+package net.fuxle.awooapi.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Opts a {@link MultiEndpoint} into single-flight execution of identical concurrent REST {@code GET} requests.
+ * <p>
+ * While a request is being handled, identical requests arriving in the meantime wait for it and receive a copy of
+ * its serialized response instead of invoking the handler again. Requests are identical if HTTP method, request
+ * path (which includes all path parameters), the negotiated representation and the query parameters and request
+ * headers listed in {@link #queryParams()} and {@link #headers()} match. A handler annotated with this must
+ * therefore only depend on these values. Can be combined with {@link CachedResponse}, then cache misses are coalesced.
+ * Endpoints streaming their response as a {@code Stream}, {@code Iterator} or {@code Flow.Publisher} cannot be
+ * coalesced, as the response shared with the waiting requests would be held in memory as a whole.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface CoalescedRequests {
+
+    /**
+     * Names of the query parameters that distinguish requests
+     */
+    String[] queryParams() default {};
+
+    /**
+     * Names of the request headers that distinguish requests (e.g. "Accept-Language")
+     */
+    String[] headers() default {};
+
+    /**
+     * Time in milliseconds a request waits for an identical request in flight before it is handled on its own
+     */
+    long timeoutMillis() default 5000;
+
+}
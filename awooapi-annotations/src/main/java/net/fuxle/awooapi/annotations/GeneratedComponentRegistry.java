@@ -0,0 +1,53 @@
+package net.fuxle.awooapi.annotations;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The component classes of a module, listed by the annotation processor at build time.
+ * <p>
+ * The processor generates an implementation of this interface for all classes annotated with {@link MultiEndpoint},
+ * {@link WebSocketEndpoint} or {@code @CronJob} and registers it in {@code META-INF/services}, so the components are
+ * found at runtime without scanning the classpath. Applications on the module path need to declare the generated class
+ * with {@code provides} in their {@code module-info} instead.
+ */
+public interface GeneratedComponentRegistry {
+
+    /**
+     * Retrieves the components of the module.
+     *
+     * @return The components, one per annotation, in the order of their class names.
+     */
+    List<Component<?>> getComponents();
+
+    /**
+     * Retrieves the components annotated with the given annotation.
+     *
+     * @param annotationType The type of the annotation.
+     * @param <A>            The type of the annotation.
+     * @return The components with the given annotation.
+     */
+    @SuppressWarnings("unchecked")
+    default <A extends Annotation> List<Component<A>> getComponents(Class<A> annotationType) {
+        List<Component<A>> components = new ArrayList<>();
+        for (Component<?> component : getComponents()) {
+            if (component.annotation().annotationType() == annotationType) {
+                components.add((Component<A>) component);
+            }
+        }
+        return components;
+    }
+
+    /**
+     * An annotated component class.
+     *
+     * @param annotation  The annotation of the class, holding its configuration.
+     * @param type        The annotated class.
+     * @param constructor Creates a new instance of the class.
+     * @param <A>         The type of the annotation.
+     */
+    record Component<A extends Annotation>(A annotation, Class<?> type, Supplier<?> constructor) {
+    }
+}
@@ -0,0 +1,42 @@
+package net.fuxle.awooapi.annotations;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The GraphQL schema and field wiring of a module, assembled and validated by the annotation processor at build time.
+ * <p>
+ * The processor merges the {@code graphql/*.graphql} resources of the module into one schema, checks that every
+ * {@link MultiEndpoint} field is declared on its root type and generates an implementation of this interface, which is
+ * registered in {@code META-INF/services}. At runtime, the GraphQL schema is then built from the generated wirings
+ * without scanning the classpath. Applications on the module path need to declare the generated class with
+ * {@code provides} in their {@code module-info} instead.
+ */
+public interface GeneratedGraphQLWiring {
+
+    /**
+     * Opens the merged GraphQL schema of the module.
+     *
+     * @return The schema in the GraphQL schema definition language, encoded in UTF-8.
+     */
+    InputStream openSchema();
+
+    /**
+     * Retrieves the GraphQL fields resolved by the endpoints of the module.
+     *
+     * @return The fields, in the order of their endpoint class names.
+     */
+    List<Field> getFields();
+
+    /**
+     * A root field resolved by an endpoint.
+     *
+     * @param type          The root type declaring the field.
+     * @param name          The name of the field.
+     * @param endpointClass The class of the endpoint resolving the field.
+     * @param constructor   Creates a new instance of the endpoint.
+     */
+    record Field(GraphQlFieldType type, String name, Class<?> endpointClass, Supplier<?> constructor) {
+    }
+}
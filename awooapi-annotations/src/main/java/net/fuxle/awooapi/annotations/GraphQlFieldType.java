@@ -1,5 +1,5 @@
 package net.fuxle.awooapi.annotations;
 
 public enum GraphQlFieldType {
-    QUERY, MUTATION
+    QUERY, MUTATION, SUBSCRIPTION
 }
@@ -16,6 +16,32 @@ public @interface MultiEndpoint {
 
     GraphQlFieldType graphQLFieldType();
 
+    /**
+     * Static cost of selecting the GraphQL field, used to reject expensive queries and to charge the cost budgets of
+     * clients. Fields without endpoint cost 1.
+     */
+    int graphQLCost() default 1;
+
+    /**
+     * Seconds a GraphQL response selecting the field may be cached when it was queried over GET. The response is
+     * cacheable for the smallest value of all its fields, so 0 makes every response containing the field uncacheable.
+     */
+    int graphQLCacheMaxAge() default 0;
+
+    /**
+     * Whether GraphQL responses selecting the field may only be cached by the client, e.g. because they depend on
+     * the user, and not by shared caches like CDNs or proxies.
+     */
+    boolean graphQLCachePrivate() default false;
+
+    /**
+     * Whether subscribers of a GraphQL subscription field sending the same query, operation name and variables may
+     * share one execution of the subscription, whose events are then resolved once for all of them. The endpoint is
+     * only called for the first subscriber and must therefore not depend on anything but the arguments of its field,
+     * e.g. not on the user. Without this, every connection runs its own execution.
+     */
+    boolean graphQLSharedSubscription() default false;
+
     /**
      * HTTP Types when using REST Interface
      */
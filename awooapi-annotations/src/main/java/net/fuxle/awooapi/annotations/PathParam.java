@@ -0,0 +1,20 @@
+package net.fuxle.awooapi.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a handler method parameter to a path parameter of the REST route, or to the GraphQL argument of the same name.
+ * The value is converted to the parameter type, e.g. {@code int}, {@code UUID} or an enum.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.PARAMETER})
+public @interface PathParam {
+
+    /**
+     * Name of the path parameter, e.g. "id" for the path "/users/{id}"
+     */
+    String value();
+}
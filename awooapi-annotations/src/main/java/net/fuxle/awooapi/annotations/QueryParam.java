@@ -0,0 +1,25 @@
+package net.fuxle.awooapi.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a handler method parameter to a query parameter of the REST request, or to the GraphQL argument of the same
+ * name. The value is converted to the parameter type, e.g. {@code int}, {@code UUID} or an enum.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.PARAMETER})
+public @interface QueryParam {
+
+    /**
+     * Name of the query parameter
+     */
+    String value();
+
+    /**
+     * Value used if the parameter is absent, converted like a sent value. Empty means no default.
+     */
+    String defaultValue() default "";
+}
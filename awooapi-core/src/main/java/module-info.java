@@ -1,9 +1,14 @@
 module awooapi.core {
     requires awooapi.server.intf;
     requires com.graphqljava;
+    requires org.dataloader;
+    requires org.reactivestreams;
     requires com.google.gson;
     requires org.reflections;
     requires awooapi.annotations;
     requires awooapi.plugin.intf;
     requires org.slf4j;
+
+    uses net.fuxle.awooapi.annotations.GeneratedComponentRegistry;
+    uses net.fuxle.awooapi.annotations.GeneratedGraphQLWiring;
 }
@@ -1,5 +1,14 @@
 package net.fuxle.awooapi;
 
+import net.fuxle.awooapi.core.autodiscovery.GraphQLEndpoint;
+import net.fuxle.awooapi.core.network.ClientAddressResolver;
+import net.fuxle.awooapi.core.network.ForwardingHeader;
+import net.fuxle.awooapi.core.subscription.GraphQLWebSocketHandler;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executor;
+
 public class RuntimeConfiguration {
 
     // Debug-related settings
@@ -42,6 +51,39 @@ public class RuntimeConfiguration {
         private String apiPrefix = "/api";
         private boolean graphQLEnabled = false;
         private boolean restEnabled = false;
+        // Batch endpoint at <apiPrefix>/batch, executing several REST calls in one request
+        private boolean batchEnabled = false;
+        private int maxBatchSize = 20;
+        private int batchConcurrency = 8;
+        // Parsed and validated GraphQL documents kept per query text, 0 to disable
+        private int graphQLDocumentCacheSize = GraphQLEndpoint.DEFAULT_DOCUMENT_CACHE_SIZE;
+        // Fields of one GraphQL request resolved concurrently on the field executor (virtual threads if null), 0 to resolve them on the request thread
+        private int graphQLFieldConcurrency = GraphQLEndpoint.DEFAULT_FIELD_CONCURRENCY;
+        private Executor graphQLFieldExecutor = null;
+        // Operations exceeding a limit are rejected before execution, 0 disables a limit
+        private int graphQLMaxDepth = 15;
+        private int graphQLMaxFields = 1000;
+        private long graphQLMaxCost = 0;
+        // Cost each client may spend at once and regains per second, a capacity of 0 disables the budget
+        private long graphQLCostBudget = 0;
+        private long graphQLCostBudgetRefillPerSecond = 0;
+        // Per-field timings in the response extensions for a share of requests (0.01 = 1 %) and, if enabled, for requests sending X-GraphQL-Trace
+        private double graphQLTracingSampleRate = 0;
+        private boolean graphQLTracingHeaderEnabled = false;
+        private int graphQLTracingMaxFields = 500;
+        // Experimental @defer support, answered with multipart/mixed responses to clients accepting them
+        private boolean graphQLIncrementalDeliveryEnabled = false;
+        // Operations accepted in one batched request (0 rejects batches) and executed at the same time (0 executes them one after another)
+        private int graphQLMaxBatchSize = GraphQLEndpoint.DEFAULT_MAX_BATCH_SIZE;
+        private int graphQLBatchConcurrency = GraphQLEndpoint.DEFAULT_BATCH_CONCURRENCY;
+        // Messages queued per subscription connection, connections falling further behind are closed
+        private int graphQLSubscriptionBufferSize = GraphQLWebSocketHandler.DEFAULT_BUFFER_SIZE;
+        // Automatic persisted queries, optionally preloaded from an allowlist of {"<sha256>": "<query>"} generated at build time
+        private boolean graphQLPersistedQueriesEnabled = false;
+        private int graphQLPersistedQueryCacheSize = 1000;
+        private Path graphQLPersistedQueryAllowlist = null;
+        // Only execute queries from the allowlist, locking the API down to the queries of known clients
+        private boolean graphQLPersistedQueriesAllowlistOnly = false;
 
         public String getApiPrefix() {
             return apiPrefix;
@@ -66,11 +108,232 @@ public class RuntimeConfiguration {
         public void setRestEnabled(boolean restEnabled) {
             this.restEnabled = restEnabled;
         }
+
+        public boolean isBatchEnabled() {
+            return batchEnabled;
+        }
+
+        // Only takes effect together with REST
+        public void setBatchEnabled(boolean batchEnabled) {
+            this.batchEnabled = batchEnabled;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public int getBatchConcurrency() {
+            return batchConcurrency;
+        }
+
+        // Maximum number of sub-requests of one batch that run at the same time
+        public void setBatchConcurrency(int batchConcurrency) {
+            this.batchConcurrency = batchConcurrency;
+        }
+
+        public int getGraphQLDocumentCacheSize() {
+            return graphQLDocumentCacheSize;
+        }
+
+        public void setGraphQLDocumentCacheSize(int graphQLDocumentCacheSize) {
+            this.graphQLDocumentCacheSize = graphQLDocumentCacheSize;
+        }
+
+        public int getGraphQLFieldConcurrency() {
+            return graphQLFieldConcurrency;
+        }
+
+        public void setGraphQLFieldConcurrency(int graphQLFieldConcurrency) {
+            this.graphQLFieldConcurrency = graphQLFieldConcurrency;
+        }
+
+        public Executor getGraphQLFieldExecutor() {
+            return graphQLFieldExecutor;
+        }
+
+        public void setGraphQLFieldExecutor(Executor graphQLFieldExecutor) {
+            this.graphQLFieldExecutor = graphQLFieldExecutor;
+        }
+
+        public int getGraphQLMaxDepth() {
+            return graphQLMaxDepth;
+        }
+
+        public void setGraphQLMaxDepth(int graphQLMaxDepth) {
+            this.graphQLMaxDepth = graphQLMaxDepth;
+        }
+
+        public int getGraphQLMaxFields() {
+            return graphQLMaxFields;
+        }
+
+        public void setGraphQLMaxFields(int graphQLMaxFields) {
+            this.graphQLMaxFields = graphQLMaxFields;
+        }
+
+        public long getGraphQLMaxCost() {
+            return graphQLMaxCost;
+        }
+
+        public void setGraphQLMaxCost(long graphQLMaxCost) {
+            this.graphQLMaxCost = graphQLMaxCost;
+        }
+
+        public long getGraphQLCostBudget() {
+            return graphQLCostBudget;
+        }
+
+        public void setGraphQLCostBudget(long graphQLCostBudget) {
+            this.graphQLCostBudget = graphQLCostBudget;
+        }
+
+        public long getGraphQLCostBudgetRefillPerSecond() {
+            return graphQLCostBudgetRefillPerSecond;
+        }
+
+        public void setGraphQLCostBudgetRefillPerSecond(long graphQLCostBudgetRefillPerSecond) {
+            this.graphQLCostBudgetRefillPerSecond = graphQLCostBudgetRefillPerSecond;
+        }
+
+        public double getGraphQLTracingSampleRate() {
+            return graphQLTracingSampleRate;
+        }
+
+        public void setGraphQLTracingSampleRate(double graphQLTracingSampleRate) {
+            this.graphQLTracingSampleRate = graphQLTracingSampleRate;
+        }
+
+        public boolean isGraphQLTracingHeaderEnabled() {
+            return graphQLTracingHeaderEnabled;
+        }
+
+        public void setGraphQLTracingHeaderEnabled(boolean graphQLTracingHeaderEnabled) {
+            this.graphQLTracingHeaderEnabled = graphQLTracingHeaderEnabled;
+        }
+
+        public int getGraphQLTracingMaxFields() {
+            return graphQLTracingMaxFields;
+        }
+
+        public void setGraphQLTracingMaxFields(int graphQLTracingMaxFields) {
+            this.graphQLTracingMaxFields = graphQLTracingMaxFields;
+        }
+
+        public boolean isGraphQLIncrementalDeliveryEnabled() {
+            return graphQLIncrementalDeliveryEnabled;
+        }
+
+        public void setGraphQLIncrementalDeliveryEnabled(boolean graphQLIncrementalDeliveryEnabled) {
+            this.graphQLIncrementalDeliveryEnabled = graphQLIncrementalDeliveryEnabled;
+        }
+
+        public int getGraphQLMaxBatchSize() {
+            return graphQLMaxBatchSize;
+        }
+
+        public void setGraphQLMaxBatchSize(int graphQLMaxBatchSize) {
+            this.graphQLMaxBatchSize = graphQLMaxBatchSize;
+        }
+
+        public int getGraphQLBatchConcurrency() {
+            return graphQLBatchConcurrency;
+        }
+
+        public void setGraphQLBatchConcurrency(int graphQLBatchConcurrency) {
+            this.graphQLBatchConcurrency = graphQLBatchConcurrency;
+        }
+
+        public int getGraphQLSubscriptionBufferSize() {
+            return graphQLSubscriptionBufferSize;
+        }
+
+        public void setGraphQLSubscriptionBufferSize(int graphQLSubscriptionBufferSize) {
+            this.graphQLSubscriptionBufferSize = graphQLSubscriptionBufferSize;
+        }
+
+        public boolean isGraphQLPersistedQueriesEnabled() {
+            return graphQLPersistedQueriesEnabled;
+        }
+
+        public void setGraphQLPersistedQueriesEnabled(boolean graphQLPersistedQueriesEnabled) {
+            this.graphQLPersistedQueriesEnabled = graphQLPersistedQueriesEnabled;
+        }
+
+        public int getGraphQLPersistedQueryCacheSize() {
+            return graphQLPersistedQueryCacheSize;
+        }
+
+        public void setGraphQLPersistedQueryCacheSize(int graphQLPersistedQueryCacheSize) {
+            this.graphQLPersistedQueryCacheSize = graphQLPersistedQueryCacheSize;
+        }
+
+        public Path getGraphQLPersistedQueryAllowlist() {
+            return graphQLPersistedQueryAllowlist;
+        }
+
+        public void setGraphQLPersistedQueryAllowlist(Path graphQLPersistedQueryAllowlist) {
+            this.graphQLPersistedQueryAllowlist = graphQLPersistedQueryAllowlist;
+        }
+
+        public boolean isGraphQLPersistedQueriesAllowlistOnly() {
+            return graphQLPersistedQueriesAllowlistOnly;
+        }
+
+        public void setGraphQLPersistedQueriesAllowlistOnly(boolean graphQLPersistedQueriesAllowlistOnly) {
+            this.graphQLPersistedQueriesAllowlistOnly = graphQLPersistedQueriesAllowlistOnly;
+        }
+    }
+
+    // Network-related settings, ranges are given in CIDR notation (e.g. "10.0.0.0/8" or "fc00::/7")
+    public static class NetworkConfig {
+        private List<String> internalRanges = ClientAddressResolver.PRIVATE_RANGES;
+        private List<String> trustedProxies = List.of();
+        private ForwardingHeader forwardingHeader = ForwardingHeader.X_FORWARDED_FOR;
+        private ClientAddressResolver clientAddressResolver = ClientAddressResolver.getDefault();
+
+        public List<String> getInternalRanges() {
+            return internalRanges;
+        }
+
+        // Replaces the default private ranges, include ClientAddressResolver.PRIVATE_RANGES to extend them
+        public void setInternalRanges(List<String> internalRanges) {
+            this.clientAddressResolver = new ClientAddressResolver(internalRanges, trustedProxies, forwardingHeader);
+            this.internalRanges = List.copyOf(internalRanges);
+        }
+
+        public List<String> getTrustedProxies() {
+            return trustedProxies;
+        }
+
+        // Forwarded and X-Forwarded-For headers are only evaluated on requests from these ranges
+        public void setTrustedProxies(List<String> trustedProxies) {
+            this.clientAddressResolver = new ClientAddressResolver(internalRanges, trustedProxies, forwardingHeader);
+            this.trustedProxies = List.copyOf(trustedProxies);
+        }
+
+        public ForwardingHeader getForwardingHeader() {
+            return forwardingHeader;
+        }
+
+        // The only header read from trusted proxies, it must be the one they maintain; other headers are client-controlled
+        public void setForwardingHeader(ForwardingHeader forwardingHeader) {
+            this.clientAddressResolver = new ClientAddressResolver(internalRanges, trustedProxies, forwardingHeader);
+            this.forwardingHeader = forwardingHeader;
+        }
+
+        public ClientAddressResolver getClientAddressResolver() {
+            return clientAddressResolver;
+        }
     }
 
     private final DebugConfig debugConfig = new DebugConfig();
     private final SearchConfig searchConfig = new SearchConfig();
     private final ApiConfig apiConfig = new ApiConfig();
+    private final NetworkConfig networkConfig = new NetworkConfig();
 
     public DebugConfig getDebugConfig() {
         return debugConfig;
@@ -83,5 +346,9 @@ public class RuntimeConfiguration {
     public ApiConfig getApiConfig() {
         return apiConfig;
     }
+
+    public NetworkConfig getNetworkConfig() {
+        return networkConfig;
+    }
 }
 
@@ -1,11 +1,24 @@
 package net.fuxle.awooapi.core.api;
 
-import com.google.gson.Gson;
 import graphql.schema.DataFetchingEnvironment;
+import net.fuxle.awooapi.core.isolation.Deadline;
+import net.fuxle.awooapi.core.network.ClientAddress;
+import net.fuxle.awooapi.core.network.ClientAddressResolver;
 import net.fuxle.awooapi.server.intf.HandlerContext;
-import net.fuxle.awooapi.utilities.internals.IPAddressChecker;
+import net.fuxle.awooapi.server.intf.codec.JsonCodecs;
+import net.fuxle.awooapi.server.intf.codec.JsonSequenceReader;
+import net.fuxle.awooapi.server.intf.codec.StreamFormat;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Utility class for handling request parameters and extracting relevant information from different request sources.
@@ -22,11 +35,6 @@ public class Parameters {
      */
     private final DataFetchingEnvironment graphQLDatafetchingEnvironment;
 
-    /**
-     * Gson instance used for parsing JSON payloads.
-     */
-    private static final Gson gson = new Gson();
-
     /**
      * Enumeration representing the source of the request (e.g., REST or GraphQL).
      */
@@ -54,28 +62,64 @@ public class Parameters {
     public final REQUEST_SOURCE source;
 
     /**
-     * The origin of the request IP address (internal or public).
+     * The resolver classifying the client address.
      */
-    public final IP_SOURCE requestIpSource;
+    private final ClientAddressResolver clientAddressResolver;
 
     /**
-     * Constructs a Parameters object.
+     * The resolved client address, only determined when it is first needed.
+     */
+    private ClientAddress clientAddress;
+
+    /**
+     * The deadline of the request, or {@code null} if the endpoint has none.
+     */
+    private final Deadline deadline;
+
+    /**
+     * Constructs a Parameters object that classifies client addresses with the default private ranges.
      *
      * @param handlerContext                 The handler context for the current request.
      * @param graphQLDatafetchingEnvironment The GraphQL data fetching environment, if applicable.
      * @param source                         The source of the request (REST or GraphQL).
      */
     public Parameters(HandlerContext handlerContext, DataFetchingEnvironment graphQLDatafetchingEnvironment, REQUEST_SOURCE source) {
+        this(handlerContext, graphQLDatafetchingEnvironment, source, ClientAddressResolver.getDefault());
+    }
+
+    /**
+     * Constructs a Parameters object.
+     *
+     * @param handlerContext                 The handler context for the current request.
+     * @param graphQLDatafetchingEnvironment The GraphQL data fetching environment, if applicable.
+     * @param source                         The source of the request (REST or GraphQL).
+     * @param clientAddressResolver          The resolver classifying the client address.
+     */
+    public Parameters(HandlerContext handlerContext, DataFetchingEnvironment graphQLDatafetchingEnvironment, REQUEST_SOURCE source, ClientAddressResolver clientAddressResolver) {
+        this(handlerContext, graphQLDatafetchingEnvironment, source, clientAddressResolver, null);
+    }
+
+    /**
+     * Constructs a Parameters object for a request with a deadline.
+     *
+     * @param handlerContext                 The handler context for the current request.
+     * @param graphQLDatafetchingEnvironment The GraphQL data fetching environment, if applicable.
+     * @param source                         The source of the request (REST or GraphQL).
+     * @param clientAddressResolver          The resolver classifying the client address.
+     * @param deadline                       The deadline of the request, or {@code null} if it has none.
+     */
+    public Parameters(HandlerContext handlerContext, DataFetchingEnvironment graphQLDatafetchingEnvironment, REQUEST_SOURCE source, ClientAddressResolver clientAddressResolver, Deadline deadline) {
         this.handlerContext = handlerContext;
         this.graphQLDatafetchingEnvironment = graphQLDatafetchingEnvironment;
         this.source = source;
-        this.requestIpSource = IPAddressChecker.isPrivateIP(getRemoteIP()) ?
-                IP_SOURCE.INTERNAL_ADDRESS_SPACE :
-                IP_SOURCE.PUBLIC_ADDRESS_SPACE;
+        this.clientAddressResolver = clientAddressResolver;
+        this.deadline = deadline;
     }
 
     /**
      * Retrieves the request body and converts it to the specified class type.
+     * The body is deserialized directly from the request stream by the {@link net.fuxle.awooapi.server.intf.codec.JsonCodec}
+     * matching its Content-Type, e.g. JSON or CBOR.
      *
      * @param <T>         The type of the target class.
      * @param targetClass The class of the object to deserialize the request body into.
@@ -83,7 +127,100 @@ public class Parameters {
      * @throws IOException If there is an error reading the request body.
      */
     public <T> T getRequestBodyAs(Class<T> targetClass) throws IOException {
-        return gson.fromJson(handlerContext.body(), targetClass);
+        return JsonCodecs.forContentType(handlerContext.contentType()).read(handlerContext.bodyAsInputStream(), targetClass);
+    }
+
+    /**
+     * Opens a reader that deserializes the request body record by record, for bodies that are a JSON array or
+     * newline delimited JSON ({@code Content-Type: application/x-ndjson}). Only the current record is held in memory
+     * and the request stream is only read as far as records are requested, so a slow handler slows down the sender.
+     *
+     * @param <T>         The type of the records.
+     * @param recordClass The class of a single record.
+     * @return The record reader, which must be closed by the caller.
+     * @throws IOException If the request body cannot be opened.
+     */
+    public <T> JsonSequenceReader<T> openRequestBodySequence(Class<T> recordClass) throws IOException {
+        StreamFormat format = StreamFormat.fromMediaType(handlerContext.contentType());
+        return JsonCodecs.forContentType(handlerContext.contentType()).openSequence(handlerContext.bodyAsInputStream(), recordClass, format);
+    }
+
+    /**
+     * Retrieves the request body as a lazily read stream of records, see {@link #openRequestBodySequence(Class)}.
+     * The returned stream should be closed, e.g. with try-with-resources.
+     *
+     * @param <T>         The type of the records.
+     * @param recordClass The class of a single record.
+     * @return A sequential stream of the records.
+     * @throws IOException If the request body cannot be opened. Read failures while consuming the stream are thrown
+     *                     as {@link UncheckedIOException}.
+     */
+    public <T> Stream<T> getRequestBodyStream(Class<T> recordClass) throws IOException {
+        JsonSequenceReader<T> reader = openRequestBodySequence(recordClass);
+        Iterator<T> iterator = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return reader.hasNext();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public T next() {
+                try {
+                    return reader.next();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Reads the request body record by record, see {@link #openRequestBodySequence(Class)}, and hands the records
+     * to the handler in batches. The next batch is only read after the handler has processed the previous one,
+     * so at most one batch is held in memory regardless of the body size.
+     *
+     * @param <T>         The type of the records.
+     * @param recordClass The class of a single record.
+     * @param batchSize   The maximum number of records per batch, must be positive.
+     * @param handler     The handler processing each batch.
+     * @return The total number of records read.
+     * @throws IOException              If the request body cannot be read or is malformed.
+     * @throws IllegalArgumentException If the batch size is not positive.
+     * @throws Exception                If the handler fails.
+     */
+    public <T> long consumeRequestBodyInBatches(Class<T> recordClass, int batchSize, RecordBatchHandler<T> handler) throws Exception {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive, got " + batchSize);
+        }
+
+        long count = 0;
+        try (JsonSequenceReader<T> reader = openRequestBodySequence(recordClass)) {
+            List<T> batch = new ArrayList<>(Math.min(batchSize, 1024));
+            while (reader.hasNext()) {
+                batch.add(reader.next());
+                count++;
+                if (batch.size() == batchSize) {
+                    handler.handle(batch);
+                    batch = new ArrayList<>(Math.min(batchSize, 1024));
+                }
+            }
+            if (!batch.isEmpty()) {
+                handler.handle(batch);
+            }
+        }
+        return count;
     }
 
     /**
@@ -96,7 +233,8 @@ public class Parameters {
     }
 
     /**
-     * Retrieves the remote IP address of the client making the request.
+     * Retrieves the IP address of the peer that sent the request, which is the address of the proxy if the request
+     * was forwarded. See {@link #getClientIP()} for the address of the client behind trusted proxies.
      *
      * @return The IP address as a string.
      */
@@ -104,6 +242,28 @@ public class Parameters {
         return handlerContext.request().getIP();
     }
 
+    /**
+     * Retrieves the IP address of the client making the request. For requests from a trusted proxy, it is taken
+     * from the {@code Forwarded} or {@code X-Forwarded-For} header.
+     *
+     * @return The IP address as a string.
+     */
+    public String getClientIP() {
+        return getClientAddress().ip();
+    }
+
+    /**
+     * Retrieves the resolved and classified client address. It is resolved on first access and then kept.
+     *
+     * @return The client address.
+     */
+    public ClientAddress getClientAddress() {
+        if (clientAddress == null) {
+            clientAddress = clientAddressResolver.resolve(handlerContext.request());
+        }
+        return clientAddress;
+    }
+
     /**
      * Retrieves the argument value associated with the given parameter name and converts it to the specified target class type.
      *
@@ -212,11 +372,30 @@ public class Parameters {
     }
 
     /**
-     * Determines whether the request comes from an internal or external IP address.
+     * Retrieves the deadline of the request, set by a {@link net.fuxle.awooapi.annotations.Bulkhead} of the endpoint.
+     *
+     * @return The deadline, or {@code null} if the request has none.
+     */
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Retrieves the time left until the deadline of the request, e.g. to use it as timeout of downstream calls.
+     *
+     * @return The remaining time, {@link Duration#ZERO} if the deadline has passed, or {@code null} if the request has no deadline.
+     */
+    public Duration getRemainingTime() {
+        return deadline == null ? null : deadline.remaining();
+    }
+
+    /**
+     * Determines whether the request comes from an internal or external IP address. The client address is only
+     * classified when this is first called.
      *
      * @return The origin of the request IP (internal or public).
      */
     public IP_SOURCE getRequestIpSource() {
-        return requestIpSource;
+        return getClientAddress().isInternal() ? IP_SOURCE.INTERNAL_ADDRESS_SPACE : IP_SOURCE.PUBLIC_ADDRESS_SPACE;
     }
 }
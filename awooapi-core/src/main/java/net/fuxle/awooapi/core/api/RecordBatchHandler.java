@@ -0,0 +1,21 @@
+package net.fuxle.awooapi.core.api;
+
+import java.util.List;
+
+/**
+ * Processes a batch of records read from a streamed request body, see
+ * {@link Parameters#consumeRequestBodyInBatches(Class, int, RecordBatchHandler)}.
+ *
+ * @param <T> The type of the records.
+ */
+@FunctionalInterface
+public interface RecordBatchHandler<T> {
+
+    /**
+     * Processes a batch of records, e.g. by persisting them. The next batch is only read once this method returns.
+     *
+     * @param batch The records of this batch, never empty. The list may be kept by the handler.
+     * @throws Exception If processing the batch fails; reading stops and the exception is propagated.
+     */
+    void handle(List<T> batch) throws Exception;
+}
@@ -2,20 +2,26 @@ package net.fuxle.awooapi.core.autodiscovery;
 
 
 import net.fuxle.awooapi.RuntimeConfiguration;
+import net.fuxle.awooapi.annotations.GeneratedComponentRegistry;
+import net.fuxle.awooapi.annotations.HandlerType;
 import net.fuxle.awooapi.core.autodiscovery.loader.GraphQLEndpointLoader;
 import net.fuxle.awooapi.core.autodiscovery.loader.MetadataLoader;
 import net.fuxle.awooapi.core.autodiscovery.loader.RestEndpointLoader;
+import net.fuxle.awooapi.core.batch.BatchEndpoint;
+import net.fuxle.awooapi.server.intf.Endpoint;
 import net.fuxle.awooapi.server.intf.WebServer;
-import org.reflections.Configuration;
 import org.reflections.Reflections;
 import org.reflections.util.ConfigurationBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.lang.annotation.Annotation;
 import java.lang.invoke.MethodHandles;
+import java.net.URL;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * A utility class for loading and registering plugins in the application.
@@ -54,6 +60,10 @@ public class ClassDiscovery {
         if(config.getApiConfig().isRestEnabled()){
             // REST Endpoints
             restEndpointLoader.loadAndRegisterRestEndpoints(List.of(), webServer);
+
+            if (config.getApiConfig().isBatchEnabled()) {
+                registerBatchEndpoint();
+            }
         }
 
         if (config.getApiConfig().isGraphQLEnabled()) {
@@ -63,6 +73,16 @@ public class ClassDiscovery {
         }
     }
 
+    private void registerBatchEndpoint() {
+        String path = config.getApiConfig().getApiPrefix() + "/batch";
+        log.info("\u27A1\uFE0F Register batch endpoint on {}", path);
+        webServer.getRouter().addHandler(new Endpoint(HandlerType.POST, path, new BatchEndpoint(
+                webServer,
+                config.getApiConfig().getMaxBatchSize(),
+                config.getApiConfig().getBatchConcurrency()
+        )));
+    }
+
     private void loadAndRegisterRESTandWebSocketPlugins(String pathPrefix, Reflections reflections, WebServer webServer) {
         // Finde alle Klassen mit passenden Annotationen
         // Set<Class<?>> WebSocketEndpointClasses = reflections.getTypesAnnotatedWith(WebSocketEndpoint.class);
@@ -110,13 +130,40 @@ public class ClassDiscovery {
     }
 
 
+    /**
+     * Finds the component classes annotated with the given annotation, from the registries generated by the
+     * annotation processor, or by scanning the classpath if the application was compiled without it.
+     *
+     * @param annotationType The type of the annotation.
+     * @param <A>            The type of the annotation.
+     * @return The annotated components.
+     */
+    public <A extends Annotation> List<GeneratedComponentRegistry.Component<A>> findComponents(Class<A> annotationType) {
+        return metadataLoader.requireMetadata(annotationType);
+    }
+
     public Reflections createReflections() {
+        return createReflections(url -> true);
+    }
+
+    /**
+     * Creates a scanner of the classpath entries holding the searched packages.
+     *
+     * @param classpathFilter Selects the classpath entries to scan, e.g. to skip those with generated metadata.
+     * @return The scanner, or {@code null} if no classpath entry is selected.
+     */
+    public Reflections createReflections(Predicate<URL> classpathFilter) {
         // Erstelle ein Reflections Objekt, um den root Classpath zu scannen
-        Configuration configuration = new ConfigurationBuilder()
+        ConfigurationBuilder configuration = new ConfigurationBuilder()
                 .forPackages(config.getSearchConfig().getPackagePrefix())
                 .addClassLoaders(config.getSearchConfig().getClassLoader());
 
-        return new Reflections(configuration);
+        Set<URL> urls = new HashSet<>(configuration.getUrls());
+        urls.removeIf(classpathFilter.negate());
+        if (urls.isEmpty()) {
+            return null;
+        }
+        return new Reflections(configuration.setUrls(urls));
     }
 
     public RuntimeConfiguration getConfig() {
@@ -1,19 +1,60 @@
 package net.fuxle.awooapi.core.autodiscovery;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import graphql.ExecutionInput;
+import graphql.Directives;
+import graphql.ExecutionResult;
+import graphql.ExperimentalApi;
+import graphql.GraphQLError;
 import graphql.GraphQL;
+import graphql.execution.instrumentation.ChainedInstrumentation;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.incremental.DelayedIncrementalPartialResult;
+import graphql.incremental.IncrementalExecutionResult;
 import graphql.schema.GraphQLSchema;
+import net.fuxle.awooapi.RuntimeConfiguration;
+import net.fuxle.awooapi.annotations.HandlerType;
+import net.fuxle.awooapi.core.cache.GraphQLCacheHintInstrumentation;
+import net.fuxle.awooapi.core.cache.GraphQLDocumentCache;
+import net.fuxle.awooapi.core.cache.PersistedQueryStore;
+import net.fuxle.awooapi.core.exceptions.AwooApiPersistedQueryException;
+import net.fuxle.awooapi.core.isolation.CostBudget;
+import net.fuxle.awooapi.core.isolation.LimitedExecutor;
+import net.fuxle.awooapi.core.isolation.QueryCostInstrumentation;
+import net.fuxle.awooapi.core.tracing.FieldTracingInstrumentation;
 import net.fuxle.awooapi.server.intf.HandlerContext;
+import net.fuxle.awooapi.server.intf.HttpStatusCode;
 import net.fuxle.awooapi.server.intf.Handler;
+import net.fuxle.awooapi.server.intf.codec.JsonCodec;
+import net.fuxle.awooapi.server.intf.codec.JsonCodecs;
+import net.fuxle.awooapi.server.intf.codec.JsonSequenceWriter;
+import net.fuxle.awooapi.server.intf.codec.StreamFormat;
+import org.dataloader.DataLoaderRegistry;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A handler class responsible for handling GraphQL queries and mutations.
@@ -25,6 +66,50 @@ public class GraphQLEndpoint implements Handler {
 
     private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    /**
+     * Default maximum number of cached query documents.
+     */
+    public static final int DEFAULT_DOCUMENT_CACHE_SIZE = 500;
+
+    /**
+     * Default maximum number of fields of one request resolved at the same time.
+     */
+    public static final int DEFAULT_FIELD_CONCURRENCY = 16;
+
+    /**
+     * Default maximum number of operations in one batched request.
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 10;
+
+    /**
+     * Default maximum number of operations of one batched request executed at the same time.
+     */
+    public static final int DEFAULT_BATCH_CONCURRENCY = 4;
+
+    /**
+     * The content type of responses delivered incrementally, in the format of the incremental delivery RFC as
+     * implemented by Apollo Client and graphql-http.
+     */
+    public static final String MULTIPART_CONTENT_TYPE = "multipart/mixed; boundary=\"-\"; deferSpec=20220824";
+
+    /**
+     * Maximum number of clients whose cost budgets are tracked.
+     */
+    private static final int COST_BUDGET_CLIENTS = 10_000;
+
+    /**
+     * Resolves fields on virtual threads unless another executor is configured.
+     */
+    private static final Executor VIRTUAL_THREADS = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("awooapi-graphql-field-", 0).factory());
+
+    /**
+     * Executes the operations of batched requests. Operations block until their fields are resolved, so they must
+     * never take the threads of a bounded field executor.
+     */
+    private static final Executor BATCH_OPERATIONS = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("awooapi-graphql-operation-", 0).factory());
+
     /**
      * The GraphQL instance used to execute GraphQL queries.
      */
@@ -32,68 +117,540 @@ public class GraphQLEndpoint implements Handler {
     private final GraphQLSchema schema;
 
     /**
-     * Constructs a new GraphQLEndpoint with the provided schema and wiring.
+     * The cache of parsed and validated query documents, or {@code null} if caching is disabled.
+     */
+    private final GraphQLDocumentCache documentCache;
+
+    /**
+     * The store of automatic persisted queries, or {@code null} if they are disabled.
+     */
+    private final PersistedQueryStore persistedQueries;
+
+    /**
+     * The instrumentation rejecting operations that are too deep, too large or too expensive.
+     */
+    private final QueryCostInstrumentation queryCostInstrumentation;
+
+    /**
+     * The instrumentation tracing the fields of sampled requests, or {@code null} if tracing is disabled.
+     */
+    private final FieldTracingInstrumentation fieldTracingInstrumentation;
+
+    /**
+     * The maximum number of fields of one request resolved at the same time, 0 to resolve them on the request thread.
+     */
+    private final int fieldConcurrency;
+
+    /**
+     * The executor shared by all requests to resolve fields.
+     */
+    private final Executor fieldExecutor;
+
+    /**
+     * Whether {@code @defer} is supported for clients accepting {@code multipart/mixed} responses.
+     */
+    private final boolean incrementalDelivery;
+
+    /**
+     * The maximum number of operations in one batched request, 0 to reject batched requests.
+     */
+    private final int maxBatchSize;
+
+    /**
+     * The maximum number of operations of one batched request executed at the same time, 0 to execute them one
+     * after another on the request thread.
+     */
+    private final int batchConcurrency;
+
+    /**
+     * Constructs a new GraphQLEndpoint with the provided schema and wiring and the default settings.
      *
      * @param schema GraphQL schema.
      */
     public GraphQLEndpoint(GraphQLSchema schema) {
-       graphQL = GraphQL.newGraphQL(schema).build();
-       this.schema = schema;
+        this(schema, new RuntimeConfiguration(), null);
     }
 
     /**
-     * A Gson instance for serializing GraphQL execution results to JSON.
+     * Constructs a new GraphQLEndpoint with the provided schema and wiring.
+     *
+     * @param schema           GraphQL schema.
+     * @param config           The runtime configuration, the GraphQL settings are taken from its API configuration.
+     * @param persistedQueries The store of automatic persisted queries, or {@code null} to disable them.
      */
-    public static final Gson gson = new Gson();
+    public GraphQLEndpoint(GraphQLSchema schema, RuntimeConfiguration config, PersistedQueryStore persistedQueries) {
+        RuntimeConfiguration.ApiConfig apiConfig = config.getApiConfig();
+        this.incrementalDelivery = apiConfig.isGraphQLIncrementalDeliveryEnabled();
+        if (incrementalDelivery && schema.getDirective(Directives.DeferDirective.getName()) == null) {
+            // Queries can only use @defer if the schema declares it
+            schema = schema.transform(schemaBuilder -> schemaBuilder.additionalDirective(Directives.DeferDirective));
+        }
+        GraphQL.Builder builder = GraphQL.newGraphQL(schema);
+        if (apiConfig.getGraphQLDocumentCacheSize() > 0) {
+            // Clients send a few distinct queries over and over, parsing and validating them once is enough
+            documentCache = new GraphQLDocumentCache(apiConfig.getGraphQLDocumentCacheSize());
+            builder.preparsedDocumentProvider(documentCache);
+        } else {
+            documentCache = null;
+        }
+
+        // Reject expensive operations before any field is resolved
+        CostBudget costBudget = apiConfig.getGraphQLCostBudget() > 0
+                ? new CostBudget(apiConfig.getGraphQLCostBudget(), apiConfig.getGraphQLCostBudgetRefillPerSecond(), COST_BUDGET_CLIENTS)
+                : null;
+        queryCostInstrumentation = new QueryCostInstrumentation(apiConfig.getGraphQLMaxDepth(), apiConfig.getGraphQLMaxFields(),
+                apiConfig.getGraphQLMaxCost(), costBudget, config.getNetworkConfig().getClientAddressResolver());
+        List<Instrumentation> instrumentations = new ArrayList<>(List.of(queryCostInstrumentation, new GraphQLCacheHintInstrumentation()));
+        if (apiConfig.getGraphQLTracingSampleRate() > 0 || apiConfig.isGraphQLTracingHeaderEnabled()) {
+            fieldTracingInstrumentation = new FieldTracingInstrumentation(apiConfig.getGraphQLTracingSampleRate(),
+                    apiConfig.isGraphQLTracingHeaderEnabled(), apiConfig.getGraphQLTracingMaxFields());
+            instrumentations.add(fieldTracingInstrumentation);
+        } else {
+            fieldTracingInstrumentation = null;
+        }
+        builder.instrumentation(new ChainedInstrumentation(instrumentations));
+
+        graphQL = builder.build();
+        this.schema = schema;
+        this.persistedQueries = persistedQueries;
+
+        this.fieldConcurrency = apiConfig.getGraphQLFieldConcurrency();
+        this.fieldExecutor = apiConfig.getGraphQLFieldExecutor() != null ? apiConfig.getGraphQLFieldExecutor() : VIRTUAL_THREADS;
+        this.maxBatchSize = apiConfig.getGraphQLMaxBatchSize();
+        this.batchConcurrency = apiConfig.getGraphQLBatchConcurrency();
+    }
 
     /**
      * Handles the incoming HTTP request as a GraphQL query and returns the JSON response.
+     * <p>
+     * Queries can also be sent over GET, with {@code query}, {@code operationName}, {@code variables} and
+     * {@code extensions} as query parameters. Their responses carry an ETag and may be cached as far as the cache
+     * hints of their fields allow, see {@link GraphQLCacheHintInstrumentation}. Responses to POST requests are never
+     * cached.
+     * <p>
+     * Clients accepting {@code multipart/mixed} responses may defer fragments with {@code @defer} if incremental
+     * delivery is enabled, see {@link #MULTIPART_CONTENT_TYPE}.
+     * <p>
+     * A POST body may also be an array of operations, which are executed concurrently and answered with the array of
+     * their results, in the same order.
      *
      * @param ctx The HTTP context for handling the request.
      * @throws Exception If an error occurs during request processing.
      */
     @Override
+    @SuppressWarnings("unchecked")
     public void handle(HandlerContext ctx) throws Exception {
-        // Set response content type
-        ctx.header("Content-Type", "application/json");
-        // Disable caching
-        ctx.header("Cache-Control", "no-cache, no-store, must-revalidate");
-        ctx.header("Pragma", "no-cache");
-        ctx.header("Expires", "0");
+        JsonCodec codec = JsonCodecs.getDefault();
+        boolean get = ctx.method() == HandlerType.GET;
 
-        // Parse the request body as a JSON object using Gson
-        JsonObject requestBody = gson.fromJson(ctx.body(), JsonObject.class);
-        String query = requestBody.get("query").getAsString();
+        // Set response content type
+        ctx.header("Content-Type", codec.getContentType());
 
-        JsonObject variables = requestBody.has("variables") ? requestBody.getAsJsonObject("variables") : null;
-        Map<String, Object> variablesMap = variables == null ? Collections.emptyMap() : gson.fromJson(variables, Map.class);
+        // Parse the request body directly from the request stream, or the query parameters of GET requests
+        Object body = get ? readQueryParameters(ctx, codec) : codec.read(ctx.bodyAsInputStream(), Object.class);
+        if (body instanceof List<?> operations) {
+            handleBatch(ctx, codec, operations);
+            return;
+        }
+        Map<String, Object> requestBody = body instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+        String query;
+        try {
+            query = resolveQuery(requestBody);
+        } catch (AwooApiPersistedQueryException e) {
+            log.debug("Persisted query rejected: {}", e.getMessage());
+            disableCaching(ctx);
+            codec.write(errorResponse(e.getCode(), e.getMessage()), ctx.response().getOutputStream());
+            return;
+        }
 
-        // Create a GraphQLLocalContext for handling the GraphQL request
-        GraphQLLocalContext graphQLLocalContext = new GraphQLLocalContext(ctx);
+        Map<String, Object> variables = (Map<String, Object>) requestBody.get("variables");
+        String operationName = (String) requestBody.get("operationName");
 
         log.debug("Query: {}", query);
         if (variables != null) {
-            log.debug("Variables: {}", gson.toJson(variables));
+            log.debug("Variables: {}", variables);
+        }
+
+        ExecutionInput executionInput = newExecutionInput(ctx, query, operationName, variables, new DataLoaderRegistry());
+        if (get) {
+            GraphQLCacheHintInstrumentation.markGetRequest(executionInput);
+        }
+        String accept = ctx.header("Accept");
+        if (incrementalDelivery && accept != null && accept.contains("multipart/mixed")) {
+            // Without this, graphql-java ignores @defer and resolves the deferred fragments with the initial payload
+            executionInput.getGraphQLContext().put(ExperimentalApi.ENABLE_INCREMENTAL_SUPPORT, true);
+        }
+
+        // Execute the GraphQL query
+        ExecutionResult result = graphQL.execute(executionInput);
+        if (result instanceof IncrementalExecutionResult incrementalResult) {
+            disableCaching(ctx);
+            writeIncremental(ctx, codec, incrementalResult);
+            return;
+        }
+        Map<String, Object> response = result.toSpecification();
+
+        if (log.isDebugEnabled()) {
+            // Serializes the response a second time, so only when it is actually logged
+            log.debug("Response: {}", new String(codec.toBytes(response), StandardCharsets.UTF_8));
+            log.debug("------");
+        }
+
+        if (get && result.getErrors().isEmpty()) {
+            writeCacheable(ctx, codec, response, GraphQLCacheHintInstrumentation.getCachePolicy(executionInput));
+            return;
+        }
+        if (get && hasErrorCode(result, GraphQLCacheHintInstrumentation.METHOD_NOT_ALLOWED)) {
+            ctx.status(HttpStatusCode.METHOD_NOT_ALLOWED);
+            ctx.header("Allow", "POST");
+        }
+
+        // Return the result as JSON, written straight into the response stream in a single pass
+        disableCaching(ctx);
+        codec.write(response, ctx.response().getOutputStream());
+    }
+
+    /**
+     * Writes a result with deferred fragments as {@code multipart/mixed} response: the initial payload is sent right
+     * away, and every deferred payload as soon as it has been resolved. Each part is flushed, so the client can
+     * render the data it has while the slower fields are still being resolved.
+     */
+    private static void writeIncremental(HandlerContext ctx, JsonCodec codec, IncrementalExecutionResult result) throws IOException {
+        ctx.header("Content-Type", MULTIPART_CONTENT_TYPE);
+        OutputStream out = ctx.response().getOutputStream();
+        writePart(out, codec, result.toSpecification());
+
+        BlockingQueue<Object> parts = new LinkedBlockingQueue<>();
+        AtomicReference<Subscription> subscription = new AtomicReference<>();
+        result.getIncrementalItemPublisher().subscribe(new Subscriber<>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                subscription.set(s);
+                // There is at most one payload per deferred fragment
+                s.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(DelayedIncrementalPartialResult part) {
+                parts.add(part);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                parts.add(t);
+            }
+
+            @Override
+            public void onComplete() {
+                parts.add(Boolean.TRUE);
+            }
+        });
+
+        try {
+            while (true) {
+                Object part = parts.take();
+                if (part instanceof DelayedIncrementalPartialResult payload) {
+                    writePart(out, codec, payload.toSpecification());
+                } else if (part instanceof Throwable t) {
+                    log.error("Error while resolving deferred GraphQL fragments", t);
+                    writePart(out, codec, Map.of("errors", List.of(Map.of("message", "Internal server error")), "hasNext", false));
+                    break;
+                } else {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for deferred GraphQL fragments");
+        } catch (IOException e) {
+            // The client is gone, the remaining fragments need not be resolved
+            Subscription s = subscription.get();
+            if (s != null) {
+                s.cancel();
+            }
+            throw e;
+        }
+        out.write("\r\n-----\r\n".getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private static void writePart(OutputStream out, JsonCodec codec, Map<String, Object> payload) throws IOException {
+        out.write(("\r\n---\r\nContent-Type: " + codec.getContentType() + "; charset=utf-8\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        codec.write(payload, out);
+        out.flush();
+    }
+
+    /**
+     * Executes the operations of a batched request concurrently and streams their results back in request order.
+     * The results are written as soon as they and all results before them are complete.
+     */
+    private void handleBatch(HandlerContext ctx, JsonCodec codec, List<?> operations) throws IOException {
+        disableCaching(ctx);
+        if (operations.isEmpty() || operations.size() > maxBatchSize) {
+            ctx.status(HttpStatusCode.BAD_REQUEST);
+            String message = maxBatchSize > 0
+                    ? "A batch must contain between 1 and " + maxBatchSize + " operations, got " + operations.size()
+                    : "Batched operations are not supported";
+            codec.write(errorResponse("BATCH_NOT_ALLOWED", message), ctx.response().getOutputStream());
+            return;
+        }
+
+        // The operations share the data loaders, so keys loaded by several of them are fetched once
+        DataLoaderRegistry dataLoaderRegistry = new DataLoaderRegistry();
+        Executor operationExecutor = batchConcurrency > 0 ? new LimitedExecutor(BATCH_OPERATIONS, batchConcurrency) : Runnable::run;
+        List<CompletableFuture<Map<String, Object>>> results = new ArrayList<>(operations.size());
+        for (Object operation : operations) {
+            CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+            operationExecutor.execute(() -> {
+                try {
+                    result.complete(executeBatchedOperation(ctx, operation, dataLoaderRegistry));
+                } catch (Throwable t) {
+                    // Errors are not caught by the operation, the response must not wait for a result forever
+                    result.completeExceptionally(t);
+                }
+            });
+            results.add(result);
         }
 
+        try (JsonSequenceWriter writer = codec.openSequence(ctx.response().getOutputStream(), StreamFormat.JSON_ARRAY)) {
+            for (CompletableFuture<Map<String, Object>> result : results) {
+                writer.write(result.exceptionally(t -> {
+                    log.error("Error while executing batched GraphQL operation", t);
+                    return errorResponse("INTERNAL_SERVER_ERROR", "Internal server error");
+                }).join());
+                writer.flush();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> executeBatchedOperation(HandlerContext ctx, Object operation, DataLoaderRegistry dataLoaderRegistry) {
+        if (!(operation instanceof Map<?, ?> map)) {
+            return errorResponse("BAD_REQUEST", "Batched operations must be objects");
+        }
+        Map<String, Object> requestBody = (Map<String, Object>) map;
+        try {
+            String query = resolveQuery(requestBody);
+            if (query == null) {
+                return errorResponse("BAD_REQUEST", "Batched operation without query");
+            }
+            ExecutionInput executionInput = newExecutionInput(ctx, query, (String) requestBody.get("operationName"),
+                    (Map<String, Object>) requestBody.get("variables"), dataLoaderRegistry);
+            return graphQL.execute(executionInput).toSpecification();
+        } catch (AwooApiPersistedQueryException e) {
+            log.debug("Persisted query rejected: {}", e.getMessage());
+            return errorResponse(e.getCode(), e.getMessage());
+        } catch (RuntimeException e) {
+            // One failing operation must not fail the other operations of the batch
+            log.error("Error while executing batched GraphQL operation", e);
+            return errorResponse("INTERNAL_SERVER_ERROR", "Internal server error");
+        }
+    }
+
+    private static Map<String, Object> errorResponse(String code, String message) {
+        return Map.of("errors", List.of(Map.of(
+                "message", message,
+                "extensions", Map.of("code", code)
+        )));
+    }
+
+    /**
+     * Executes a GraphQL operation received over another transport than HTTP, e.g. a WebSocket connection.
+     * <p>
+     * For subscription operations, the data of the result is a {@link org.reactivestreams.Publisher} of the results
+     * of the individual events.
+     *
+     * @param ctx           The context of the request that opened the connection.
+     * @param query         The query text, as determined by {@link #resolveQuery(Map)}.
+     * @param operationName The name of the operation to execute, or {@code null} if the query has only one.
+     * @param variables     The variables of the operation, or {@code null} if it has none.
+     * @return The result of the execution.
+     */
+    public ExecutionResult execute(HandlerContext ctx, String query, String operationName, Map<String, Object> variables) {
+        return graphQL.execute(newExecutionInput(ctx, query, operationName, variables, new DataLoaderRegistry()));
+    }
+
+    private ExecutionInput newExecutionInput(HandlerContext ctx, String query, String operationName, Map<String, Object> variables,
+                                             DataLoaderRegistry dataLoaderRegistry) {
+        // Create a GraphQLLocalContext for handling the GraphQL request
+        // Sibling fields are resolved concurrently, limited per request so one wide query cannot take all threads
+        GraphQLLocalContext graphQLLocalContext = new GraphQLLocalContext(ctx,
+                fieldConcurrency > 0 ? new LimitedExecutor(fieldExecutor, fieldConcurrency) : null);
+
         // Build the ExecutionInput for GraphQL execution
-        ExecutionInput executionInput = ExecutionInput.newExecutionInput()
+        return ExecutionInput.newExecutionInput()
                 .localContext(graphQLLocalContext)
+                // Batch endpoints register their data loaders here, so loads are only deduplicated within this request
+                .dataLoaderRegistry(dataLoaderRegistry)
                 .query(query)
-                .variables(variablesMap)
+                .operationName(operationName)
+                .variables(variables == null ? Collections.emptyMap() : variables)
                 .build();
+    }
 
-        JsonElement responseJSON = gson.toJsonTree(graphQL.execute(executionInput).toSpecification());
+    /**
+     * Reads the GraphQL request of a GET request from its query parameters.
+     *
+     * @param ctx   The HTTP context of the request.
+     * @param codec The codec decoding the JSON encoded parameters.
+     * @return The request in the same structure as a POST request body.
+     * @throws IOException If {@code variables} or {@code extensions} are not valid JSON.
+     */
+    private static Map<String, Object> readQueryParameters(HandlerContext ctx, JsonCodec codec) throws IOException {
+        Map<String, Object> request = new HashMap<>();
+        request.put("query", ctx.queryParam("query"));
+        request.put("operationName", ctx.queryParam("operationName"));
+        for (String name : List.of("variables", "extensions")) {
+            String value = ctx.queryParam(name);
+            if (value != null && !value.isEmpty()) {
+                request.put(name, codec.read(new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8)), Map.class));
+            }
+        }
+        return request;
+    }
 
-        log.debug("Response: {}", gson.toJson(responseJSON));
+    /**
+     * Writes a successful response to a GET request with an ETag and the cache policy of its fields, or answers
+     * with 304 Not Modified if the client already has the response.
+     */
+    private static void writeCacheable(HandlerContext ctx, JsonCodec codec, Map<String, Object> response,
+                                       GraphQLCacheHintInstrumentation.CachePolicy cachePolicy) throws IOException {
+        // The ETag needs the whole body, so it is serialized into memory first
+        byte[] body = codec.toBytes(response);
+        String etag = etagOf(body);
+        ctx.header("Cache-Control", cachePolicy.toCacheControl());
+        ctx.header("ETag", etag);
 
-        log.debug("------");
+        String ifNoneMatch = ctx.header("If-None-Match");
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                    ctx.status(HttpStatusCode.NOT_MODIFIED);
+                    return;
+                }
+            }
+        }
+        ctx.result(body);
+    }
 
-        // Execute the GraphQL query and return the result as JSON
-        ctx.result(gson.toJson(responseJSON));
+    private static String etagOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            // 128 bits are plenty to tell versions of one response apart
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean hasErrorCode(ExecutionResult result, String code) {
+        for (GraphQLError error : result.getErrors()) {
+            if (error.getExtensions() != null && code.equals(error.getExtensions().get("code"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void disableCaching(HandlerContext ctx) {
+        ctx.header("Cache-Control", "no-cache, no-store, must-revalidate");
+        ctx.header("Pragma", "no-cache");
+        ctx.header("Expires", "0");
+    }
+
+    /**
+     * Determines the query text of a request, following the automatic persisted query protocol: clients send the
+     * SHA-256 hash of the query in {@code extensions.persistedQuery.sha256Hash}, and only send the query text itself
+     * after the server answered with {@code PersistedQueryNotFound}. Requests without the extension are executed
+     * as usual, unless the store only accepts the queries of its allowlist. Transports other than HTTP must resolve
+     * their operations with this as well, so the allowlist applies to them too.
+     *
+     * @param requestBody The decoded request body, or the payload of an operation received over another transport.
+     * @return The query text to execute.
+     * @throws AwooApiPersistedQueryException If the query is unknown, does not match its hash or is not allowed.
+     */
+    @SuppressWarnings("unchecked")
+    public String resolveQuery(Map<String, Object> requestBody) throws AwooApiPersistedQueryException {
+        String query = (String) requestBody.get("query");
+        Map<String, Object> extensions = requestBody.get("extensions") instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+        Map<String, Object> persistedQuery = extensions.get("persistedQuery") instanceof Map<?, ?> map ? (Map<String, Object>) map : null;
+
+        if (persistedQueries == null) {
+            if (query == null && persistedQuery != null) {
+                throw new AwooApiPersistedQueryException("PERSISTED_QUERY_NOT_SUPPORTED", "PersistedQueryNotSupported");
+            }
+            return query;
+        }
+
+        if (persistedQuery == null) {
+            // Plain requests are only allowed outside allowlist mode, or for queries that are on the allowlist
+            if (persistedQueries.isAllowlistOnly() && (query == null || persistedQueries.lookup(PersistedQueryStore.sha256Hex(query)) == null)) {
+                throw new AwooApiPersistedQueryException("PERSISTED_QUERY_NOT_ALLOWED", "Only persisted queries are allowed");
+            }
+            return query;
+        }
+
+        Object version = persistedQuery.get("version");
+        if (!(version instanceof Number number) || number.intValue() != 1 || !(persistedQuery.get("sha256Hash") instanceof String hash)) {
+            throw new AwooApiPersistedQueryException("PERSISTED_QUERY_NOT_SUPPORTED", "Unsupported persisted query version or missing sha256Hash");
+        }
+
+        String persisted = persistedQueries.lookup(hash);
+        if (persisted != null) {
+            return persisted;
+        }
+        if (persistedQueries.isAllowlistOnly()) {
+            throw new AwooApiPersistedQueryException("PERSISTED_QUERY_NOT_ALLOWED", "Only persisted queries are allowed");
+        }
+        if (query == null) {
+            // The client retries with the full query text
+            throw new AwooApiPersistedQueryException("PERSISTED_QUERY_NOT_FOUND", "PersistedQueryNotFound");
+        }
+        if (!persistedQueries.register(hash, query)) {
+            throw new AwooApiPersistedQueryException("PERSISTED_QUERY_HASH_MISMATCH", "provided sha does not match query");
+        }
+        return query;
     }
 
     public GraphQLSchema getSchema() {
         return schema;
     }
+
+    /**
+     * Retrieves the cache of parsed query documents, e.g. to read its hit and miss counters.
+     *
+     * @return The document cache, or {@code null} if caching is disabled.
+     */
+    public GraphQLDocumentCache getDocumentCache() {
+        return documentCache;
+    }
+
+    /**
+     * Retrieves the store of automatic persisted queries.
+     *
+     * @return The store, or {@code null} if persisted queries are disabled.
+     */
+    public PersistedQueryStore getPersistedQueries() {
+        return persistedQueries;
+    }
+
+    /**
+     * Retrieves the instrumentation enforcing the query depth, size and cost limits.
+     *
+     * @return The query cost instrumentation.
+     */
+    public QueryCostInstrumentation getQueryCostInstrumentation() {
+        return queryCostInstrumentation;
+    }
+
+    /**
+     * Retrieves the instrumentation tracing the fields of sampled requests.
+     *
+     * @return The field tracing instrumentation, or {@code null} if tracing is disabled.
+     */
+    public FieldTracingInstrumentation getFieldTracingInstrumentation() {
+        return fieldTracingInstrumentation;
+    }
 }
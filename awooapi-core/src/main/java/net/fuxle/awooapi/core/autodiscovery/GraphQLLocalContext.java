@@ -2,22 +2,37 @@ package net.fuxle.awooapi.core.autodiscovery;
 
 import net.fuxle.awooapi.server.intf.HandlerContext;
 
+import java.util.concurrent.Executor;
+
 /**
  * A class representing a local context for GraphQL execution, containing a HTTP context.
  * This class is used to provide additional context information, such as the http context, to GraphQL execution.
  *
  * @param handlerContext The HTTP context associated with the GraphQL execution.
+ * @param fieldExecutor  The executor resolving the fields of this execution, or {@code null} to resolve them on the
+ *                       request thread.
  * @author Moritz Hofmann
  */
-public record GraphQLLocalContext(HandlerContext handlerContext) {
+public record GraphQLLocalContext(HandlerContext handlerContext, Executor fieldExecutor) {
     /**
      * Constructs a new GraphQLLocalContext with the provided HTTP context.
      *
      * @param handlerContext The HTTP context associated with the GraphQL execution.
+     * @param fieldExecutor  The executor resolving the fields of this execution, or {@code null} to resolve them on
+     *                       the request thread.
      */
     public GraphQLLocalContext {
     }
 
+    /**
+     * Constructs a new GraphQLLocalContext with the provided HTTP context, resolving fields on the request thread.
+     *
+     * @param handlerContext The HTTP context associated with the GraphQL execution.
+     */
+    public GraphQLLocalContext(HandlerContext handlerContext) {
+        this(handlerContext, null);
+    }
+
     /**
      * Gets the Handler HTTP context associated with the GraphQL execution.
      *
@@ -0,0 +1,17 @@
+package net.fuxle.awooapi.core.autodiscovery.dispatcher;
+
+import net.fuxle.awooapi.annotations.MultiEndpoint;
+
+/**
+ * A data fetcher that resolves a GraphQL field with an endpoint, giving access to the settings the endpoint declares
+ * for its field, e.g. its cost or cache hints.
+ */
+public interface EndpointDataFetcher {
+
+    /**
+     * Retrieves the {@link MultiEndpoint} annotation of the endpoint serving the field.
+     *
+     * @return The annotation, or {@code null} if the endpoint is not annotated.
+     */
+    MultiEndpoint getMultiEndpoint();
+}
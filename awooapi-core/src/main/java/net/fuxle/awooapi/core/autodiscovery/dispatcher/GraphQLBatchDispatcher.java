@@ -0,0 +1,135 @@
+package net.fuxle.awooapi.core.autodiscovery.dispatcher;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import net.fuxle.awooapi.annotations.MultiEndpoint;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.autodiscovery.GraphQLLocalContext;
+import net.fuxle.awooapi.core.isolation.Deadline;
+import net.fuxle.awooapi.core.isolation.EndpointBulkhead;
+import net.fuxle.awooapi.core.network.ClientAddressResolver;
+import net.fuxle.awooapi.core.templates.AbstractBatchEndpoint;
+import org.dataloader.BatchLoaderEnvironment;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderFactory;
+import org.dataloader.DataLoaderOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A data fetcher implementation for GraphQL that collects the field resolutions of an {@link AbstractBatchEndpoint}
+ * in a {@link DataLoader}, so the endpoint is called once per execution level instead of once per field.
+ * <p>
+ * The data loader is created lazily in the {@link org.dataloader.DataLoaderRegistry} of the request, which
+ * {@link net.fuxle.awooapi.core.autodiscovery.GraphQLEndpoint} sets up for every execution. Results are thus only
+ * deduplicated within one request and never shared between clients.
+ *
+ * @param <T> The type of data to be fetched and returned by this dispatcher.
+ */
+public class GraphQLBatchDispatcher<T> implements DataFetcher<CompletableFuture<T>>, EndpointDataFetcher {
+    /**
+     * The instance of {@link AbstractBatchEndpoint} used to process GraphQL queries.
+     */
+    private final AbstractBatchEndpoint<T> batchEndpointInstance;
+    /**
+     * The resolver classifying client addresses.
+     */
+    private final ClientAddressResolver clientAddressResolver;
+    /**
+     * The bulkhead limiting the executions of the endpoint, or {@code null} if it has none.
+     */
+    private final EndpointBulkhead bulkhead;
+    /**
+     * The settings the endpoint declares for its field, or {@code null} if it is not annotated.
+     */
+    private final MultiEndpoint multiEndpoint;
+    /**
+     * The name of the data loader of this dispatcher in the registry of a request.
+     */
+    private final String dataLoaderName;
+    /**
+     * The options of the data loaders created for each request.
+     */
+    private final DataLoaderOptions dataLoaderOptions;
+
+    /**
+     * Constructs a new GraphQLBatchDispatcher with the provided instance of {@link AbstractBatchEndpoint}.
+     *
+     * @param batchEndpointInstance The instance of {@link AbstractBatchEndpoint} to be used for processing queries.
+     * @param clientAddressResolver The resolver classifying client addresses.
+     */
+    public GraphQLBatchDispatcher(AbstractBatchEndpoint<T> batchEndpointInstance, ClientAddressResolver clientAddressResolver) {
+        this.batchEndpointInstance = batchEndpointInstance;
+        this.clientAddressResolver = clientAddressResolver;
+        // Shared with the REST dispatchers of the endpoint
+        this.bulkhead = EndpointBulkhead.of(batchEndpointInstance.getClass());
+        this.multiEndpoint = batchEndpointInstance.getClass().getAnnotation(MultiEndpoint.class);
+        this.dataLoaderName = batchEndpointInstance.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(this));
+
+        DataLoaderOptions options = DataLoaderOptions.newOptions();
+        if (batchEndpointInstance.getMaxBatchSize() > 0) {
+            options.setMaxBatchSize(batchEndpointInstance.getMaxBatchSize());
+        }
+        this.dataLoaderOptions = options;
+    }
+
+    /**
+     * Queues the field resolution in the data loader of the request.
+     *
+     * @param environment The GraphQL data fetching environment.
+     * @return The result, completed once the data loader dispatches the batch.
+     */
+    @Override
+    public CompletableFuture<T> get(DataFetchingEnvironment environment) {
+        // Retrieve the GraphQLLocalContext set in GraphQLEndpoint class
+        GraphQLLocalContext graphQLLocalContext = environment.getLocalContext();
+
+        if (graphQLLocalContext == null) {
+            throw new IllegalArgumentException("GraphQL Local Context is null, but it cannot be. Something must be really wrong here");
+        }
+
+        Parameters params = new Parameters(
+                graphQLLocalContext.handlerContext(), // Handler Context
+                environment, // GraphQL Environment
+                Parameters.REQUEST_SOURCE.GRAPH_QL, // Request Source
+                clientAddressResolver, // Classifies the client IP on demand
+                bulkhead != null ? bulkhead.newDeadline() : null // Deadline of the bulkhead, if any
+        );
+
+        DataLoader<Object, T> dataLoader = environment.getDataLoaderRegistry().computeIfAbsent(dataLoaderName,
+                name -> DataLoaderFactory.newDataLoader(this::loadBatch, dataLoaderOptions));
+        return dataLoader.load(batchEndpointInstance.getBatchKey(params), params);
+    }
+
+    private CompletionStage<List<T>> loadBatch(List<Object> keys, BatchLoaderEnvironment environment) {
+        List<Parameters> params = new ArrayList<>(keys.size());
+        for (Object keyContext : environment.getKeyContextsList()) {
+            params.add((Parameters) keyContext);
+        }
+
+        try {
+            List<T> results;
+            if (bulkhead != null) {
+                // The whole batch is one execution, bound by the deadline of its first field
+                results = bulkhead.execute(() -> batchEndpointInstance.handleBatch(params), params.get(0).getDeadline());
+            } else {
+                results = batchEndpointInstance.handleBatch(params);
+            }
+            if (results == null || results.size() != keys.size()) {
+                throw new IllegalStateException(batchEndpointInstance.getClass().getName() + " returned "
+                        + (results == null ? "no results" : results.size() + " results") + " for a batch of " + keys.size());
+            }
+            return CompletableFuture.completedFuture(results);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public MultiEndpoint getMultiEndpoint() {
+        return multiEndpoint;
+    }
+}
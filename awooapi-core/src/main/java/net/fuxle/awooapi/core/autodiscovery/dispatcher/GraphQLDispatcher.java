@@ -2,21 +2,53 @@ package net.fuxle.awooapi.core.autodiscovery.dispatcher;
 
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import net.fuxle.awooapi.annotations.CachedField;
+import net.fuxle.awooapi.annotations.MultiEndpoint;
 import net.fuxle.awooapi.core.autodiscovery.GraphQLLocalContext;
+import net.fuxle.awooapi.core.cache.FieldResultCache;
+import net.fuxle.awooapi.core.isolation.Deadline;
+import net.fuxle.awooapi.core.isolation.EndpointBulkhead;
+import net.fuxle.awooapi.core.network.ClientAddressResolver;
 import net.fuxle.awooapi.core.templates.AbstractEndpoint;
 import net.fuxle.awooapi.core.api.Parameters;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 /**
  * A data fetcher implementation for GraphQL that serves as a dispatcher to handle GraphQL queries.
  * It uses an instance of {@link AbstractEndpoint} to process GraphQL queries and return results.
+ * <p>
+ * If the execution has a field executor, see {@link GraphQLLocalContext#fieldExecutor()}, the endpoint runs on it,
+ * so sibling fields calling independent backends are resolved concurrently. Thread-local state of the request thread
+ * is not visible to the endpoint then.
+ * <p>
+ * The results of endpoints annotated with {@link CachedField} are cached across requests, see {@link FieldResultCache}.
  *
  * @param <T> The type of data to be fetched and returned by this dispatcher.
  */
-public class GraphQLDispatcher<T> implements DataFetcher<T> {
+public class GraphQLDispatcher<T> implements DataFetcher<CompletableFuture<T>>, EndpointDataFetcher {
     /**
      * The instance of {@link AbstractEndpoint} used to process GraphQL queries.
      */
     private final AbstractEndpoint<T> multiEndpointInstance;
+    /**
+     * The resolver classifying client addresses.
+     */
+    private final ClientAddressResolver clientAddressResolver;
+    /**
+     * The bulkhead limiting the executions of the endpoint, or {@code null} if it has none.
+     */
+    private final EndpointBulkhead bulkhead;
+    /**
+     * The settings the endpoint declares for its field, or {@code null} if it is not annotated.
+     */
+    private final MultiEndpoint multiEndpoint;
+    /**
+     * The cache for field results, or {@code null} if the endpoint is not annotated with {@link CachedField}.
+     */
+    private final FieldResultCache<T> fieldCache;
 
     /**
      * Constructs a new GraphQLDispatcher with the provided instance of {@link AbstractEndpoint}.
@@ -24,18 +56,35 @@ public class GraphQLDispatcher<T> implements DataFetcher<T> {
      * @param multiEndpointInstance The instance of {@link AbstractEndpoint} to be used for processing queries.
      */
     public GraphQLDispatcher(AbstractEndpoint<T> multiEndpointInstance) {
+        this(multiEndpointInstance, ClientAddressResolver.getDefault());
+    }
+
+    /**
+     * Constructs a new GraphQLDispatcher with the provided instance of {@link AbstractEndpoint}.
+     *
+     * @param multiEndpointInstance The instance of {@link AbstractEndpoint} to be used for processing queries.
+     * @param clientAddressResolver The resolver classifying client addresses.
+     */
+    public GraphQLDispatcher(AbstractEndpoint<T> multiEndpointInstance, ClientAddressResolver clientAddressResolver) {
         this.multiEndpointInstance = multiEndpointInstance;
+        this.clientAddressResolver = clientAddressResolver;
+        // Shared with the REST dispatchers of the endpoint
+        this.bulkhead = EndpointBulkhead.of(multiEndpointInstance.getClass());
+        this.multiEndpoint = multiEndpointInstance.getClass().getAnnotation(MultiEndpoint.class);
+
+        CachedField cacheSettings = multiEndpointInstance.getClass().getAnnotation(CachedField.class);
+        this.fieldCache = cacheSettings != null ? new FieldResultCache<>(cacheSettings) : null;
     }
 
     /**
      * Retrieves data based on the provided GraphQL query and environment.
      *
      * @param environment The GraphQL data fetching environment.
-     * @return The fetched data of type {@code T}.
-     * @throws Exception If an error occurs during data fetching.
+     * @return The fetched data of type {@code T}, completed once the endpoint has returned.
+     * @throws Exception If an error occurs during data fetching on the request thread.
      */
     @Override
-    public T get(DataFetchingEnvironment environment) throws Exception {
+    public CompletableFuture<T> get(DataFetchingEnvironment environment) throws Exception {
         // Retrieve the GraphQLLocalContext set in GraphQLEndpoint class
         GraphQLLocalContext graphQLLocalContext = environment.getLocalContext();
 
@@ -43,14 +92,68 @@ public class GraphQLDispatcher<T> implements DataFetcher<T> {
             throw new IllegalArgumentException("GraphQL Local Context is null, but it cannot be. Something must be really wrong here");
         }
 
+        List<Object> cacheKey = fieldCache != null ? fieldCache.createKey(environment, graphQLLocalContext.handlerContext().request()) : null;
+        if (cacheKey != null) {
+            // Cache hits neither call the endpoint nor occupy the bulkhead or the field executor
+            T cached = fieldCache.get(cacheKey);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+
+        Deadline deadline = bulkhead != null ? bulkhead.newDeadline() : null;
+
         // Create Parameters for processing the query
         Parameters params = new Parameters(
                 graphQLLocalContext.handlerContext(), // Handler Context
                 environment, // GraphQL Environment
-                Parameters.REQUEST_SOURCE.GRAPH_QL // Request Source
+                Parameters.REQUEST_SOURCE.GRAPH_QL, // Request Source
+                clientAddressResolver, // Classifies the client IP on demand
+                deadline // Deadline of the bulkhead, if any
         );
 
+        Executor fieldExecutor = graphQLLocalContext.fieldExecutor();
+        if (fieldExecutor == null) {
+            return CompletableFuture.completedFuture(fetch(params, deadline, cacheKey));
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        fieldExecutor.execute(() -> {
+            try {
+                result.complete(fetch(params, deadline, cacheKey));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private T fetch(Parameters params, Deadline deadline, List<Object> cacheKey) throws Exception {
         // Run the multiEndpointInstance to process the GraphQL query and return the result
-        return multiEndpointInstance.handleRequest(params);
+        T result;
+        if (bulkhead != null) {
+            // Rejections and exceeded deadlines become field errors, the other fields are still resolved
+            result = bulkhead.execute(() -> multiEndpointInstance.handleRequest(params), deadline);
+        } else {
+            result = multiEndpointInstance.handleRequest(params);
+        }
+        if (cacheKey != null) {
+            fieldCache.put(cacheKey, result);
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the cache for the field results of the endpoint.
+     *
+     * @return The field result cache, or {@code null} if the endpoint is not annotated with {@link CachedField}.
+     */
+    public FieldResultCache<T> getFieldCache() {
+        return fieldCache;
+    }
+
+    @Override
+    public MultiEndpoint getMultiEndpoint() {
+        return multiEndpoint;
     }
 }
@@ -0,0 +1,94 @@
+package net.fuxle.awooapi.core.autodiscovery.dispatcher;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import net.fuxle.awooapi.annotations.MultiEndpoint;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.autodiscovery.GraphQLLocalContext;
+import net.fuxle.awooapi.core.isolation.EndpointBulkhead;
+import net.fuxle.awooapi.core.network.ClientAddressResolver;
+import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+import org.reactivestreams.FlowAdapters;
+import org.reactivestreams.Publisher;
+
+import java.util.concurrent.Flow;
+
+/**
+ * A data fetcher for GraphQL subscription fields. The endpoint returns a {@link Flow.Publisher} of events, each of
+ * which is resolved against the selection of the subscription and sent to the subscriber.
+ * <p>
+ * The endpoint is only called when the subscription is created; the bulkhead of the endpoint limits these calls,
+ * not the events published afterwards.
+ *
+ * @param <T> The type of the published events.
+ */
+public class GraphQLSubscriptionDispatcher<T> implements DataFetcher<Publisher<T>>, EndpointDataFetcher {
+    /**
+     * The instance of {@link AbstractEndpoint} creating the event streams.
+     */
+    private final AbstractEndpoint<? extends Flow.Publisher<T>> subscriptionEndpointInstance;
+    /**
+     * The resolver classifying client addresses.
+     */
+    private final ClientAddressResolver clientAddressResolver;
+    /**
+     * The bulkhead limiting the executions of the endpoint, or {@code null} if it has none.
+     */
+    private final EndpointBulkhead bulkhead;
+    /**
+     * The settings the endpoint declares for its field, or {@code null} if it is not annotated.
+     */
+    private final MultiEndpoint multiEndpoint;
+
+    /**
+     * Constructs a new GraphQLSubscriptionDispatcher with the provided instance of {@link AbstractEndpoint}.
+     *
+     * @param subscriptionEndpointInstance The endpoint returning the event stream of a subscription.
+     * @param clientAddressResolver        The resolver classifying client addresses.
+     */
+    public GraphQLSubscriptionDispatcher(AbstractEndpoint<? extends Flow.Publisher<T>> subscriptionEndpointInstance,
+                                         ClientAddressResolver clientAddressResolver) {
+        this.subscriptionEndpointInstance = subscriptionEndpointInstance;
+        this.clientAddressResolver = clientAddressResolver;
+        // Shared with the REST dispatchers of the endpoint
+        this.bulkhead = EndpointBulkhead.of(subscriptionEndpointInstance.getClass());
+        this.multiEndpoint = subscriptionEndpointInstance.getClass().getAnnotation(MultiEndpoint.class);
+    }
+
+    /**
+     * Creates the event stream of a subscription.
+     *
+     * @param environment The GraphQL data fetching environment.
+     * @return The event stream, adapted to the reactive streams API graphql-java expects.
+     * @throws Exception If the endpoint fails to create the stream.
+     */
+    @Override
+    public Publisher<T> get(DataFetchingEnvironment environment) throws Exception {
+        GraphQLLocalContext graphQLLocalContext = environment.getLocalContext();
+
+        if (graphQLLocalContext == null) {
+            throw new IllegalArgumentException("GraphQL Local Context is null, but it cannot be. Something must be really wrong here");
+        }
+
+        Parameters params = new Parameters(
+                graphQLLocalContext.handlerContext(), // Handler Context
+                environment, // GraphQL Environment
+                Parameters.REQUEST_SOURCE.GRAPH_QL, // Request Source
+                clientAddressResolver, // Classifies the client IP on demand
+                bulkhead != null ? bulkhead.newDeadline() : null // Deadline of the bulkhead, if any
+        );
+
+        Flow.Publisher<T> events = bulkhead != null
+                ? bulkhead.execute(() -> subscriptionEndpointInstance.handleRequest(params), params.getDeadline())
+                : subscriptionEndpointInstance.handleRequest(params);
+        if (events == null) {
+            throw new IllegalStateException("Subscription endpoint " + subscriptionEndpointInstance.getClass().getName() + " returned no publisher");
+        }
+        return FlowAdapters.toPublisher(events);
+    }
+
+    @Override
+    public MultiEndpoint getMultiEndpoint() {
+        return multiEndpoint;
+    }
+}
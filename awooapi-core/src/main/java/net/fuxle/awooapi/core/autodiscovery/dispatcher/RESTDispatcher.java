@@ -1,17 +1,32 @@
 package net.fuxle.awooapi.core.autodiscovery.dispatcher;
 
-import com.google.gson.Gson;
 import net.fuxle.awooapi.RuntimeConfiguration;
+import net.fuxle.awooapi.annotations.Bulkhead;
+import net.fuxle.awooapi.annotations.CachedResponse;
+import net.fuxle.awooapi.annotations.CoalescedRequests;
+import net.fuxle.awooapi.core.cache.RequestCoalescer;
+import net.fuxle.awooapi.core.cache.ResponseCache;
 import net.fuxle.awooapi.core.templates.AbstractEndpoint;
 import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.exceptions.AwooApiBindingException;
+import net.fuxle.awooapi.core.exceptions.AwooApiBulkheadFullException;
+import net.fuxle.awooapi.core.exceptions.AwooApiDeadlineExceededException;
 import net.fuxle.awooapi.core.exceptions.AwooApiHandlerExecutionException;
+import net.fuxle.awooapi.core.isolation.Deadline;
+import net.fuxle.awooapi.core.isolation.EndpointBulkhead;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
 import net.fuxle.awooapi.server.intf.Handler;
 import net.fuxle.awooapi.server.intf.HandlerContext;
+import net.fuxle.awooapi.server.intf.HttpStatusCode;
+import net.fuxle.awooapi.server.intf.codec.JsonCodec;
+import net.fuxle.awooapi.server.intf.codec.JsonCodecs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Map;
 
 public class RESTDispatcher<T> implements Handler {
 
@@ -20,20 +35,46 @@ public class RESTDispatcher<T> implements Handler {
      */
     private final AbstractEndpoint<T> restEndpointInstance;
     private final RuntimeConfiguration configuration;
+    /**
+     * The cache for serialized responses, or {@code null} if the endpoint is not annotated with {@link CachedResponse}.
+     */
+    private final ResponseCache responseCache;
+    /**
+     * The coalescer of identical concurrent requests, or {@code null} if the endpoint is not annotated with {@link CoalescedRequests}.
+     */
+    private final RequestCoalescer requestCoalescer;
+    /**
+     * The bulkhead limiting the executions of the endpoint, or {@code null} if the endpoint is not annotated with {@link Bulkhead}.
+     */
+    private final EndpointBulkhead bulkhead;
 
     private static final Logger log = LoggerFactory.getLogger(RESTDispatcher.class);
-    private static final Gson gson = new Gson();
-    private static final String CONTENT_TYPE_JSON = "application/json";
 
     /**
      * Constructs a new RESTDispatcher with the provided instance of {@link AbstractEndpoint}.
      *
      * @param restEndpointInstance The instance of {@link AbstractEndpoint} to be used for processing REST requests.
      * @param configuration The configuration used for runtime settings.
+     * @throws IllegalArgumentException If the endpoint streams its response and is annotated with {@link CachedResponse}
+     *                                  or {@link CoalescedRequests}.
      */
     public RESTDispatcher(AbstractEndpoint<T> restEndpointInstance, RuntimeConfiguration configuration) {
         this.restEndpointInstance = restEndpointInstance;
         this.configuration = configuration;
+
+        CachedResponse cacheSettings = restEndpointInstance.getClass().getAnnotation(CachedResponse.class);
+        CoalescedRequests coalescingSettings = restEndpointInstance.getClass().getAnnotation(CoalescedRequests.class);
+        if ((cacheSettings != null || coalescingSettings != null) && StreamingResponseWriter.isStreamingEndpoint(restEndpointInstance.getClass())) {
+            // Both buffer the complete response, which would hold every streamed result set in memory
+            throw new IllegalArgumentException((cacheSettings != null ? "@CachedResponse" : "@CoalescedRequests")
+                    + " cannot be used on " + restEndpointInstance.getClass().getName() + ", which streams its response");
+        }
+        this.responseCache = cacheSettings != null ? new ResponseCache(cacheSettings) : null;
+
+        this.requestCoalescer = coalescingSettings != null ? new RequestCoalescer(coalescingSettings) : null;
+
+        // Shared with the other dispatchers of the endpoint, the limits apply to the endpoint as a whole
+        this.bulkhead = EndpointBulkhead.of(restEndpointInstance.getClass());
     }
 
     /**
@@ -42,26 +83,88 @@ public class RESTDispatcher<T> implements Handler {
      * @param ctx The HTTP context for handling the request.
      */
     @Override
-    public void handle(HandlerContext ctx) throws AwooApiHandlerExecutionException {
+    public void handle(HandlerContext ctx) throws AwooApiHandlerExecutionException, IOException {
+        if (responseCache != null) {
+            // Cache hits replay the serialized bytes without calling the handler, concurrent misses may be coalesced
+            responseCache.serve(ctx, this::renderOnce);
+        } else {
+            renderOnce(ctx);
+        }
+    }
+
+    /**
+     * Renders the response, sharing the handler invocation with identical requests in flight if coalescing is enabled.
+     *
+     * @param ctx The HTTP context to render the response into.
+     */
+    private void renderOnce(HandlerContext ctx) throws AwooApiHandlerExecutionException, IOException {
+        if (requestCoalescer != null) {
+            requestCoalescer.serve(ctx, this::render);
+        } else {
+            render(ctx);
+        }
+    }
+
+    /**
+     * Invokes the restEndpointInstance and serializes its result into the response of the given context.
+     *
+     * @param ctx The HTTP context to render the response into.
+     */
+    private void render(HandlerContext ctx) throws AwooApiHandlerExecutionException, IOException {
+        Deadline deadline = bulkhead != null ? bulkhead.newDeadline() : null;
+        // A handler abandoned at its deadline keeps running, so it must not write into the response carrying the 504
+        BufferedResponse detachedResponse = deadline != null ? detach(ctx) : null;
+        HandlerContext handlerContext = detachedResponse != null
+                ? new HandlerContext(ctx.request(), detachedResponse, ctx.router())
+                : ctx;
+
         // Create Parameters for processing the REST request
         Parameters params = new Parameters(
-                ctx, // HTTP Context
+                handlerContext, // HTTP Context
                 null, // No GraphQL Environment
-                Parameters.REQUEST_SOURCE.REST // Client Requested using REST API
+                Parameters.REQUEST_SOURCE.REST, // Client Requested using REST API
+                configuration.getNetworkConfig().getClientAddressResolver(), // Classifies the client IP on demand
+                deadline // Deadline of the bulkhead, if any
         );
 
         T instanceResponse;
         try {
             log.debug("Handler class {} called with parameters: {}", restEndpointInstance.getClass().getName(), params);
-            instanceResponse = restEndpointInstance.handleRequest(params);
+            instanceResponse = bulkhead != null
+                    ? bulkhead.execute(() -> restEndpointInstance.handleRequest(params), deadline)
+                    : restEndpointInstance.handleRequest(params);
+        } catch (AwooApiBindingException e) {
+            // The client sent a missing or malformed value, which is not a failure of the handler
+            log.debug("Rejecting request to {}: {}", restEndpointInstance.getClass().getName(), e.getMessage());
+            renderError(ctx, HttpStatusCode.BAD_REQUEST, e.getMessage());
+            return;
+        } catch (AwooApiBulkheadFullException e) {
+            log.debug("Rejecting request to {}: {}", restEndpointInstance.getClass().getName(), e.getMessage());
+            renderRejection(ctx, HttpStatusCode.SERVICE_UNAVAILABLE);
+            return;
+        } catch (AwooApiDeadlineExceededException e) {
+            log.warn("Request to {} exceeded its deadline: {}", restEndpointInstance.getClass().getName(), e.getMessage());
+            renderRejection(ctx, HttpStatusCode.GATEWAY_TIMEOUT);
+            return;
         } catch (Exception e) {
             throw new AwooApiHandlerExecutionException("Error running handler", e);
         }
+        if (detachedResponse != null) {
+            // The handler returned in time, so its status, headers and output become part of the response
+            detachedResponse.writeTo(ctx.response());
+        }
 
-        if (instanceResponse != null) {
+        if (StreamingResponseWriter.isStreamable(instanceResponse)) {
+            // Large result sets are written element by element instead of being collected first
+            log.debug("Streaming response of type {}", instanceResponse.getClass().getName());
+            StreamingResponseWriter.write(instanceResponse, ctx, JsonCodecs.negotiate(ctx.header("Accept")));
+        } else if (instanceResponse != null) {
             log.debug("Serializing response of type {}", instanceResponse.getClass().getName());
-            setJsonResponseHeader(ctx);
-            ctx.result(gson.toJson(instanceResponse));
+            // The same endpoint serves JSON or a binary representation, depending on the Accept header
+            JsonCodec codec = JsonCodecs.negotiate(ctx.header("Accept"));
+            setJsonResponseHeader(ctx, codec);
+            // Serialize straight into the response stream instead of building an intermediate String
+            codec.write(instanceResponse, ctx.response().getOutputStream());
         } else {
             // If response of our handler is null, return an HTTP 204 (No Content)
             log.debug("Response of handler {} is null, setting 204 (No Content) HTTP status", restEndpointInstance.getClass().getName());
@@ -69,6 +172,47 @@ public class RESTDispatcher<T> implements Handler {
         }
     }
 
+    /**
+     * Creates a response for a handler running with a deadline, starting from the current state of the real one.
+     *
+     * @param ctx The HandlerContext of the request.
+     * @return A response that is copied into the real one only if the handler returns in time.
+     */
+    private static BufferedResponse detach(HandlerContext ctx) {
+        BufferedResponse detachedResponse = new BufferedResponse();
+        detachedResponse.setStatus(ctx.response().getStatus());
+        ctx.response().getHeaders().forEach(detachedResponse::setHeader);
+        return detachedResponse;
+    }
+
+    /**
+     * Renders the response for a request the bulkhead of the endpoint did not let through.
+     *
+     * @param ctx    The HTTP context to render the response into.
+     * @param status The status, {@code 503} if the bulkhead was full or {@code 504} if the deadline passed.
+     */
+    private void renderRejection(HandlerContext ctx, HttpStatusCode status) throws IOException {
+        if (status == HttpStatusCode.SERVICE_UNAVAILABLE) {
+            ctx.header("Retry-After", "1");
+        }
+        renderError(ctx, status, status.getMessage() + ". Please try again later.");
+    }
+
+    /**
+     * Renders an error response with the given status and message.
+     *
+     * @param ctx     The HTTP context to render the response into.
+     * @param status  The status of the response.
+     * @param message The message shown to the client.
+     */
+    private void renderError(HandlerContext ctx, HttpStatusCode status, String message) throws IOException {
+        JsonCodec codec = JsonCodecs.negotiate(ctx.header("Accept"));
+        ctx.status(status);
+        setJsonResponseHeader(ctx, codec);
+        // Same shape as APIErrorExceptionResponse, as a map since the core module is not open to reflection
+        codec.write(Map.of("message", message), ctx.response().getOutputStream());
+    }
+
     /**
      * Handles exceptions by creating a response based on the current configuration.
      *
@@ -97,12 +241,31 @@ public class RESTDispatcher<T> implements Handler {
     }
 
     /**
-     * Sets the Content-Type header to application/json for the response.
+     * Sets the Content-Type header of the response to the media type of the given codec.
      *
-     * @param ctx The HTTP context for handling the request.
+     * @param ctx   The HTTP context for handling the request.
+     * @param codec The codec used to serialize the response.
+     */
+    private void setJsonResponseHeader(HandlerContext ctx, JsonCodec codec) {
+        ctx.header("Content-Type", codec.getContentType());
+    }
+
+    /**
+     * Retrieves the response cache of this dispatcher, e.g. to read its hit and miss counters.
+     *
+     * @return The response cache, or {@code null} if the endpoint is not annotated with {@link CachedResponse}.
+     */
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Retrieves the bulkhead of the endpoint, e.g. to read its rejection counters.
+     *
+     * @return The bulkhead, or {@code null} if the endpoint is not annotated with {@link Bulkhead}.
      */
-    private void setJsonResponseHeader(HandlerContext ctx) {
-        ctx.header("Content-Type", CONTENT_TYPE_JSON);
+    public EndpointBulkhead getBulkhead() {
+        return bulkhead;
     }
 
     public AbstractEndpoint<T> getRestEndpointInstance() {
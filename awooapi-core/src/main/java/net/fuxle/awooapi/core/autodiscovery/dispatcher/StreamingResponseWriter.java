@@ -0,0 +1,354 @@
+package net.fuxle.awooapi.core.autodiscovery.dispatcher;
+
+import net.fuxle.awooapi.core.exceptions.AwooApiHandlerExecutionException;
+import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import net.fuxle.awooapi.server.intf.codec.JsonCodec;
+import net.fuxle.awooapi.server.intf.codec.JsonSequenceWriter;
+import net.fuxle.awooapi.server.intf.codec.StreamFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Streams endpoint results of type {@link Stream}, {@link Iterator} or {@link Flow.Publisher} element by element
+ * into the response, either as a JSON array or as newline delimited JSON if the client asks for
+ * {@code application/x-ndjson}. Binary codecs use their own array and sequence representations. Only one element
+ * is held in memory at a time, so exports of any size run with flat memory.
+ * <p>
+ * The response is flushed every {@link #FLUSH_INTERVAL_ITEMS} elements, after {@link #FLUSH_INTERVAL_NANOS}
+ * and whenever a publisher has no element ready, which makes the server send it with chunked transfer encoding.
+ * If the client disconnects, the source is closed or its subscription cancelled.
+ */
+public final class StreamingResponseWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * Number of elements after which the response is flushed.
+     */
+    static final int FLUSH_INTERVAL_ITEMS = 256;
+
+    /**
+     * Time after which the response is flushed, even if fewer than {@link #FLUSH_INTERVAL_ITEMS} were written.
+     */
+    static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    /**
+     * Number of elements requested from a publisher at once.
+     */
+    static final int PUBLISHER_PREFETCH = 64;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private StreamingResponseWriter() {
+    }
+
+    /**
+     * Checks whether the given endpoint result is streamed instead of serialized as a whole.
+     *
+     * @param result The endpoint result.
+     * @return {@code true} if the result is a {@link Stream}, {@link Iterator} or {@link Flow.Publisher}.
+     */
+    public static boolean isStreamable(Object result) {
+        return result instanceof Stream<?> || result instanceof Iterator<?> || result instanceof Flow.Publisher<?>;
+    }
+
+    /**
+     * Checks whether an endpoint declares a response type that is streamed, i.e. whether the {@code T} of its
+     * {@link AbstractEndpoint} supertype is a {@link Stream}, {@link Iterator} or {@link Flow.Publisher}. Endpoints
+     * declaring a more general type, e.g. {@code Object}, are not recognized.
+     *
+     * @param endpointClass The endpoint class.
+     * @return {@code true} if the declared response type is streamed.
+     */
+    public static boolean isStreamingEndpoint(Class<?> endpointClass) {
+        // Follow the type arguments up the hierarchy, e.g. through BoundEndpoint<T>
+        Map<TypeVariable<?>, Type> arguments = new HashMap<>();
+        for (Class<?> type = endpointClass; type != null && type != AbstractEndpoint.class; type = type.getSuperclass()) {
+            if (type.getGenericSuperclass() instanceof ParameterizedType superclass) {
+                TypeVariable<?>[] parameters = ((Class<?>) superclass.getRawType()).getTypeParameters();
+                Type[] actual = superclass.getActualTypeArguments();
+                for (int i = 0; i < parameters.length; i++) {
+                    arguments.put(parameters[i], actual[i] instanceof TypeVariable<?> variable ? arguments.getOrDefault(variable, variable) : actual[i]);
+                }
+            }
+        }
+        Type responseType = arguments.get(AbstractEndpoint.class.getTypeParameters()[0]);
+        if (responseType instanceof ParameterizedType parameterized) {
+            responseType = parameterized.getRawType();
+        }
+        return responseType instanceof Class<?> rawType
+                && (Stream.class.isAssignableFrom(rawType) || Iterator.class.isAssignableFrom(rawType) || Flow.Publisher.class.isAssignableFrom(rawType));
+    }
+
+    /**
+     * Streams the given result into the response of the context. The format is negotiated from the {@code Accept} header.
+     *
+     * @param result The streamable endpoint result, see {@link #isStreamable(Object)}.
+     * @param ctx    The HTTP context for handling the request.
+     * @param codec  The codec serializing the elements.
+     * @throws AwooApiHandlerExecutionException If the source fails while producing elements.
+     * @throws IOException                      If serializing an element fails.
+     */
+    public static void write(Object result, HandlerContext ctx, JsonCodec codec) throws AwooApiHandlerExecutionException, IOException {
+        StreamFormat format = StreamFormat.fromMediaType(ctx.header("Accept"));
+        ctx.contentType(codec.getContentType(format));
+
+        switch (result) {
+            case Stream<?> stream -> {
+                try (stream) {
+                    writeIterator(stream.iterator(), ctx, codec, format);
+                }
+            }
+            case Iterator<?> iterator -> {
+                try {
+                    writeIterator(iterator, ctx, codec, format);
+                } finally {
+                    closeQuietly(iterator);
+                }
+            }
+            case Flow.Publisher<?> publisher -> writePublisher(publisher, ctx, codec, format);
+            default -> throw new IllegalArgumentException("Unsupported streaming result " + result.getClass().getName());
+        }
+    }
+
+    private static void writeIterator(Iterator<?> iterator, HandlerContext ctx, JsonCodec codec, StreamFormat format) throws AwooApiHandlerExecutionException, IOException {
+        ClientOutputStream out = new ClientOutputStream(ctx.response().getOutputStream());
+        try {
+            JsonSequenceWriter writer = codec.openSequence(out, format);
+            Flusher flusher = new Flusher(writer);
+            while (true) {
+                Object element;
+                try {
+                    if (!iterator.hasNext()) {
+                        break;
+                    }
+                    element = iterator.next();
+                } catch (RuntimeException e) {
+                    // The sequence is deliberately left unterminated, so the client cannot mistake it for complete
+                    throw new AwooApiHandlerExecutionException("Error while producing streamed response", e);
+                }
+                writer.write(element);
+                flusher.elementWritten();
+            }
+            writer.close();
+        } catch (IOException e) {
+            handleWriteFailure(e, out);
+        }
+    }
+
+    private static void writePublisher(Flow.Publisher<?> publisher, HandlerContext ctx, JsonCodec codec, StreamFormat format) throws AwooApiHandlerExecutionException, IOException {
+        ClientOutputStream out = new ClientOutputStream(ctx.response().getOutputStream());
+        BlockingSubscriber subscriber = new BlockingSubscriber();
+        publisher.subscribe(subscriber);
+
+        try {
+            JsonSequenceWriter writer = codec.openSequence(out, format);
+            Flusher flusher = new Flusher(writer);
+            while (true) {
+                Object signal = subscriber.queue.poll();
+                if (signal == null) {
+                    // Nothing ready, send what we have before waiting for the publisher
+                    flusher.flushIfPending();
+                    signal = subscriber.take();
+                }
+
+                if (signal == BlockingSubscriber.COMPLETE) {
+                    break;
+                } else if (signal instanceof BlockingSubscriber.Failure failure) {
+                    throw new AwooApiHandlerExecutionException("Error while producing streamed response", failure.error());
+                }
+
+                writer.write(signal == BlockingSubscriber.NULL ? null : signal);
+                flusher.elementWritten();
+                subscriber.consumed();
+            }
+            writer.close();
+        } catch (IOException e) {
+            subscriber.cancel();
+            handleWriteFailure(e, out);
+        } catch (AwooApiHandlerExecutionException | RuntimeException e) {
+            subscriber.cancel();
+            throw e;
+        }
+    }
+
+    /**
+     * Distinguishes a client disconnect, which only ends the stream, from a failure to serialize an element.
+     */
+    private static void handleWriteFailure(IOException e, ClientOutputStream out) throws IOException {
+        if (out.failed) {
+            log.debug("Client disconnected while streaming the response, stopping the stream", e);
+            return;
+        }
+        throw e;
+    }
+
+    private static void closeQuietly(Object source) {
+        if (source instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.debug("Unable to close streamed response source", e);
+            }
+        }
+    }
+
+    /**
+     * Remembers whether writing to the client failed, which means the client has disconnected.
+     */
+    private static final class ClientOutputStream extends FilterOutputStream {
+        private boolean failed = false;
+
+        ClientOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            try {
+                out.write(b);
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            try {
+                out.write(b, off, len);
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Flushes the response every {@link #FLUSH_INTERVAL_ITEMS} elements or {@link #FLUSH_INTERVAL_NANOS}.
+     */
+    private static final class Flusher {
+        private final JsonSequenceWriter writer;
+        private int pending = 0;
+        private long lastFlush = System.nanoTime();
+
+        Flusher(JsonSequenceWriter writer) {
+            this.writer = writer;
+        }
+
+        void elementWritten() throws IOException {
+            pending++;
+            if (pending >= FLUSH_INTERVAL_ITEMS || System.nanoTime() - lastFlush >= FLUSH_INTERVAL_NANOS) {
+                flush();
+            }
+        }
+
+        void flushIfPending() throws IOException {
+            if (pending > 0) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            writer.flush();
+            pending = 0;
+            lastFlush = System.nanoTime();
+        }
+    }
+
+    /**
+     * Subscriber handing elements over to the writing thread through a bounded queue.
+     * Elements are requested in batches as they are written, so a fast publisher cannot outrun a slow client.
+     */
+    private static final class BlockingSubscriber implements Flow.Subscriber<Object> {
+        static final Object COMPLETE = new Object();
+        static final Object NULL = new Object();
+
+        record Failure(Throwable error) {
+        }
+
+        // One extra slot for the terminal signal
+        final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(PUBLISHER_PREFETCH + 1);
+        private volatile Flow.Subscription subscription;
+        private int consumedSinceRequest = 0;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(PUBLISHER_PREFETCH);
+        }
+
+        @Override
+        public void onNext(Object item) {
+            // Never blocks, the publisher only sends what has been requested
+            if (!queue.offer(item == null ? NULL : item)) {
+                cancel();
+                queue.clear();
+                queue.offer(new Failure(new IllegalStateException("Publisher sent more elements than requested")));
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            queue.offer(new Failure(throwable));
+        }
+
+        @Override
+        public void onComplete() {
+            queue.offer(COMPLETE);
+        }
+
+        Object take() throws IOException {
+            try {
+                return queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new IOException("Interrupted while waiting for streamed response elements", e);
+            }
+        }
+
+        void consumed() {
+            // Request the next batch once half of the prefetched elements have been written
+            if (++consumedSinceRequest >= PUBLISHER_PREFETCH / 2) {
+                subscription.request(consumedSinceRequest);
+                consumedSinceRequest = 0;
+            }
+        }
+
+        void cancel() {
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+}
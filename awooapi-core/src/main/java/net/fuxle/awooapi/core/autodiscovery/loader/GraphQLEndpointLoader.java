@@ -3,124 +3,209 @@ package net.fuxle.awooapi.core.autodiscovery.loader;
 import graphql.schema.DataFetcher;
 import graphql.schema.GraphQLSchema;
 import graphql.schema.idl.*;
+import net.fuxle.awooapi.annotations.GeneratedComponentRegistry;
+import net.fuxle.awooapi.annotations.GeneratedGraphQLWiring;
 import net.fuxle.awooapi.annotations.GraphQlFieldType;
 import net.fuxle.awooapi.annotations.HandlerType;
 import net.fuxle.awooapi.annotations.MultiEndpoint;
+import net.fuxle.awooapi.RuntimeConfiguration;
 import net.fuxle.awooapi.core.autodiscovery.ClassDiscovery;
 import net.fuxle.awooapi.core.autodiscovery.GraphQLEndpoint;
+import net.fuxle.awooapi.core.autodiscovery.dispatcher.GraphQLBatchDispatcher;
 import net.fuxle.awooapi.core.autodiscovery.dispatcher.GraphQLDispatcher;
+import net.fuxle.awooapi.core.autodiscovery.dispatcher.GraphQLSubscriptionDispatcher;
+import net.fuxle.awooapi.core.cache.PersistedQueryStore;
+import net.fuxle.awooapi.core.network.ClientAddressResolver;
+import net.fuxle.awooapi.core.subscription.GraphQLWebSocketHandler;
+import net.fuxle.awooapi.core.templates.AbstractBatchEndpoint;
 import net.fuxle.awooapi.core.templates.AbstractEndpoint;
 import net.fuxle.awooapi.server.intf.Endpoint;
 import net.fuxle.awooapi.server.intf.WebServer;
-import org.reflections.Reflections;
-import org.reflections.scanners.Scanners;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.vfs.Vfs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.invoke.MethodHandles;
-import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.concurrent.Flow;
 
 
 public class GraphQLEndpointLoader {
     private final ClassDiscovery classDiscovery;
     private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
     private GraphQLSchema graphQLSchema = null;
+    private GraphQLWebSocketHandler subscriptionHandler = null;
 
     public GraphQLEndpointLoader(ClassDiscovery classDiscovery) {
         this.classDiscovery = classDiscovery;
     }
 
-    public void scanForGraphQl() throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException {
-
-        Set<Class<?>> apiPluginMultiClasses = classDiscovery.createReflections().getTypesAnnotatedWith(MultiEndpoint.class);
-
-        Map<String, DataFetcher<?>> queryDataFetchers = new HashMap<>();
-        Map<String, DataFetcher<?>> mutationDataFetchers = new HashMap<>();
+    /**
+     * Assembles the GraphQL schema and wires the endpoints resolving its fields. The schemas and wirings generated
+     * by the annotation processor are used for the modules that have them, the endpoints and schema files of all other
+     * modules are searched for on the classpath.
+     */
+    public void scanForGraphQl() throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException, IOException {
+        List<GeneratedGraphQLWiring> generatedWirings = new ArrayList<>();
+        ServiceLoader.load(GeneratedGraphQLWiring.class, classDiscovery.getConfig().getSearchConfig().getClassLoader())
+                .forEach(generatedWirings::add);
+        scanForGraphQl(generatedWirings);
+    }
 
+    /**
+     * Assembles the GraphQL schema from the given generated wirings, and from the endpoints and schema files of the
+     * modules none of them was generated for.
+     *
+     * @param generatedWirings The wirings generated at build time.
+     */
+    public void scanForGraphQl(List<GeneratedGraphQLWiring> generatedWirings) throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException, IOException {
+        Map<GraphQlFieldType, Map<String, DataFetcher<?>>> dataFetchers = new EnumMap<>(GraphQlFieldType.class);
+        for (GraphQlFieldType fieldType : GraphQlFieldType.values()) {
+            dataFetchers.put(fieldType, new HashMap<>());
+        }
+        TypeDefinitionRegistry mergedRegistry = new TypeDefinitionRegistry();
 
-        for (Class<?> clazz : apiPluginMultiClasses) {
-            String fieldName = clazz.getAnnotation(MultiEndpoint.class).graphQLFieldName();
-            GraphQlFieldType fieldType = clazz.getAnnotation(MultiEndpoint.class).graphQLFieldType();
+        Set<Class<?>> wiredEndpoints = new HashSet<>();
+        Set<String> wiredLocations = new HashSet<>();
+        for (GeneratedGraphQLWiring generatedWiring : generatedWirings) {
+            // Merged and validated at build time, nothing of the module needs to be searched for
+            try (InputStream schema = Objects.requireNonNull(generatedWiring.openSchema(), "Schema of " + generatedWiring.getClass().getName())) {
+                mergedRegistry.merge(new SchemaParser().parse(new InputStreamReader(schema, StandardCharsets.UTF_8)));
+            }
+            for (GeneratedGraphQLWiring.Field field : generatedWiring.getFields()) {
+                registerDataFetcher(dataFetchers, field.endpointClass(), field.type(), field.name(), (AbstractEndpoint<?>) field.constructor().get());
+                wiredEndpoints.add(field.endpointClass());
+            }
+            String location = LoaderHelper.locationOf(generatedWiring.getClass());
+            if (location != null) {
+                wiredLocations.add(location);
+            }
+            log.info("\uD83D\uDCC3 Generated GraphQL schema and wiring {} loaded", generatedWiring.getClass().getName());
+        }
+        // Modules compiled without the annotation processor have no generated wiring
+        scanClasspath(dataFetchers, mergedRegistry, wiredEndpoints, wiredLocations);
 
+        RuntimeWiring graphQLWiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", typeWiring -> wire(typeWiring, dataFetchers.get(GraphQlFieldType.QUERY)))
+                .type("Mutation", typeWiring -> wire(typeWiring, dataFetchers.get(GraphQlFieldType.MUTATION)))
+                .type("Subscription", typeWiring -> wire(typeWiring, dataFetchers.get(GraphQlFieldType.SUBSCRIPTION)))
+                .build();
 
-            // Finde den passenden Konstruktor
-            Constructor<?> constructor = clazz.getDeclaredConstructor();
+        // Generate the GraphQLSchema from the merged TypeDefinitionRegistry and RuntimeWiring
 
-            // Erstelle eine neue Instanz der Klasse mit den gegebenen Parametern (Constructor wird auto. aufgerufen)
-            AbstractEndpoint<?> instance = (AbstractEndpoint<?>) constructor.newInstance();
+        this.graphQLSchema = new SchemaGenerator().makeExecutableSchema(mergedRegistry, graphQLWiring);
+    }
 
+    private static TypeRuntimeWiring.Builder wire(TypeRuntimeWiring.Builder typeWiring, Map<String, DataFetcher<?>> dataFetchers) {
+        for (Map.Entry<String, DataFetcher<?>> entry : dataFetchers.entrySet()) {
+            typeWiring.dataFetcher(entry.getKey(), entry.getValue());
+        }
+        return typeWiring;
+    }
 
-            if (fieldType == GraphQlFieldType.QUERY) {
-                queryDataFetchers.put(fieldName, new GraphQLDispatcher<>(instance));
-            } else if (fieldType == GraphQlFieldType.MUTATION) {
-                mutationDataFetchers.put(fieldName, new GraphQLDispatcher<>(instance));
+    private void scanClasspath(Map<GraphQlFieldType, Map<String, DataFetcher<?>>> dataFetchers, TypeDefinitionRegistry mergedRegistry,
+                               Set<Class<?>> wiredEndpoints, Set<String> wiredLocations) throws IOException {
+        for (GeneratedComponentRegistry.Component<MultiEndpoint> component : classDiscovery.findComponents(MultiEndpoint.class)) {
+            if (wiredEndpoints.contains(component.type())) {
+                continue;
             }
+            String fieldName = component.annotation().graphQLFieldName();
+            GraphQlFieldType fieldType = component.annotation().graphQLFieldType();
 
-            log.info("🔌 Multi-Plugin class {} registered on {} GraphQL query field \"{}\"", clazz.getName(), fieldType.name(), fieldName);
-        }
+            // Erstelle eine neue Instanz der Klasse mit den gegebenen Parametern (Constructor wird auto. aufgerufen)
+            AbstractEndpoint<?> instance = LoaderHelper.createEndpoint(component);
 
-        RuntimeWiring graphQLWiring = RuntimeWiring.newRuntimeWiring()
-                .type("Query", typeWiring -> {
-                    for (Map.Entry<String, DataFetcher<?>> entry : queryDataFetchers.entrySet()) {
-                        typeWiring.dataFetcher(entry.getKey(), entry.getValue());
-                    }
-                    return typeWiring;
-                })
-                .type("Mutation", typeWiring -> {
-                    for (Map.Entry<String, DataFetcher<?>> entry : mutationDataFetchers.entrySet()) {
-                        typeWiring.dataFetcher(entry.getKey(), entry.getValue());
-                    }
-                    return typeWiring;
-                })
-                .build();
+            registerDataFetcher(dataFetchers, component.type(), fieldType, fieldName, instance);
+        }
 
         log.info("\uD83D\uDD0E Scanning classpath for GraphQL (*.graphql) schemas...");
 
-        // Erstellen Sie ein Reflections-Objekt mit einem ResourcesScanner
-        Reflections reflectionsScanner = new Reflections("graphql", Scanners.Resources);
-        // Suchen Sie nach allen Dateien, die mit .graphql enden
-        Set<String> graphQLFiles = reflectionsScanner.getResources(Pattern.compile(".*\\.graphql"));
-
-        TypeDefinitionRegistry mergedRegistry = new TypeDefinitionRegistry();
-        for (String graphQLFile : graphQLFiles) {
-            String schema = new Scanner(Objects.requireNonNull(ClassDiscovery.class.getResourceAsStream("/" + graphQLFile)), StandardCharsets.UTF_8).useDelimiter("\\A").next();
-            TypeDefinitionRegistry parsedSchema = new SchemaParser().parse(schema);
-
-            //Add to merged schemas
-            mergedRegistry.merge(parsedSchema);
+        // Like classes, a schema file found in several classpath entries is taken from the first one
+        Set<String> mergedFiles = new HashSet<>();
+        for (URL classpathEntry : ClasspathHelper.forPackage("graphql", classDiscovery.getConfig().getSearchConfig().getClassLoader())) {
+            if (LoaderHelper.isInLocation(classpathEntry, wiredLocations)) {
+                // The schema files of the module are part of its generated wiring
+                continue;
+            }
+            Vfs.Dir dir = Vfs.fromURL(classpathEntry);
+            try {
+                for (Vfs.File file : dir.getFiles()) {
+                    String graphQLFile = file.getRelativePath();
+                    if (!graphQLFile.startsWith("graphql/") || !graphQLFile.endsWith(".graphql") || !mergedFiles.add(graphQLFile)) {
+                        continue;
+                    }
+                    try (InputStream schema = file.openInputStream()) {
+                        //Add to merged schemas
+                        mergedRegistry.merge(new SchemaParser().parse(new InputStreamReader(schema, StandardCharsets.UTF_8)));
+                    }
 
-            log.info("\uD83D\uDCC3 GraphQL schema at \"{}\" merged", graphQLFile);
+                    log.info("\uD83D\uDCC3 GraphQL schema at \"{}\" merged", graphQLFile);
+                }
+            } finally {
+                dir.close();
+            }
         }
+    }
 
-        // Generate the GraphQLSchema from the merged TypeDefinitionRegistry and RuntimeWiring
+    private void registerDataFetcher(Map<GraphQlFieldType, Map<String, DataFetcher<?>>> dataFetchers, Class<?> clazz,
+                                     GraphQlFieldType fieldType, String fieldName, AbstractEndpoint<?> instance) {
+        ClientAddressResolver clientAddressResolver = classDiscovery.getConfig().getNetworkConfig().getClientAddressResolver();
+        if (fieldType == GraphQlFieldType.SUBSCRIPTION) {
+            // Subscription endpoints return a Flow.Publisher of the events
+            @SuppressWarnings("unchecked")
+            AbstractEndpoint<Flow.Publisher<Object>> subscriptionEndpoint = (AbstractEndpoint<Flow.Publisher<Object>>) instance;
+            dataFetchers.get(fieldType).put(fieldName, new GraphQLSubscriptionDispatcher<>(subscriptionEndpoint, clientAddressResolver));
+        } else {
+            // Batch endpoints resolve all fields of an execution level with one call
+            DataFetcher<?> dataFetcher = instance instanceof AbstractBatchEndpoint<?> batchEndpoint
+                    ? new GraphQLBatchDispatcher<>(batchEndpoint, clientAddressResolver)
+                    : new GraphQLDispatcher<>(instance, clientAddressResolver);
+            dataFetchers.get(fieldType).put(fieldName, dataFetcher);
+        }
 
-        this.graphQLSchema = new SchemaGenerator().makeExecutableSchema(mergedRegistry, graphQLWiring);
+        log.info("🔌 Multi-Plugin class {} registered on {} GraphQL query field \"{}\"", clazz.getName(), fieldType.name(), fieldName);
     }
 
-    public void registerGraphQlEndpoint(WebServer webServer){
+    public void registerGraphQlEndpoint(WebServer webServer) throws IOException {
         if(graphQLSchema == null){
             throw new IllegalArgumentException("Schema is null, please scan for GraphQL classes first");
         }
 
-        log.info("\u27A1\uFE0F Register GraphQL on {}/graphql", classDiscovery.getConfig().getApiConfig().getApiPrefix());
-        webServer.getRouter().addHandler(new Endpoint(HandlerType.POST, classDiscovery.getConfig().getApiConfig().getApiPrefix() + "/graphql", new GraphQLEndpoint(graphQLSchema)));
+        RuntimeConfiguration.ApiConfig apiConfig = classDiscovery.getConfig().getApiConfig();
+        log.info("\u27A1\uFE0F Register GraphQL on {}/graphql", apiConfig.getApiPrefix());
+        GraphQLEndpoint endpoint = new GraphQLEndpoint(graphQLSchema, classDiscovery.getConfig(), createPersistedQueryStore(apiConfig));
+        webServer.getRouter().addHandler(new Endpoint(HandlerType.POST, apiConfig.getApiPrefix() + "/graphql", endpoint));
+        // Queries sent over GET can be cached by browsers, CDNs and proxies
+        webServer.getRouter().addHandler(new Endpoint(HandlerType.GET, apiConfig.getApiPrefix() + "/graphql", endpoint));
+
+        if (graphQLSchema.getSubscriptionType() != null) {
+            log.info("\u27A1\uFE0F Register GraphQL subscriptions on {}/graphql ({})", apiConfig.getApiPrefix(), GraphQLWebSocketHandler.SUBPROTOCOL);
+            subscriptionHandler = new GraphQLWebSocketHandler(endpoint, apiConfig.getGraphQLSubscriptionBufferSize());
+            // WebSocket connections are opened with a GET request carrying an Upgrade header on the same path
+            webServer.addWebSocketHandler(apiConfig.getApiPrefix() + "/graphql", subscriptionHandler);
+        }
     }
 
-    protected String parseClassName(String metadata) {
-        String[] lines = metadata.split("\n");
-        for (String line : lines) {
-            if (line.startsWith("class=")) {
-                return line.split("=")[1].trim();
-            }
+    private PersistedQueryStore createPersistedQueryStore(RuntimeConfiguration.ApiConfig apiConfig) throws IOException {
+        if (!apiConfig.isGraphQLPersistedQueriesEnabled()) {
+            return null;
+        }
+        PersistedQueryStore store = new PersistedQueryStore(apiConfig.getGraphQLPersistedQueryCacheSize(), apiConfig.isGraphQLPersistedQueriesAllowlistOnly());
+        if (apiConfig.getGraphQLPersistedQueryAllowlist() != null) {
+            store.loadAllowlist(apiConfig.getGraphQLPersistedQueryAllowlist());
+        } else if (store.isAllowlistOnly()) {
+            throw new IllegalArgumentException("GraphQL persisted queries are allowlist-only, but no allowlist is configured");
         }
-        throw new IllegalArgumentException("Class name not found in metadata");
+        return store;
     }
 
     public void saveMergedSchemaToFile(Path target) throws IOException {
@@ -140,4 +225,14 @@ public class GraphQLEndpointLoader {
     public GraphQLSchema getGraphQLSchema() {
         return graphQLSchema;
     }
+
+    /**
+     * Retrieves the handler serving the GraphQL operations, and subscriptions in particular, over WebSocket
+     * connections. It is registered on the web server by {@link #registerGraphQlEndpoint(WebServer)}.
+     *
+     * @return The handler, or {@code null} if the schema has no subscriptions or the endpoint was not registered yet.
+     */
+    public GraphQLWebSocketHandler getSubscriptionHandler() {
+        return subscriptionHandler;
+    }
 }
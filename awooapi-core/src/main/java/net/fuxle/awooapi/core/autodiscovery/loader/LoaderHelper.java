@@ -1,11 +1,12 @@
 package net.fuxle.awooapi.core.autodiscovery.loader;
 
+import net.fuxle.awooapi.annotations.GeneratedComponentRegistry;
 import net.fuxle.awooapi.annotations.MultiEndpoint;
 import net.fuxle.awooapi.core.templates.AbstractEndpoint;
 import net.fuxle.awooapi.core.exceptions.AwooApiException;
-import org.reflections.Reflections;
 
-import java.util.HashSet;
+import java.net.URL;
+import java.security.CodeSource;
 import java.util.Set;
 
 public class LoaderHelper {
@@ -38,29 +39,49 @@ public class LoaderHelper {
         return pathPrefix + versionPrefix + path;
     }
 
-    @SuppressWarnings("unchecked")
-    public static Set<Class<? extends AbstractEndpoint<?>>> getEndpointClasses(String basePackage, Class<?> expectedBaseClass, Reflections reflections) {
-        // Reflections-Instanz für das angegebene Paket erstellen
-
-
-        // Alle Klassen mit @MultiEndpoint finden
-        Set<Class<?>> annotatedClasses = reflections.getTypesAnnotatedWith(MultiEndpoint.class);
+    /**
+     * Creates an instance of an endpoint component.
+     *
+     * @param component The component annotated with {@link MultiEndpoint}.
+     * @return The new endpoint instance.
+     * @throws IllegalArgumentException If the component does not extend {@link AbstractEndpoint}.
+     */
+    public static AbstractEndpoint<?> createEndpoint(GeneratedComponentRegistry.Component<MultiEndpoint> component) {
+        if (!AbstractEndpoint.class.isAssignableFrom(component.type())) {
+            throw new IllegalArgumentException(
+                    "Class " + component.type().getName() + " is annotated with @" + MultiEndpoint.class.getSimpleName() + "  but does not extend " + AbstractEndpoint.class.getName()
+            );
+        }
+        return (AbstractEndpoint<?>) component.constructor().get();
+    }
 
-        // Ergebnis-Set für gültige Klassen
-        Set<Class<? extends AbstractEndpoint<?>>> validClasses = new HashSet<>();
+    /**
+     * Determines the classpath entry, i.e. the directory or JAR file, a class was loaded from. Generated registries
+     * and wirings cover the classpath entry of their module, so this tells which entries still need to be scanned.
+     *
+     * @param clazz The class.
+     * @return The URL of the classpath entry, or {@code null} if it is unknown.
+     */
+    public static String locationOf(Class<?> clazz) {
+        CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+        return codeSource != null && codeSource.getLocation() != null ? codeSource.getLocation().toExternalForm() : null;
+    }
 
-        // Überprüfen, ob jede Klasse die erwartete Basisklasse erweitert
-        for (Class<?> clazz : annotatedClasses) {
-            if (!expectedBaseClass.isAssignableFrom(clazz)) {
-                throw new IllegalArgumentException(
-                        "Class " + clazz.getName() + " is annotated with @" + MultiEndpoint.class.getSimpleName()  +"  but does not extend " + expectedBaseClass.getName()
-                );
+    /**
+     * Checks whether a classpath entry or a resource lies in one of the given classpath entries.
+     *
+     * @param url       The URL of the classpath entry or resource.
+     * @param locations The URLs of the classpath entries, as determined by {@link #locationOf(Class)}.
+     * @return {@code true} if the URL is or lies in one of the classpath entries.
+     */
+    public static boolean isInLocation(URL url, Set<String> locations) {
+        String external = url.toExternalForm();
+        for (String location : locations) {
+            if (external.equals(location) || (location.endsWith("/") && external.startsWith(location))
+                    || external.startsWith("jar:" + location + "!/")) {
+                return true;
             }
-
-            // Klasse ist gültig, zum Ergebnis hinzufügen
-            validClasses.add((Class<? extends AbstractEndpoint<?>>) clazz);
         }
-
-        return validClasses;
+        return false;
     }
 }
@@ -1,62 +1,155 @@
 package net.fuxle.awooapi.core.autodiscovery.loader;
 
-import net.fuxle.awooapi.annotations.MultiEndpoint;
+import net.fuxle.awooapi.RuntimeConfiguration;
+import net.fuxle.awooapi.annotations.GeneratedComponentRegistry;
 import net.fuxle.awooapi.core.autodiscovery.ClassDiscovery;
 import org.reflections.Reflections;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
+import java.lang.annotation.Annotation;
 import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.ServiceLoader;
 import java.util.Set;
 
+/**
+ * Finds the annotated component classes of the application. The registries generated by the annotation processor list
+ * the components of their module; the classpath entries of modules compiled without the processor are scanned instead.
+ * Only components in the packages of {@link RuntimeConfiguration.SearchConfig#getPackagePrefix()} are returned.
+ */
 public class MetadataLoader {
     private final ClassDiscovery classDiscovery;
     private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    // Loaded on first use
+    private List<GeneratedComponentRegistry> registries;
+    private Reflections reflections;
+    // The classpath entries skipped by the scanner, null until it has been created
+    private Set<String> skippedLocations;
+
     public MetadataLoader(ClassDiscovery classDiscovery) {
         this.classDiscovery = classDiscovery;
     }
 
-    public List<String> requireMetadata() {
-        List<String> metadata;
-        try {
-            metadata = loadMetadata();
-        } catch (IOException e) {
-            log.warn("Metadata file not found, falling back to runtime scanning.");
-            metadata = performRuntimeScan();
-        }
-        return metadata;
+    /**
+     * Retrieves the component classes annotated with the given annotation.
+     *
+     * @param annotationType The type of the annotation.
+     * @param <A>            The type of the annotation.
+     * @return The annotated components.
+     */
+    public synchronized <A extends Annotation> List<GeneratedComponentRegistry.Component<A>> requireMetadata(Class<A> annotationType) {
+        return requireMetadata(annotationType, loadMetadata());
     }
 
-    public List<String> loadMetadata() throws IOException {
-        List<String> metadata = new ArrayList<>();
-        File metadataFile = new File("META-INF/endpoint-metadata.properties");
-        if (!metadataFile.exists()) {
-            throw new IOException("Metadata file not found");
+    /**
+     * Retrieves the component classes annotated with the given annotation from the given registries, and by scanning
+     * the classpath entries none of them was generated for.
+     *
+     * @param annotationType The type of the annotation.
+     * @param registries     The registries generated at build time.
+     * @param <A>            The type of the annotation.
+     * @return The annotated components.
+     */
+    public synchronized <A extends Annotation> List<GeneratedComponentRegistry.Component<A>> requireMetadata(Class<A> annotationType,
+                                                                                                          List<GeneratedComponentRegistry> registries) {
+        List<GeneratedComponentRegistry.Component<A>> components = new ArrayList<>();
+        Set<String> registryLocations = new HashSet<>();
+        for (GeneratedComponentRegistry registry : registries) {
+            String location = LoaderHelper.locationOf(registry.getClass());
+            if (location != null) {
+                registryLocations.add(location);
+            }
+            for (GeneratedComponentRegistry.Component<A> component : registry.getComponents(annotationType)) {
+                // Registries list every component of their module, also those outside of the searched packages
+                if (isSearched(component.type())) {
+                    components.add(component);
+                }
+            }
         }
-        try (BufferedReader reader = new BufferedReader(new FileReader(metadataFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                metadata.add(line);
+        components.addAll(performRuntimeScan(annotationType, registryLocations));
+        return components;
+    }
+
+    /**
+     * Loads the component registries generated by the annotation processor.
+     *
+     * @return The registries, empty if the application was compiled without the annotation processor.
+     */
+    public synchronized List<GeneratedComponentRegistry> loadMetadata() {
+        if (registries == null) {
+            registries = new ArrayList<>();
+            ServiceLoader.load(GeneratedComponentRegistry.class, classDiscovery.getConfig().getSearchConfig().getClassLoader())
+                    .forEach(registries::add);
+            if (registries.isEmpty()) {
+                log.warn("No generated component registry found, falling back to runtime scanning.");
+            } else {
+                log.info("\uD83D\uDCC7 Loaded {} generated component registries", registries.size());
             }
         }
-        return metadata;
+        return registries;
+    }
+
+    /**
+     * Scans the classpath for the classes annotated with the given annotation.
+     *
+     * @param annotationType The type of the annotation.
+     * @param <A>            The type of the annotation.
+     * @return The annotated components, constructed reflectively.
+     */
+    public <A extends Annotation> List<GeneratedComponentRegistry.Component<A>> performRuntimeScan(Class<A> annotationType) {
+        return performRuntimeScan(annotationType, Set.of());
     }
 
-    public List<String> performRuntimeScan() {
-        log.info("\uD83D\uDD0E Performing runtime scan for component classes ...");
-        Reflections reflections = classDiscovery.createReflections();
-        Set<Class<?>> restEndpointClasses = reflections.getTypesAnnotatedWith(MultiEndpoint.class);
-        List<String> metadata = new ArrayList<>();
-        for (Class<?> clazz : restEndpointClasses) {
-            metadata.add("class=" + clazz.getName() + "\nannotation=RESTEndpoint");
+    /**
+     * Scans the classpath entries, except the given ones, for the classes annotated with the given annotation.
+     *
+     * @param annotationType    The type of the annotation.
+     * @param skippedLocations  The classpath entries not to scan, e.g. because a registry was generated for them.
+     * @param <A>               The type of the annotation.
+     * @return The annotated components, constructed reflectively.
+     */
+    public synchronized <A extends Annotation> List<GeneratedComponentRegistry.Component<A>> performRuntimeScan(Class<A> annotationType,
+                                                                                                             Set<String> skippedLocations) {
+        if (!skippedLocations.equals(this.skippedLocations)) {
+            // Scanned once for all annotations
+            reflections = classDiscovery.createReflections(url -> !LoaderHelper.isInLocation(url, skippedLocations));
+            this.skippedLocations = Set.copyOf(skippedLocations);
+            if (reflections != null) {
+                log.info("\uD83D\uDD0E Performing runtime scan for component classes ...");
+            }
+        }
+        if (reflections == null) {
+            // Every classpath entry has a generated registry
+            return List.of();
         }
-        return metadata;
+
+        List<GeneratedComponentRegistry.Component<A>> components = new ArrayList<>();
+        for (Class<?> clazz : reflections.getTypesAnnotatedWith(annotationType)) {
+            if (!isSearched(clazz)) {
+                continue;
+            }
+            components.add(new GeneratedComponentRegistry.Component<>(clazz.getAnnotation(annotationType), clazz, () -> {
+                try {
+                    return clazz.getDeclaredConstructor().newInstance();
+                } catch (InvocationTargetException e) {
+                    throw new IllegalStateException("Failed to instantiate " + clazz.getName(), e.getCause());
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Failed to instantiate " + clazz.getName(), e);
+                }
+            }));
+        }
+        return components;
+    }
+
+    private boolean isSearched(Class<?> clazz) {
+        String packagePrefix = classDiscovery.getConfig().getSearchConfig().getPackagePrefix();
+        // The default prefix "." searches all packages
+        return packagePrefix == null || packagePrefix.isEmpty() || packagePrefix.equals(".")
+                || clazz.getName().startsWith(packagePrefix + ".");
     }
 }
@@ -1,5 +1,6 @@
 package net.fuxle.awooapi.core.autodiscovery.loader;
 
+import net.fuxle.awooapi.annotations.GeneratedComponentRegistry;
 import net.fuxle.awooapi.annotations.HandlerType;
 import net.fuxle.awooapi.annotations.MultiEndpoint;
 import net.fuxle.awooapi.core.autodiscovery.ClassDiscovery;
@@ -30,6 +31,9 @@ public class RestEndpointLoader {
 
         for (Endpoint e : endpoints){
             log.info("\uD83D\uDD0C Registering REST {}-Endpoint at {} --> {}",e.getType().toString(), e.getPath(), ((RESTDispatcher<?>) e.getHandler()).getRestEndpointInstance().getClass().getName());
+            if (((RESTDispatcher<?>) e.getHandler()).getResponseCache() != null) {
+                log.info("Response caching enabled for {}-Endpoint at {}", e.getType().toString(), e.getPath());
+            }
             server.getRouter().addHandler(e);
         }
 
@@ -41,16 +45,16 @@ public class RestEndpointLoader {
         Set<Endpoint> restHandler = new HashSet<>();
 
         // Durchlaufe alle gefundenen Klassen
-        for (Class<? extends AbstractEndpoint<?>> clazz : LoaderHelper.getEndpointClasses(classDiscovery.
-                getConfig().getSearchConfig().getPackagePrefix(), AbstractEndpoint.class, classDiscovery.createReflections())) {
+        for (GeneratedComponentRegistry.Component<MultiEndpoint> component : classDiscovery.findComponents(MultiEndpoint.class)) {
 
             // Erstelle eine neue Instanz der Klasse mit den gegebenen Parametern (Constructor wird auto. aufgerufen)
-            AbstractEndpoint<?> multiEndpointInstance = createInstanceForClass(clazz);
+            AbstractEndpoint<?> multiEndpointInstance = LoaderHelper.createEndpoint(component);
+            MultiEndpoint annotation = component.annotation();
 
-            HandlerType[] types = clazz.getAnnotation(MultiEndpoint.class).restType();
-            String path = clazz.getAnnotation(MultiEndpoint.class).restPath();
-            String[] apiVersions = clazz.getAnnotation(MultiEndpoint.class).restVersionPrefix();
-            boolean debugOnly = clazz.getAnnotation(MultiEndpoint.class).debugOnly();
+            HandlerType[] types = annotation.restType();
+            String path = annotation.restPath();
+            String[] apiVersions = annotation.restVersionPrefix();
+            boolean debugOnly = annotation.debugOnly();
 
             if (debugOnly && !classDiscovery.getConfig().getDebugConfig().isDebugEnabled()) {
                 //Production mode, don't enable plugins that should only run in debug mode
@@ -74,10 +78,4 @@ public class RestEndpointLoader {
         return restHandler;
     }
 
-
-    private AbstractEndpoint<?> createInstanceForClass(Class<? extends AbstractEndpoint<?>> clazz) throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException {
-        return clazz.getDeclaredConstructor().newInstance();
-    }
-
-
 }
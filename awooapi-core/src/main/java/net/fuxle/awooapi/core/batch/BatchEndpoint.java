@@ -0,0 +1,326 @@
+package net.fuxle.awooapi.core.batch;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import net.fuxle.awooapi.annotations.HandlerType;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.Handler;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import net.fuxle.awooapi.server.intf.HttpStatusCode;
+import net.fuxle.awooapi.server.intf.WebServer;
+import net.fuxle.awooapi.server.intf.codec.JsonCodec;
+import net.fuxle.awooapi.server.intf.codec.JsonCodecs;
+import net.fuxle.awooapi.server.intf.handler.CommonAwooApiHandlers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A handler that executes several REST calls sent in one request, saving clients a round trip per call.
+ * <p>
+ * The request body is an array of sub-requests:
+ * <pre>{@code
+ * [
+ *   {"id": "me", "method": "GET", "path": "/api/v1/users/me"},
+ *   {"id": "note", "method": "POST", "path": "/api/v1/notes?draft=true", "body": {"text": "Awoo"}}
+ * ]
+ * }</pre>
+ * Only {@code path} is required; {@code method} defaults to {@code GET}, and {@code headers} override the headers of
+ * the batch request for that sub-request. Each sub-request is dispatched through the {@link net.fuxle.awooapi.server.common.Router}
+ * like a request of its own, including before and after handlers, 404 handling and the exception handler of the
+ * server. The sub-requests are independent of each other and run in parallel on virtual threads; the response is an
+ * array of {@code {"id", "status", "headers", "body"}} objects in the order of the sub-requests.
+ * <p>
+ * The number of sub-requests running at the same time is limited per batch, so one batch cannot occupy all
+ * connections to a database. Clients may lower the limit with the {@code concurrency} query parameter.
+ */
+public class BatchEndpoint implements Handler {
+
+    private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final WebServer webServer;
+    private final int maxBatchSize;
+    private final int maxConcurrency;
+
+    /**
+     * Constructs a new BatchEndpoint.
+     *
+     * @param webServer      The server whose router and exception handler process the sub-requests.
+     * @param maxBatchSize   The maximum number of sub-requests per batch.
+     * @param maxConcurrency The maximum number of sub-requests of one batch running at the same time.
+     * @throws IllegalArgumentException If a limit is not positive.
+     */
+    public BatchEndpoint(WebServer webServer, int maxBatchSize, int maxConcurrency) {
+        if (maxBatchSize < 1 || maxConcurrency < 1) {
+            throw new IllegalArgumentException("Batch size and concurrency limits must be positive");
+        }
+        this.webServer = webServer;
+        this.maxBatchSize = maxBatchSize;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Executes the sub-requests of the batch and writes their responses as an array.
+     *
+     * @param ctx The HTTP context of the batch request.
+     * @throws Exception If reading the batch or writing the response fails.
+     */
+    @Override
+    public void handle(HandlerContext ctx) throws Exception {
+        BatchRequest[] requests;
+        int concurrency;
+        try {
+            requests = parseBatch(ctx);
+            concurrency = parseConcurrency(ctx.queryParam("concurrency"));
+        } catch (IllegalArgumentException e) {
+            // The whole batch is rejected before anything runs, so no sub-request is executed partially
+            log.debug("Rejecting malformed batch: {}", e.getMessage());
+            renderError(ctx, HttpStatusCode.BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        BufferedResponse[] responses = new BufferedResponse[requests.length];
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            for (int i = next.getAndIncrement(); i < requests.length; i = next.getAndIncrement()) {
+                responses[i] = execute(requests[i], ctx.path());
+            }
+        };
+
+        // A fixed number of workers pulls the sub-requests, which bounds the concurrency without a semaphore
+        int workers = Math.min(concurrency, requests.length);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < workers; i++) {
+                executor.execute(worker);
+            }
+        }
+
+        JsonCodec codec = JsonCodecs.negotiate(ctx.header("Accept"));
+        JsonArray result = new JsonArray(requests.length);
+        for (int i = 0; i < requests.length; i++) {
+            result.add(toJson(requests[i], responses[i]));
+        }
+        ctx.contentType(codec.getContentType());
+        codec.write(result, ctx.response().getOutputStream());
+    }
+
+    /**
+     * Dispatches one sub-request through the router, mirroring the request handling of the server.
+     */
+    private BufferedResponse execute(BatchRequest request, String batchPath) {
+        BufferedResponse response = new BufferedResponse();
+        HandlerContext context = new HandlerContext(request, response, webServer.getRouter());
+        try {
+            if (request.getPath().equals(batchPath)) {
+                renderError(context, HttpStatusCode.BAD_REQUEST, "Batches must not be nested");
+                return response;
+            }
+
+            Handler handler = HandlerType.valueOf(request.getMethod()) == HandlerType.OPTIONS ?
+                    CommonAwooApiHandlers.OPTIONS_HANDLER :
+                    webServer.getRouter().getHandler(request.getPath(), request.getMethod(), context);
+            if (handler == null) {
+                CommonAwooApiHandlers.NOT_FOUND_HANDLER.handle(context);
+            } else {
+                handler.handle(context);
+            }
+        } catch (Exception e) {
+            log.error("Error while handling batched request for path: {}", request.getPath(), e);
+            try {
+                webServer.getExceptionHandler().handle(e, context);
+            } catch (Exception ignored) {
+                context.status(HttpStatusCode.INTERNAL_SERVER_ERROR);
+            }
+        } catch (Throwable t) {
+            // Errors bypass the exception handler of the server, but must still only fail their own sub-request
+            log.error("Error while handling batched request for path: {}", request.getPath(), t);
+            BufferedResponse failed = new BufferedResponse();
+            try {
+                renderError(new HandlerContext(request, failed, webServer.getRouter()), HttpStatusCode.INTERNAL_SERVER_ERROR,
+                        "Internal Server Error. Please try again later.");
+            } catch (IOException e) {
+                failed.setStatus(HttpStatusCode.INTERNAL_SERVER_ERROR.getCode());
+            }
+            return failed;
+        }
+        return response;
+    }
+
+    /**
+     * Renders an error response in the format of the negotiated codec.
+     *
+     * @param ctx     The HTTP context to render the response into.
+     * @param status  The status of the response.
+     * @param message The message shown to the client.
+     */
+    private static void renderError(HandlerContext ctx, HttpStatusCode status, String message) throws IOException {
+        JsonCodec codec = JsonCodecs.negotiate(ctx.header("Accept"));
+        ctx.status(status);
+        ctx.contentType(codec.getContentType());
+        // Same shape as the error responses of the REST dispatcher
+        codec.write(Map.of("message", message), ctx.response().getOutputStream());
+    }
+
+    private BatchRequest[] parseBatch(HandlerContext ctx) throws IOException {
+        JsonCodec codec = JsonCodecs.forContentType(ctx.contentType());
+        JsonElement batch;
+        try {
+            batch = codec.read(ctx.bodyAsInputStream(), JsonElement.class);
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Batch is not valid " + codec.getContentType(), e);
+        }
+        if (batch == null || !batch.isJsonArray()) {
+            throw new IllegalArgumentException("Batch must be an array of requests");
+        }
+
+        JsonArray entries = batch.getAsJsonArray();
+        if (entries.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch contains " + entries.size() + " requests, at most " + maxBatchSize + " are allowed");
+        }
+
+        BatchRequest[] requests = new BatchRequest[entries.size()];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = parseEntry(ctx, entries.get(i), i);
+        }
+        return requests;
+    }
+
+    private BatchRequest parseEntry(HandlerContext ctx, JsonElement element, int index) throws IOException {
+        if (!element.isJsonObject()) {
+            throw new IllegalArgumentException("Request " + index + " of the batch is not an object");
+        }
+        JsonObject entry = element.getAsJsonObject();
+
+        String path = stringMember(entry, "path", index);
+        if (path == null || !path.startsWith("/")) {
+            throw new IllegalArgumentException("Request " + index + " of the batch needs an absolute path");
+        }
+
+        String method = stringMember(entry, "method", index);
+        method = method == null ? "GET" : method.toUpperCase(Locale.ROOT);
+        try {
+            HandlerType.valueOf(method);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Request " + index + " of the batch has unknown method " + method, e);
+        }
+
+        Map<String, String> headers = new HashMap<>();
+        JsonElement headerElement = entry.get("headers");
+        if (headerElement != null && !headerElement.isJsonNull()) {
+            if (!headerElement.isJsonObject()) {
+                throw new IllegalArgumentException("Headers of request " + index + " of the batch must be an object");
+            }
+            for (Map.Entry<String, JsonElement> header : headerElement.getAsJsonObject().entrySet()) {
+                if (!header.getValue().isJsonPrimitive()) {
+                    throw new IllegalArgumentException("Header " + header.getKey() + " of request " + index + " of the batch must be a string");
+                }
+                headers.put(header.getKey(), header.getValue().getAsString());
+            }
+        }
+
+        return new BatchRequest(stringMember(entry, "id", index), ctx.request(), method, path, headers, encodeBody(ctx, entry.get("body"), headers));
+    }
+
+    /**
+     * Encodes the body of a sub-request in the format of its {@code Content-Type}. A string body with a content type
+     * that no codec handles is passed on verbatim, e.g. for {@code text/plain}.
+     */
+    private static byte[] encodeBody(HandlerContext ctx, JsonElement body, Map<String, String> headers) throws IOException {
+        if (body == null || body.isJsonNull()) {
+            return new byte[0];
+        }
+
+        String contentType = headers.entrySet().stream()
+                .filter(header -> header.getKey().equalsIgnoreCase("Content-Type"))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(ctx.contentType());
+        JsonCodec codec = JsonCodecs.forContentType(contentType);
+        if (body.isJsonPrimitive() && body.getAsJsonPrimitive().isString() && !handles(codec, contentType)) {
+            return body.getAsString().getBytes(StandardCharsets.UTF_8);
+        }
+        return codec.toBytes(body);
+    }
+
+    private static String stringMember(JsonObject entry, String name, int index) {
+        JsonElement value = entry.get(name);
+        if (value == null || value.isJsonNull()) {
+            return null;
+        }
+        if (!value.isJsonPrimitive() || !value.getAsJsonPrimitive().isString()) {
+            throw new IllegalArgumentException("Member " + name + " of request " + index + " of the batch must be a string");
+        }
+        return value.getAsString();
+    }
+
+    private int parseConcurrency(String value) {
+        if (value == null) {
+            return maxConcurrency;
+        }
+        try {
+            int concurrency = Integer.parseInt(value);
+            if (concurrency < 1) {
+                throw new IllegalArgumentException("Batch concurrency must be positive");
+            }
+            return Math.min(concurrency, maxConcurrency);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Batch concurrency must be a number", e);
+        }
+    }
+
+    /**
+     * Converts a sub-response into its entry of the batch response. Bodies in a format of a registered codec are
+     * embedded as structured values, other bodies as strings.
+     */
+    private static JsonObject toJson(BatchRequest request, BufferedResponse response) {
+        JsonObject entry = new JsonObject();
+        String id = request.getId();
+        if (id != null) {
+            entry.addProperty("id", id);
+        }
+        entry.addProperty("status", response.getStatus());
+
+        JsonObject headers = new JsonObject();
+        response.getHeaders().forEach(headers::addProperty);
+        entry.add("headers", headers);
+
+        byte[] body = response.getBodyBytes();
+        String contentType = response.getHeader("Content-Type");
+        JsonCodec codec = JsonCodecs.forContentType(contentType);
+        JsonElement value = JsonNull.INSTANCE;
+        if (body.length > 0 && handles(codec, contentType)) {
+            try {
+                value = codec.read(new ByteArrayInputStream(body), JsonElement.class);
+            } catch (IOException | RuntimeException e) {
+                // The handler claimed a format it did not produce, fall back to the raw text
+                value = new JsonPrimitive(new String(body, StandardCharsets.UTF_8));
+            }
+        } else if (body.length > 0) {
+            value = new JsonPrimitive(new String(body, StandardCharsets.UTF_8));
+        }
+        entry.add("body", value);
+        return entry;
+    }
+
+    private static boolean handles(JsonCodec codec, String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        int semicolon = contentType.indexOf(';');
+        String mediaType = (semicolon < 0 ? contentType : contentType.substring(0, semicolon)).trim().toLowerCase(Locale.ROOT);
+        return codec.getMediaTypes().contains(mediaType);
+    }
+}
@@ -0,0 +1,121 @@
+package net.fuxle.awooapi.core.batch;
+
+import net.fuxle.awooapi.server.intf.Request;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One sub-request of a batch. Path, method, body and the explicitly given headers come from the batch entry;
+ * all other headers, the client IP and the connection are those of the enclosing batch request, so authentication
+ * and client address resolution behave as if the sub-request had been sent on its own.
+ */
+final class BatchRequest implements Request {
+    private final String id;
+    private final Request parent;
+    private final String method;
+    private final String path;
+    private final Map<String, String> queryParams;
+    private final Map<String, String> headers;
+    private final byte[] body;
+
+    /**
+     * Constructs a new sub-request.
+     *
+     * @param id      The identifier the client gave the sub-request, may be {@code null}.
+     * @param parent  The enclosing batch request.
+     * @param method  The HTTP method of the sub-request.
+     * @param target  The path of the sub-request, optionally followed by a query string.
+     * @param headers The headers overriding those of the batch request.
+     * @param body    The body of the sub-request.
+     */
+    BatchRequest(String id, Request parent, String method, String target, Map<String, String> headers, byte[] body) {
+        this.id = id;
+        this.parent = parent;
+        this.method = method;
+        this.body = body;
+
+        // Header names are case-insensitive
+        this.headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        this.headers.putAll(headers);
+
+        int question = target.indexOf('?');
+        this.path = question < 0 ? target : target.substring(0, question);
+        this.queryParams = question < 0 ? Map.of() : parseQuery(target.substring(question + 1));
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            // Like servlet containers, the first occurrence of a repeated parameter wins
+            params.putIfAbsent(name, value);
+        }
+        return params;
+    }
+
+    /**
+     * Retrieves the identifier the client gave the sub-request to match it with its response.
+     *
+     * @return The identifier, or {@code null} if the client did not give one.
+     */
+    String getId() {
+        return id;
+    }
+
+    @Override
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        String value = headers.get(name);
+        return value != null ? value : parent.getHeader(name);
+    }
+
+    @Override
+    public String getBody() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String getIP() {
+        return parent.getIP();
+    }
+
+    @Override
+    public String getConnectionId() {
+        return parent.getConnectionId();
+    }
+
+    @Override
+    public String getQueryParam(String name) {
+        return queryParams.get(name);
+    }
+
+    @Override
+    public byte[] getBodyBytes() {
+        return body.clone();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new ByteArrayInputStream(body);
+    }
+}
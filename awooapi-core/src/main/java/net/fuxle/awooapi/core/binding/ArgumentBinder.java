@@ -0,0 +1,20 @@
+package net.fuxle.awooapi.core.binding;
+
+import net.fuxle.awooapi.core.api.Parameters;
+
+/**
+ * Produces the value of one handler method parameter from the request. Binders are created once per route,
+ * so name lookups and the choice of conversion do not happen per request.
+ */
+@FunctionalInterface
+public interface ArgumentBinder {
+
+    /**
+     * Binds the parameter value for the current request.
+     *
+     * @param params The parameters of the current request.
+     * @return The converted value, may be {@code null} for reference types.
+     * @throws Exception If the value cannot be read or converted.
+     */
+    Object bind(Parameters params) throws Exception;
+}
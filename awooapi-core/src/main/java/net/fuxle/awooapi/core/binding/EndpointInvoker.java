@@ -0,0 +1,351 @@
+package net.fuxle.awooapi.core.binding;
+
+import graphql.schema.DataFetchingEnvironment;
+import net.fuxle.awooapi.annotations.Body;
+import net.fuxle.awooapi.annotations.PathParam;
+import net.fuxle.awooapi.annotations.QueryParam;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.exceptions.AwooApiBindingException;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import net.fuxle.awooapi.server.intf.codec.JsonCodec;
+import net.fuxle.awooapi.server.intf.codec.JsonCodecs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.function.Function;
+
+/**
+ * Invokes the handler method of an endpoint with arguments bound from the request.
+ * <p>
+ * The handler method is the single public method named {@value #HANDLER_METHOD_NAME}. Its parameters are annotated
+ * with {@link PathParam}, {@link QueryParam} or {@link Body}, or are of type {@link Parameters},
+ * {@link HandlerContext} or {@link DataFetchingEnvironment}. Everything that does not depend on the request is done
+ * once in {@link #compile(Class)}: every parameter gets an {@link ArgumentBinder} with its name and conversion already
+ * chosen, and the method is linked into a small generated class with {@link LambdaMetafactory}, so it is called
+ * like a regular interface method without reflection or argument arrays. Unsupported parameters fail at registration
+ * instead of on the first request; missing or malformed request values fail with an {@link AwooApiBindingException}.
+ */
+public final class EndpointInvoker {
+
+    private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * The name of the handler method.
+     */
+    public static final String HANDLER_METHOD_NAME = "handle";
+
+    /**
+     * Handler methods with more parameters are invoked through a spreading {@link MethodHandle}.
+     */
+    private static final int MAX_LINKED_ARITY = 4;
+
+    private final Method method;
+    /**
+     * Binders for REST requests, which read textual values.
+     */
+    private final ArgumentBinder[] restBinders;
+    /**
+     * Binders for GraphQL requests, whose arguments may already be typed.
+     */
+    private final ArgumentBinder[] graphQLBinders;
+    /**
+     * The arity of the linked invoker, or {@code -1} if the spreading invoker is used.
+     */
+    private final int linkedArity;
+    /**
+     * The generated {@code InvokerN} implementation for the arity of the method, or {@code null}.
+     */
+    private final Object linkedInvoker;
+    /**
+     * The handler method adapted to {@code (Object endpoint, Object[] arguments) -> Object}, used if there is no
+     * linked invoker.
+     */
+    private final MethodHandle spreadingInvoker;
+
+    private EndpointInvoker(Method method, ArgumentBinder[] restBinders, ArgumentBinder[] graphQLBinders, Object linkedInvoker, MethodHandle spreadingInvoker) {
+        this.method = method;
+        this.restBinders = restBinders;
+        this.graphQLBinders = graphQLBinders;
+        this.linkedArity = linkedInvoker != null ? restBinders.length : -1;
+        this.linkedInvoker = linkedInvoker;
+        this.spreadingInvoker = spreadingInvoker;
+    }
+
+    /**
+     * Resolves the handler method of the given endpoint class and precompiles its argument binders.
+     *
+     * @param endpointClass The endpoint class.
+     * @return The invoker.
+     * @throws IllegalArgumentException If the class has no unique handler method, or a parameter cannot be bound.
+     */
+    public static EndpointInvoker compile(Class<?> endpointClass) {
+        Method method = findHandlerMethod(endpointClass);
+
+        Parameter[] parameters = method.getParameters();
+        ArgumentBinder[] restBinders = new ArgumentBinder[parameters.length];
+        ArgumentBinder[] graphQLBinders = new ArgumentBinder[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            restBinders[i] = createBinder(method, parameters[i], i, false);
+            graphQLBinders[i] = createBinder(method, parameters[i], i, true);
+        }
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle;
+        try {
+            // Endpoint classes live in the application module, which this module does not read by default
+            EndpointInvoker.class.getModule().addReads(endpointClass.getModule());
+            method.trySetAccessible();
+            handle = lookup.unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Handler method " + method + " is not accessible, its package must be opened to awooapi.core", e);
+        }
+
+        Object linkedInvoker = link(lookup, handle, endpointClass, method);
+        MethodHandle spreadingInvoker = linkedInvoker != null ? null : handle
+                .asType(MethodType.genericMethodType(parameters.length + 1))
+                .asSpreader(Object[].class, parameters.length);
+
+        return new EndpointInvoker(method, restBinders, graphQLBinders, linkedInvoker, spreadingInvoker);
+    }
+
+    /**
+     * Generates an implementation of the {@code InvokerN} interface matching the arity of the method, which casts
+     * and unboxes the arguments and calls the method directly.
+     *
+     * @return The invoker, or {@code null} if the method cannot be linked, e.g. because it returns {@code void}.
+     */
+    private static Object link(MethodHandles.Lookup lookup, MethodHandle handle, Class<?> endpointClass, Method method) {
+        int arity = method.getParameterCount();
+        if (arity > MAX_LINKED_ARITY || method.getReturnType() == void.class) {
+            return null;
+        }
+        Class<?> invokerInterface = switch (arity) {
+            case 0 -> Invoker0.class;
+            case 1 -> Invoker1.class;
+            case 2 -> Invoker2.class;
+            case 3 -> Invoker3.class;
+            default -> Invoker4.class;
+        };
+
+        Class<?>[] boxedParameterTypes = new Class<?>[arity + 1];
+        boxedParameterTypes[0] = endpointClass;
+        for (int i = 0; i < arity; i++) {
+            boxedParameterTypes[i + 1] = ValueConverters.box(method.getParameterTypes()[i]);
+        }
+        MethodType instantiatedType = MethodType.methodType(ValueConverters.box(method.getReturnType()), boxedParameterTypes);
+
+        try {
+            CallSite site = LambdaMetafactory.metafactory(lookup, "invoke", MethodType.methodType(invokerInterface),
+                    MethodType.genericMethodType(arity + 1), handle, instantiatedType);
+            return site.getTarget().invoke();
+        } catch (Throwable e) {
+            log.debug("Unable to link handler method {}, invoking it through a method handle", method, e);
+            return null;
+        }
+    }
+
+    /**
+     * Binds the arguments from the request and invokes the handler method.
+     *
+     * @param endpoint The endpoint instance.
+     * @param params   The parameters of the current request.
+     * @return The result of the handler method, {@code null} for {@code void} methods.
+     * @throws AwooApiBindingException If a request value is missing or cannot be converted.
+     * @throws Exception               If the handler method fails.
+     */
+    public Object invoke(Object endpoint, Parameters params) throws Exception {
+        ArgumentBinder[] binders = params.getSource() == Parameters.REQUEST_SOURCE.GRAPH_QL ? graphQLBinders : restBinders;
+        try {
+            return switch (linkedArity) {
+                case 0 -> ((Invoker0) linkedInvoker).invoke(endpoint);
+                case 1 -> ((Invoker1) linkedInvoker).invoke(endpoint, binders[0].bind(params));
+                case 2 -> ((Invoker2) linkedInvoker).invoke(endpoint, binders[0].bind(params), binders[1].bind(params));
+                case 3 -> ((Invoker3) linkedInvoker).invoke(endpoint, binders[0].bind(params), binders[1].bind(params),
+                        binders[2].bind(params));
+                case 4 -> ((Invoker4) linkedInvoker).invoke(endpoint, binders[0].bind(params), binders[1].bind(params),
+                        binders[2].bind(params), binders[3].bind(params));
+                default -> {
+                    Object[] arguments = new Object[binders.length];
+                    for (int i = 0; i < binders.length; i++) {
+                        arguments[i] = binders[i].bind(params);
+                    }
+                    yield (Object) spreadingInvoker.invokeExact(endpoint, arguments);
+                }
+            };
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+    /**
+     * Retrieves the handler method.
+     *
+     * @return The handler method.
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    private static Method findHandlerMethod(Class<?> endpointClass) {
+        Method handler = null;
+        for (Method method : endpointClass.getMethods()) {
+            if (method.getName().equals(HANDLER_METHOD_NAME) && !Modifier.isStatic(method.getModifiers()) && !method.isBridge()) {
+                if (handler != null) {
+                    throw new IllegalArgumentException("Endpoint " + endpointClass.getName() + " has more than one public " + HANDLER_METHOD_NAME + " method");
+                }
+                handler = method;
+            }
+        }
+        if (handler == null) {
+            throw new IllegalArgumentException("Endpoint " + endpointClass.getName() + " has no public " + HANDLER_METHOD_NAME + " method");
+        }
+        return handler;
+    }
+
+    private static ArgumentBinder createBinder(Method method, Parameter parameter, int index, boolean graphQL) {
+        Class<?> type = parameter.getType();
+
+        PathParam pathParam = parameter.getAnnotation(PathParam.class);
+        if (pathParam != null) {
+            return createValueBinder(method, type, pathParam.value(), Parameters.REST_ARGUMENT_TYPE.PATH, null, graphQL);
+        }
+        QueryParam queryParam = parameter.getAnnotation(QueryParam.class);
+        if (queryParam != null) {
+            String defaultValue = queryParam.defaultValue().isEmpty() ? null : queryParam.defaultValue();
+            return createValueBinder(method, type, queryParam.value(), Parameters.REST_ARGUMENT_TYPE.QUERY, defaultValue, graphQL);
+        }
+        Body body = parameter.getAnnotation(Body.class);
+        if (body != null) {
+            return graphQL ? createGraphQLBodyBinder(type, parameter.getParameterizedType(), body.value())
+                    : createRestBodyBinder(parameter.getParameterizedType());
+        }
+
+        if (type == Parameters.class) {
+            return params -> params;
+        } else if (type == HandlerContext.class) {
+            return Parameters::getHandlerContext;
+        } else if (type == DataFetchingEnvironment.class) {
+            return Parameters::getGraphQLDatafetchingEnvironment;
+        }
+        throw new IllegalArgumentException("Parameter " + index + " of " + method + " must be annotated with @PathParam, @QueryParam or @Body");
+    }
+
+    private static ArgumentBinder createValueBinder(Method method, Class<?> type, String name, Parameters.REST_ARGUMENT_TYPE argumentType, String defaultValue, boolean graphQL) {
+        Function<String, ?> converter = ValueConverters.forType(type);
+        if (converter == null) {
+            throw new IllegalArgumentException("Unsupported type " + type.getName() + " of parameter \"" + name + "\" of " + method);
+        }
+
+        Object convertedDefault;
+        try {
+            convertedDefault = defaultValue == null ? null : converter.apply(defaultValue);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid default value \"" + defaultValue + "\" of parameter \"" + name + "\" of " + method, e);
+        }
+        // Primitive parameters cannot be null
+        boolean required = type.isPrimitive() && convertedDefault == null;
+
+        if (graphQL) {
+            Class<?> boxedType = ValueConverters.box(type);
+            return params -> {
+                Object raw = params.getGraphQLDatafetchingEnvironment().getArgument(name);
+                if (raw == null) {
+                    return missing(name, required, convertedDefault);
+                }
+                // GraphQL arguments are usually already typed
+                return boxedType.isInstance(raw) ? raw : convert(name, raw.toString(), converter);
+            };
+        }
+
+        boolean path = argumentType == Parameters.REST_ARGUMENT_TYPE.PATH;
+        if (type == String.class) {
+            return params -> {
+                HandlerContext ctx = params.getHandlerContext();
+                String raw = path ? ctx.pathParam(name) : ctx.queryParam(name);
+                return raw != null ? raw : convertedDefault;
+            };
+        }
+        return params -> {
+            HandlerContext ctx = params.getHandlerContext();
+            String raw = path ? ctx.pathParam(name) : ctx.queryParam(name);
+            return raw != null ? convert(name, raw, converter) : missing(name, required, convertedDefault);
+        };
+    }
+
+    private static Object convert(String name, String raw, Function<String, ?> converter) throws AwooApiBindingException {
+        try {
+            return converter.apply(raw);
+        } catch (IllegalArgumentException e) {
+            throw new AwooApiBindingException("Invalid value for parameter \"" + name + "\": " + raw, e);
+        }
+    }
+
+    private static Object missing(String name, boolean required, Object defaultValue) throws AwooApiBindingException {
+        if (required) {
+            throw new AwooApiBindingException("Missing required parameter \"" + name + "\"");
+        }
+        return defaultValue;
+    }
+
+    private static ArgumentBinder createRestBodyBinder(Type genericType) {
+        return params -> {
+            HandlerContext ctx = params.getHandlerContext();
+            try {
+                return JsonCodecs.forContentType(ctx.contentType()).read(ctx.bodyAsInputStream(), genericType);
+            } catch (RuntimeException e) {
+                // Codecs report malformed input with unchecked exceptions, I/O failures stay IOExceptions
+                throw new AwooApiBindingException("Invalid request body", e);
+            }
+        };
+    }
+
+    private static ArgumentBinder createGraphQLBodyBinder(Class<?> type, Type genericType, String argumentName) {
+        return params -> {
+            Object argument = params.getGraphQLDatafetchingEnvironment().getArgument(argumentName);
+            if (argument == null || (type == genericType && type.isInstance(argument))) {
+                return argument;
+            }
+            // GraphQL input objects arrive as maps, convert them with the same adapters as REST bodies
+            JsonCodec codec = JsonCodecs.getDefault();
+            return codec.read(new ByteArrayInputStream(codec.toBytes(argument)), genericType);
+        };
+    }
+
+    @FunctionalInterface
+    interface Invoker0 {
+        Object invoke(Object endpoint) throws Throwable;
+    }
+
+    @FunctionalInterface
+    interface Invoker1 {
+        Object invoke(Object endpoint, Object a0) throws Throwable;
+    }
+
+    @FunctionalInterface
+    interface Invoker2 {
+        Object invoke(Object endpoint, Object a0, Object a1) throws Throwable;
+    }
+
+    @FunctionalInterface
+    interface Invoker3 {
+        Object invoke(Object endpoint, Object a0, Object a1, Object a2) throws Throwable;
+    }
+
+    @FunctionalInterface
+    interface Invoker4 {
+        Object invoke(Object endpoint, Object a0, Object a1, Object a2, Object a3) throws Throwable;
+    }
+}
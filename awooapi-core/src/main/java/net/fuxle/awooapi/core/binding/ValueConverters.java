@@ -0,0 +1,93 @@
+package net.fuxle.awooapi.core.binding;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Conversions of textual request values, e.g. path and query parameters, to handler parameter types.
+ */
+public final class ValueConverters {
+
+    private static final Map<Class<?>, Function<String, ?>> CONVERTERS = new HashMap<>();
+
+    static {
+        CONVERTERS.put(String.class, Function.identity());
+        CONVERTERS.put(Integer.class, Integer::valueOf);
+        CONVERTERS.put(Long.class, Long::valueOf);
+        CONVERTERS.put(Short.class, Short::valueOf);
+        CONVERTERS.put(Byte.class, Byte::valueOf);
+        CONVERTERS.put(Double.class, Double::valueOf);
+        CONVERTERS.put(Float.class, Float::valueOf);
+        CONVERTERS.put(Boolean.class, ValueConverters::parseBoolean);
+        CONVERTERS.put(BigDecimal.class, BigDecimal::new);
+        CONVERTERS.put(BigInteger.class, BigInteger::new);
+        CONVERTERS.put(UUID.class, UUID::fromString);
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ValueConverters() {
+    }
+
+    /**
+     * Looks up the conversion to the given type. Primitive types use the conversion of their wrapper type.
+     *
+     * @param type The target type.
+     * @return The conversion, or {@code null} if the type is not supported.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Function<String, ?> forType(Class<?> type) {
+        Class<?> boxed = box(type);
+        if (boxed.isEnum()) {
+            Class<? extends Enum> enumType = (Class<? extends Enum>) boxed;
+            return value -> Enum.valueOf(enumType, value);
+        }
+        return CONVERTERS.get(boxed);
+    }
+
+    /**
+     * Converts {@code true} or {@code false}, ignoring case. Unlike {@link Boolean#valueOf(String)}, other values are
+     * rejected instead of being read as {@code false}.
+     *
+     * @param value The value to convert.
+     * @return The boolean value.
+     * @throws IllegalArgumentException If the value is neither {@code true} nor {@code false}.
+     */
+    static Boolean parseBoolean(String value) {
+        if ("true".equalsIgnoreCase(value)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(value)) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException("Not a boolean: " + value);
+    }
+
+    /**
+     * Retrieves the wrapper type of a primitive type.
+     *
+     * @param type The type.
+     * @return The wrapper type, or the type itself if it is not primitive.
+     */
+    public static Class<?> box(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        return switch (type.getName()) {
+            case "int" -> Integer.class;
+            case "long" -> Long.class;
+            case "short" -> Short.class;
+            case "byte" -> Byte.class;
+            case "double" -> Double.class;
+            case "float" -> Float.class;
+            case "boolean" -> Boolean.class;
+            case "char" -> Character.class;
+            default -> Void.class;
+        };
+    }
+}
@@ -0,0 +1,223 @@
+package net.fuxle.awooapi.core.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A thread-safe, size-bounded cache with least-recently-used eviction.
+ * <p>
+ * The cache is split into independently locked segments, each an access-ordered {@link LinkedHashMap},
+ * so concurrent readers of different keys rarely contend. Eviction is LRU per segment, which approximates
+ * a global LRU closely enough for caching purposes while keeping every operation O(1).
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the cached values.
+ */
+public class BoundedCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_SIZE = 16;
+
+    private final Segment<K, V>[] segments;
+    private final int segmentMask;
+    private final int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a new cache holding at most the given number of entries.
+     *
+     * @param maxEntries The maximum number of entries, must be positive.
+     * @throws IllegalArgumentException If {@code maxEntries} is not positive.
+     */
+    @SuppressWarnings("unchecked")
+    public BoundedCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive, got " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+
+        // Power of two segment count; small caches get fewer segments, so the LRU order stays meaningful
+        int segmentCount = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maxEntries / MIN_SEGMENT_SIZE)));
+        this.segments = new Segment[segmentCount];
+        this.segmentMask = segmentCount - 1;
+
+        int perSegment = maxEntries / segmentCount;
+        int remainder = maxEntries % segmentCount;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(perSegment + (i < remainder ? 1 : 0), evictions);
+        }
+    }
+
+    /**
+     * Retrieves the value cached for the given key and marks it as recently used.
+     *
+     * @param key The key to look up.
+     * @return The cached value, or {@code null} if there is none.
+     */
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        V value;
+        synchronized (segment) {
+            value = segment.get(key);
+        }
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Caches a value, evicting the least recently used entry of the segment if it is full.
+     *
+     * @param key   The key to cache the value under.
+     * @param value The value to cache, must not be {@code null}.
+     */
+    public void put(K key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Cached values must not be null");
+        }
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, value);
+        }
+    }
+
+    /**
+     * Retrieves the cached value for the given key, computing and caching it if absent.
+     * The mapping function runs while the key's segment is locked, so it should be fast.
+     *
+     * @param key             The key to look up.
+     * @param mappingFunction The function computing the value if absent; a {@code null} result is not cached.
+     * @return The cached or computed value.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            V value = segment.get(key);
+            if (value != null) {
+                hits.increment();
+                return value;
+            }
+            misses.increment();
+            value = mappingFunction.apply(key);
+            if (value != null) {
+                segment.put(key, value);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Removes the cached value for the given key.
+     *
+     * @param key The key to remove.
+     * @return The removed value, or {@code null} if there was none.
+     */
+    public V remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.remove(key);
+        }
+    }
+
+    /**
+     * Removes all cached values. Statistics are kept.
+     */
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Retrieves the current number of cached entries.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Retrieves the maximum number of entries this cache holds.
+     *
+     * @return The maximum number of entries.
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Retrieves a snapshot of the statistics of this cache.
+     *
+     * @return The cache statistics.
+     */
+    public CacheStats getStats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size());
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        // Spread the higher bits, as with HashMap
+        return segments[(h ^ (h >>> 16)) & segmentMask];
+    }
+
+    /**
+     * Snapshot of the statistics of a cache.
+     *
+     * @param hits      The number of lookups that found a value.
+     * @param misses    The number of lookups that found no value.
+     * @param evictions The number of entries evicted because the cache was full.
+     * @param size      The number of entries at the time of the snapshot.
+     */
+    public record CacheStats(long hits, long misses, long evictions, int size) {
+
+        /**
+         * Calculates the ratio of lookups that found a value.
+         *
+         * @return The hit ratio between 0 and 1, or 0 if there were no lookups yet.
+         */
+        public double hitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    /**
+     * One access-ordered, bounded segment. Callers synchronize on the segment itself.
+     */
+    private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+        private final int capacity;
+        private final LongAdder evictions;
+
+        Segment(int capacity, LongAdder evictions) {
+            super(Math.min(capacity, 1024), 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package net.fuxle.awooapi.core.cache;
+
+import graphql.schema.DataFetchingEnvironment;
+import net.fuxle.awooapi.annotations.CachedField;
+import net.fuxle.awooapi.server.intf.Request;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the results of a single GraphQL field endpoint as configured by {@link CachedField}, shared by all requests
+ * and queries selecting the field.
+ * <p>
+ * Results are keyed by the coordinates of the field, its parent object, its coerced arguments and the configured
+ * request headers. Arguments are compared as maps, so the order they were written in does not matter. Since the
+ * parent object is part of the key, it must implement {@code equals} and {@code hashCode} for nested fields to hit
+ * the cache. {@code null} results are not cached.
+ *
+ * @param <T> The type of the cached results.
+ */
+public class FieldResultCache<T> {
+
+    /**
+     * A cached result and the time it expires at.
+     */
+    private record Entry<T>(T value, long expiresAt) {
+    }
+
+    private final BoundedCache<List<Object>, Entry<T>> cache;
+    private final List<String> headers;
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructs a new field result cache from the settings of a {@link CachedField} annotation.
+     *
+     * @param settings The cache settings.
+     * @throws IllegalArgumentException If the settings are invalid.
+     */
+    public FieldResultCache(CachedField settings) {
+        this(settings.maxEntries(), settings.ttlSeconds(), TimeUnit.SECONDS, List.of(settings.headers()));
+    }
+
+    /**
+     * Constructs a new field result cache.
+     *
+     * @param maxEntries The maximum number of cached results.
+     * @param ttl        The time a cached result is fresh.
+     * @param unit       The unit of the ttl.
+     * @param headers    The request headers that are part of the cache key.
+     * @throws IllegalArgumentException If the ttl or the maximum number of entries is not positive.
+     */
+    public FieldResultCache(int maxEntries, long ttl, TimeUnit unit, List<String> headers) {
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("ttl must be positive, got " + ttl);
+        }
+        this.cache = new BoundedCache<>(maxEntries);
+        this.ttlNanos = unit.toNanos(ttl);
+        this.headers = List.copyOf(headers);
+    }
+
+    /**
+     * Builds the cache key of a field fetch.
+     *
+     * @param environment The environment of the fetch.
+     * @param request     The request the field is fetched for.
+     * @return The cache key.
+     */
+    public List<Object> createKey(DataFetchingEnvironment environment, Request request) {
+        List<Object> key = new ArrayList<>(4 + headers.size());
+        // The same endpoint may back fields of several types
+        key.add(environment.getExecutionStepInfo().getObjectType().getName());
+        key.add(environment.getField().getName());
+        key.add(environment.getSource());
+        key.add(environment.getArguments());
+        for (String name : headers) {
+            key.add(request.getHeader(name));
+        }
+        return key;
+    }
+
+    /**
+     * Retrieves the fresh result cached for the given key.
+     *
+     * @param key The key built by {@link #createKey(DataFetchingEnvironment, Request)}.
+     * @return The cached result, or {@code null} if there is none or it has expired.
+     */
+    public T get(List<Object> key) {
+        Entry<T> entry = cache.get(key);
+        if (entry != null && System.nanoTime() - entry.expiresAt() < 0) {
+            hits.increment();
+            return entry.value();
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Caches the result of a field fetch.
+     *
+     * @param key   The key built by {@link #createKey(DataFetchingEnvironment, Request)}.
+     * @param value The result, not cached if it is {@code null}.
+     */
+    public void put(List<Object> key, T value) {
+        if (value != null) {
+            cache.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    /**
+     * Removes all cached results, e.g. after the data behind the field has changed.
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    /**
+     * Retrieves a snapshot of the statistics of this cache. Expired entries count as misses.
+     *
+     * @return The cache statistics.
+     */
+    public BoundedCache.CacheStats getStats() {
+        return new BoundedCache.CacheStats(hits.sum(), misses.sum(), cache.getStats().evictions(), cache.size());
+    }
+}
@@ -0,0 +1,143 @@
+package net.fuxle.awooapi.core.cache;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphqlErrorBuilder;
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.language.OperationDefinition;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLCodeRegistry;
+import net.fuxle.awooapi.annotations.MultiEndpoint;
+import net.fuxle.awooapi.core.autodiscovery.dispatcher.EndpointDataFetcher;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Determines how long the response to a GraphQL query sent over GET may be cached, from the cache hints the
+ * endpoints of its fields declare with {@link MultiEndpoint#graphQLCacheMaxAge()} and
+ * {@link MultiEndpoint#graphQLCachePrivate()}. Operations other than queries are rejected over GET, since GET
+ * requests must not change state.
+ * <p>
+ * The policy is determined before execution and stored in the {@link graphql.GraphQLContext} of the execution, see
+ * {@link #getCachePolicy(ExecutionInput)}. Only executions marked with {@link #markGetRequest(ExecutionInput)} are
+ * analysed; other transports, e.g. WebSocket connections opened with a GET request, are not.
+ */
+public class GraphQLCacheHintInstrumentation extends SimplePerformantInstrumentation {
+
+    /**
+     * The error code of operations that must not be sent over GET.
+     */
+    public static final String METHOD_NOT_ALLOWED = "METHOD_NOT_ALLOWED";
+
+    private static final String CACHE_POLICY_KEY = GraphQLCacheHintInstrumentation.class.getName() + ".cachePolicy";
+    private static final String GET_REQUEST_KEY = GraphQLCacheHintInstrumentation.class.getName() + ".getRequest";
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
+        ExecutionContext executionContext = parameters.getExecutionContext();
+        if (!executionContext.getGraphQLContext().getBoolean(GET_REQUEST_KEY, false)) {
+            return super.beginExecuteOperation(parameters, state);
+        }
+
+        if (executionContext.getOperationDefinition().getOperation() != OperationDefinition.Operation.QUERY) {
+            throw new AbortExecutionException(List.of(GraphqlErrorBuilder.newError()
+                    .message("Only query operations can be sent over GET, please use POST")
+                    .extensions(Map.of("code", METHOD_NOT_ALLOWED))
+                    .build()));
+        }
+        executionContext.getGraphQLContext().put(CACHE_POLICY_KEY, analyze(executionContext));
+        return super.beginExecuteOperation(parameters, state);
+    }
+
+    private static CachePolicy analyze(ExecutionContext executionContext) {
+        GraphQLCodeRegistry codeRegistry = executionContext.getGraphQLSchema().getCodeRegistry();
+        return QueryTraverser.newQueryTraverser()
+                .schema(executionContext.getGraphQLSchema())
+                .document(executionContext.getDocument())
+                .operationName(executionContext.getOperationDefinition().getName())
+                .coercedVariables(executionContext.getCoercedVariables())
+                .build()
+                .reducePreOrder((QueryVisitorFieldEnvironment environment, CachePolicy policy) -> {
+                    if (environment.isTypeNameIntrospectionField()) {
+                        return policy;
+                    }
+                    FieldCoordinates coordinates = FieldCoordinates.coordinates(environment.getFieldsContainer().getName(), environment.getFieldDefinition().getName());
+                    if (!codeRegistry.hasDataFetcher(coordinates)
+                            || !(codeRegistry.getDataFetcher(coordinates, environment.getFieldDefinition()) instanceof EndpointDataFetcher dataFetcher)) {
+                        // Fields without endpoint are part of the result of their parent and do not restrict caching
+                        return policy;
+                    }
+                    MultiEndpoint multiEndpoint = dataFetcher.getMultiEndpoint();
+                    return multiEndpoint == null ? CachePolicy.UNCACHEABLE
+                            : policy.restrict(multiEndpoint.graphQLCacheMaxAge(), multiEndpoint.graphQLCachePrivate());
+                }, new CachePolicy(Integer.MAX_VALUE, false));
+    }
+
+    /**
+     * Marks an execution as a request sent over HTTP GET, which must be a query and whose response may be cached.
+     *
+     * @param executionInput The input of the execution.
+     */
+    public static void markGetRequest(ExecutionInput executionInput) {
+        executionInput.getGraphQLContext().put(GET_REQUEST_KEY, true);
+    }
+
+    /**
+     * Retrieves the cache policy determined for an execution.
+     *
+     * @param executionInput The input of the execution.
+     * @return The cache policy, or {@link CachePolicy#UNCACHEABLE} if the request was not sent over GET or was not
+     * executed.
+     */
+    public static CachePolicy getCachePolicy(ExecutionInput executionInput) {
+        CachePolicy policy = executionInput.getGraphQLContext().get(CACHE_POLICY_KEY);
+        // A query without any endpoint field has no hints at all
+        return policy == null || policy.maxAge() == Integer.MAX_VALUE ? CachePolicy.UNCACHEABLE : policy;
+    }
+
+    /**
+     * How long and by whom a response may be cached.
+     *
+     * @param maxAge       The seconds the response may be cached, 0 if it must be revalidated on every use.
+     * @param privateScope Whether only the client, but no shared cache, may store the response.
+     */
+    public record CachePolicy(int maxAge, boolean privateScope) {
+
+        /**
+         * The policy of responses that must be revalidated on every use.
+         */
+        public static final CachePolicy UNCACHEABLE = new CachePolicy(0, false);
+
+        /**
+         * Combines this policy with the cache hint of another field.
+         *
+         * @param fieldMaxAge  The maximum age of the field.
+         * @param fieldPrivate Whether the field may only be cached by the client.
+         * @return The stricter combined policy.
+         */
+        public CachePolicy restrict(int fieldMaxAge, boolean fieldPrivate) {
+            return new CachePolicy(Math.min(maxAge, fieldMaxAge), privateScope || fieldPrivate);
+        }
+
+        /**
+         * Formats this policy as the value of a {@code Cache-Control} header.
+         *
+         * @return The header value.
+         */
+        public String toCacheControl() {
+            if (maxAge <= 0) {
+                // Allows conditional requests with the ETag, but no reuse without revalidation
+                return "no-cache";
+            }
+            return (privateScope ? "private" : "public") + ", max-age=" + maxAge;
+        }
+    }
+}
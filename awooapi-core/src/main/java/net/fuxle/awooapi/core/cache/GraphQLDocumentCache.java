@@ -0,0 +1,77 @@
+package net.fuxle.awooapi.core.cache;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Caches parsed and validated GraphQL documents, so a query text that was seen before is neither parsed nor
+ * validated again.
+ * <p>
+ * Documents are keyed by the SHA-256 hash of the query text, which keeps the keys small for large queries. Validation
+ * only depends on the query and the schema, so one cache must only be used with a single schema. Documents with
+ * parse or validation errors are not cached; otherwise clients sending arbitrary invalid queries could evict the
+ * documents of the few queries that are actually in use.
+ */
+public class GraphQLDocumentCache implements PreparsedDocumentProvider {
+
+    private final BoundedCache<String, PreparsedDocumentEntry> documents;
+
+    /**
+     * Constructs a new document cache.
+     *
+     * @param maxEntries The maximum number of cached documents, least recently used documents are evicted first.
+     * @throws IllegalArgumentException If the maximum number of entries is not positive.
+     */
+    public GraphQLDocumentCache(int maxEntries) {
+        this.documents = new BoundedCache<>(maxEntries);
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        String key = hash(executionInput.getQuery());
+        PreparsedDocumentEntry entry = documents.get(key);
+        if (entry == null) {
+            // Parsed outside the cache lock; concurrent misses of the same query may parse it twice, which is harmless
+            entry = parseAndValidateFunction.apply(executionInput);
+            if (!entry.hasErrors()) {
+                documents.put(key, entry);
+            }
+        }
+        return CompletableFuture.completedFuture(entry);
+    }
+
+    /**
+     * Removes all cached documents, e.g. after the schema has changed.
+     */
+    public void invalidateAll() {
+        documents.clear();
+    }
+
+    /**
+     * Retrieves a snapshot of the statistics of this cache.
+     *
+     * @return The cache statistics.
+     */
+    public BoundedCache.CacheStats getStats() {
+        return documents.getStats();
+    }
+
+    private static String hash(String query) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(query.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
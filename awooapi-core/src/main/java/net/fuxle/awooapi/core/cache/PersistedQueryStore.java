@@ -0,0 +1,174 @@
+package net.fuxle.awooapi.core.cache;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores GraphQL query texts by their SHA-256 hash for automatic persisted queries, so clients only need to send
+ * the hash of a query the server has seen before.
+ * <p>
+ * Queries are either preloaded from an allowlist generated at build time, which are never evicted, or registered
+ * at runtime by clients that send the query together with its hash, which are kept in a bounded LRU cache. In
+ * allowlist-only mode runtime registration is disabled and the server only executes the preloaded queries.
+ */
+public class PersistedQueryStore {
+
+    private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final Map<String, String> allowlist = new ConcurrentHashMap<>();
+    private final BoundedCache<String, String> registered;
+    private final boolean allowlistOnly;
+
+    /**
+     * Constructs a new persisted query store.
+     *
+     * @param maxRegisteredQueries The maximum number of queries registered at runtime.
+     * @param allowlistOnly        Whether only preloaded queries are accepted and runtime registration is disabled.
+     * @throws IllegalArgumentException If the maximum number of queries is not positive.
+     */
+    public PersistedQueryStore(int maxRegisteredQueries, boolean allowlistOnly) {
+        this.registered = new BoundedCache<>(maxRegisteredQueries);
+        this.allowlistOnly = allowlistOnly;
+    }
+
+    /**
+     * Preloads an allowlist of queries. The file is either a JSON object mapping hashes to query texts, or an Apollo
+     * persisted query manifest with an {@code operations} array of {@code {"id", "body"}} objects.
+     *
+     * @param file The allowlist file.
+     * @return The number of queries loaded.
+     * @throws IOException If the file cannot be read, is malformed or a hash does not match its query.
+     */
+    public int loadAllowlist(Path file) throws IOException {
+        JsonElement root;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            root = JsonParser.parseReader(reader);
+        } catch (JsonParseException e) {
+            throw new IOException("Persisted query allowlist " + file + " is not valid JSON", e);
+        }
+        if (!root.isJsonObject()) {
+            throw new IOException("Persisted query allowlist " + file + " must be a JSON object");
+        }
+
+        int count = 0;
+        JsonObject object = root.getAsJsonObject();
+        if (object.has("operations") && object.get("operations").isJsonArray()) {
+            for (JsonElement operation : object.getAsJsonArray("operations")) {
+                JsonObject entry = operation.getAsJsonObject();
+                addToAllowlist(file, entry.get("id").getAsString(), entry.get("body").getAsString());
+                count++;
+            }
+        } else {
+            for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                addToAllowlist(file, entry.getKey(), entry.getValue().getAsString());
+                count++;
+            }
+        }
+        log.info("📋 Loaded {} persisted queries from {}", count, file);
+        return count;
+    }
+
+    private void addToAllowlist(Path file, String hash, String query) throws IOException {
+        String normalized = hash.toLowerCase(Locale.ROOT);
+        if (!sha256Hex(query).equals(normalized)) {
+            throw new IOException("Hash " + hash + " in persisted query allowlist " + file + " does not match its query");
+        }
+        allowlist.put(normalized, query);
+    }
+
+    /**
+     * Looks up the query with the given hash.
+     *
+     * @param sha256Hash The hex encoded SHA-256 hash of the query.
+     * @return The query text, or {@code null} if the query is unknown.
+     */
+    public String lookup(String sha256Hash) {
+        String hash = sha256Hash.toLowerCase(Locale.ROOT);
+        String query = allowlist.get(hash);
+        if (query == null && !allowlistOnly) {
+            query = registered.get(hash);
+        }
+        return query;
+    }
+
+    /**
+     * Registers a query sent by a client together with its hash.
+     *
+     * @param sha256Hash The hex encoded SHA-256 hash the client computed.
+     * @param query      The query text.
+     * @return {@code true} if the hash matches the query and it was registered.
+     * @throws IllegalStateException If the store only accepts preloaded queries.
+     */
+    public boolean register(String sha256Hash, String query) {
+        if (allowlistOnly) {
+            throw new IllegalStateException("Queries cannot be registered in allowlist-only mode");
+        }
+        String hash = sha256Hash.toLowerCase(Locale.ROOT);
+        if (!sha256Hex(query).equals(hash)) {
+            return false;
+        }
+        if (!allowlist.containsKey(hash)) {
+            registered.put(hash, query);
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether only preloaded queries are accepted.
+     *
+     * @return {@code true} in allowlist-only mode.
+     */
+    public boolean isAllowlistOnly() {
+        return allowlistOnly;
+    }
+
+    /**
+     * Retrieves the number of preloaded queries.
+     *
+     * @return The size of the allowlist.
+     */
+    public int getAllowlistSize() {
+        return allowlist.size();
+    }
+
+    /**
+     * Retrieves a snapshot of the statistics of the queries registered at runtime.
+     *
+     * @return The cache statistics.
+     */
+    public BoundedCache.CacheStats getStats() {
+        return registered.getStats();
+    }
+
+    /**
+     * Computes the hash clients send for a query.
+     *
+     * @param query The query text.
+     * @return The lower case hex encoded SHA-256 hash of the UTF-8 encoded query.
+     */
+    public static String sha256Hex(String query) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package net.fuxle.awooapi.core.cache;
+
+import net.fuxle.awooapi.annotations.CoalescedRequests;
+import net.fuxle.awooapi.core.exceptions.AwooApiHandlerExecutionException;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces identical concurrent requests of a single endpoint as configured by {@link CoalescedRequests}.
+ * <p>
+ * The first request for a key becomes the leader and renders the response into a buffer; identical requests arriving
+ * while it runs become followers and replay the leader's status, headers and body bytes. If the leader fails, its
+ * followers fail with it instead of retrying one after another. A follower waits at most the configured timeout;
+ * after that it removes the leader from the in-flight map, so later requests elect a new leader, and renders the
+ * response on its own. Only {@code GET} and {@code HEAD} requests are coalesced, and a leader's response that sets a
+ * cookie is not shared; its followers render their own responses.
+ */
+public class RequestCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final ConcurrentHashMap<String, CompletableFuture<BufferedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final List<String> queryParams;
+    private final List<String> headers;
+    private final long timeoutNanos;
+
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * Constructs a new request coalescer from the settings of a {@link CoalescedRequests} annotation.
+     *
+     * @param settings The coalescing settings.
+     * @throws IllegalArgumentException If the timeout is not positive.
+     */
+    public RequestCoalescer(CoalescedRequests settings) {
+        this(settings.timeoutMillis(), TimeUnit.MILLISECONDS, List.of(settings.queryParams()), List.of(settings.headers()));
+    }
+
+    /**
+     * Constructs a new request coalescer.
+     *
+     * @param timeout     The time a follower waits for the leader before it renders the response on its own.
+     * @param unit        The unit of the timeout.
+     * @param queryParams The query parameters that distinguish requests.
+     * @param headers     The request headers that distinguish requests.
+     * @throws IllegalArgumentException If the timeout is not positive.
+     */
+    public RequestCoalescer(long timeout, TimeUnit unit, List<String> queryParams, List<String> headers) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("Invalid coalescing timeout: " + timeout);
+        }
+        this.timeoutNanos = unit.toNanos(timeout);
+        this.queryParams = List.copyOf(queryParams);
+        this.headers = List.copyOf(headers);
+    }
+
+    /**
+     * Serves the response for the given request, sharing the rendering with identical requests in flight.
+     *
+     * @param ctx      The context of the current request.
+     * @param renderer The renderer producing the response.
+     * @throws AwooApiHandlerExecutionException If the renderer fails, or the leader this request waited for failed.
+     * @throws IOException                      If writing the response fails or the wait is interrupted.
+     */
+    public void serve(HandlerContext ctx, ResponseCache.ResponseRenderer renderer) throws AwooApiHandlerExecutionException, IOException {
+        String method = ctx.request().getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            renderer.render(ctx);
+            return;
+        }
+
+        String key = RequestKeys.create(ctx.request(), queryParams, headers);
+        CompletableFuture<BufferedResponse> own = new CompletableFuture<>();
+        CompletableFuture<BufferedResponse> leader = inFlight.putIfAbsent(key, own);
+        if (leader == null) {
+            lead(key, own, ctx, renderer);
+        } else {
+            follow(key, leader, ctx, renderer);
+        }
+    }
+
+    private void lead(String key, CompletableFuture<BufferedResponse> own, HandlerContext ctx,
+                      ResponseCache.ResponseRenderer renderer) throws AwooApiHandlerExecutionException, IOException {
+        leaders.increment();
+        BufferedResponse buffered = new BufferedResponse();
+        try {
+            renderer.render(new HandlerContext(ctx.request(), buffered, ctx.router()));
+            own.complete(buffered);
+        } catch (Throwable t) {
+            own.completeExceptionally(t);
+            throw t;
+        } finally {
+            // Requests arriving from now on render a fresh response
+            inFlight.remove(key, own);
+        }
+        buffered.writeTo(ctx.response());
+    }
+
+    private void follow(String key, CompletableFuture<BufferedResponse> leader, HandlerContext ctx,
+                        ResponseCache.ResponseRenderer renderer) throws AwooApiHandlerExecutionException, IOException {
+        followers.increment();
+        BufferedResponse shared;
+        try {
+            shared = leader.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            // Do not let later requests queue up behind a hung leader either
+            inFlight.remove(key, leader);
+            log.warn("Coalesced request {} did not complete within {} ms, rendering it separately", key, TimeUnit.NANOSECONDS.toMillis(timeoutNanos));
+            renderer.render(ctx);
+            return;
+        } catch (ExecutionException e) {
+            throw new AwooApiHandlerExecutionException("Coalesced request failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for coalesced request");
+        }
+        if (ResponseCache.setsCookie(shared)) {
+            // The cookie belongs to the leader's client
+            renderer.render(ctx);
+            return;
+        }
+        // The buffer is only read once it is complete, so followers can copy it concurrently
+        shared.writeTo(ctx.response());
+    }
+
+    /**
+     * Retrieves a snapshot of the statistics of this coalescer.
+     *
+     * @return The coalescing statistics.
+     */
+    public Stats getStats() {
+        return new Stats(leaders.sum(), followers.sum(), timeouts.sum(), inFlight.size());
+    }
+
+    /**
+     * Snapshot of the statistics of a request coalescer.
+     *
+     * @param leaders   The number of requests that rendered a response.
+     * @param followers The number of requests that waited for an identical request in flight.
+     * @param timeouts  The number of followers that gave up waiting and rendered the response on their own.
+     * @param inFlight  The number of distinct requests in flight at the time of the snapshot.
+     */
+    public record Stats(long leaders, long followers, long timeouts, int inFlight) {
+    }
+}
@@ -0,0 +1,40 @@
+package net.fuxle.awooapi.core.cache;
+
+import net.fuxle.awooapi.server.intf.Request;
+import net.fuxle.awooapi.server.intf.codec.JsonCodecs;
+import net.fuxle.awooapi.server.intf.codec.StreamFormat;
+
+import java.util.List;
+
+/**
+ * Builds keys identifying requests that produce the same response.
+ */
+final class RequestKeys {
+
+    private RequestKeys() {
+    }
+
+    /**
+     * Builds the key from the method, the path, the negotiated representation and the given query parameters and headers.
+     *
+     * @param request     The request to build the key for.
+     * @param queryParams The query parameters that are part of the key.
+     * @param headers     The request headers that are part of the key.
+     * @return The key.
+     */
+    static String create(Request request, List<String> queryParams, List<String> headers) {
+        StringBuilder key = new StringBuilder(64)
+                .append(request.getMethod()).append(' ').append(request.getPath());
+        // NUL separators cannot appear in decoded parameters or headers, so keys cannot collide
+        for (String name : queryParams) {
+            key.append('\0').append(name).append('=').append(request.getQueryParam(name));
+        }
+        for (String name : headers) {
+            key.append('\0').append(name).append(':').append(request.getHeader(name));
+        }
+        // Responses differ per negotiated representation, including the format of streamed results, not per raw Accept header
+        String accept = request.getHeader("Accept");
+        key.append('\0').append(JsonCodecs.negotiate(accept).getContentType(StreamFormat.fromMediaType(accept)));
+        return key.toString();
+    }
+}
@@ -0,0 +1,265 @@
+package net.fuxle.awooapi.core.cache;
+
+import net.fuxle.awooapi.annotations.CachedResponse;
+import net.fuxle.awooapi.core.exceptions.AwooApiHandlerExecutionException;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.DetachedRequest;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import net.fuxle.awooapi.server.intf.Request;
+import net.fuxle.awooapi.server.intf.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the fully serialized responses of a single endpoint as configured by {@link CachedResponse}.
+ * <p>
+ * A fresh hit replays the stored status, headers and body bytes without invoking the handler or the JSON codec.
+ * Within the stale-while-revalidate window an expired response is still served while it is recomputed in the
+ * background, and within the refresh-ahead window a fresh response is recomputed before it expires. At most one
+ * background refresh runs per key; it executes on a virtual thread against a {@link DetachedRequest} snapshot.
+ * <p>
+ * Responses setting a cookie are never cached, as replaying them would hand one client's cookie to every other client.
+ */
+public class ResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * Renders a response into the given context, e.g. by invoking an endpoint and serializing its result.
+     */
+    @FunctionalInterface
+    public interface ResponseRenderer {
+
+        /**
+         * Renders the response.
+         *
+         * @param ctx The context to render the response into.
+         * @throws AwooApiHandlerExecutionException If the handler fails.
+         * @throws IOException                      If serializing the response fails.
+         */
+        void render(HandlerContext ctx) throws AwooApiHandlerExecutionException, IOException;
+    }
+
+    /**
+     * A cached, fully rendered response.
+     */
+    private static final class Entry {
+        final int status;
+        final Map<String, String> headers;
+        final byte[] body;
+        final long refreshAt;
+        final long expiresAt;
+        final long staleUntil;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(BufferedResponse response, long now, long ttl, long refreshAhead, long staleWhileRevalidate) {
+            this.status = response.getStatus();
+            this.headers = Map.copyOf(response.getHeaders());
+            this.body = response.getBodyBytes();
+            this.expiresAt = now + ttl;
+            this.refreshAt = expiresAt - refreshAhead;
+            this.staleUntil = expiresAt + staleWhileRevalidate;
+        }
+
+        void writeTo(Response response) throws IOException {
+            response.setStatus(status);
+            headers.forEach(response::setHeader);
+            if (body.length > 0) {
+                response.getOutputStream().write(body);
+            }
+        }
+    }
+
+    private final BoundedCache<String, Entry> cache;
+    private final List<String> queryParams;
+    private final List<String> headers;
+    private final List<String> snapshotHeaders;
+    private final long ttlNanos;
+    private final long staleWhileRevalidateNanos;
+    private final long refreshAheadNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    /**
+     * Constructs a new response cache from the settings of a {@link CachedResponse} annotation.
+     *
+     * @param settings The cache settings.
+     * @throws IllegalArgumentException If the settings are invalid.
+     */
+    public ResponseCache(CachedResponse settings) {
+        this(settings.maxEntries(), settings.ttlSeconds(), settings.staleWhileRevalidateSeconds(),
+                settings.refreshAheadSeconds(), TimeUnit.SECONDS, List.of(settings.queryParams()), List.of(settings.headers()));
+    }
+
+    /**
+     * Constructs a new response cache.
+     *
+     * @param maxEntries           The maximum number of cached responses.
+     * @param ttl                  The time a cached response is fresh.
+     * @param staleWhileRevalidate The time an expired response may still be served while it is refreshed, 0 to disable.
+     * @param refreshAhead         The time before expiry in which a hit triggers a refresh, 0 to disable.
+     * @param unit                 The unit of the given times.
+     * @param queryParams          The query parameters that are part of the cache key.
+     * @param headers              The request headers that are part of the cache key.
+     * @throws IllegalArgumentException If a time is negative, the ttl is not positive or the refresh-ahead time exceeds the ttl.
+     */
+    public ResponseCache(int maxEntries, long ttl, long staleWhileRevalidate, long refreshAhead, TimeUnit unit,
+                         List<String> queryParams, List<String> headers) {
+        if (ttl <= 0 || staleWhileRevalidate < 0 || refreshAhead < 0 || refreshAhead > ttl) {
+            throw new IllegalArgumentException("Invalid cache timings: ttl=" + ttl + ", staleWhileRevalidate="
+                    + staleWhileRevalidate + ", refreshAhead=" + refreshAhead);
+        }
+        this.cache = new BoundedCache<>(maxEntries);
+        this.ttlNanos = unit.toNanos(ttl);
+        this.staleWhileRevalidateNanos = unit.toNanos(staleWhileRevalidate);
+        this.refreshAheadNanos = unit.toNanos(refreshAhead);
+        this.queryParams = List.copyOf(queryParams);
+        this.headers = List.copyOf(headers);
+        // A refresh must render the same representation as the response it replaces
+        List<String> snapshot = new ArrayList<>(headers);
+        snapshot.add("Accept");
+        this.snapshotHeaders = List.copyOf(snapshot);
+    }
+
+    /**
+     * Serves the response for the given request from the cache, rendering and caching it on a miss.
+     *
+     * @param ctx      The context of the current request.
+     * @param renderer The renderer producing the response on a miss or refresh.
+     * @throws AwooApiHandlerExecutionException If the renderer fails on a miss.
+     * @throws IOException                      If writing the response fails.
+     */
+    public void serve(HandlerContext ctx, ResponseRenderer renderer) throws AwooApiHandlerExecutionException, IOException {
+        String key = createKey(ctx.request());
+        Entry entry = cache.get(key);
+        long now = System.nanoTime();
+
+        if (entry != null && now - entry.expiresAt < 0) {
+            hits.increment();
+            if (refreshAheadNanos > 0 && now - entry.refreshAt >= 0) {
+                refreshInBackground(key, entry, ctx, renderer);
+            }
+            entry.writeTo(ctx.response());
+            return;
+        }
+
+        if (entry != null && now - entry.staleUntil < 0) {
+            staleHits.increment();
+            refreshInBackground(key, entry, ctx, renderer);
+            entry.writeTo(ctx.response());
+            return;
+        }
+
+        misses.increment();
+        BufferedResponse buffered = new BufferedResponse();
+        renderer.render(new HandlerContext(ctx.request(), buffered, ctx.router()));
+        store(key, buffered, now);
+        buffered.writeTo(ctx.response());
+    }
+
+    /**
+     * Builds the cache key from the method, the path and the configured query parameters and headers.
+     *
+     * @param request The request to build the key for.
+     * @return The cache key.
+     */
+    String createKey(Request request) {
+        return RequestKeys.create(request, queryParams, headers);
+    }
+
+    /**
+     * Caches a rendered response if its status and headers allow it.
+     *
+     * @return {@code true} if the response was cached.
+     */
+    private boolean store(String key, BufferedResponse response, long now) {
+        int status = response.getStatus();
+        if (status != 200 && status != 204 || setsCookie(response)) {
+            return false;
+        }
+        cache.put(key, new Entry(response, now, ttlNanos, refreshAheadNanos, staleWhileRevalidateNanos));
+        return true;
+    }
+
+    /**
+     * Checks whether a rendered response sets a cookie, so it must only be sent to the client it was rendered for.
+     */
+    static boolean setsCookie(BufferedResponse response) {
+        for (String name : response.getHeaders().keySet()) {
+            if ("Set-Cookie".equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void refreshInBackground(String key, Entry entry, HandlerContext ctx, ResponseRenderer renderer) {
+        // Only one refresh per entry, concurrent hits keep serving the current response
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        // Snapshot the request now, the original one must not be used once the response is sent
+        HandlerContext detached = new HandlerContext(DetachedRequest.of(ctx.request(), snapshotHeaders, queryParams), new BufferedResponse(), ctx.router());
+        refreshes.increment();
+
+        Thread.ofVirtual().name("awooapi-response-cache-refresh").start(() -> {
+            try {
+                renderer.render(detached);
+                BufferedResponse refreshed = (BufferedResponse) detached.response();
+                if (!store(key, refreshed, System.nanoTime())) {
+                    // The response is no longer cacheable, the next request renders it again
+                    cache.remove(key);
+                }
+            } catch (Exception e) {
+                refreshFailures.increment();
+                // Allow the next hit to try again, the current entry is served until it is stale
+                entry.refreshing.set(false);
+                log.warn("Background refresh of cached response {} failed", key, e);
+            }
+        });
+    }
+
+    /**
+     * Removes all cached responses.
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    /**
+     * Retrieves a snapshot of the statistics of this cache.
+     *
+     * @return The cache statistics.
+     */
+    public Stats getStats() {
+        return new Stats(hits.sum(), staleHits.sum(), misses.sum(), refreshes.sum(), refreshFailures.sum(),
+                cache.getStats().evictions(), cache.size());
+    }
+
+    /**
+     * Snapshot of the statistics of a response cache.
+     *
+     * @param hits            The number of requests served from a fresh cached response.
+     * @param staleHits       The number of requests served from a stale cached response.
+     * @param misses          The number of requests that had to be rendered.
+     * @param refreshes       The number of background refreshes started.
+     * @param refreshFailures The number of background refreshes that failed.
+     * @param evictions       The number of responses evicted because the cache was full.
+     * @param size            The number of cached responses at the time of the snapshot.
+     */
+    public record Stats(long hits, long staleHits, long misses, long refreshes, long refreshFailures, long evictions, int size) {
+    }
+}
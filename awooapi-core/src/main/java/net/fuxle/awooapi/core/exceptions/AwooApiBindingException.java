@@ -0,0 +1,23 @@
+package net.fuxle.awooapi.core.exceptions;
+
+public class AwooApiBindingException extends AwooApiException {
+    public AwooApiBindingException() {
+        super();
+    }
+
+    public AwooApiBindingException(String message) {
+        super(message);
+    }
+
+    public AwooApiBindingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public AwooApiBindingException(Throwable cause) {
+        super(cause);
+    }
+
+    protected AwooApiBindingException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
@@ -0,0 +1,23 @@
+package net.fuxle.awooapi.core.exceptions;
+
+public class AwooApiBulkheadFullException extends AwooApiException {
+    public AwooApiBulkheadFullException() {
+        super();
+    }
+
+    public AwooApiBulkheadFullException(String message) {
+        super(message);
+    }
+
+    public AwooApiBulkheadFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public AwooApiBulkheadFullException(Throwable cause) {
+        super(cause);
+    }
+
+    protected AwooApiBulkheadFullException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
@@ -0,0 +1,23 @@
+package net.fuxle.awooapi.core.exceptions;
+
+public class AwooApiDeadlineExceededException extends AwooApiException {
+    public AwooApiDeadlineExceededException() {
+        super();
+    }
+
+    public AwooApiDeadlineExceededException(String message) {
+        super(message);
+    }
+
+    public AwooApiDeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public AwooApiDeadlineExceededException(Throwable cause) {
+        super(cause);
+    }
+
+    protected AwooApiDeadlineExceededException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
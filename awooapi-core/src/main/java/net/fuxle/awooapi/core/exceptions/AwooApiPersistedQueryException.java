@@ -0,0 +1,24 @@
+package net.fuxle.awooapi.core.exceptions;
+
+/**
+ * Signals a GraphQL request that cannot be executed under the persisted query protocol, e.g. because its query is
+ * not on the allowlist.
+ */
+public class AwooApiPersistedQueryException extends AwooApiException {
+    private final String code;
+
+    public AwooApiPersistedQueryException(String code, String message) {
+        // Rejections are expected and frequent, the stack trace is of no use
+        super(message, null, false, false);
+        this.code = code;
+    }
+
+    /**
+     * Retrieves the error code sent to the client, e.g. {@code PERSISTED_QUERY_NOT_FOUND}.
+     *
+     * @return The error code.
+     */
+    public String getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,101 @@
+package net.fuxle.awooapi.core.isolation;
+
+import net.fuxle.awooapi.core.cache.BoundedCache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the cost clients may spend over time, e.g. the static cost of their GraphQL queries.
+ * <p>
+ * Every client has a token bucket holding up to {@code capacity} cost units, which is refilled continuously at a
+ * fixed rate. A request is only admitted if its full cost can be paid from the bucket. Buckets are kept for a bounded
+ * number of clients; a client whose bucket was evicted starts over with a full bucket.
+ */
+public class CostBudget {
+
+    private final long capacity;
+    private final double refillPerNano;
+    private final BoundedCache<String, Bucket> buckets;
+    private final LongAdder rejections = new LongAdder();
+
+    /**
+     * Constructs a new cost budget.
+     *
+     * @param capacity        The maximum cost a client can spend at once.
+     * @param refillPerSecond The cost units returned to every bucket per second.
+     * @param maxClients      The maximum number of clients whose buckets are kept.
+     * @throws IllegalArgumentException If the capacity or the number of clients is not positive, or the refill rate
+     *                                  is negative.
+     */
+    public CostBudget(long capacity, long refillPerSecond, int maxClients) {
+        if (capacity <= 0 || refillPerSecond < 0) {
+            throw new IllegalArgumentException("Invalid cost budget: capacity=" + capacity + ", refillPerSecond=" + refillPerSecond);
+        }
+        this.capacity = capacity;
+        this.refillPerNano = (double) refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.buckets = new BoundedCache<>(maxClients);
+    }
+
+    /**
+     * Spends the given cost from the bucket of a client, if it holds enough.
+     *
+     * @param client The key of the client, e.g. its IP address.
+     * @param cost   The cost to spend.
+     * @return {@code true} if the cost was spent, {@code false} if the budget of the client is exhausted.
+     */
+    public boolean tryConsume(String client, long cost) {
+        Bucket bucket = bucketOf(client);
+        synchronized (bucket) {
+            bucket.refill(System.nanoTime());
+            if (bucket.tokens < cost) {
+                rejections.increment();
+                return false;
+            }
+            bucket.tokens -= cost;
+            return true;
+        }
+    }
+
+    /**
+     * Retrieves the cost a client can currently spend.
+     *
+     * @param client The key of the client.
+     * @return The remaining budget of the client.
+     */
+    public long getRemaining(String client) {
+        Bucket bucket = bucketOf(client);
+        synchronized (bucket) {
+            bucket.refill(System.nanoTime());
+            return (long) bucket.tokens;
+        }
+    }
+
+    /**
+     * Retrieves the number of requests rejected because the budget of their client was exhausted.
+     *
+     * @return The number of rejections.
+     */
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    private Bucket bucketOf(String client) {
+        return buckets.computeIfAbsent(client, key -> new Bucket(capacity, System.nanoTime()));
+    }
+
+    private final class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        private Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerNano);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package net.fuxle.awooapi.core.isolation;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time by which the handling of a request must be complete. Handlers can pass the remaining time on to
+ * downstream calls, e.g. as a database query timeout, so they do not continue working for a request that was given up.
+ */
+public final class Deadline {
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Creates a deadline the given time from now.
+     *
+     * @param duration The time until the deadline.
+     * @param unit     The unit of the duration.
+     * @return The deadline.
+     */
+    public static Deadline after(long duration, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(duration));
+    }
+
+    /**
+     * Retrieves the time left until the deadline in nanoseconds.
+     *
+     * @return The remaining time, zero or negative if the deadline has passed.
+     */
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * Retrieves the time left until the deadline.
+     *
+     * @return The remaining time, {@link Duration#ZERO} if the deadline has passed.
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(remainingNanos(), 0));
+    }
+
+    /**
+     * Checks whether the deadline has passed.
+     *
+     * @return {@code true} if no time is left.
+     */
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline[remaining=" + remaining() + "]";
+    }
+}
@@ -0,0 +1,190 @@
+package net.fuxle.awooapi.core.isolation;
+
+import net.fuxle.awooapi.annotations.Bulkhead;
+import net.fuxle.awooapi.core.exceptions.AwooApiBulkheadFullException;
+import net.fuxle.awooapi.core.exceptions.AwooApiDeadlineExceededException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Enforces the limits of a {@link Bulkhead} on the executions of one endpoint.
+ * <p>
+ * An execution takes a slot if one is free; otherwise it waits in a bounded queue until a slot frees up or its
+ * deadline passes, and is rejected right away if the queue is full. With a deadline the handler runs on a virtual
+ * thread while the request thread waits at most until the deadline; the handler is then interrupted and the request
+ * fails without waiting for it. The slot stays taken until the handler has actually returned, so handlers that
+ * ignore interruption still count against the limit. Thread-local state of the request thread is not visible to
+ * handlers running with a deadline.
+ */
+public class EndpointBulkhead {
+
+    private static final ClassValue<EndpointBulkhead> BULKHEADS = new ClassValue<>() {
+        @Override
+        protected EndpointBulkhead computeValue(Class<?> type) {
+            Bulkhead settings = type.getAnnotation(Bulkhead.class);
+            return settings != null ? new EndpointBulkhead(settings) : null;
+        }
+    };
+
+    private final Semaphore slots;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long deadlineNanos;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder deadlinesExceeded = new LongAdder();
+
+    /**
+     * Constructs a new bulkhead from the settings of a {@link Bulkhead} annotation.
+     *
+     * @param settings The bulkhead settings.
+     * @throws IllegalArgumentException If a limit is negative.
+     */
+    public EndpointBulkhead(Bulkhead settings) {
+        this(settings.maxConcurrent(), settings.maxQueued(), settings.deadlineMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Constructs a new bulkhead.
+     *
+     * @param maxConcurrent The maximum number of concurrent executions, 0 for no limit.
+     * @param maxQueued     The maximum number of executions waiting for a slot.
+     * @param deadline      The time an execution may take including the time queued, 0 for no deadline.
+     * @param unit          The unit of the deadline.
+     * @throws IllegalArgumentException If a limit is negative.
+     */
+    public EndpointBulkhead(int maxConcurrent, int maxQueued, long deadline, TimeUnit unit) {
+        if (maxConcurrent < 0 || maxQueued < 0 || deadline < 0) {
+            throw new IllegalArgumentException("Invalid bulkhead limits: maxConcurrent=" + maxConcurrent
+                    + ", maxQueued=" + maxQueued + ", deadline=" + deadline);
+        }
+        // Fair, so queued executions are not overtaken by executions arriving later
+        this.slots = maxConcurrent > 0 ? new Semaphore(maxConcurrent, true) : null;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.deadlineNanos = unit.toNanos(deadline);
+    }
+
+    /**
+     * Retrieves the bulkhead shared by all dispatchers of the given endpoint class.
+     *
+     * @param endpointClass The endpoint class.
+     * @return The bulkhead, or {@code null} if the class is not annotated with {@link Bulkhead}.
+     */
+    public static EndpointBulkhead of(Class<?> endpointClass) {
+        return BULKHEADS.get(endpointClass);
+    }
+
+    /**
+     * Creates the deadline of an execution starting now.
+     *
+     * @return The deadline, or {@code null} if this bulkhead has no deadline.
+     */
+    public Deadline newDeadline() {
+        return deadlineNanos > 0 ? Deadline.after(deadlineNanos, TimeUnit.NANOSECONDS) : null;
+    }
+
+    /**
+     * Executes a handler within the limits of this bulkhead.
+     *
+     * @param <T>      The result type of the handler.
+     * @param handler  The handler to execute.
+     * @param deadline The deadline created by {@link #newDeadline()}, may be {@code null}.
+     * @return The result of the handler.
+     * @throws AwooApiBulkheadFullException      If all slots and queue places are taken.
+     * @throws AwooApiDeadlineExceededException If the deadline passes while queued or executing.
+     * @throws Exception                         If the handler fails.
+     */
+    public <T> T execute(Callable<T> handler, Deadline deadline) throws Exception {
+        acquire(deadline);
+        if (deadline == null) {
+            try {
+                return handler.call();
+            } finally {
+                release();
+            }
+        }
+
+        FutureTask<T> task = new FutureTask<>(handler);
+        Thread.ofVirtual().name("awooapi-bulkhead").start(() -> {
+            try {
+                task.run();
+            } finally {
+                // Also runs if the task was cancelled before it started
+                release();
+            }
+        });
+
+        try {
+            return task.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            task.cancel(true);
+            deadlinesExceeded.increment();
+            throw new AwooApiDeadlineExceededException("Handler did not complete within its deadline");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw (Error) cause;
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            throw e;
+        }
+    }
+
+    private void acquire(Deadline deadline) throws AwooApiBulkheadFullException, AwooApiDeadlineExceededException, InterruptedException {
+        // The timed variant honours fairness, the untimed tryAcquire() would take a slot ahead of queued executions
+        if (slots == null || slots.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+            return;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejections.increment();
+            throw new AwooApiBulkheadFullException("All " + maxConcurrent + " execution slots and " + maxQueued + " queue places are taken");
+        }
+        try {
+            if (deadline == null) {
+                slots.acquire();
+            } else if (!slots.tryAcquire(deadline.remainingNanos(), TimeUnit.NANOSECONDS)) {
+                deadlinesExceeded.increment();
+                throw new AwooApiDeadlineExceededException("Deadline passed while waiting for an execution slot");
+            }
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    private void release() {
+        if (slots != null) {
+            slots.release();
+        }
+    }
+
+    /**
+     * Retrieves a snapshot of the statistics of this bulkhead.
+     *
+     * @return The bulkhead statistics.
+     */
+    public Stats getStats() {
+        return new Stats(rejections.sum(), deadlinesExceeded.sum(), queued.get());
+    }
+
+    /**
+     * Snapshot of the statistics of a bulkhead.
+     *
+     * @param rejections        The number of executions rejected because all slots and queue places were taken.
+     * @param deadlinesExceeded The number of executions aborted because their deadline passed.
+     * @param queued            The number of executions waiting for a slot at the time of the snapshot.
+     */
+    public record Stats(long rejections, long deadlinesExceeded, int queued) {
+    }
+}
@@ -0,0 +1,84 @@
+package net.fuxle.awooapi.core.isolation;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tasks on a shared executor, but at most a fixed number of them at the same time.
+ * <p>
+ * Tasks beyond the limit are queued without blocking the submitting thread and are handed to the shared executor as
+ * soon as a running task completes, in submission order. A limiter is cheap to create, e.g. one per request to keep
+ * a single request from occupying the whole shared executor.
+ */
+public class LimitedExecutor implements Executor {
+
+    private final Executor delegate;
+    private final int maxConcurrent;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger running = new AtomicInteger();
+
+    /**
+     * Constructs a new limited executor.
+     *
+     * @param delegate      The executor running the tasks.
+     * @param maxConcurrent The maximum number of tasks running at the same time.
+     * @throws IllegalArgumentException If the maximum is not positive.
+     */
+    public LimitedExecutor(Executor delegate, int maxConcurrent) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("maxConcurrent must be positive, but was " + maxConcurrent);
+        }
+        this.delegate = delegate;
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        queue.add(task);
+        drain();
+    }
+
+    private void drain() {
+        while (!queue.isEmpty()) {
+            int current = running.get();
+            if (current >= maxConcurrent) {
+                // A running task drains the queue once it completes
+                return;
+            }
+            if (!running.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Runnable next = queue.poll();
+            if (next == null) {
+                // Another thread took the task; loop to recheck tasks added in the meantime
+                running.decrementAndGet();
+                continue;
+            }
+            try {
+                delegate.execute(() -> {
+                    try {
+                        next.run();
+                    } finally {
+                        running.decrementAndGet();
+                        drain();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                running.decrementAndGet();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the number of tasks waiting for a free slot.
+     *
+     * @return The number of queued tasks.
+     */
+    public int getQueued() {
+        return queue.size();
+    }
+}
@@ -0,0 +1,156 @@
+package net.fuxle.awooapi.core.isolation;
+
+import graphql.ExecutionResult;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLCodeRegistry;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLFieldsContainer;
+import net.fuxle.awooapi.core.autodiscovery.GraphQLLocalContext;
+import net.fuxle.awooapi.core.autodiscovery.dispatcher.EndpointDataFetcher;
+import net.fuxle.awooapi.core.network.ClientAddressResolver;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rejects GraphQL operations that are too deep, select too many fields or are too expensive, before any field is
+ * resolved.
+ * <p>
+ * The cost of an operation is the sum of the weights of its selected fields. Fields served by an endpoint weigh
+ * {@link net.fuxle.awooapi.annotations.MultiEndpoint#graphQLCost()}, all other fields weigh 1. The cost is static:
+ * it counts a field once per selection, regardless of how many list elements it is resolved for. If a
+ * {@link CostBudget} is set, the cost is also charged to the budget of the client, so clients sending expensive
+ * queries are throttled.
+ */
+public class QueryCostInstrumentation extends SimplePerformantInstrumentation {
+
+    private final int maxDepth;
+    private final int maxFields;
+    private final long maxCost;
+    private final CostBudget costBudget;
+    private final ClientAddressResolver clientAddressResolver;
+
+    private final LongAdder rejections = new LongAdder();
+
+    /**
+     * Constructs a new query cost instrumentation.
+     *
+     * @param maxDepth              The maximum nesting depth of fields, 0 for no limit.
+     * @param maxFields             The maximum number of selected fields, 0 for no limit.
+     * @param maxCost               The maximum cost of an operation, 0 for no limit.
+     * @param costBudget            The budget charged with the cost of every operation per client, may be {@code null}.
+     * @param clientAddressResolver The resolver determining the client a budget is charged to.
+     */
+    public QueryCostInstrumentation(int maxDepth, int maxFields, long maxCost, CostBudget costBudget, ClientAddressResolver clientAddressResolver) {
+        this.maxDepth = maxDepth;
+        this.maxFields = maxFields;
+        this.maxCost = maxCost;
+        this.costBudget = costBudget;
+        this.clientAddressResolver = clientAddressResolver;
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
+        ExecutionContext executionContext = parameters.getExecutionContext();
+        QueryCost queryCost = analyze(executionContext);
+
+        if (maxDepth > 0 && queryCost.depth() > maxDepth) {
+            throw reject("QUERY_TOO_DEEP", "Query depth " + queryCost.depth() + " exceeds the maximum depth of " + maxDepth);
+        }
+        if (maxFields > 0 && queryCost.fields() > maxFields) {
+            throw reject("QUERY_TOO_LARGE", "Query selects " + queryCost.fields() + " fields, but at most " + maxFields + " are allowed");
+        }
+        if (maxCost > 0 && queryCost.cost() > maxCost) {
+            throw reject("QUERY_TOO_EXPENSIVE", "Query cost " + queryCost.cost() + " exceeds the maximum cost of " + maxCost);
+        }
+        if (costBudget != null && executionContext.getLocalContext() instanceof GraphQLLocalContext localContext) {
+            String client = clientAddressResolver.resolve(localContext.handlerContext().request()).ip();
+            if (!costBudget.tryConsume(client, queryCost.cost())) {
+                throw reject("QUERY_BUDGET_EXHAUSTED", "Query cost budget exhausted, please try again later");
+            }
+        }
+        return super.beginExecuteOperation(parameters, state);
+    }
+
+    /**
+     * Determines the depth, number of fields and cost of the operation of an execution.
+     *
+     * @param executionContext The execution context of the operation.
+     * @return The cost of the operation.
+     */
+    public static QueryCost analyze(ExecutionContext executionContext) {
+        GraphQLCodeRegistry codeRegistry = executionContext.getGraphQLSchema().getCodeRegistry();
+        long[] totals = new long[3];
+        QueryTraverser.newQueryTraverser()
+                .schema(executionContext.getGraphQLSchema())
+                .document(executionContext.getDocument())
+                .operationName(executionContext.getOperationDefinition().getName())
+                .coercedVariables(executionContext.getCoercedVariables())
+                .build()
+                .reducePreOrder((QueryVisitorFieldEnvironment environment, long[] acc) -> {
+                    if (environment.isTypeNameIntrospectionField()) {
+                        return acc;
+                    }
+                    int depth = 1;
+                    for (QueryVisitorFieldEnvironment parent = environment.getParentEnvironment(); parent != null; parent = parent.getParentEnvironment()) {
+                        depth++;
+                    }
+                    acc[0] = Math.max(acc[0], depth);
+                    acc[1]++;
+                    acc[2] += weightOf(codeRegistry, environment.getFieldsContainer(), environment.getFieldDefinition());
+                    return acc;
+                }, totals);
+        return new QueryCost((int) totals[0], (int) totals[1], totals[2]);
+    }
+
+    private static int weightOf(GraphQLCodeRegistry codeRegistry, GraphQLFieldsContainer parentType, GraphQLFieldDefinition fieldDefinition) {
+        FieldCoordinates coordinates = FieldCoordinates.coordinates(parentType.getName(), fieldDefinition.getName());
+        if (!codeRegistry.hasDataFetcher(coordinates)) {
+            return 1;
+        }
+        if (codeRegistry.getDataFetcher(coordinates, fieldDefinition) instanceof EndpointDataFetcher dataFetcher
+                && dataFetcher.getMultiEndpoint() != null) {
+            return dataFetcher.getMultiEndpoint().graphQLCost();
+        }
+        return 1;
+    }
+
+    private AbortExecutionException reject(String code, String message) {
+        rejections.increment();
+        GraphQLError error = GraphqlErrorBuilder.newError()
+                .message(message)
+                .extensions(Map.of("code", code))
+                .build();
+        return new AbortExecutionException(List.of(error));
+    }
+
+    /**
+     * Retrieves the number of operations rejected because they exceeded a limit or the budget of their client.
+     *
+     * @return The number of rejections.
+     */
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    /**
+     * The static cost of a GraphQL operation.
+     *
+     * @param depth  The maximum nesting depth of its fields, top-level fields have depth 1.
+     * @param fields The number of selected fields.
+     * @param cost   The sum of the weights of the selected fields.
+     */
+    public record QueryCost(int depth, int fields, long cost) {
+    }
+}
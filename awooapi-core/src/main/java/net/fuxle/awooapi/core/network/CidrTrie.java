@@ -0,0 +1,95 @@
+package net.fuxle.awooapi.core.network;
+
+/**
+ * A binary prefix trie of CIDR ranges, each tagged with a bit set of flags.
+ * <p>
+ * A lookup walks the bits of the address once and collects the flags of every range containing it, so the cost
+ * depends only on the length of the longest matching prefix, not on the number of ranges. IPv4 ranges are stored
+ * as IPv4-mapped IPv6 ranges, see {@link IpAddress}.
+ * <p>
+ * Ranges are added while configuring; lookups are thread-safe once the trie is no longer modified.
+ */
+public class CidrTrie {
+
+    private final Node root = new Node();
+    private int size = 0;
+
+    /**
+     * Adds a range in CIDR notation, e.g. {@code 10.0.0.0/8} or {@code fc00::/7}. An address without prefix length
+     * is a range of a single address. Flags of ranges that were added before are combined.
+     *
+     * @param cidr  The range in CIDR notation.
+     * @param flags The flags to tag the range with.
+     * @throws IllegalArgumentException If the range is not valid CIDR notation.
+     */
+    public void add(String cidr, int flags) {
+        int slash = cidr.indexOf('/');
+        IpAddress address = IpAddress.parse(cidr, 0, slash < 0 ? cidr.length() : slash);
+        if (address == null) {
+            throw new IllegalArgumentException("Invalid CIDR range: " + cidr);
+        }
+
+        int maxLength = address.isIPv4() ? 32 : 128;
+        int prefixLength = maxLength;
+        if (slash >= 0) {
+            try {
+                prefixLength = Integer.parseInt(cidr, slash + 1, cidr.length(), 10);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid CIDR prefix length: " + cidr, e);
+            }
+            if (prefixLength < 0 || prefixLength > maxLength) {
+                throw new IllegalArgumentException("CIDR prefix length out of range: " + cidr);
+            }
+        }
+        if (address.isIPv4()) {
+            // Skip the ::ffff: prefix of IPv4-mapped addresses
+            prefixLength += 96;
+        }
+
+        Node node = root;
+        for (int i = 0; i < prefixLength; i++) {
+            int bit = address.bit(i);
+            if (node.children[bit] == null) {
+                node.children[bit] = new Node();
+            }
+            node = node.children[bit];
+        }
+        if (node.flags == 0) {
+            size++;
+        }
+        node.flags |= flags;
+    }
+
+    /**
+     * Collects the flags of all ranges containing the given address.
+     *
+     * @param address The address to look up.
+     * @return The combined flags, or {@code 0} if no range contains the address.
+     */
+    public int lookup(IpAddress address) {
+        int flags = root.flags;
+        Node node = root;
+        for (int i = 0; i < 128; i++) {
+            node = node.children[address.bit(i)];
+            if (node == null) {
+                break;
+            }
+            flags |= node.flags;
+        }
+        return flags;
+    }
+
+    /**
+     * Retrieves the number of distinct ranges in this trie.
+     *
+     * @return The number of ranges.
+     */
+    public int size() {
+        return size;
+    }
+
+    private static final class Node {
+        private final Node[] children = new Node[2];
+        private int flags;
+    }
+}
@@ -0,0 +1,29 @@
+package net.fuxle.awooapi.core.network;
+
+/**
+ * The resolved address of the client that sent a request, together with its classification.
+ *
+ * @param ip      The address as sent by the server or the trusted proxy.
+ * @param address The parsed address, or {@code null} if it is not a valid IP address literal.
+ * @param flags   The flags of all configured ranges containing the address, see {@link ClientAddressResolver}.
+ */
+public record ClientAddress(String ip, IpAddress address, int flags) {
+
+    /**
+     * Checks whether the address lies in one of the internal ranges.
+     *
+     * @return {@code true} if the client is in the internal address space.
+     */
+    public boolean isInternal() {
+        return (flags & ClientAddressResolver.INTERNAL) != 0;
+    }
+
+    /**
+     * Checks whether the address lies in one of the trusted proxy ranges.
+     *
+     * @return {@code true} if the address belongs to a trusted proxy.
+     */
+    public boolean isTrustedProxy() {
+        return (flags & ClientAddressResolver.TRUSTED_PROXY) != 0;
+    }
+}
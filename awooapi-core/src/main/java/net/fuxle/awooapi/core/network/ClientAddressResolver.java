@@ -0,0 +1,259 @@
+package net.fuxle.awooapi.core.network;
+
+import net.fuxle.awooapi.core.cache.BoundedCache;
+import net.fuxle.awooapi.server.intf.Request;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Resolves and classifies the client address of requests against configurable internal and trusted proxy ranges.
+ * <p>
+ * If the request comes from a trusted proxy, the client address is taken from the configured {@link ForwardingHeader},
+ * and only from that one: the proxies append to it, while any other forwarding header passes through unchecked. The
+ * hops are walked from the nearest one outwards and the first address that is not a trusted proxy is the client, so
+ * clients cannot spoof their address by sending the header themselves. Headers from untrusted peers are ignored.
+ * <p>
+ * The classification of the peer and the last resolved forwarding header are memoized per connection, so
+ * keep-alive connections do not repeat the work for every request.
+ */
+public class ClientAddressResolver {
+
+    /**
+     * Flag of addresses in the internal address space.
+     */
+    public static final int INTERNAL = 1;
+
+    /**
+     * Flag of addresses of trusted reverse proxies.
+     */
+    public static final int TRUSTED_PROXY = 1 << 1;
+
+    /**
+     * The private and link-local ranges that are internal by default.
+     */
+    public static final List<String> PRIVATE_RANGES = List.of(
+            "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16", // RFC 1918
+            "fc00::/7", // Unique local addresses
+            "fe80::/10" // Link-local addresses
+    );
+
+    /**
+     * Maximum number of connections whose peer classification is memoized.
+     */
+    static final int MAX_CONNECTIONS = 4096;
+
+    private static final ClientAddressResolver DEFAULT = new ClientAddressResolver(PRIVATE_RANGES, List.of());
+
+    private final CidrTrie ranges = new CidrTrie();
+    private final boolean hasTrustedProxies;
+    private final ForwardingHeader forwardingHeader;
+    private final BoundedCache<String, Peer> connections = new BoundedCache<>(MAX_CONNECTIONS);
+
+    /**
+     * Constructs a new resolver reading the client address from {@code X-Forwarded-For}.
+     *
+     * @param internalRanges The ranges in CIDR notation that form the internal address space.
+     * @param trustedProxies The ranges in CIDR notation of reverse proxies whose forwarding headers are trusted.
+     * @throws IllegalArgumentException If a range is not valid CIDR notation.
+     */
+    public ClientAddressResolver(Collection<String> internalRanges, Collection<String> trustedProxies) {
+        this(internalRanges, trustedProxies, ForwardingHeader.X_FORWARDED_FOR);
+    }
+
+    /**
+     * Constructs a new resolver.
+     *
+     * @param internalRanges   The ranges in CIDR notation that form the internal address space.
+     * @param trustedProxies   The ranges in CIDR notation of reverse proxies whose forwarding headers are trusted.
+     * @param forwardingHeader The header the trusted proxies pass the client address in.
+     * @throws IllegalArgumentException If a range is not valid CIDR notation.
+     */
+    public ClientAddressResolver(Collection<String> internalRanges, Collection<String> trustedProxies, ForwardingHeader forwardingHeader) {
+        this.forwardingHeader = Objects.requireNonNull(forwardingHeader, "forwardingHeader");
+        for (String range : internalRanges) {
+            ranges.add(range, INTERNAL);
+        }
+        for (String range : trustedProxies) {
+            ranges.add(range, TRUSTED_PROXY);
+        }
+        this.hasTrustedProxies = !trustedProxies.isEmpty();
+    }
+
+    /**
+     * Retrieves the resolver with the {@link #PRIVATE_RANGES} as internal ranges and no trusted proxies.
+     *
+     * @return The default resolver.
+     */
+    public static ClientAddressResolver getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Collects the flags of all configured ranges containing the given address.
+     *
+     * @param address The address to classify.
+     * @return The combined flags, see {@link #INTERNAL} and {@link #TRUSTED_PROXY}.
+     */
+    public int classify(IpAddress address) {
+        return ranges.lookup(address);
+    }
+
+    /**
+     * Resolves the client address of the given request.
+     *
+     * @param request The request.
+     * @return The client address. Peers that are not IP address literals are classified as public.
+     */
+    public ClientAddress resolve(Request request) {
+        Peer peer = peerOf(request);
+        if (!peer.client.isTrustedProxy()) {
+            return peer.client;
+        }
+
+        // Never fall back to another header, the proxies do not strip headers they do not maintain
+        String header = request.getHeader(forwardingHeader.getHeaderName());
+        if (header == null) {
+            return peer.client;
+        }
+
+        Forwarded last = peer.lastForwarded;
+        if (last != null && last.header.equals(header)) {
+            return last.client;
+        }
+        ClientAddress client = resolveForwarded(peer.client, header, forwardingHeader == ForwardingHeader.FORWARDED);
+        peer.lastForwarded = new Forwarded(header, client);
+        return client;
+    }
+
+    private Peer peerOf(Request request) {
+        String ip = request.getIP();
+        String connectionId = hasTrustedProxies ? request.getConnectionId() : null;
+        if (connectionId == null) {
+            // Without proxies the peer is the client, classifying it is cheaper than the memoization
+            return new Peer(classify(ip));
+        }
+
+        Peer peer = connections.get(connectionId);
+        // Connection identifiers may be reused, the peer address tells
+        if (peer == null || !Objects.equals(peer.client.ip(), ip)) {
+            peer = new Peer(classify(ip));
+            connections.put(connectionId, peer);
+        }
+        return peer;
+    }
+
+    private ClientAddress classify(String ip) {
+        IpAddress address = ip == null ? null : IpAddress.parse(ip);
+        return new ClientAddress(ip, address, address == null ? 0 : classify(address));
+    }
+
+    /**
+     * Walks the hops of a forwarding header from right to left, starting at the trusted proxy that sent the request.
+     */
+    private ClientAddress resolveForwarded(ClientAddress proxy, String header, boolean rfc7239) {
+        ClientAddress current = proxy;
+        int end = header.length();
+        while (end > 0) {
+            int comma = header.lastIndexOf(',', end - 1);
+            ClientAddress hop = parseHop(header, comma + 1, end, rfc7239);
+            if (hop == null) {
+                // Unknown, obfuscated or malformed hop: nothing beyond it can be trusted
+                return current;
+            }
+            current = hop;
+            if (!hop.isTrustedProxy()) {
+                return hop;
+            }
+            end = comma;
+        }
+        return current;
+    }
+
+    /**
+     * Parses one hop of a forwarding header, e.g. {@code 192.0.2.60} or {@code for="[2001:db8::1]:4711";proto=https}.
+     *
+     * @return The hop, or {@code null} if it does not contain a valid address.
+     */
+    private ClientAddress parseHop(String header, int start, int end, boolean rfc7239) {
+        if (rfc7239) {
+            // Find the for= parameter among the ;-separated pairs of the element
+            int pairStart = start;
+            int valueStart = -1;
+            int valueEnd = -1;
+            while (pairStart < end) {
+                int semicolon = header.indexOf(';', pairStart);
+                int pairEnd = semicolon < 0 || semicolon > end ? end : semicolon;
+                int keyStart = skipWhitespace(header, pairStart, pairEnd);
+                if (pairEnd - keyStart > 4 && header.regionMatches(true, keyStart, "for=", 0, 4)) {
+                    valueStart = keyStart + 4;
+                    valueEnd = pairEnd;
+                    break;
+                }
+                pairStart = pairEnd + 1;
+            }
+            if (valueStart < 0) {
+                return null;
+            }
+            start = valueStart;
+            end = valueEnd;
+        }
+
+        start = skipWhitespace(header, start, end);
+        while (end > start && Character.isWhitespace(header.charAt(end - 1))) {
+            end--;
+        }
+        if (end - start >= 2 && header.charAt(start) == '"' && header.charAt(end - 1) == '"') {
+            start++;
+            end--;
+        }
+        if (start >= end) {
+            return null;
+        }
+
+        if (header.charAt(start) == '[') {
+            // Bracketed IPv6 address with optional port
+            int bracket = header.indexOf(']', start);
+            if (bracket < 0 || bracket >= end) {
+                return null;
+            }
+            start++;
+            end = bracket;
+        } else {
+            // IPv4 address with port
+            int colon = header.indexOf(':', start);
+            if (colon >= 0 && colon < end && header.lastIndexOf(':', end - 1) == colon) {
+                end = colon;
+            }
+        }
+
+        IpAddress address = IpAddress.parse(header, start, end);
+        if (address == null) {
+            return null;
+        }
+        return new ClientAddress(header.substring(start, end), address, classify(address));
+    }
+
+    private static int skipWhitespace(String text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    /**
+     * The memoized state of one connection.
+     */
+    private static final class Peer {
+        private final ClientAddress client;
+        private volatile Forwarded lastForwarded;
+
+        Peer(ClientAddress client) {
+            this.client = client;
+        }
+    }
+
+    private record Forwarded(String header, ClientAddress client) {
+    }
+}
@@ -0,0 +1,35 @@
+package net.fuxle.awooapi.core.network;
+
+/**
+ * The request header in which trusted reverse proxies pass on the client address.
+ * <p>
+ * A deployment has to name the single header its proxies maintain. Any other forwarding header reaches the
+ * application exactly as the client sent it, so evaluating it would let clients choose their own address.
+ */
+public enum ForwardingHeader {
+
+    /**
+     * The standardized {@code Forwarded} header (RFC 7239), e.g. {@code for=192.0.2.60;proto=https}.
+     */
+    FORWARDED("Forwarded"),
+
+    /**
+     * The de facto standard {@code X-Forwarded-For} header, e.g. {@code 192.0.2.60, 10.0.0.1}.
+     */
+    X_FORWARDED_FOR("X-Forwarded-For");
+
+    private final String headerName;
+
+    ForwardingHeader(String headerName) {
+        this.headerName = headerName;
+    }
+
+    /**
+     * Retrieves the name of the header.
+     *
+     * @return The header name.
+     */
+    public String getHeaderName() {
+        return headerName;
+    }
+}
@@ -0,0 +1,237 @@
+package net.fuxle.awooapi.core.network;
+
+/**
+ * An IPv4 or IPv6 address as a 128-bit value. IPv4 addresses are represented as IPv4-mapped IPv6 addresses
+ * ({@code ::ffff:a.b.c.d}), so both families share one address space.
+ * <p>
+ * Unlike {@link java.net.InetAddress#getByName(String)}, parsing only accepts address literals and never performs a
+ * DNS lookup. It works on a range of a {@link CharSequence}, so addresses can be parsed out of header values without
+ * creating substrings, and allocates nothing but the result.
+ *
+ * @param high The upper 64 bits of the address.
+ * @param low  The lower 64 bits of the address.
+ */
+public record IpAddress(long high, long low) {
+
+    /**
+     * Upper 32 bits of the lower half of an IPv4-mapped address.
+     */
+    private static final long IPV4_MAPPED_PREFIX = 0xFFFFL << 32;
+
+    /**
+     * Parses an IPv4 or IPv6 address literal.
+     *
+     * @param text The address literal, e.g. {@code 192.168.1.1} or {@code 2001:db8::1}.
+     * @return The address, or {@code null} if the text is not a valid address literal.
+     */
+    public static IpAddress parse(CharSequence text) {
+        return text == null ? null : parse(text, 0, text.length());
+    }
+
+    /**
+     * Parses an IPv4 or IPv6 address literal in the given range of a character sequence.
+     * An IPv6 zone identifier ({@code fe80::1%eth0}) is accepted and ignored.
+     *
+     * @param text  The text containing the address literal.
+     * @param start The index of the first character, inclusive.
+     * @param end   The index of the last character, exclusive.
+     * @return The address, or {@code null} if the range is not a valid address literal.
+     */
+    public static IpAddress parse(CharSequence text, int start, int end) {
+        if (start >= end) {
+            return null;
+        }
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == ':') {
+                return parseIPv6(text, start, end);
+            }
+        }
+        long ipv4 = parseIPv4(text, start, end);
+        return ipv4 < 0 ? null : new IpAddress(0, IPV4_MAPPED_PREFIX | ipv4);
+    }
+
+    /**
+     * Checks whether this is an IPv4 address.
+     *
+     * @return {@code true} if this is an IPv4(-mapped) address.
+     */
+    public boolean isIPv4() {
+        return high == 0 && (low >>> 32) == 0xFFFFL;
+    }
+
+    /**
+     * Retrieves the bit at the given position, counting from the most significant bit.
+     *
+     * @param index The position of the bit, between 0 and 127.
+     * @return The bit, 0 or 1.
+     */
+    int bit(int index) {
+        return (int) (index < 64 ? high >>> (63 - index) : low >>> (127 - index)) & 1;
+    }
+
+    @Override
+    public String toString() {
+        if (isIPv4()) {
+            return ((low >>> 24) & 0xFF) + "." + ((low >>> 16) & 0xFF) + "." + ((low >>> 8) & 0xFF) + "." + (low & 0xFF);
+        }
+        StringBuilder builder = new StringBuilder(39);
+        for (int group = 0; group < 8; group++) {
+            if (group > 0) {
+                builder.append(':');
+            }
+            long half = group < 4 ? high : low;
+            builder.append(Long.toHexString((half >>> (48 - 16 * (group % 4))) & 0xFFFF));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Parses a dotted-quad IPv4 literal.
+     *
+     * @return The address as an unsigned 32-bit value, or {@code -1} if the range is not a valid IPv4 literal.
+     */
+    private static long parseIPv4(CharSequence text, int start, int end) {
+        long address = 0;
+        int octets = 0;
+        int i = start;
+        while (octets < 4) {
+            int value = 0;
+            int digits = 0;
+            while (i < end && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+                // Leading zeros are rejected, as some parsers read them as octal
+                if (digits > 0 && value == 0) {
+                    return -1;
+                }
+                value = value * 10 + (text.charAt(i) - '0');
+                digits++;
+                i++;
+                if (value > 255) {
+                    return -1;
+                }
+            }
+            if (digits == 0) {
+                return -1;
+            }
+            address = (address << 8) | value;
+            octets++;
+            if (octets < 4) {
+                if (i >= end || text.charAt(i) != '.') {
+                    return -1;
+                }
+                i++;
+            }
+        }
+        return i == end ? address : -1;
+    }
+
+    private static IpAddress parseIPv6(CharSequence text, int start, int end) {
+        // Strip the zone identifier
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '%') {
+                end = i;
+                break;
+            }
+        }
+
+        // Groups before and after the "::" are collected separately and combined at the end
+        long headHigh = 0, headLow = 0, tailHigh = 0, tailLow = 0;
+        int headGroups = 0, tailGroups = 0;
+        boolean compressed = false;
+
+        int i = start;
+        if (end - start >= 2 && text.charAt(i) == ':' && text.charAt(i + 1) == ':') {
+            compressed = true;
+            i += 2;
+        } else if (text.charAt(i) == ':') {
+            return null;
+        }
+
+        while (i < end) {
+            int groupStart = i;
+            int value = 0;
+            while (i < end && i - groupStart < 5) {
+                int digit = Character.digit(text.charAt(i), 16);
+                if (digit < 0) {
+                    break;
+                }
+                value = (value << 4) | digit;
+                i++;
+            }
+
+            if (i < end && text.charAt(i) == '.') {
+                // Embedded IPv4 address, which counts as two groups and must come last
+                long ipv4 = parseIPv4(text, groupStart, end);
+                if (ipv4 < 0 || headGroups + tailGroups > 6) {
+                    return null;
+                }
+                if (compressed) {
+                    tailHigh = (tailHigh << 32) | (tailLow >>> 32);
+                    tailLow = (tailLow << 32) | ipv4;
+                    tailGroups += 2;
+                } else {
+                    headHigh = (headHigh << 32) | (headLow >>> 32);
+                    headLow = (headLow << 32) | ipv4;
+                    headGroups += 2;
+                }
+                i = end;
+                break;
+            }
+
+            int digits = i - groupStart;
+            if (digits == 0 || digits > 4 || headGroups + tailGroups >= 8) {
+                return null;
+            }
+            if (compressed) {
+                tailHigh = (tailHigh << 16) | (tailLow >>> 48);
+                tailLow = (tailLow << 16) | value;
+                tailGroups++;
+            } else {
+                headHigh = (headHigh << 16) | (headLow >>> 48);
+                headLow = (headLow << 16) | value;
+                headGroups++;
+            }
+
+            if (i == end) {
+                break;
+            }
+            if (text.charAt(i) != ':') {
+                return null;
+            }
+            i++;
+            if (i < end && text.charAt(i) == ':') {
+                if (compressed) {
+                    return null;
+                }
+                compressed = true;
+                i++;
+            } else if (i == end) {
+                // Trailing single colon
+                return null;
+            }
+        }
+
+        int groups = headGroups + tailGroups;
+        if (compressed ? groups > 7 : groups != 8) {
+            return null;
+        }
+
+        // Move the head groups to the top, the "::" stands for the zero groups in between
+        int shift = 16 * (8 - headGroups);
+        long high;
+        long low;
+        if (shift >= 128) {
+            high = 0;
+            low = 0;
+        } else if (shift >= 64) {
+            high = headLow << (shift - 64);
+            low = 0;
+        } else if (shift > 0) {
+            high = (headHigh << shift) | (headLow >>> (64 - shift));
+            low = headLow << shift;
+        } else {
+            high = headHigh;
+            low = headLow;
+        }
+        return new IpAddress(high | tailHigh, low | tailLow);
+    }
+}
@@ -0,0 +1,186 @@
+package net.fuxle.awooapi.core.subscription;
+
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import net.fuxle.awooapi.server.intf.websocket.WebSocketSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The state of one graphql-ws connection: its running operations and the bounded buffer of messages waiting to be
+ * sent.
+ * <p>
+ * Messages are queued without blocking and written by a single writer task at a time, so a slow client never holds
+ * up the thread publishing an event. A client that lets its buffer run full is closed as a slow consumer.
+ */
+final class Connection {
+
+    private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * The close code of connections that cannot keep up with their messages, "Try Again Later".
+     */
+    static final int SLOW_CONSUMER = 1013;
+
+    /**
+     * Placeholder of an operation whose id is taken, but that is still being started.
+     */
+    private static final Runnable PENDING = () -> {
+    };
+
+    private final WebSocketSession session;
+    private final HandlerContext handlerContext;
+    private final ArrayBlockingQueue<String> outbound;
+    private final Executor writer;
+    private final LongAdder evictions;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final AtomicBoolean initialised = new AtomicBoolean();
+    /**
+     * Cancels the running operations by id.
+     */
+    private final Map<String, Runnable> operations = new ConcurrentHashMap<>();
+
+    Connection(WebSocketSession session, HandlerContext handlerContext, int bufferSize, Executor writer, LongAdder evictions) {
+        this.session = session;
+        this.handlerContext = handlerContext;
+        this.outbound = new ArrayBlockingQueue<>(bufferSize);
+        this.writer = writer;
+        this.evictions = evictions;
+    }
+
+    HandlerContext handlerContext() {
+        return handlerContext;
+    }
+
+    /**
+     * Marks the connection as initialised.
+     *
+     * @return {@code false} if it already was.
+     */
+    boolean initialise() {
+        return initialised.compareAndSet(false, true);
+    }
+
+    boolean isInitialised() {
+        return initialised.get();
+    }
+
+    /**
+     * Takes an operation id for an operation that is about to start.
+     *
+     * @return {@code false} if the id is already taken.
+     */
+    boolean reserve(String id) {
+        return operations.putIfAbsent(id, PENDING) == null;
+    }
+
+    /**
+     * Attaches the cancellation of a started operation to its reserved id.
+     *
+     * @return {@code false} if the operation has ended in the meantime and must be cancelled by the caller.
+     */
+    boolean attach(String id, Runnable cancel) {
+        return operations.replace(id, PENDING, cancel);
+    }
+
+    /**
+     * Ends an operation without cancelling it, e.g. because it has completed, and sends its last message.
+     *
+     * @param id        The id of the operation.
+     * @param cancel    The cancellation the operation was attached with, so a later operation reusing the id is kept,
+     *                  or {@code null} if it was never attached.
+     * @param lastFrame The message ending the operation.
+     */
+    void finish(String id, Runnable cancel, String lastFrame) {
+        // The operation may still be starting if it ended right away
+        if (operations.remove(id, cancel) || operations.remove(id, PENDING)) {
+            send(lastFrame);
+        }
+    }
+
+    /**
+     * Cancels an operation on request of the client.
+     */
+    void cancel(String id) {
+        Runnable cancel = operations.remove(id);
+        if (cancel != null) {
+            cancel.run();
+        }
+    }
+
+    /**
+     * Queues a message to be sent, closing the connection if its buffer is full.
+     *
+     * @param frame The message.
+     */
+    void send(String frame) {
+        if (closed.get()) {
+            return;
+        }
+        if (!outbound.offer(frame)) {
+            evictions.increment();
+            log.debug("Closing WebSocket connection that fell {} messages behind", outbound.size());
+            close(SLOW_CONSUMER, "Slow consumer");
+            return;
+        }
+        if (draining.compareAndSet(false, true)) {
+            writer.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            String frame;
+            while (!closed.get() && (frame = outbound.poll()) != null) {
+                session.sendText(frame);
+            }
+        } catch (IOException e) {
+            log.debug("Sending to WebSocket connection failed", e);
+            close(1011, "Send failed");
+        } finally {
+            draining.set(false);
+        }
+        // Messages queued after the last poll but before the flag was cleared
+        if (!closed.get() && !outbound.isEmpty() && draining.compareAndSet(false, true)) {
+            writer.execute(this::drain);
+        }
+    }
+
+    /**
+     * Closes the connection and cancels its operations.
+     *
+     * @param code   The WebSocket close code.
+     * @param reason The close reason.
+     */
+    void close(int code, String reason) {
+        if (terminate()) {
+            session.close(code, reason);
+        }
+    }
+
+    /**
+     * Cancels the operations of a connection the client has closed.
+     *
+     * @return {@code false} if the connection was already closed.
+     */
+    boolean terminate() {
+        if (!closed.compareAndSet(false, true)) {
+            return false;
+        }
+        outbound.clear();
+        for (String id : operations.keySet()) {
+            cancel(id);
+        }
+        return true;
+    }
+}
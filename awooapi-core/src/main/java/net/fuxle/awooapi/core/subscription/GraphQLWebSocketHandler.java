@@ -0,0 +1,316 @@
+package net.fuxle.awooapi.core.subscription;
+
+import graphql.ExecutionResult;
+import graphql.GraphQLError;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLCodeRegistry;
+import graphql.schema.GraphQLObjectType;
+import net.fuxle.awooapi.annotations.MultiEndpoint;
+import net.fuxle.awooapi.core.autodiscovery.GraphQLEndpoint;
+import net.fuxle.awooapi.core.autodiscovery.dispatcher.EndpointDataFetcher;
+import net.fuxle.awooapi.core.exceptions.AwooApiPersistedQueryException;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import net.fuxle.awooapi.server.intf.codec.JsonCodec;
+import net.fuxle.awooapi.server.intf.codec.JsonCodecs;
+import net.fuxle.awooapi.server.intf.websocket.WebSocketHandler;
+import net.fuxle.awooapi.server.intf.websocket.WebSocketSession;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves GraphQL operations, and subscriptions in particular, over WebSocket connections speaking the
+ * <a href="https://github.com/enisdenjo/graphql-ws/blob/master/PROTOCOL.md">graphql-ws protocol</a>
+ * ({@value #SUBPROTOCOL}).
+ * <p>
+ * Operations are resolved like HTTP requests, so persisted queries and the allowlist apply to them as well. Every
+ * connection runs its own executions with the context of the request that opened it. Only subscriptions whose fields
+ * opt in with {@link MultiEndpoint#graphQLSharedSubscription()} are shared by all connections sending the same query,
+ * operation name and variables: their events are resolved and encoded once and broadcast to all subscribers. Every
+ * connection queues at most a configured number of messages; connections falling further behind are closed with code
+ * 1013, so a slow client cannot hold up the others or make the server buffer without limit.
+ */
+public class GraphQLWebSocketHandler implements WebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * The subprotocol of the graphql-ws protocol.
+     */
+    public static final String SUBPROTOCOL = "graphql-transport-ws";
+
+    /**
+     * Default maximum number of messages queued per connection.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 256;
+
+    /**
+     * Writes the queued messages of the connections, one virtual thread per connection that has messages to send.
+     */
+    private static final Executor WRITERS = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("awooapi-graphql-ws-", 0).factory());
+
+    private final GraphQLEndpoint endpoint;
+    private final int bufferSize;
+    private final JsonCodec codec = JsonCodecs.getDefault();
+    private final SubscriptionHub hub = new SubscriptionHub(codec);
+    private final Map<WebSocketSession, Connection> connections = new ConcurrentHashMap<>();
+    private final LongAdder evictedConnections = new LongAdder();
+
+    /**
+     * Constructs a new GraphQL WebSocket handler.
+     *
+     * @param endpoint   The endpoint executing the operations.
+     * @param bufferSize The maximum number of messages queued per connection.
+     * @throws IllegalArgumentException If the buffer size is not positive.
+     */
+    public GraphQLWebSocketHandler(GraphQLEndpoint endpoint, int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive, got " + bufferSize);
+        }
+        this.endpoint = endpoint;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public List<String> getSubprotocols() {
+        return List.of(SUBPROTOCOL);
+    }
+
+    @Override
+    public void onOpen(WebSocketSession session) {
+        if (!SUBPROTOCOL.equals(session.getSubprotocol())) {
+            session.close(4406, "Subprotocol not acceptable");
+            return;
+        }
+        HandlerContext handlerContext = new HandlerContext(session.getRequest(), new BufferedResponse(), null);
+        connections.put(session, new Connection(session, handlerContext, bufferSize, WRITERS, evictedConnections));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onMessage(WebSocketSession session, String message) {
+        Connection connection = connections.get(session);
+        if (connection == null) {
+            return;
+        }
+
+        Map<String, Object> parsed;
+        try {
+            parsed = codec.read(new ByteArrayInputStream(message.getBytes(StandardCharsets.UTF_8)), Map.class);
+        } catch (IOException | RuntimeException e) {
+            connection.close(4400, "Invalid message received");
+            return;
+        }
+        if (parsed == null || !(parsed.get("type") instanceof String type)) {
+            connection.close(4400, "Invalid message received");
+            return;
+        }
+
+        switch (type) {
+            case "connection_init" -> {
+                if (!connection.initialise()) {
+                    connection.close(4429, "Too many initialisation requests");
+                    return;
+                }
+                connection.send(frame("connection_ack", null, null));
+            }
+            case "ping" -> connection.send(frame("pong", null, null));
+            case "pong" -> {
+                // Answers to pings are not required, the client may also send them unsolicited
+            }
+            case "subscribe" -> subscribe(connection, parsed);
+            case "complete" -> {
+                if (parsed.get("id") instanceof String id) {
+                    connection.cancel(id);
+                }
+            }
+            default -> connection.close(4400, "Invalid message received");
+        }
+    }
+
+    @Override
+    public void onClose(WebSocketSession session, int code, String reason) {
+        Connection connection = connections.remove(session);
+        if (connection != null) {
+            connection.terminate();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void subscribe(Connection connection, Map<String, Object> message) {
+        if (!connection.isInitialised()) {
+            connection.close(4401, "Unauthorized");
+            return;
+        }
+        if (!(message.get("id") instanceof String id) || !(message.get("payload") instanceof Map<?, ?> payload)) {
+            connection.close(4400, "Invalid message received");
+            return;
+        }
+        if (!connection.reserve(id)) {
+            connection.close(4409, "Subscriber for " + id + " already exists");
+            return;
+        }
+
+        // The same persisted query rules and allowlist apply as over HTTP
+        String query;
+        try {
+            query = endpoint.resolveQuery((Map<String, Object>) payload);
+        } catch (AwooApiPersistedQueryException e) {
+            log.debug("Persisted query rejected: {}", e.getMessage());
+            connection.finish(id, null, frame("error", id, List.of(Map.of("message", e.getMessage(), "extensions", Map.of("code", e.getCode())))));
+            return;
+        }
+        if (query == null) {
+            connection.close(4400, "Invalid message received");
+            return;
+        }
+
+        String operationName = payload.get("operationName") instanceof String name ? name : null;
+        Map<String, Object> variables = payload.get("variables") instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+        SubscriptionHub.TopicKey key = new SubscriptionHub.TopicKey(query, operationName, variables,
+                isShared(query, operationName) ? null : connection);
+
+        // Identical subscriptions share the running execution, without being executed again
+        Runnable cancel = hub.join(key, connection, id);
+        if (cancel == null) {
+            ExecutionResult result;
+            try {
+                result = endpoint.execute(connection.handlerContext(), query, operationName, variables);
+            } catch (RuntimeException e) {
+                log.warn("Executing GraphQL operation {} received over WebSocket failed", id, e);
+                connection.finish(id, null, frame("error", id, List.of(Map.of("message", "Internal server error"))));
+                return;
+            }
+
+            if (!(result.getData() instanceof Publisher<?> events)) {
+                // Queries, mutations and rejected subscriptions have a single result
+                if (result.isDataPresent()) {
+                    connection.send(frame("next", id, result.toSpecification()));
+                    connection.finish(id, null, frame("complete", id, null));
+                } else {
+                    connection.finish(id, null, frame("error", id, errorsOf(result)));
+                }
+                return;
+            }
+            cancel = hub.start(key, (Publisher<ExecutionResult>) events, connection, id);
+        }
+
+        if (!connection.attach(id, cancel)) {
+            // The connection was closed while the subscription was started
+            cancel.run();
+        }
+    }
+
+    /**
+     * Determines whether the execution of an operation may be shared by all connections, which requires every field
+     * of the subscription to be declared shareable with {@link MultiEndpoint#graphQLSharedSubscription()}.
+     */
+    private boolean isShared(String query, String operationName) {
+        Document document;
+        try {
+            document = Parser.parse(query);
+        } catch (InvalidSyntaxException e) {
+            // Answered with the syntax error by the execution
+            return false;
+        }
+        OperationDefinition operation = null;
+        for (OperationDefinition candidate : document.getDefinitionsOfType(OperationDefinition.class)) {
+            if (operationName == null || operationName.equals(candidate.getName())) {
+                operation = candidate;
+                break;
+            }
+        }
+        GraphQLObjectType subscriptionType = endpoint.getSchema().getSubscriptionType();
+        if (operation == null || operation.getOperation() != OperationDefinition.Operation.SUBSCRIPTION || subscriptionType == null) {
+            return false;
+        }
+
+        GraphQLCodeRegistry codeRegistry = endpoint.getSchema().getCodeRegistry();
+        for (Selection<?> selection : operation.getSelectionSet().getSelections()) {
+            // Fields selected through fragments are not inspected, such subscriptions are simply not shared
+            if (!(selection instanceof Field field) || subscriptionType.getFieldDefinition(field.getName()) == null) {
+                return false;
+            }
+            FieldCoordinates coordinates = FieldCoordinates.coordinates(subscriptionType.getName(), field.getName());
+            if (!codeRegistry.hasDataFetcher(coordinates)
+                    || !(codeRegistry.getDataFetcher(coordinates, subscriptionType.getFieldDefinition(field.getName())) instanceof EndpointDataFetcher dataFetcher)
+                    || dataFetcher.getMultiEndpoint() == null || !dataFetcher.getMultiEndpoint().graphQLSharedSubscription()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<Map<String, Object>> errorsOf(ExecutionResult result) {
+        List<Map<String, Object>> errors = new ArrayList<>(result.getErrors().size());
+        for (GraphQLError error : result.getErrors()) {
+            errors.add(error.toSpecification());
+        }
+        return errors;
+    }
+
+    private String frame(String type, String id, Object payload) {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        if (id != null) {
+            frame.put("id", id);
+        }
+        frame.put("type", type);
+        if (payload != null) {
+            frame.put("payload", payload);
+        }
+        try {
+            return new String(codec.toBytes(frame), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            // Only maps, lists and scalars are encoded
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Retrieves the number of open connections.
+     *
+     * @return The number of connections.
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * Retrieves the number of running subscription executions, each of which may be shared by several subscribers.
+     *
+     * @return The number of running subscriptions.
+     */
+    public int getRunningSubscriptions() {
+        return hub.getTopicCount();
+    }
+
+    /**
+     * Retrieves the number of connections closed because they could not keep up with their messages.
+     *
+     * @return The number of evicted connections.
+     */
+    public long getEvictedConnections() {
+        return evictedConnections.sum();
+    }
+}
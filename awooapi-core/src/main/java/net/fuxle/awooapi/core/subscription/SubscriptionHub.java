@@ -0,0 +1,211 @@
+package net.fuxle.awooapi.core.subscription;
+
+import graphql.ExecutionResult;
+import net.fuxle.awooapi.server.intf.codec.JsonCodec;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Shares one execution of a subscription between all subscribers with the same {@link TopicKey}. Every event of the
+ * shared execution is resolved and encoded once, and only the message envelope carrying the operation id is built per
+ * subscriber.
+ * <p>
+ * The execution is started for the first subscriber and cancelled when the last one leaves. Subscribers joining
+ * later receive the events published from then on.
+ */
+final class SubscriptionHub {
+
+    private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * Identifies the subscriptions that receive the same events.
+     *
+     * @param scope The connection the execution is limited to, or {@code null} if it is shared by all connections.
+     */
+    record TopicKey(String query, String operationName, Map<String, Object> variables, Connection scope) {
+    }
+
+    private final Map<TopicKey, Topic> topics = new ConcurrentHashMap<>();
+    private final JsonCodec codec;
+
+    SubscriptionHub(JsonCodec codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * Subscribes to a running execution of the given subscription.
+     *
+     * @return The cancellation of the subscription, or {@code null} if the subscription is not running.
+     */
+    Runnable join(TopicKey key, Connection connection, String id) {
+        Topic topic = topics.get(key);
+        return topic != null ? topic.add(connection, id) : null;
+    }
+
+    /**
+     * Subscribes to the events of a new execution of the given subscription. If another subscriber has started the
+     * subscription in the meantime, its execution is joined instead and the given events are never requested.
+     *
+     * @return The cancellation of the subscription.
+     */
+    Runnable start(TopicKey key, Publisher<ExecutionResult> events, Connection connection, String id) {
+        Topic topic = new Topic(key);
+        while (true) {
+            Topic existing = topics.putIfAbsent(key, topic);
+            Topic target = existing != null ? existing : topic;
+            Runnable cancel = target.add(connection, id);
+            if (cancel != null) {
+                if (target == topic) {
+                    events.subscribe(topic);
+                }
+                return cancel;
+            }
+            // The topic ended concurrently, start over with a fresh one
+            topics.remove(key, target);
+            if (target == topic) {
+                topic = new Topic(key);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the number of running subscription executions.
+     */
+    int getTopicCount() {
+        return topics.size();
+    }
+
+    private String encode(Object value) {
+        try {
+            return new String(codec.toBytes(value), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * One execution of a subscription and its subscribers.
+     */
+    private final class Topic implements Subscriber<ExecutionResult> {
+        private final TopicKey key;
+        private final List<Member> members = new CopyOnWriteArrayList<>();
+        // Guarded by this
+        private Subscription upstream;
+        private boolean closed;
+
+        private Topic(TopicKey key) {
+            this.key = key;
+        }
+
+        /**
+         * Adds a subscriber.
+         *
+         * @return The cancellation of the subscription, or {@code null} if the topic has ended.
+         */
+        private synchronized Runnable add(Connection connection, String id) {
+            if (closed) {
+                return null;
+            }
+            Member member = new Member(connection, id);
+            members.add(member);
+            return member.cancel;
+        }
+
+        private void remove(Member member) {
+            Subscription cancel;
+            synchronized (this) {
+                if (!members.remove(member) || !members.isEmpty() || closed) {
+                    return;
+                }
+                closed = true;
+                cancel = upstream;
+            }
+            topics.remove(key, this);
+            if (cancel != null) {
+                cancel.cancel();
+            }
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            synchronized (this) {
+                if (!closed) {
+                    upstream = subscription;
+                    subscription = null;
+                }
+            }
+            if (subscription != null) {
+                // All subscribers left before the execution started
+                subscription.cancel();
+                return;
+            }
+            upstream.request(1);
+        }
+
+        @Override
+        public void onNext(ExecutionResult result) {
+            // Resolved and encoded once for all subscribers
+            String payload = encode(result.toSpecification());
+            for (Member member : members) {
+                member.connection.send(member.nextPrefix + payload + "}");
+            }
+            // Sending only queues the messages, so the next event can be requested right away
+            upstream.request(1);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            log.warn("Subscription {} failed", key.operationName() != null ? key.operationName() : key.query(), t);
+            String message = t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName();
+            end(member -> encode(Map.of("id", member.id, "type", "error", "payload", List.of(Map.of("message", message)))));
+        }
+
+        @Override
+        public void onComplete() {
+            end(member -> encode(Map.of("id", member.id, "type", "complete")));
+        }
+
+        private void end(Function<Member, String> lastFrame) {
+            synchronized (this) {
+                closed = true;
+            }
+            topics.remove(key, this);
+            for (Member member : members) {
+                member.connection.finish(member.id, member.cancel, lastFrame.apply(member));
+            }
+            members.clear();
+        }
+
+        /**
+         * A subscriber of the topic.
+         */
+        private final class Member {
+            private final Connection connection;
+            private final String id;
+            /**
+             * The start of the subscriber's {@code next} messages, up to the payload.
+             */
+            private final String nextPrefix;
+            private final Runnable cancel = () -> remove(this);
+
+            private Member(Connection connection, String id) {
+                this.connection = connection;
+                this.id = id;
+                this.nextPrefix = "{\"id\":" + encode(id) + ",\"type\":\"next\",\"payload\":";
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package net.fuxle.awooapi.core.templates;
+
+import graphql.schema.DataFetchingEnvironment;
+import net.fuxle.awooapi.core.api.Parameters;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Template for an Endpoint that can resolve many GraphQL fields with a single backend call.
+ * <p>
+ * When a field is resolved for every element of a list, the resolutions of one execution level are collected and
+ * handed to {@link #handleBatch(List)} at once instead of calling the backend once per element. Resolutions with
+ * equal {@link #getBatchKey(Parameters) batch keys} are deduplicated within a request. REST requests are served by
+ * a batch of one.
+ *
+ * @param <T> Return Type, must be specified in GraphQL Schema
+ */
+public abstract class AbstractBatchEndpoint<T> extends AbstractEndpoint<T> {
+
+    /**
+     * Resolves a batch of requests.
+     *
+     * @param params The parameters of the requests, never empty.
+     * @return The results, in the order of the parameters.
+     * @throws Exception If resolving the batch fails; all requests of the batch fail with this exception.
+     */
+    public abstract List<T> handleBatch(List<Parameters> params) throws Exception;
+
+    @Override
+    public T handleRequest(Parameters params) throws Exception {
+        return handleBatch(List.of(params)).get(0);
+    }
+
+    /**
+     * Determines the key under which the result of a GraphQL field resolution is deduplicated within a request.
+     * Resolutions with equal keys are only passed to {@link #handleBatch(List)} once and share the result.
+     * <p>
+     * By default, the key consists of the source object of the field and its arguments.
+     *
+     * @param params The parameters of the field resolution.
+     * @return The key, which must implement {@code equals} and {@code hashCode}.
+     */
+    public Object getBatchKey(Parameters params) {
+        DataFetchingEnvironment environment = params.getGraphQLDatafetchingEnvironment();
+        return Arrays.asList(environment.getSource(), environment.getArguments());
+    }
+
+    /**
+     * Retrieves the maximum number of requests passed to one call of {@link #handleBatch(List)}.
+     *
+     * @return The maximum batch size, 0 for no limit.
+     */
+    public int getMaxBatchSize() {
+        return 0;
+    }
+}
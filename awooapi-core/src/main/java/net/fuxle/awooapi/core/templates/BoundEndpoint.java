@@ -0,0 +1,34 @@
+package net.fuxle.awooapi.core.templates;
+
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.binding.EndpointInvoker;
+
+/**
+ * Template for an Endpoint whose arguments are bound to the parameters of a {@code handle} method instead of being
+ * read from {@link Parameters} by name, e.g.
+ * <pre>{@code
+ * public User handle(@PathParam("id") long id, @QueryParam(value = "fields", defaultValue = "all") String fields)
+ * }</pre>
+ * The binding is compiled once when the endpoint is instantiated, see {@link EndpointInvoker}.
+ *
+ * @param <T> Return Type, must be specified in GraphQL Schema
+ */
+public abstract class BoundEndpoint<T> extends AbstractEndpoint<T> {
+
+    private final EndpointInvoker invoker;
+
+    /**
+     * Constructs a new endpoint and compiles the binding of its {@code handle} method.
+     *
+     * @throws IllegalArgumentException If the endpoint has no unique {@code handle} method or a parameter cannot be bound.
+     */
+    protected BoundEndpoint() {
+        this.invoker = EndpointInvoker.compile(getClass());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public final T handleRequest(Parameters params) throws Exception {
+        return (T) invoker.invoke(this, params);
+    }
+}
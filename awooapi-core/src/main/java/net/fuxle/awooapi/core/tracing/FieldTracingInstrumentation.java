@@ -0,0 +1,163 @@
+package net.fuxle.awooapi.core.tracing;
+
+import graphql.ExecutionResult;
+import graphql.execution.ExecutionStepInfo;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import net.fuxle.awooapi.core.autodiscovery.GraphQLLocalContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records when each GraphQL field was fetched, how long it took and whether it failed, and returns the timings in
+ * the {@code tracing} entry of the response extensions.
+ * <p>
+ * Only sampled requests are traced: a share of all requests chosen at random, and requests sending the
+ * {@value #TRACE_HEADER} header if that is enabled. Unsampled requests have no instrumentation state, so tracing
+ * costs them a null check per field. Sampled requests write into arrays allocated once per request; fields beyond
+ * their capacity are counted but not recorded.
+ */
+public class FieldTracingInstrumentation extends SimplePerformantInstrumentation {
+
+    /**
+     * The request header that asks for a trace of the request, e.g. {@code X-GraphQL-Trace: 1}.
+     */
+    public static final String TRACE_HEADER = "X-GraphQL-Trace";
+
+    private final double sampleRate;
+    private final boolean traceHeaderEnabled;
+    private final int maxTracedFields;
+
+    private final LongAdder tracedRequests = new LongAdder();
+
+    /**
+     * Constructs a new field tracing instrumentation.
+     *
+     * @param sampleRate         The share of requests traced at random, between 0 and 1.
+     * @param traceHeaderEnabled Whether requests sending the {@value #TRACE_HEADER} header are traced.
+     * @param maxTracedFields    The maximum number of fields recorded per request.
+     * @throws IllegalArgumentException If the sample rate is not between 0 and 1 or the maximum is not positive.
+     */
+    public FieldTracingInstrumentation(double sampleRate, boolean traceHeaderEnabled, int maxTracedFields) {
+        if (sampleRate < 0 || sampleRate > 1 || maxTracedFields <= 0) {
+            throw new IllegalArgumentException("Invalid tracing settings: sampleRate=" + sampleRate + ", maxTracedFields=" + maxTracedFields);
+        }
+        this.sampleRate = sampleRate;
+        this.traceHeaderEnabled = traceHeaderEnabled;
+        this.maxTracedFields = maxTracedFields;
+    }
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        boolean sampled = sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        if (!sampled && traceHeaderEnabled && parameters.getExecutionInput().getLocalContext() instanceof GraphQLLocalContext localContext) {
+            sampled = localContext.handlerContext().header(TRACE_HEADER) != null;
+        }
+        if (!sampled) {
+            return null;
+        }
+        tracedRequests.increment();
+        return new Trace(maxTracedFields);
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters, InstrumentationState state) {
+        if (!(state instanceof Trace trace)) {
+            return null;
+        }
+        int slot = trace.next.getAndIncrement();
+        if (slot >= trace.capacity) {
+            return null;
+        }
+        trace.steps[slot] = parameters.getExecutionStepInfo();
+        trace.startOffsets[slot] = System.nanoTime() - trace.startNanos;
+        return new InstrumentationContext<>() {
+            @Override
+            public void onDispatched() {
+            }
+
+            @Override
+            public void onCompleted(Object result, Throwable t) {
+                trace.durations[slot] = System.nanoTime() - trace.startNanos - trace.startOffsets[slot];
+                trace.failed[slot] = t != null;
+            }
+        };
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult, InstrumentationExecutionParameters parameters, InstrumentationState state) {
+        if (!(state instanceof Trace trace)) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        Map<String, Object> tracing = trace.toMap(System.nanoTime());
+        return CompletableFuture.completedFuture(executionResult.transform(builder -> builder.addExtension("tracing", tracing)));
+    }
+
+    /**
+     * Retrieves the number of requests that were traced.
+     *
+     * @return The number of traced requests.
+     */
+    public long getTracedRequests() {
+        return tracedRequests.sum();
+    }
+
+    /**
+     * The field timings of one traced request. Each field writes only its own slot, and the slots are read after
+     * the execution has completed.
+     */
+    private static final class Trace implements InstrumentationState {
+        private final long startNanos = System.nanoTime();
+        private final int capacity;
+        private final AtomicInteger next = new AtomicInteger();
+        private final ExecutionStepInfo[] steps;
+        private final long[] startOffsets;
+        private final long[] durations;
+        private final boolean[] failed;
+
+        private Trace(int capacity) {
+            this.capacity = capacity;
+            this.steps = new ExecutionStepInfo[capacity];
+            this.startOffsets = new long[capacity];
+            this.durations = new long[capacity];
+            this.failed = new boolean[capacity];
+        }
+
+        private Map<String, Object> toMap(long endNanos) {
+            int recorded = Math.min(next.get(), capacity);
+            List<Map<String, Object>> resolvers = new ArrayList<>(recorded);
+            for (int i = 0; i < recorded; i++) {
+                Map<String, Object> resolver = new LinkedHashMap<>();
+                resolver.put("path", steps[i].getPath().toList());
+                resolver.put("parentType", steps[i].getObjectType().getName());
+                resolver.put("fieldName", steps[i].getFieldDefinition().getName());
+                resolver.put("startOffset", startOffsets[i]);
+                resolver.put("duration", durations[i]);
+                if (failed[i]) {
+                    resolver.put("error", true);
+                }
+                resolvers.add(resolver);
+            }
+
+            Map<String, Object> tracing = new LinkedHashMap<>();
+            tracing.put("version", 1);
+            tracing.put("duration", endNanos - startNanos);
+            tracing.put("resolvers", resolvers);
+            if (next.get() > capacity) {
+                tracing.put("droppedResolvers", next.get() - capacity);
+            }
+            return tracing;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package net.fuxle.awooapi;
+
+import net.fuxle.awooapi.server.intf.Request;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * In-memory {@link Request} for unit tests.
+ *
+ * @param method      The HTTP method.
+ * @param path        The request path.
+ * @param queryParams The query parameters.
+ * @param headers     The request headers.
+ * @param body        The request body.
+ */
+public record StubRequest(String method, String path, Map<String, String> queryParams, Map<String, String> headers, byte[] body) implements Request {
+
+    /**
+     * Creates a GET request without body.
+     *
+     * @param path        The request path.
+     * @param queryParams The query parameters.
+     * @param headers     The request headers.
+     */
+    public StubRequest(String path, Map<String, String> queryParams, Map<String, String> headers) {
+        this("GET", path, queryParams, headers, new byte[0]);
+    }
+
+    @Override
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    @Override
+    public String getBody() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String getIP() {
+        return "127.0.0.1";
+    }
+
+    @Override
+    public String getQueryParam(String name) {
+        return queryParams.get(name);
+    }
+
+    @Override
+    public byte[] getBodyBytes() {
+        return body.clone();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new ByteArrayInputStream(body);
+    }
+}
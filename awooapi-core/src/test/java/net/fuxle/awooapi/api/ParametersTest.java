@@ -0,0 +1,98 @@
+package net.fuxle.awooapi.api;
+
+import net.fuxle.awooapi.StubRequest;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.network.ClientAddressResolver;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link Parameters} class.
+ */
+class ParametersTest {
+
+    private static Parameters parameters(String contentType, String body) {
+        StubRequest request = new StubRequest("POST", "/api/import", Map.of(), Map.of("Content-Type", contentType),
+                body.getBytes(StandardCharsets.UTF_8));
+        return new Parameters(new HandlerContext(request, new BufferedResponse(), null), null, Parameters.REQUEST_SOURCE.REST);
+    }
+
+    private static String ndjson(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "{\"id\":" + i + "}").collect(Collectors.joining("\n"));
+    }
+
+    @Test
+    void testConsumeRequestBodyInBatches() throws Exception {
+        List<Integer> batchSizes = new ArrayList<>();
+        long count = parameters("application/x-ndjson", ndjson(25))
+                .consumeRequestBodyInBatches(Map.class, 10, batch -> batchSizes.add(batch.size()));
+
+        assertEquals(25, count, "All records should be read");
+        assertEquals(List.of(10, 10, 5), batchSizes, "Records should be handed over in batches");
+    }
+
+    @Test
+    void testConsumeJsonArrayBody() throws Exception {
+        List<Object> ids = new ArrayList<>();
+        long count = parameters("application/json", "[{\"id\":1},{\"id\":2}]")
+                .consumeRequestBodyInBatches(Map.class, 100, batch -> batch.forEach(record -> ids.add(record.get("id"))));
+
+        assertEquals(2, count);
+        assertEquals(List.of(1.0, 2.0), ids);
+    }
+
+    @Test
+    void testHandlerFailureStopsReading() {
+        List<Integer> batchSizes = new ArrayList<>();
+        Parameters params = parameters("application/x-ndjson", ndjson(100));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> params.consumeRequestBodyInBatches(Map.class, 10, batch -> {
+            batchSizes.add(batch.size());
+            throw new IllegalStateException("Database gone");
+        }));
+        assertEquals("Database gone", e.getMessage());
+        assertEquals(1, batchSizes.size(), "No further batches should be read after a failure");
+    }
+
+    @Test
+    void testInvalidBatchSize() {
+        assertThrows(IllegalArgumentException.class, () -> parameters("application/x-ndjson", "").consumeRequestBodyInBatches(Map.class, 0, batch -> {
+        }));
+    }
+
+    @Test
+    void testGetRequestBodyStream() throws IOException {
+        try (Stream<Map> records = parameters("application/x-ndjson", ndjson(5)).getRequestBodyStream(Map.class)) {
+            assertEquals(5, records.count());
+        }
+
+        try (Stream<Map> records = parameters("application/json", "[{\"id\":1},").getRequestBodyStream(Map.class)) {
+            assertThrows(UncheckedIOException.class, records::count, "Malformed bodies should fail while reading");
+        }
+    }
+
+    @Test
+    void testClientAddressIsResolvedLazily() {
+        StubRequest request = new StubRequest("/api/ip", Map.of(), Map.of("X-Forwarded-For", "10.1.2.3"));
+        ClientAddressResolver resolver = new ClientAddressResolver(ClientAddressResolver.PRIVATE_RANGES, List.of("127.0.0.1"));
+        Parameters params = new Parameters(new HandlerContext(request, new BufferedResponse(), null), null, Parameters.REQUEST_SOURCE.REST, resolver);
+
+        assertEquals("127.0.0.1", params.getRemoteIP());
+        assertEquals("10.1.2.3", params.getClientIP(), "The client behind the trusted proxy should be resolved");
+        assertEquals(Parameters.IP_SOURCE.INTERNAL_ADDRESS_SPACE, params.getRequestIpSource());
+        assertSame(params.getClientAddress(), params.getClientAddress(), "The client address should be resolved once");
+    }
+}
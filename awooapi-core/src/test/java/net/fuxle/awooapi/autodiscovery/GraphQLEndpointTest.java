@@ -0,0 +1,304 @@
+package net.fuxle.awooapi.autodiscovery;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import net.fuxle.awooapi.RuntimeConfiguration;
+import net.fuxle.awooapi.StubRequest;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.autodiscovery.GraphQLEndpoint;
+import net.fuxle.awooapi.core.cache.PersistedQueryStore;
+import net.fuxle.awooapi.core.autodiscovery.dispatcher.GraphQLBatchDispatcher;
+import net.fuxle.awooapi.core.autodiscovery.dispatcher.GraphQLDispatcher;
+import net.fuxle.awooapi.core.network.ClientAddressResolver;
+import net.fuxle.awooapi.core.templates.AbstractBatchEndpoint;
+import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import net.fuxle.awooapi.server.intf.codec.JsonCodec;
+import net.fuxle.awooapi.server.intf.codec.JsonCodecs;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link GraphQLEndpoint} class.
+ */
+class GraphQLEndpointTest {
+
+    private static final int ITEMS = 10_000;
+
+    private final CountDownLatch waiting = new CountDownLatch(3);
+    private final AtomicInteger ownerLoads = new AtomicInteger();
+
+    /**
+     * Resolves the names of owners, counting the owners loaded.
+     */
+    private class OwnerEndpoint extends AbstractBatchEndpoint<String> {
+        @Override
+        public List<String> handleBatch(List<Parameters> batch) {
+            ownerLoads.addAndGet(batch.size());
+            return batch.stream().map(params -> "Owner " + params.getGraphQLDatafetchingEnvironment().getArgument("id")).toList();
+        }
+    }
+
+    /**
+     * Resolves a field on the field executor.
+     */
+    private static class PetEndpoint extends AbstractEndpoint<String> {
+        @Override
+        public String handleRequest(Parameters params) {
+            return "Fox";
+        }
+    }
+
+    private GraphQLEndpoint endpoint(RuntimeConfiguration config) {
+        return endpoint(config, null);
+    }
+
+    private GraphQLEndpoint endpoint(RuntimeConfiguration config, PersistedQueryStore persistedQueries) {
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type
+                        .dataFetcher("greeting", env -> "Hello " + env.getArgument("name"))
+                        .dataFetcher("items", env -> IntStream.range(0, ITEMS).mapToObj(i -> Map.of("id", i, "name", "Item " + i)).toList())
+                        .dataFetcher("waiting", env -> {
+                            waiting.countDown();
+                            // Only completes if all operations are waiting at the same time
+                            return waiting.await(5, TimeUnit.SECONDS) ? "concurrent" : "sequential";
+                        })
+                        .dataFetcher("slow", env -> CompletableFuture.supplyAsync(() -> "finally",
+                                CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)))
+                        .dataFetcher("owner", new GraphQLBatchDispatcher<>(new OwnerEndpoint(), ClientAddressResolver.getDefault()))
+                        .dataFetcher("pet", new GraphQLDispatcher<>(new PetEndpoint())))
+                .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(
+                "type Query { greeting(name: String): String, items: [Item], waiting: String, slow: String, owner(id: Int): String, pet: String } "
+                        + "type Item { id: Int, name: String }"), wiring);
+        return new GraphQLEndpoint(schema, config, persistedQueries);
+    }
+
+    private String send(RuntimeConfiguration config, String body) throws Exception {
+        BufferedResponse response = new BufferedResponse();
+        StubRequest request = new StubRequest("POST", "/api/graphql", Map.of(), Map.of(), body.getBytes(StandardCharsets.UTF_8));
+        endpoint(config).handle(new HandlerContext(request, response, null));
+        assertEquals("application/json", response.getHeader("Content-Type"));
+        return new String(response.getBodyBytes(), StandardCharsets.UTF_8);
+    }
+
+    private JsonObject post(String body) throws Exception {
+        return JsonParser.parseString(send(new RuntimeConfiguration(), body)).getAsJsonObject();
+    }
+
+    private JsonArray postBatch(RuntimeConfiguration config, String body) throws Exception {
+        return JsonParser.parseString(send(config, body)).getAsJsonArray();
+    }
+
+    @Test
+    void testOperationIsSelectedByName() throws Exception {
+        JsonObject result = post("""
+                {"query": "query Wolf($name: String) { greeting(name: $name) } query Fox { greeting(name: \\"Fox\\") }",
+                 "operationName": "Wolf", "variables": {"name": "Wolf"}}
+                """);
+
+        assertNull(result.get("errors"));
+        assertEquals("Hello Wolf", result.getAsJsonObject("data").get("greeting").getAsString());
+    }
+
+    /**
+     * Delegates to another codec, recording the streams values are written to and counting serializations to byte arrays.
+     */
+    private static final class RecordingCodec implements JsonCodec {
+        private final JsonCodec delegate;
+        private final List<OutputStream> writeTargets = new ArrayList<>();
+        private int byteArrays;
+
+        RecordingCodec(JsonCodec delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getContentType() {
+            return delegate.getContentType();
+        }
+
+        @Override
+        public void write(Object value, OutputStream out) throws IOException {
+            writeTargets.add(out);
+            delegate.write(value, out);
+        }
+
+        @Override
+        public byte[] toBytes(Object value) throws IOException {
+            byteArrays++;
+            return delegate.toBytes(value);
+        }
+
+        @Override
+        public <T> T read(InputStream in, Type type) throws IOException {
+            return delegate.read(in, type);
+        }
+    }
+
+    @Test
+    void testLargeResponseIsWrittenInOnePass() throws Exception {
+        JsonCodec defaultCodec = JsonCodecs.getDefault();
+        RecordingCodec codec = new RecordingCodec(defaultCodec);
+        BufferedResponse response = new BufferedResponse();
+        StubRequest request = new StubRequest("POST", "/api/graphql", Map.of(), Map.of(),
+                "{\"query\": \"{ items { id name } }\"}".getBytes(StandardCharsets.UTF_8));
+        JsonCodecs.setDefault(codec);
+        try {
+            endpoint(new RuntimeConfiguration()).handle(new HandlerContext(request, response, null));
+        } finally {
+            JsonCodecs.setDefault(defaultCodec);
+        }
+
+        assertEquals(List.of(response.getOutputStream()), codec.writeTargets,
+                "The result should be serialized once, straight into the response stream");
+        boolean debug = LoggerFactory.getLogger(GraphQLEndpoint.class).isDebugEnabled();
+        assertEquals(debug ? 1 : 0, codec.byteArrays, "The result should only be serialized for the debug log if it is enabled");
+
+        JsonArray items = JsonParser.parseString(new String(response.getBodyBytes(), StandardCharsets.UTF_8)).getAsJsonObject()
+                .getAsJsonObject("data").getAsJsonArray("items");
+        assertEquals(ITEMS, items.size());
+        assertEquals("Item " + (ITEMS - 1), items.get(ITEMS - 1).getAsJsonObject().get("name").getAsString());
+    }
+
+    @Test
+    void testDeferredFragmentsAreDeliveredIncrementally() throws Exception {
+        RuntimeConfiguration config = new RuntimeConfiguration();
+        config.getApiConfig().setGraphQLIncrementalDeliveryEnabled(true);
+        byte[] body = "{\"query\": \"{ greeting(name: \\\"Wolf\\\") ... @defer(label: \\\"late\\\") { slow } }\"}".getBytes(StandardCharsets.UTF_8);
+
+        BufferedResponse response = new BufferedResponse();
+        endpoint(config).handle(new HandlerContext(new StubRequest("POST", "/api/graphql", Map.of(),
+                Map.of("Accept", "multipart/mixed; deferSpec=20220824, application/json"), body), response, null));
+
+        assertEquals(GraphQLEndpoint.MULTIPART_CONTENT_TYPE, response.getHeader("Content-Type"));
+        String multipart = new String(response.getBodyBytes(), StandardCharsets.UTF_8);
+        assertTrue(multipart.endsWith("\r\n-----\r\n"));
+        List<JsonObject> parts = Arrays.stream(multipart.split("\r\n---\r\n")).skip(1)
+                .map(part -> JsonParser.parseString(part.substring(part.indexOf("\r\n\r\n")).replace("\r\n-----\r\n", "")).getAsJsonObject())
+                .toList();
+        assertEquals(2, parts.size());
+        JsonObject initial = parts.get(0);
+        assertEquals("Hello Wolf", initial.getAsJsonObject("data").get("greeting").getAsString());
+        assertNull(initial.getAsJsonObject("data").get("slow"), "The deferred field should not hold up the initial payload");
+        assertTrue(initial.get("hasNext").getAsBoolean());
+        JsonObject deferred = parts.get(1).getAsJsonArray("incremental").get(0).getAsJsonObject();
+        assertEquals("late", deferred.get("label").getAsString());
+        assertEquals("finally", deferred.getAsJsonObject("data").get("slow").getAsString());
+        assertFalse(parts.get(1).get("hasNext").getAsBoolean());
+
+        JsonObject plain = JsonParser.parseString(send(config, new String(body, StandardCharsets.UTF_8))).getAsJsonObject();
+        assertEquals("finally", plain.getAsJsonObject("data").get("slow").getAsString(),
+                "Clients not accepting multipart responses should receive a single result");
+    }
+
+    @Test
+    void testBatchedOperationsAreExecutedConcurrently() throws Exception {
+        RuntimeConfiguration config = new RuntimeConfiguration();
+        config.getApiConfig().setGraphQLBatchConcurrency(3);
+
+        JsonArray results = postBatch(config, """
+                [{"query": "{ waiting }"},
+                 {"query": "{ greeting(name: \\"Wolf\\") waiting }"},
+                 {"query": "{ waiting }"},
+                 {"operationName": "missing"}]
+                """);
+
+        assertEquals(4, results.size());
+        assertEquals("concurrent", results.get(0).getAsJsonObject().getAsJsonObject("data").get("waiting").getAsString(),
+                "All operations should have been executed at the same time");
+        assertEquals("Hello Wolf", results.get(1).getAsJsonObject().getAsJsonObject("data").get("greeting").getAsString(),
+                "Results should be returned in request order");
+        assertNotNull(results.get(3).getAsJsonObject().get("errors"), "Invalid operations should only fail themselves");
+    }
+
+    @Test
+    void testBatchedOperationsShareDataLoaders() throws Exception {
+        RuntimeConfiguration config = new RuntimeConfiguration();
+        config.getApiConfig().setGraphQLBatchConcurrency(0);
+
+        JsonArray results = postBatch(config, "[{\"query\": \"{ owner(id: 1) }\"}, {\"query\": \"{ owner(id: 1) }\"}]");
+
+        assertEquals("Owner 1", results.get(1).getAsJsonObject().getAsJsonObject("data").get("owner").getAsString());
+        assertEquals(1, ownerLoads.get(), "The owner should only have been loaded once for the whole batch");
+    }
+
+    @Test
+    void testBatchedOperationsDoNotOccupyBoundedFieldExecutor() throws Exception {
+        ExecutorService fieldExecutor = Executors.newFixedThreadPool(1);
+        try {
+            RuntimeConfiguration config = new RuntimeConfiguration();
+            config.getApiConfig().setGraphQLFieldExecutor(fieldExecutor);
+            config.getApiConfig().setGraphQLBatchConcurrency(2);
+
+            JsonArray results = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                    () -> postBatch(config, "[{\"query\": \"{ pet }\"}, {\"query\": \"{ pet }\"}]"),
+                    "Operations waiting for their fields must not take the threads resolving them");
+
+            assertEquals("Fox", results.get(1).getAsJsonObject().getAsJsonObject("data").get("pet").getAsString());
+        } finally {
+            fieldExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testBatchedOperationFailingWithErrorIsAnswered() throws Exception {
+        PersistedQueryStore brokenStore = new PersistedQueryStore(10, false) {
+            @Override
+            public String lookup(String sha256Hash) {
+                throw new StackOverflowError();
+            }
+        };
+        BufferedResponse response = new BufferedResponse();
+        StubRequest request = new StubRequest("POST", "/api/graphql", Map.of(), Map.of(), """
+                [{"extensions": {"persistedQuery": {"version": 1, "sha256Hash": "abc"}}},
+                 {"query": "{ pet }"}]
+                """.getBytes(StandardCharsets.UTF_8));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> endpoint(new RuntimeConfiguration(), brokenStore).handle(new HandlerContext(request, response, null)),
+                "The response must not wait for an operation that failed with an Error");
+
+        JsonArray results = JsonParser.parseString(new String(response.getBodyBytes(), StandardCharsets.UTF_8)).getAsJsonArray();
+        assertEquals("INTERNAL_SERVER_ERROR", results.get(0).getAsJsonObject().getAsJsonArray("errors").get(0).getAsJsonObject()
+                .getAsJsonObject("extensions").get("code").getAsString());
+        assertEquals("Fox", results.get(1).getAsJsonObject().getAsJsonObject("data").get("pet").getAsString(),
+                "The other operations should still be answered");
+    }
+
+    @Test
+    void testOversizedBatchIsRejected() throws Exception {
+        RuntimeConfiguration config = new RuntimeConfiguration();
+        config.getApiConfig().setGraphQLMaxBatchSize(1);
+
+        JsonObject result = JsonParser.parseString(send(config, "[{\"query\": \"{ greeting }\"}, {\"query\": \"{ greeting }\"}]")).getAsJsonObject();
+        assertEquals("BATCH_NOT_ALLOWED", result.getAsJsonArray("errors").get(0).getAsJsonObject()
+                .getAsJsonObject("extensions").get("code").getAsString());
+    }
+}
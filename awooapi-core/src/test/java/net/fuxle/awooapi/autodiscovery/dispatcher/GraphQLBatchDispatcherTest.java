@@ -0,0 +1,147 @@
+package net.fuxle.awooapi.autodiscovery.dispatcher;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import graphql.schema.DataFetcher;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import net.fuxle.awooapi.StubRequest;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.autodiscovery.GraphQLEndpoint;
+import net.fuxle.awooapi.core.autodiscovery.dispatcher.GraphQLBatchDispatcher;
+import net.fuxle.awooapi.core.autodiscovery.dispatcher.GraphQLDispatcher;
+import net.fuxle.awooapi.core.network.ClientAddressResolver;
+import net.fuxle.awooapi.core.templates.AbstractBatchEndpoint;
+import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link GraphQLBatchDispatcher} class.
+ */
+class GraphQLBatchDispatcherTest {
+
+    private static final int OWNERS = 50;
+
+    /**
+     * Backend call counting endpoint resolving the pet of an owner, one owner per call.
+     */
+    static class PetEndpoint extends AbstractEndpoint<String> {
+        final AtomicInteger backendCalls = new AtomicInteger();
+
+        @Override
+        public String handleRequest(Parameters params) {
+            backendCalls.incrementAndGet();
+            return petOf(params);
+        }
+    }
+
+    /**
+     * Backend call counting endpoint resolving the pets of many owners per call.
+     */
+    static class BatchPetEndpoint extends AbstractBatchEndpoint<String> {
+        final AtomicInteger backendCalls = new AtomicInteger();
+        final List<Integer> batchSizes = new ArrayList<>();
+        final int maxBatchSize;
+
+        BatchPetEndpoint(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        @Override
+        public List<String> handleBatch(List<Parameters> params) {
+            backendCalls.incrementAndGet();
+            batchSizes.add(params.size());
+            return params.stream().map(GraphQLBatchDispatcherTest::petOf).toList();
+        }
+
+        @Override
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+    }
+
+    private static String petOf(Parameters params) {
+        Map<String, Object> owner = params.getGraphQLDatafetchingEnvironment().getSource();
+        return "Wolf " + owner.get("id");
+    }
+
+    private static JsonArray queryOwners(DataFetcher<?> petFetcher) throws Exception {
+        // Every owner appears twice, so half of the pet resolutions are duplicates
+        List<Map<String, Object>> owners = new ArrayList<>();
+        for (int i = 0; i < OWNERS; i++) {
+            owners.add(Map.of("id", i % (OWNERS / 2)));
+        }
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type.dataFetcher("owners", env -> owners))
+                .type("Owner", type -> type.dataFetcher("pet", petFetcher))
+                .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(
+                new SchemaParser().parse("type Query { owners: [Owner] } type Owner { id: Int, pet: String }"), wiring);
+
+        BufferedResponse response = new BufferedResponse();
+        byte[] body = "{\"query\": \"{ owners { id pet } }\"}".getBytes(StandardCharsets.UTF_8);
+        new GraphQLEndpoint(schema).handle(new HandlerContext(new StubRequest("POST", "/api/graphql", Map.of(), Map.of(), body), response, null));
+        JsonObject result = JsonParser.parseString(new String(response.getBodyBytes(), StandardCharsets.UTF_8)).getAsJsonObject();
+        assertNull(result.get("errors"), "The query should succeed");
+        return result.getAsJsonObject("data").getAsJsonArray("owners");
+    }
+
+    @Test
+    void testNestedListFieldsAreResolvedWithOneBackendCall() throws Exception {
+        PetEndpoint perField = new PetEndpoint();
+        JsonArray expected = queryOwners(new GraphQLDispatcher<>(perField, ClientAddressResolver.getDefault()));
+
+        BatchPetEndpoint batched = new BatchPetEndpoint(0);
+        JsonArray actual = queryOwners(new GraphQLBatchDispatcher<>(batched, ClientAddressResolver.getDefault()));
+
+        assertEquals(expected, actual, "Batching should not change the result");
+        assertEquals("Wolf 3", actual.get(OWNERS / 2 + 3).getAsJsonObject().get("pet").getAsString());
+        assertEquals(OWNERS, perField.backendCalls.get(), "Without batching every field should call the backend");
+        assertEquals(1, batched.backendCalls.get(), "All fields of a level should be resolved with one backend call");
+        assertEquals(List.of(OWNERS / 2), batched.batchSizes, "Duplicate fields should only be loaded once");
+    }
+
+    @Test
+    void testBatchesAreSplitAtMaxBatchSize() throws Exception {
+        BatchPetEndpoint batched = new BatchPetEndpoint(10);
+        queryOwners(new GraphQLBatchDispatcher<>(batched, ClientAddressResolver.getDefault()));
+
+        assertEquals(List.of(10, 10, 5), batched.batchSizes);
+    }
+
+    @Test
+    void testWrongResultCountFailsTheFields() throws Exception {
+        AbstractBatchEndpoint<String> broken = new AbstractBatchEndpoint<>() {
+            @Override
+            public List<String> handleBatch(List<Parameters> params) {
+                return List.of("only one");
+            }
+        };
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type.dataFetcher("owners", env -> List.of(Map.of("id", 1), Map.of("id", 2))))
+                .type("Owner", type -> type.dataFetcher("pet", new GraphQLBatchDispatcher<>(broken, ClientAddressResolver.getDefault())))
+                .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(
+                new SchemaParser().parse("type Query { owners: [Owner] } type Owner { id: Int, pet: String }"), wiring);
+
+        BufferedResponse response = new BufferedResponse();
+        byte[] body = "{\"query\": \"{ owners { pet } }\"}".getBytes(StandardCharsets.UTF_8);
+        new GraphQLEndpoint(schema).handle(new HandlerContext(new StubRequest("POST", "/api/graphql", Map.of(), Map.of(), body), response, null));
+        JsonObject result = JsonParser.parseString(new String(response.getBodyBytes(), StandardCharsets.UTF_8)).getAsJsonObject();
+
+        assertEquals(2, result.getAsJsonArray("errors").size(), "Every field of the failed batch should report an error");
+    }
+}
@@ -0,0 +1,113 @@
+package net.fuxle.awooapi.autodiscovery.dispatcher;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import net.fuxle.awooapi.RuntimeConfiguration;
+import net.fuxle.awooapi.StubRequest;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.autodiscovery.GraphQLEndpoint;
+import net.fuxle.awooapi.core.autodiscovery.dispatcher.GraphQLDispatcher;
+import net.fuxle.awooapi.core.network.ClientAddressResolver;
+import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link GraphQLDispatcher} class.
+ */
+class GraphQLDispatcherTest {
+
+    private static final String SCHEMA = "type Query { a: String, b: String, c: String, d: String, e: String, f: String }";
+    private static final String QUERY = "{\"query\": \"{ a b c d e f }\"}";
+
+    private static JsonObject execute(AbstractEndpoint<String> endpoint, RuntimeConfiguration config) throws Exception {
+        GraphQLDispatcher<String> dispatcher = new GraphQLDispatcher<>(endpoint, ClientAddressResolver.getDefault());
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> {
+                    for (String field : new String[]{"a", "b", "c", "d", "e", "f"}) {
+                        type.dataFetcher(field, dispatcher);
+                    }
+                    return type;
+                })
+                .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(SCHEMA), wiring);
+
+        BufferedResponse response = new BufferedResponse();
+        StubRequest request = new StubRequest("POST", "/api/graphql", Map.of(), Map.of(), QUERY.getBytes(StandardCharsets.UTF_8));
+        new GraphQLEndpoint(schema, config, null).handle(new HandlerContext(request, response, null));
+        JsonObject result = JsonParser.parseString(new String(response.getBodyBytes(), StandardCharsets.UTF_8)).getAsJsonObject();
+        assertNull(result.get("errors"), "The query should succeed");
+        return result.getAsJsonObject("data");
+    }
+
+    @Test
+    void testSiblingFieldsAreResolvedConcurrently() throws Exception {
+        CountDownLatch allStarted = new CountDownLatch(6);
+        AbstractEndpoint<String> endpoint = new AbstractEndpoint<>() {
+            @Override
+            public String handleRequest(Parameters params) throws InterruptedException {
+                allStarted.countDown();
+                // Only completes if all fields are waiting at the same time
+                return allStarted.await(5, TimeUnit.SECONDS) ? params.getGraphQLDatafetchingEnvironment().getField().getName() : "sequential";
+            }
+        };
+
+        RuntimeConfiguration config = new RuntimeConfiguration();
+        config.getApiConfig().setGraphQLFieldConcurrency(6);
+        JsonObject data = execute(endpoint, config);
+
+        assertEquals("a", data.get("a").getAsString());
+        assertEquals("f", data.get("f").getAsString(), "All sibling fields should have been resolved at the same time");
+    }
+
+    @Test
+    void testConcurrencyIsLimitedPerRequest() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AbstractEndpoint<String> endpoint = new AbstractEndpoint<>() {
+            @Override
+            public String handleRequest(Parameters params) throws InterruptedException {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(20);
+                running.decrementAndGet();
+                return "done";
+            }
+        };
+
+        RuntimeConfiguration config = new RuntimeConfiguration();
+        config.getApiConfig().setGraphQLFieldConcurrency(2);
+        JsonObject data = execute(endpoint, config);
+
+        assertEquals(6, data.size());
+        assertEquals(2, maxRunning.get(), "At most two fields should have been resolved at the same time");
+    }
+
+    @Test
+    void testFieldsAreResolvedOnRequestThreadWithoutConcurrency() throws Exception {
+        Thread requestThread = Thread.currentThread();
+        AbstractEndpoint<String> endpoint = new AbstractEndpoint<>() {
+            @Override
+            public String handleRequest(Parameters params) {
+                return Thread.currentThread() == requestThread ? "request" : "other";
+            }
+        };
+
+        RuntimeConfiguration config = new RuntimeConfiguration();
+        config.getApiConfig().setGraphQLFieldConcurrency(0);
+
+        assertEquals("request", execute(endpoint, config).get("c").getAsString());
+    }
+}
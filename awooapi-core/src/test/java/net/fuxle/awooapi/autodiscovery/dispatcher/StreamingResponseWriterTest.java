@@ -0,0 +1,270 @@
+package net.fuxle.awooapi.autodiscovery.dispatcher;
+
+import net.fuxle.awooapi.StubRequest;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.autodiscovery.dispatcher.StreamingResponseWriter;
+import net.fuxle.awooapi.core.exceptions.AwooApiHandlerExecutionException;
+import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+import net.fuxle.awooapi.core.templates.BoundEndpoint;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import net.fuxle.awooapi.server.intf.Response;
+import net.fuxle.awooapi.server.intf.codec.JsonCodec;
+import net.fuxle.awooapi.server.intf.codec.JsonCodecs;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link StreamingResponseWriter} class.
+ */
+class StreamingResponseWriterTest {
+
+    // Reflective serialization of test types is not possible on the module path, so rows are plain lists
+    private static List<Object> row(int id, String name) {
+        return List.of(id, name);
+    }
+
+    private final JsonCodec codec = JsonCodecs.getDefault();
+
+    private static HandlerContext context(String accept, Response response) {
+        Map<String, String> headers = accept == null ? Map.of() : Map.of("Accept", accept);
+        return new HandlerContext(new StubRequest("/api/rows", Map.of(), headers), response, null);
+    }
+
+    private static String body(BufferedResponse response) {
+        return new String(response.getBodyBytes(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testStreamIsWrittenAsJsonArray() throws Exception {
+        BufferedResponse response = new BufferedResponse();
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<List<Object>> rows = Stream.of(row(1, "a"), row(2, "b")).onClose(() -> closed.set(true));
+
+        assertTrue(StreamingResponseWriter.isStreamable(rows));
+        StreamingResponseWriter.write(rows, context(null, response), codec);
+
+        assertEquals("[[1,\"a\"],[2,\"b\"]]", body(response));
+        assertEquals("application/json", response.getHeader("Content-Type"));
+        assertTrue(closed.get(), "Stream should be closed after writing");
+    }
+
+    @Test
+    void testEmptyStreamIsWrittenAsEmptyArray() throws Exception {
+        BufferedResponse response = new BufferedResponse();
+        StreamingResponseWriter.write(Stream.empty(), context(null, response), codec);
+
+        assertEquals("[]", body(response));
+    }
+
+    @Test
+    void testIteratorIsWrittenAsNdjsonWhenAccepted() throws Exception {
+        BufferedResponse response = new BufferedResponse();
+        StreamingResponseWriter.write(List.of(row(1, "a"), row(2, "b")).iterator(), context("application/x-ndjson", response), codec);
+
+        assertEquals("[1,\"a\"]\n[2,\"b\"]\n", body(response));
+        assertEquals("application/x-ndjson", response.getHeader("Content-Type"));
+    }
+
+    @Test
+    void testPublisherIsWrittenWithBackpressure() throws Exception {
+        BufferedResponse response = new BufferedResponse();
+        int count = 10_000;
+        try (SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>()) {
+            Thread.ofVirtual().start(() -> {
+                awaitSubscriber(publisher);
+                // submit() blocks while the subscriber has no demand
+                for (int i = 0; i < count; i++) {
+                    publisher.submit(i);
+                }
+                publisher.close();
+            });
+            StreamingResponseWriter.write(publisher, context("application/x-ndjson", response), codec);
+        }
+
+        String[] lines = body(response).split("\n");
+        assertEquals(count, lines.length, "Every published element should be written");
+        assertEquals("9999", lines[count - 1]);
+    }
+
+    @Test
+    void testPublisherErrorIsPropagated() {
+        BufferedResponse response = new BufferedResponse();
+        SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>();
+        Thread.ofVirtual().start(() -> {
+            awaitSubscriber(publisher);
+            publisher.submit(1);
+            publisher.closeExceptionally(new IllegalStateException("Database gone"));
+        });
+
+        assertThrows(AwooApiHandlerExecutionException.class,
+                () -> StreamingResponseWriter.write(publisher, context(null, response), codec));
+    }
+
+    @Test
+    void testSourceFailureLeavesArrayUnterminated() {
+        BufferedResponse response = new BufferedResponse();
+        Stream<Integer> failing = IntStream.range(0, 3).boxed().map(i -> {
+            if (i == 2) {
+                throw new IllegalStateException("Database gone");
+            }
+            return i;
+        });
+
+        assertThrows(AwooApiHandlerExecutionException.class,
+                () -> StreamingResponseWriter.write(failing, context(null, response), codec));
+        assertEquals("[0,1", body(response), "A failed stream must not look complete");
+    }
+
+    @Test
+    void testClientDisconnectStopsStream() throws Exception {
+        AtomicInteger produced = new AtomicInteger();
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Integer> endless = Stream.generate(produced::incrementAndGet).onClose(() -> closed.set(true));
+
+        // Accepts the first chunk, then fails like a socket whose peer has gone away
+        Response disconnecting = new StreamResponse(new OutputStream() {
+            private int written = 0;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                written += len;
+                if (written > 100_000) {
+                    throw new IOException("Broken pipe");
+                }
+            }
+        });
+
+        assertDoesNotThrow(() -> StreamingResponseWriter.write(endless, context(null, disconnecting), codec));
+        assertTrue(closed.get(), "Source should be closed after the client disconnected");
+        assertTrue(produced.get() < 100_000, "Source should stop being consumed after the client disconnected");
+    }
+
+    @Test
+    void testLargeExportIsStreamedWithoutCollecting() throws Exception {
+        AtomicLong bytes = new AtomicLong();
+        AtomicInteger flushes = new AtomicInteger();
+        Response counting = new StreamResponse(new OutputStream() {
+            @Override
+            public void write(int b) {
+                bytes.incrementAndGet();
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                bytes.addAndGet(len);
+            }
+
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        });
+
+        StreamingResponseWriter.write(IntStream.range(0, 1_000_000).mapToObj(i -> row(i, "row")),
+                context("application/x-ndjson", counting), codec);
+
+        assertTrue(bytes.get() > 10_000_000, "All rows should have been written");
+        assertTrue(flushes.get() >= 1_000_000 / 256, "Response should be flushed periodically");
+    }
+
+    private static void awaitSubscriber(SubmissionPublisher<?> publisher) {
+        // Items submitted before anyone subscribed would be dropped
+        while (!publisher.hasSubscribers()) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Response writing into the given stream.
+     */
+    private static final class StreamResponse extends Response {
+        private final OutputStream out;
+        private final Map<String, String> headers = new HashMap<>();
+
+        StreamResponse(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            headers.put(name, value);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return headers.get(name);
+        }
+
+        @Override
+        public void setBodyBytes(byte[] data) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return out;
+        }
+    }
+
+    private static class RowsEndpoint extends AbstractEndpoint<Stream<List<Object>>> {
+        @Override
+        public Stream<List<Object>> handleRequest(Parameters params) {
+            return Stream.empty();
+        }
+    }
+
+    private abstract static class PublishingEndpoint<E> extends AbstractEndpoint<Flow.Publisher<E>> {
+    }
+
+    private static class EventsEndpoint extends PublishingEndpoint<String> {
+        @Override
+        public Flow.Publisher<String> handleRequest(Parameters params) {
+            return new SubmissionPublisher<>();
+        }
+    }
+
+    private abstract static class CursorEndpoint extends BoundEndpoint<Iterator<String>> {
+    }
+
+    private static class AnyEndpoint extends AbstractEndpoint<Object> {
+        @Override
+        public Object handleRequest(Parameters params) {
+            return Stream.empty();
+        }
+    }
+
+    @Test
+    void testStreamingEndpointsAreRecognizedByDeclaredType() {
+        assertTrue(StreamingResponseWriter.isStreamingEndpoint(RowsEndpoint.class));
+        assertTrue(StreamingResponseWriter.isStreamingEndpoint(EventsEndpoint.class), "Type arguments should be followed through superclasses");
+        assertTrue(StreamingResponseWriter.isStreamingEndpoint(CursorEndpoint.class));
+        assertFalse(StreamingResponseWriter.isStreamingEndpoint(AnyEndpoint.class), "Only the declared type is inspected");
+    }
+}
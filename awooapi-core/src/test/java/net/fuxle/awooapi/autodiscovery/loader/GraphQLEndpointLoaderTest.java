@@ -0,0 +1,110 @@
+package net.fuxle.awooapi.autodiscovery.loader;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.fuxle.awooapi.RuntimeConfiguration;
+import net.fuxle.awooapi.StubRequest;
+import net.fuxle.awooapi.annotations.GeneratedGraphQLWiring;
+import net.fuxle.awooapi.annotations.GraphQlFieldType;
+import net.fuxle.awooapi.autodiscovery.loader.scanned.VersionEndpoint;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.autodiscovery.ClassDiscovery;
+import net.fuxle.awooapi.core.autodiscovery.GraphQLEndpoint;
+import net.fuxle.awooapi.core.autodiscovery.loader.GraphQLEndpointLoader;
+import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link GraphQLEndpointLoader} class.
+ */
+class GraphQLEndpointLoaderTest {
+
+    public static class PetsEndpoint extends AbstractEndpoint<List<String>> {
+        @Override
+        public List<String> handleRequest(Parameters params) {
+            return List.of("Wolf", "Fox");
+        }
+    }
+
+    /**
+     * A wiring as generated by the annotation processor.
+     */
+    private static GeneratedGraphQLWiring wiring(String schema, GeneratedGraphQLWiring.Field... fields) {
+        return new GeneratedGraphQLWiring() {
+            @Override
+            public InputStream openSchema() {
+                return new ByteArrayInputStream(schema.getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public List<Field> getFields() {
+                return List.of(fields);
+            }
+        };
+    }
+
+    /**
+     * Creates a configuration searching the package of the scanned test endpoints.
+     */
+    private static RuntimeConfiguration config() {
+        RuntimeConfiguration config = new RuntimeConfiguration();
+        config.getSearchConfig().setPackagePrefix(VersionEndpoint.class.getPackageName());
+        return config;
+    }
+
+    private static JsonObject query(GraphQLEndpointLoader loader, String query) throws Exception {
+        BufferedResponse response = new BufferedResponse();
+        new GraphQLEndpoint(loader.getGraphQLSchema()).handle(new HandlerContext(
+                new StubRequest("/api/graphql", Map.of("query", query), Map.of()), response, null));
+        return JsonParser.parseString(new String(response.getBodyBytes(), StandardCharsets.UTF_8)).getAsJsonObject();
+    }
+
+    @Test
+    void testSchemaIsAssembledFromGeneratedWirings() throws Exception {
+        GraphQLEndpointLoader loader = new GraphQLEndpointLoader(new ClassDiscovery(config(), null));
+
+        loader.scanForGraphQl(List.of(
+                wiring("type Query { pets: [String] }",
+                        new GeneratedGraphQLWiring.Field(GraphQlFieldType.QUERY, "pets", PetsEndpoint.class, PetsEndpoint::new)),
+                wiring("extend type Query { version: String }")));
+
+        assertNotNull(loader.getGraphQLSchema().getQueryType().getFieldDefinition("version"), "The schemas of all wirings should be merged");
+        JsonObject data = query(loader, "{ pets version }").getAsJsonObject("data");
+        assertEquals("Fox", data.getAsJsonArray("pets").get(1).getAsString());
+    }
+
+    @Test
+    void testModulesWithoutGeneratedWiringAreScanned(@TempDir Path tempDir) throws Exception {
+        // A module without generated wiring, providing only a schema file
+        Files.createDirectories(tempDir.resolve("graphql"));
+        Files.writeString(tempDir.resolve("graphql/version.graphql"), "extend type Query { version: String }");
+        RuntimeConfiguration config = config();
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{tempDir.toUri().toURL()}, GraphQLEndpointLoaderTest.class.getClassLoader())) {
+            config.getSearchConfig().setClassLoader(classLoader);
+            GraphQLEndpointLoader loader = new GraphQLEndpointLoader(new ClassDiscovery(config, null));
+
+            loader.scanForGraphQl(List.of(wiring("type Query { pets: [String] }",
+                    new GeneratedGraphQLWiring.Field(GraphQlFieldType.QUERY, "pets", PetsEndpoint.class, PetsEndpoint::new))));
+
+            JsonObject data = query(loader, "{ pets version }").getAsJsonObject("data");
+            assertEquals("Wolf", data.getAsJsonArray("pets").get(0).getAsString());
+            assertEquals("1.0", data.get("version").getAsString(), "The scanned endpoint should resolve the scanned schema field");
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package net.fuxle.awooapi.autodiscovery.loader;
+
+import net.fuxle.awooapi.RuntimeConfiguration;
+import net.fuxle.awooapi.annotations.GeneratedComponentRegistry;
+import net.fuxle.awooapi.annotations.GraphQlFieldType;
+import net.fuxle.awooapi.annotations.HandlerType;
+import net.fuxle.awooapi.annotations.MultiEndpoint;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.autodiscovery.ClassDiscovery;
+import net.fuxle.awooapi.core.autodiscovery.loader.LoaderHelper;
+import net.fuxle.awooapi.core.autodiscovery.loader.MetadataLoader;
+import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link MetadataLoader} class.
+ */
+class MetadataLoaderTest {
+
+    @MultiEndpoint(graphQLFieldName = "ping", graphQLFieldType = GraphQlFieldType.QUERY, restType = HandlerType.GET, restPath = "/ping")
+    public static class PingEndpoint extends AbstractEndpoint<String> {
+        @Override
+        public String handleRequest(Parameters params) {
+            return "pong";
+        }
+    }
+
+    @MultiEndpoint(graphQLFieldName = "broken", graphQLFieldType = GraphQlFieldType.QUERY, restType = HandlerType.GET, restPath = "/broken")
+    public static class NotAnEndpoint {
+    }
+
+    /**
+     * A registry as generated by the annotation processor for the module of the test classes.
+     */
+    public static class TestRegistry implements GeneratedComponentRegistry {
+        @Override
+        public List<Component<?>> getComponents() {
+            return List.of(
+                    new Component<>(PingEndpoint.class.getAnnotation(MultiEndpoint.class), PingEndpoint.class, PingEndpoint::new),
+                    new Component<>(PingEndpoint.class.getAnnotation(MultiEndpoint.class), LoaderHelper.class, LoaderHelper::new));
+        }
+    }
+
+    @Test
+    void testRegistriesAreFilteredByPackagePrefixAndReplaceScanning() {
+        RuntimeConfiguration config = new RuntimeConfiguration();
+        config.getSearchConfig().setPackagePrefix(MetadataLoaderTest.class.getPackageName());
+        MetadataLoader metadataLoader = new MetadataLoader(new ClassDiscovery(config, null));
+
+        List<Class<?>> components = metadataLoader.requireMetadata(MultiEndpoint.class, List.of(new TestRegistry())).stream()
+                .map(GeneratedComponentRegistry.Component::type)
+                .collect(Collectors.toList());
+
+        assertEquals(List.of(PingEndpoint.class), components,
+                "Components outside of the package prefix should be skipped, and the module of the registry should not be scanned");
+    }
+
+    @Test
+    void testComponentsAreScannedWithoutGeneratedRegistry() {
+        RuntimeConfiguration config = new RuntimeConfiguration();
+        config.getSearchConfig().setPackagePrefix(MetadataLoaderTest.class.getPackageName());
+        ClassDiscovery classDiscovery = new ClassDiscovery(config, null);
+
+        Map<Class<?>, GeneratedComponentRegistry.Component<MultiEndpoint>> components = classDiscovery.findComponents(MultiEndpoint.class)
+                .stream().collect(Collectors.toMap(GeneratedComponentRegistry.Component::type, Function.identity()));
+
+        GeneratedComponentRegistry.Component<MultiEndpoint> ping = components.get(PingEndpoint.class);
+        assertNotNull(ping);
+        assertEquals("/ping", ping.annotation().restPath());
+        assertInstanceOf(PingEndpoint.class, LoaderHelper.createEndpoint(ping));
+        assertThrows(IllegalArgumentException.class, () -> LoaderHelper.createEndpoint(components.get(NotAnEndpoint.class)),
+                "Classes not extending AbstractEndpoint should be rejected");
+        assertEquals(List.of(), classDiscovery.findComponents(Deprecated.class), "Other annotations should not match");
+    }
+}
@@ -0,0 +1,18 @@
+package net.fuxle.awooapi.autodiscovery.loader.scanned;
+
+import net.fuxle.awooapi.annotations.GraphQlFieldType;
+import net.fuxle.awooapi.annotations.HandlerType;
+import net.fuxle.awooapi.annotations.MultiEndpoint;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+
+/**
+ * An endpoint of a module compiled without the annotation processor, found by scanning.
+ */
+@MultiEndpoint(graphQLFieldName = "version", graphQLFieldType = GraphQlFieldType.QUERY, restType = HandlerType.GET, restPath = "/version")
+public class VersionEndpoint extends AbstractEndpoint<String> {
+    @Override
+    public String handleRequest(Parameters params) {
+        return "1.0";
+    }
+}
@@ -0,0 +1,168 @@
+package net.fuxle.awooapi.batch;
+
+import net.fuxle.awooapi.StubRequest;
+import net.fuxle.awooapi.annotations.HandlerType;
+import net.fuxle.awooapi.core.batch.BatchEndpoint;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.Endpoint;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import net.fuxle.awooapi.server.intf.WebServer;
+import net.fuxle.awooapi.server.intf.codec.JsonCodecs;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLContext;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link BatchEndpoint} class.
+ */
+class BatchEndpointTest {
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    private final WebServer webServer = new WebServer() {
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public void reloadSslContext(SSLContext sslContext) {
+        }
+    };
+
+    BatchEndpointTest() {
+        webServer.getRouter().addHandler(new Endpoint(HandlerType.GET, "/api/greet", ctx -> {
+            ctx.contentType("application/json");
+            ctx.json(Map.of("greeting", "Hello " + ctx.queryParam("name"), "auth", String.valueOf(ctx.header("Authorization"))));
+        }));
+        webServer.getRouter().addHandler(new Endpoint(HandlerType.POST, "/api/sum", ctx -> {
+            List<?> numbers = ctx.bodyAsClass(List.class);
+            ctx.contentType("application/json");
+            ctx.json(numbers.stream().mapToInt(n -> ((Number) n).intValue()).sum());
+        }));
+        webServer.getRouter().addHandler(new Endpoint(HandlerType.GET, "/api/text", ctx -> {
+            ctx.contentType("text/plain");
+            ctx.result("Awoo");
+        }));
+        webServer.getRouter().addHandler(new Endpoint(HandlerType.GET, "/api/fail", ctx -> {
+            throw new IllegalStateException("Handler failed");
+        }));
+        webServer.getRouter().addHandler(new Endpoint(HandlerType.GET, "/api/overflow", ctx -> {
+            ctx.contentType("text/plain");
+            ctx.result("partial");
+            throw new StackOverflowError();
+        }));
+        webServer.getRouter().addHandler(new Endpoint(HandlerType.GET, "/api/slow", ctx -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            ctx.result();
+        }));
+    }
+
+    private BufferedResponse post(BatchEndpoint endpoint, String batch, Map<String, String> queryParams) throws Exception {
+        BufferedResponse response = new BufferedResponse();
+        StubRequest request = new StubRequest("POST", "/api/batch", queryParams,
+                Map.of("Content-Type", "application/json", "Authorization", "Bearer awoo"),
+                batch.getBytes(StandardCharsets.UTF_8));
+        endpoint.handle(new HandlerContext(request, response, webServer.getRouter()));
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> entries(BufferedResponse response) throws Exception {
+        return JsonCodecs.getDefault().read(new ByteArrayInputStream(response.getBodyBytes()), List.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExecutesSubRequestsInOrder() throws Exception {
+        BatchEndpoint endpoint = new BatchEndpoint(webServer, 10, 4);
+
+        BufferedResponse response = post(endpoint, """
+                [
+                  {"id": "greet", "path": "/api/greet?name=W%C3%B6lfi"},
+                  {"id": "sum", "method": "post", "path": "/api/sum", "body": [1, 2, 3]},
+                  {"id": "text", "path": "/api/text", "headers": {"Authorization": "none"}},
+                  {"id": "missing", "path": "/api/missing"},
+                  {"id": "fail", "path": "/api/fail"}
+                ]
+                """, Map.of());
+
+        assertEquals(200, response.getStatus());
+        List<Map<String, Object>> entries = entries(response);
+        assertEquals(List.of("greet", "sum", "text", "missing", "fail"), entries.stream().map(entry -> entry.get("id")).toList(),
+                "Responses should be in the order of the sub-requests");
+
+        Map<String, Object> greeting = (Map<String, Object>) entries.get(0).get("body");
+        assertEquals("Hello Wölfi", greeting.get("greeting"), "Query strings should be decoded");
+        assertEquals("Bearer awoo", greeting.get("auth"), "Headers of the batch request should be inherited");
+        assertEquals(6.0, entries.get(1).get("body"), "JSON bodies should be passed to the sub-request");
+        assertEquals("Awoo", entries.get(2).get("body"), "Non-JSON bodies should be embedded as strings");
+        assertEquals(404.0, entries.get(3).get("status"));
+        assertEquals(500.0, entries.get(4).get("status"), "Failing sub-requests should not fail the batch");
+    }
+
+    @Test
+    void testErrorsOnlyFailTheirSubRequest() throws Exception {
+        BatchEndpoint endpoint = new BatchEndpoint(webServer, 10, 1);
+
+        BufferedResponse response = post(endpoint, "[{\"path\": \"/api/overflow\"}, {\"path\": \"/api/text\"}]", Map.of());
+
+        assertEquals(200, response.getStatus());
+        List<Map<String, Object>> entries = entries(response);
+        assertEquals(500.0, entries.get(0).get("status"), "An Error should fail only its own sub-request");
+        assertEquals(Map.of("message", "Internal Server Error. Please try again later."), entries.get(0).get("body"),
+                "Output written before the Error should be discarded");
+        assertEquals("Awoo", entries.get(1).get("body"), "The worker should continue with the next sub-request");
+    }
+
+    @Test
+    void testLimitsConcurrency() throws Exception {
+        BatchEndpoint endpoint = new BatchEndpoint(webServer, 20, 3);
+        String batch = "[" + String.join(",", Collections.nCopies(12, "{\"path\": \"/api/slow\"}")) + "]";
+
+        assertEquals(12, entries(post(endpoint, batch, Map.of())).size());
+        assertTrue(maxRunning.get() > 1, "Sub-requests should run in parallel");
+        assertTrue(maxRunning.get() <= 3, "At most 3 sub-requests should run at the same time, but " + maxRunning.get() + " did");
+
+        maxRunning.set(0);
+        post(endpoint, batch, Map.of("concurrency", "1"));
+        assertEquals(1, maxRunning.get(), "Clients should be able to lower the concurrency");
+    }
+
+    @Test
+    void testRejectsMalformedBatches() throws Exception {
+        BatchEndpoint endpoint = new BatchEndpoint(webServer, 2, 2);
+
+        assertEquals(400, post(endpoint, "{\"path\": \"/api/text\"}", Map.of()).getStatus(), "Batches must be arrays");
+        assertEquals(400, post(endpoint, "[{\"method\": \"GET\"}]", Map.of()).getStatus(), "Sub-requests need a path");
+        assertEquals(400, post(endpoint, "[{\"path\": \"/api/text\", \"method\": \"BARK\"}]", Map.of()).getStatus());
+        assertEquals(400, post(endpoint, "[{\"path\": \"/a\"}, {\"path\": \"/b\"}, {\"path\": \"/c\"}]", Map.of()).getStatus(),
+                "Batches larger than the limit should be rejected");
+        assertEquals(400, post(endpoint, "[]", Map.of("concurrency", "0")).getStatus());
+
+        BufferedResponse rejected = post(endpoint, "{\"path\": \"/api/text\"}", Map.of());
+        assertEquals("application/json", rejected.getHeader("Content-Type"));
+        assertEquals(Map.of("message", "Batch must be an array of requests"),
+                JsonCodecs.getDefault().read(new ByteArrayInputStream(rejected.getBodyBytes()), Map.class),
+                "Rejections should use the error format of the REST dispatcher");
+
+        List<Map<String, Object>> nested = entries(post(endpoint, "[{\"method\": \"POST\", \"path\": \"/api/batch\", \"body\": []}]", Map.of()));
+        assertEquals(400.0, nested.get(0).get("status"), "Batches must not be nested");
+        assertEquals(Map.of("message", "Batches must not be nested"), nested.get(0).get("body"));
+    }
+}
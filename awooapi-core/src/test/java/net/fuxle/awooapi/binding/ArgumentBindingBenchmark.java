@@ -0,0 +1,71 @@
+package net.fuxle.awooapi.binding;
+
+import net.fuxle.awooapi.StubRequest;
+import net.fuxle.awooapi.annotations.QueryParam;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+import net.fuxle.awooapi.core.templates.BoundEndpoint;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+
+import java.util.Map;
+
+/**
+ * Throughput benchmark comparing argument access by name through {@link Parameters#getArgument} with the
+ * precompiled binding of {@link BoundEndpoint}, for an endpoint reading three query parameters.
+ * <p>
+ * This is not a unit test. Run it manually, e.g. {@code java ...ArgumentBindingBenchmark}.
+ */
+public class ArgumentBindingBenchmark {
+
+    public static class NamedEndpoint extends AbstractEndpoint<Long> {
+        @Override
+        public Long handleRequest(Parameters params) {
+            long id = params.getArgument("id", Long.class, Parameters.REST_ARGUMENT_TYPE.QUERY);
+            int limit = params.getArgumentOrDefault("limit", 10, Integer.class, Parameters.REST_ARGUMENT_TYPE.QUERY);
+            String name = params.getArgument("name", String.class, Parameters.REST_ARGUMENT_TYPE.QUERY);
+            return id + limit + name.length();
+        }
+    }
+
+    public static class BoundArgumentsEndpoint extends BoundEndpoint<Long> {
+        public Long handle(@QueryParam("id") long id, @QueryParam(value = "limit", defaultValue = "10") int limit,
+                           @QueryParam("name") String name) {
+            return id + limit + name.length();
+        }
+    }
+
+    private static final int ITERATIONS = 5_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        StubRequest request = new StubRequest("/items", Map.of("id", "123456", "limit", "50", "name", "awoo"), Map.of());
+        Parameters params = new Parameters(new HandlerContext(request, new BufferedResponse(), null), null, Parameters.REQUEST_SOURCE.REST);
+
+        AbstractEndpoint<Long> named = new NamedEndpoint();
+        AbstractEndpoint<Long> bound = new BoundArgumentsEndpoint();
+
+        // Run only one variant per JVM, e.g. with the argument "bound", so the other does not pollute the profile
+        String variant = args.length > 0 ? args[0] : "both";
+        for (int round = 1; round <= ROUNDS; round++) {
+            // The first rounds are the warm-up
+            long namedOps = variant.equals("bound") ? 0 : measure(named, params);
+            long boundOps = variant.equals("named") ? 0 : measure(bound, params);
+            System.out.printf("round %d | Parameters.getArgument: %,12d op/s | BoundEndpoint: %,12d op/s%n", round, namedOps, boundOps);
+        }
+    }
+
+    private static long measure(AbstractEndpoint<Long> endpoint, Parameters params) throws Exception {
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            checksum += endpoint.handleRequest(params);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (checksum == 42) {
+            // Keeps the JIT from removing the loop
+            System.out.println();
+        }
+        return ITERATIONS * 1_000_000_000L / elapsed;
+    }
+}
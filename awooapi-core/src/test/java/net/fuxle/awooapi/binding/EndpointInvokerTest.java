@@ -0,0 +1,144 @@
+package net.fuxle.awooapi.binding;
+
+import net.fuxle.awooapi.StubRequest;
+import net.fuxle.awooapi.annotations.Body;
+import net.fuxle.awooapi.annotations.HandlerType;
+import net.fuxle.awooapi.annotations.PathParam;
+import net.fuxle.awooapi.annotations.QueryParam;
+import net.fuxle.awooapi.RuntimeConfiguration;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.autodiscovery.dispatcher.RESTDispatcher;
+import net.fuxle.awooapi.core.exceptions.AwooApiBindingException;
+import net.fuxle.awooapi.core.templates.BoundEndpoint;
+import net.fuxle.awooapi.server.common.Router;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.Endpoint;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link net.fuxle.awooapi.core.binding.EndpointInvoker} class.
+ */
+class EndpointInvokerTest {
+
+    public static class UserEndpoint extends BoundEndpoint<String> {
+        public String handle(@PathParam("id") long id,
+                             @QueryParam(value = "limit", defaultValue = "10") int limit,
+                             @QueryParam("unit") TimeUnit unit,
+                             Parameters params) {
+            return id + "/" + limit + "/" + unit + "/" + params.getSource();
+        }
+    }
+
+    public static class FilterEndpoint extends BoundEndpoint<Boolean> {
+        public boolean handle(@QueryParam("active") boolean active) {
+            return active;
+        }
+    }
+
+    public static class SumEndpoint extends BoundEndpoint<Integer> {
+        public int handle(@Body List<Integer> numbers) {
+            return numbers.stream().mapToInt(Integer::intValue).sum();
+        }
+    }
+
+    public static class UnannotatedEndpoint extends BoundEndpoint<String> {
+        public String handle(String name) {
+            return name;
+        }
+    }
+
+    public static class UnsupportedTypeEndpoint extends BoundEndpoint<String> {
+        public String handle(@QueryParam("value") Object value) {
+            return "";
+        }
+    }
+
+    public static class InvalidDefaultEndpoint extends BoundEndpoint<String> {
+        public String handle(@QueryParam(value = "limit", defaultValue = "ten") int limit) {
+            return "";
+        }
+    }
+
+    private static HandlerContext context(String path, Map<String, String> queryParams) {
+        Router router = new Router();
+        router.addHandler(new Endpoint(HandlerType.GET, "/users/{id}", ctx -> {
+        }));
+        return new HandlerContext(new StubRequest(path, queryParams, Map.of()), new BufferedResponse(), router);
+    }
+
+    private static Parameters get(String path, Map<String, String> queryParams) {
+        return new Parameters(context(path, queryParams), null, Parameters.REQUEST_SOURCE.REST);
+    }
+
+    @Test
+    void testBindsPathAndQueryParameters() throws Exception {
+        UserEndpoint endpoint = new UserEndpoint();
+
+        assertEquals("42/5/SECONDS/REST", endpoint.handleRequest(get("/users/42", Map.of("limit", "5", "unit", "SECONDS"))));
+        assertEquals("42/10/null/REST", endpoint.handleRequest(get("/users/42", Map.of())), "Defaults and absent values should be applied");
+    }
+
+    @Test
+    void testRejectsInvalidRequestValues() {
+        UserEndpoint endpoint = new UserEndpoint();
+
+        AwooApiBindingException e = assertThrows(AwooApiBindingException.class,
+                () -> endpoint.handleRequest(get("/users/42", Map.of("limit", "many"))));
+        assertTrue(e.getMessage().contains("limit"), "The message should name the parameter");
+        assertThrows(AwooApiBindingException.class, () -> endpoint.handleRequest(get("/users", Map.of())),
+                "A missing primitive value should fail");
+    }
+
+    @Test
+    void testBooleansAreParsedStrictly() throws Exception {
+        FilterEndpoint endpoint = new FilterEndpoint();
+
+        assertTrue(endpoint.handleRequest(get("/users", Map.of("active", "TRUE"))));
+        assertFalse(endpoint.handleRequest(get("/users", Map.of("active", "false"))));
+        assertThrows(AwooApiBindingException.class, () -> endpoint.handleRequest(get("/users", Map.of("active", "yes"))),
+                "Values other than true and false should not be read as false");
+    }
+
+    @Test
+    void testInvalidRequestValuesAreBadRequests() throws Exception {
+        RESTDispatcher<String> dispatcher = new RESTDispatcher<>(new UserEndpoint(), new RuntimeConfiguration());
+
+        HandlerContext invalid = context("/users/42", Map.of("unit", "FORTNIGHTS"));
+        dispatcher.handle(invalid);
+        assertEquals(400, invalid.response().getStatus(), "Malformed values are client errors");
+        assertTrue(new String(((BufferedResponse) invalid.response()).getBodyBytes(), StandardCharsets.UTF_8).contains("unit"),
+                "The response should name the parameter");
+
+        HandlerContext missing = context("/users", Map.of());
+        dispatcher.handle(missing);
+        assertEquals(400, missing.response().getStatus(), "Missing values are client errors");
+
+        HandlerContext valid = context("/users/42", Map.of());
+        dispatcher.handle(valid);
+        assertEquals(200, valid.response().getStatus());
+    }
+
+    @Test
+    void testBindsGenericBody() throws Exception {
+        StubRequest request = new StubRequest("POST", "/sum", Map.of(), Map.of("Content-Type", "application/json"),
+                "[1, 2, 3]".getBytes(StandardCharsets.UTF_8));
+        Parameters params = new Parameters(new HandlerContext(request, new BufferedResponse(), null), null, Parameters.REQUEST_SOURCE.REST);
+
+        assertEquals(6, new SumEndpoint().handleRequest(params));
+    }
+
+    @Test
+    void testFailsAtRegistration() {
+        assertThrows(IllegalArgumentException.class, UnannotatedEndpoint::new, "Unannotated parameters should be rejected");
+        assertThrows(IllegalArgumentException.class, UnsupportedTypeEndpoint::new, "Unsupported types should be rejected");
+        assertThrows(IllegalArgumentException.class, InvalidDefaultEndpoint::new, "Invalid defaults should be rejected");
+    }
+}
@@ -0,0 +1,77 @@
+package net.fuxle.awooapi.cache;
+
+import net.fuxle.awooapi.core.cache.BoundedCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link BoundedCache} class.
+ */
+class BoundedCacheTest {
+
+    @Test
+    void testGetReturnsCachedValueAndCountsHitsAndMisses() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+        cache.put("a", "1");
+
+        assertEquals("1", cache.get("a"), "Cached value should be returned");
+        assertNull(cache.get("b"), "Unknown key should return null");
+
+        BoundedCache.CacheStats stats = cache.getStats();
+        assertEquals(1, stats.hits(), "One lookup should be a hit");
+        assertEquals(1, stats.misses(), "One lookup should be a miss");
+        assertEquals(0.5, stats.hitRatio(), 0.0001, "Hit ratio should be 50%");
+    }
+
+    @Test
+    void testSizeIsBoundedAndLeastRecentlyUsedIsEvicted() {
+        // A single segment makes the eviction order deterministic
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(1);
+        cache.put(1, 1);
+        cache.put(2, 2);
+
+        assertNull(cache.get(1), "Eldest entry should have been evicted");
+        assertEquals(2, cache.get(2));
+        assertEquals(1, cache.getStats().evictions(), "One eviction should be counted");
+
+        BoundedCache<Integer, Integer> larger = new BoundedCache<>(100);
+        for (int i = 0; i < 1000; i++) {
+            larger.put(i, i);
+        }
+        assertTrue(larger.size() <= 100, "Cache must never exceed its maximum size");
+        assertEquals(1000 - larger.size(), larger.getStats().evictions(), "Every overflowing entry should be evicted");
+    }
+
+    @Test
+    void testComputeIfAbsentComputesOnlyOnce() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10);
+        AtomicInteger computations = new AtomicInteger();
+
+        assertEquals(1, cache.computeIfAbsent("a", k -> computations.incrementAndGet()));
+        assertEquals(1, cache.computeIfAbsent("a", k -> computations.incrementAndGet()));
+        assertEquals(1, computations.get(), "Value should only be computed once");
+        assertNull(cache.computeIfAbsent("b", k -> null), "Null results should be returned");
+        assertEquals(1, cache.size(), "Null results must not be cached");
+    }
+
+    @Test
+    void testRemoveAndClear() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        assertEquals("1", cache.remove("a"));
+        assertEquals(1, cache.size());
+        cache.clear();
+        assertEquals(0, cache.size(), "Cache should be empty after clear");
+    }
+
+    @Test
+    void testInvalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<>(0));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<String, String>(1).put("a", null));
+    }
+}
@@ -0,0 +1,119 @@
+package net.fuxle.awooapi.cache;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import net.fuxle.awooapi.StubRequest;
+import net.fuxle.awooapi.annotations.CachedField;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.autodiscovery.GraphQLEndpoint;
+import net.fuxle.awooapi.core.autodiscovery.dispatcher.GraphQLDispatcher;
+import net.fuxle.awooapi.core.cache.BoundedCache;
+import net.fuxle.awooapi.core.cache.FieldResultCache;
+import net.fuxle.awooapi.core.network.ClientAddressResolver;
+import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link FieldResultCache} class.
+ */
+class FieldResultCacheTest {
+
+    @CachedField(headers = "Authorization")
+    public static class CountryEndpoint extends AbstractEndpoint<String> {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String handleRequest(Parameters params) {
+            String code = params.getGraphQLDatafetchingEnvironment().getArgument("code");
+            if ("XX".equals(code)) {
+                throw new IllegalArgumentException("Unknown country");
+            }
+            return code + "#" + calls.incrementAndGet();
+        }
+    }
+
+    private static GraphQLEndpoint endpoint(GraphQLDispatcher<String> dispatcher) {
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type.dataFetcher("country", dispatcher))
+                .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(
+                "type Query { country(code: String, lang: String = \"en\"): String }"), wiring);
+        return new GraphQLEndpoint(schema);
+    }
+
+    private static JsonObject post(GraphQLEndpoint endpoint, String query, Map<String, String> headers) throws Exception {
+        BufferedResponse response = new BufferedResponse();
+        byte[] body = ("{\"query\": \"" + query.replace("\"", "\\\"") + "\"}").getBytes(StandardCharsets.UTF_8);
+        endpoint.handle(new HandlerContext(new StubRequest("POST", "/api/graphql", Map.of(), headers, body), response, null));
+        return JsonParser.parseString(new String(response.getBodyBytes(), StandardCharsets.UTF_8)).getAsJsonObject();
+    }
+
+    @Test
+    void testResultsAreSharedAcrossRequestsAndQueries() throws Exception {
+        GraphQLDispatcher<String> dispatcher = new GraphQLDispatcher<>(new CountryEndpoint(), ClientAddressResolver.getDefault());
+        GraphQLEndpoint endpoint = endpoint(dispatcher);
+
+        assertEquals("DE#1", post(endpoint, "{ country(code: \"DE\", lang: \"en\") }", Map.of())
+                .getAsJsonObject("data").get("country").getAsString());
+        assertEquals("DE#1", post(endpoint, "query Other { country(lang: \"en\", code: \"DE\") }", Map.of())
+                .getAsJsonObject("data").get("country").getAsString(), "Argument order and default values should not matter");
+        assertEquals("DE#1", post(endpoint, "{ country(code: \"DE\") }", Map.of())
+                .getAsJsonObject("data").get("country").getAsString());
+        assertEquals("FR#2", post(endpoint, "{ country(code: \"FR\") }", Map.of())
+                .getAsJsonObject("data").get("country").getAsString());
+
+        BoundedCache.CacheStats stats = dispatcher.getFieldCache().getStats();
+        assertEquals(2, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(2, stats.size());
+    }
+
+    @Test
+    void testScopeHeadersAndErrorsAreNotShared() throws Exception {
+        GraphQLDispatcher<String> dispatcher = new GraphQLDispatcher<>(new CountryEndpoint(), ClientAddressResolver.getDefault());
+        GraphQLEndpoint endpoint = endpoint(dispatcher);
+
+        post(endpoint, "{ country(code: \"DE\") }", Map.of("Authorization", "Bearer wolf"));
+        assertEquals("DE#2", post(endpoint, "{ country(code: \"DE\") }", Map.of("Authorization", "Bearer fox"))
+                .getAsJsonObject("data").get("country").getAsString(), "Other users should not share the result");
+
+        assertNotNull(post(endpoint, "{ country(code: \"XX\") }", Map.of()).get("errors"));
+        post(endpoint, "{ country(code: \"XX\") }", Map.of());
+        assertEquals(2, dispatcher.getFieldCache().getStats().size(), "Failed fetches should not be cached");
+    }
+
+    @Test
+    void testExpiredResultsAreRefetched() throws Exception {
+        FieldResultCache<String> cache = new FieldResultCache<>(10, 1, TimeUnit.NANOSECONDS, List.of());
+        List<Object> key = List.of("Query", "country");
+        cache.put(key, "DE");
+        Thread.sleep(1);
+
+        assertNull(cache.get(key), "Expired results should not be returned");
+        assertEquals(1, cache.getStats().misses());
+    }
+
+    @Test
+    void testUnannotatedEndpointsAreNotCached() {
+        assertNull(new GraphQLDispatcher<>(new AbstractEndpoint<String>() {
+            @Override
+            public String handleRequest(Parameters params) {
+                return "uncached";
+            }
+        }).getFieldCache());
+    }
+}
@@ -0,0 +1,135 @@
+package net.fuxle.awooapi.cache;
+
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import net.fuxle.awooapi.StubRequest;
+import net.fuxle.awooapi.annotations.GraphQlFieldType;
+import net.fuxle.awooapi.annotations.HandlerType;
+import net.fuxle.awooapi.annotations.MultiEndpoint;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.autodiscovery.GraphQLEndpoint;
+import net.fuxle.awooapi.core.autodiscovery.dispatcher.GraphQLDispatcher;
+import net.fuxle.awooapi.core.cache.GraphQLCacheHintInstrumentation;
+import net.fuxle.awooapi.core.network.ClientAddressResolver;
+import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link GraphQLCacheHintInstrumentation} class.
+ */
+class GraphQLCacheHintInstrumentationTest {
+
+    @MultiEndpoint(graphQLFieldName = "catalog", graphQLFieldType = GraphQlFieldType.QUERY, graphQLCacheMaxAge = 60,
+            restType = HandlerType.GET, restPath = "/catalog")
+    public static class CatalogEndpoint extends AbstractEndpoint<String> {
+        @Override
+        public String handleRequest(Parameters params) {
+            return "catalog";
+        }
+    }
+
+    @MultiEndpoint(graphQLFieldName = "prices", graphQLFieldType = GraphQlFieldType.QUERY, graphQLCacheMaxAge = 30,
+            restType = HandlerType.GET, restPath = "/prices")
+    public static class PricesEndpoint extends AbstractEndpoint<String> {
+        @Override
+        public String handleRequest(Parameters params) {
+            return "prices";
+        }
+    }
+
+    @MultiEndpoint(graphQLFieldName = "cart", graphQLFieldType = GraphQlFieldType.QUERY, graphQLCacheMaxAge = 10, graphQLCachePrivate = true,
+            restType = HandlerType.GET, restPath = "/cart")
+    public static class CartEndpoint extends AbstractEndpoint<String> {
+        @Override
+        public String handleRequest(Parameters params) {
+            return "cart";
+        }
+    }
+
+    public static class ClockEndpoint extends AbstractEndpoint<String> {
+        @Override
+        public String handleRequest(Parameters params) {
+            return String.valueOf(System.nanoTime());
+        }
+    }
+
+    private static GraphQLEndpoint endpoint() {
+        ClientAddressResolver resolver = ClientAddressResolver.getDefault();
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type
+                        .dataFetcher("catalog", new GraphQLDispatcher<>(new CatalogEndpoint(), resolver))
+                        .dataFetcher("prices", new GraphQLDispatcher<>(new PricesEndpoint(), resolver))
+                        .dataFetcher("cart", new GraphQLDispatcher<>(new CartEndpoint(), resolver))
+                        .dataFetcher("clock", new GraphQLDispatcher<>(new ClockEndpoint(), resolver)))
+                .type("Mutation", type -> type.dataFetcher("order", env -> "ordered"))
+                .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(
+                "type Query { catalog: String, prices: String, cart: String, clock: String } type Mutation { order: String }"), wiring);
+        return new GraphQLEndpoint(schema);
+    }
+
+    private static BufferedResponse get(GraphQLEndpoint endpoint, String query, Map<String, String> headers) throws Exception {
+        BufferedResponse response = new BufferedResponse();
+        endpoint.handle(new HandlerContext(new StubRequest("/api/graphql", Map.of("query", query), headers), response, null));
+        return response;
+    }
+
+    @Test
+    void testGetResponsesAreCacheableForTheShortestFieldMaxAge() throws Exception {
+        GraphQLEndpoint endpoint = endpoint();
+
+        BufferedResponse response = get(endpoint, "{ catalog prices }", Map.of());
+        assertEquals(200, response.getStatus());
+        assertEquals("public, max-age=30", response.getHeader("Cache-Control"));
+        assertTrue(new String(response.getBodyBytes(), StandardCharsets.UTF_8).contains("\"catalog\""));
+
+        assertEquals("private, max-age=10", get(endpoint, "{ catalog cart }", Map.of()).getHeader("Cache-Control"),
+                "Private fields should keep the response out of shared caches");
+        assertEquals("no-cache", get(endpoint, "{ catalog clock }", Map.of()).getHeader("Cache-Control"),
+                "Fields without cache hint should make the response uncacheable");
+    }
+
+    @Test
+    void testMatchingETagIsAnsweredWithNotModified() throws Exception {
+        GraphQLEndpoint endpoint = endpoint();
+        String etag = get(endpoint, "{ catalog }", Map.of()).getHeader("ETag");
+        assertNotNull(etag);
+
+        BufferedResponse notModified = get(endpoint, "{ catalog }", Map.of("If-None-Match", "\"other\", " + etag));
+        assertEquals(304, notModified.getStatus());
+        assertEquals(0, notModified.getBodyBytes().length);
+        assertEquals(etag, notModified.getHeader("ETag"));
+
+        assertEquals(200, get(endpoint, "{ catalog prices }", Map.of("If-None-Match", etag)).getStatus(),
+                "Another response should not match the ETag");
+    }
+
+    @Test
+    void testMutationsAreRejectedOverGet() throws Exception {
+        BufferedResponse response = get(endpoint(), "mutation { order }", Map.of());
+
+        assertEquals(405, response.getStatus());
+        assertEquals("POST", response.getHeader("Allow"));
+        assertTrue(response.getHeader("Cache-Control").contains("no-store"));
+        assertTrue(new String(response.getBodyBytes(), StandardCharsets.UTF_8).contains(GraphQLCacheHintInstrumentation.METHOD_NOT_ALLOWED));
+    }
+
+    @Test
+    void testPostResponsesAreNeverCached() throws Exception {
+        BufferedResponse response = new BufferedResponse();
+        byte[] body = "{\"query\": \"{ catalog }\"}".getBytes(StandardCharsets.UTF_8);
+        endpoint().handle(new HandlerContext(new StubRequest("POST", "/api/graphql", Map.of(), Map.of(), body), response, null));
+
+        assertEquals("no-cache, no-store, must-revalidate", response.getHeader("Cache-Control"));
+        assertNull(response.getHeader("ETag"));
+    }
+}
@@ -0,0 +1,80 @@
+package net.fuxle.awooapi.cache;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import net.fuxle.awooapi.core.cache.BoundedCache;
+import net.fuxle.awooapi.core.cache.GraphQLDocumentCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link GraphQLDocumentCache} class.
+ */
+class GraphQLDocumentCacheTest {
+
+    private static GraphQLSchema schema() {
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type.dataFetcher("greeting", env -> "Hello " + env.getArgument("name")))
+                .build();
+        return new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse("type Query { greeting(name: String): String }"), wiring);
+    }
+
+    @Test
+    void testRepeatedQueriesAreParsedOnce() {
+        GraphQLDocumentCache cache = new GraphQLDocumentCache(10);
+        GraphQL graphQL = GraphQL.newGraphQL(schema()).preparsedDocumentProvider(cache).build();
+        String query = "query($name: String) { greeting(name: $name) }";
+
+        ExecutionResult first = graphQL.execute(builder -> builder.query(query).variables(Map.of("name", "Wolf")));
+        ExecutionResult second = graphQL.execute(builder -> builder.query(query).variables(Map.of("name", "Fox")));
+
+        assertEquals(Map.of("greeting", "Hello Wolf"), first.getData());
+        assertEquals(Map.of("greeting", "Hello Fox"), second.getData(), "Cached documents should be executed with new variables");
+        BoundedCache.CacheStats stats = cache.getStats();
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.size());
+    }
+
+    @Test
+    void testInvalidDocumentsAreNotCached() {
+        GraphQLDocumentCache cache = new GraphQLDocumentCache(10);
+        GraphQL graphQL = GraphQL.newGraphQL(schema()).preparsedDocumentProvider(cache).build();
+
+        for (int i = 0; i < 2; i++) {
+            assertFalse(graphQL.execute("{ unknownField }").getErrors().isEmpty(), "Validation errors should be reported every time");
+            assertFalse(graphQL.execute("{ greeting(").getErrors().isEmpty(), "Syntax errors should be reported every time");
+        }
+
+        assertEquals(0, cache.getStats().size(), "Documents with errors should not be cached");
+        assertEquals(0, cache.getStats().hits());
+    }
+
+    @Test
+    void testLeastRecentlyUsedDocumentsAreEvicted() {
+        GraphQLDocumentCache cache = new GraphQLDocumentCache(2);
+        GraphQL graphQL = GraphQL.newGraphQL(schema()).preparsedDocumentProvider(cache).build();
+
+        graphQL.execute("{ a: greeting }");
+        graphQL.execute("{ b: greeting }");
+        graphQL.execute("{ a: greeting }");
+        graphQL.execute("{ c: greeting }");
+
+        BoundedCache.CacheStats stats = cache.getStats();
+        assertEquals(2, stats.size());
+        assertEquals(1, stats.evictions());
+
+        graphQL.execute("{ a: greeting }");
+        assertEquals(2, cache.getStats().hits(), "The recently used document should have been kept");
+
+        cache.invalidateAll();
+        assertEquals(0, cache.getStats().size());
+    }
+}
@@ -0,0 +1,132 @@
+package net.fuxle.awooapi.cache;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import net.fuxle.awooapi.RuntimeConfiguration;
+import net.fuxle.awooapi.StubRequest;
+import net.fuxle.awooapi.core.autodiscovery.GraphQLEndpoint;
+import net.fuxle.awooapi.core.cache.PersistedQueryStore;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link PersistedQueryStore} class.
+ */
+class PersistedQueryStoreTest {
+
+    private static final String QUERY = "{ greeting }";
+    private static final String HASH = PersistedQueryStore.sha256Hex(QUERY);
+
+    @TempDir
+    Path tempDir;
+
+    private static GraphQLSchema schema() {
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type.dataFetcher("greeting", env -> "Awoo"))
+                .build();
+        return new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse("type Query { greeting: String }"), wiring);
+    }
+
+    private static JsonObject post(GraphQLEndpoint endpoint, String body) throws Exception {
+        BufferedResponse response = new BufferedResponse();
+        StubRequest request = new StubRequest("POST", "/api/graphql", Map.of(), Map.of("Content-Type", "application/json"),
+                body.getBytes(StandardCharsets.UTF_8));
+        endpoint.handle(new HandlerContext(request, response, null));
+        return JsonParser.parseString(new String(response.getBodyBytes(), StandardCharsets.UTF_8)).getAsJsonObject();
+    }
+
+    private static String persistedQueryBody(String hash, String query) {
+        String extensions = "\"extensions\": {\"persistedQuery\": {\"version\": 1, \"sha256Hash\": \"" + hash + "\"}}";
+        return query == null ? "{" + extensions + "}" : "{\"query\": \"" + query + "\", " + extensions + "}";
+    }
+
+    private static String errorCode(JsonObject response) {
+        return response.getAsJsonArray("errors").get(0).getAsJsonObject()
+                .getAsJsonObject("extensions").get("code").getAsString();
+    }
+
+    @Test
+    void testRegisterAndLookup() {
+        PersistedQueryStore store = new PersistedQueryStore(10, false);
+
+        assertNull(store.lookup(HASH));
+        assertFalse(store.register(HASH, "{ other }"), "A hash not matching its query should be refused");
+        assertNull(store.lookup(HASH));
+
+        assertTrue(store.register(HASH.toUpperCase(), QUERY));
+        assertEquals(QUERY, store.lookup(HASH), "Hashes should be compared case-insensitively");
+        assertEquals(1, store.getStats().size());
+    }
+
+    @Test
+    void testLoadAllowlistInBothFormats() throws IOException {
+        Path map = tempDir.resolve("allowlist.json");
+        Files.writeString(map, "{\"" + HASH + "\": \"" + QUERY + "\"}");
+        Path manifest = tempDir.resolve("manifest.json");
+        String other = "{ other: greeting }";
+        Files.writeString(manifest, "{\"format\": \"apollo-persisted-query-manifest\", \"version\": 1, \"operations\": [{\"id\": \""
+                + PersistedQueryStore.sha256Hex(other) + "\", \"name\": \"Other\", \"type\": \"query\", \"body\": \"" + other + "\"}]}");
+
+        PersistedQueryStore store = new PersistedQueryStore(10, true);
+        assertEquals(1, store.loadAllowlist(map));
+        assertEquals(1, store.loadAllowlist(manifest));
+
+        assertEquals(2, store.getAllowlistSize());
+        assertEquals(QUERY, store.lookup(HASH));
+        assertEquals(other, store.lookup(PersistedQueryStore.sha256Hex(other)));
+        assertThrows(IllegalStateException.class, () -> store.register(PersistedQueryStore.sha256Hex("{ x }"), "{ x }"),
+                "Queries should not be registered in allowlist-only mode");
+
+        Path tampered = tempDir.resolve("tampered.json");
+        Files.writeString(tampered, "{\"" + HASH + "\": \"{ other }\"}");
+        assertThrows(IOException.class, () -> store.loadAllowlist(tampered), "Allowlist entries should be verified against their hash");
+    }
+
+    @Test
+    void testEndpointFollowsAutomaticPersistedQueryProtocol() throws Exception {
+        GraphQLEndpoint endpoint = new GraphQLEndpoint(schema(), new RuntimeConfiguration(), new PersistedQueryStore(10, false));
+
+        JsonObject miss = post(endpoint, persistedQueryBody(HASH, null));
+        assertEquals("PERSISTED_QUERY_NOT_FOUND", errorCode(miss), "Unknown hashes should ask the client for the query");
+
+        JsonObject mismatch = post(endpoint, persistedQueryBody(PersistedQueryStore.sha256Hex("{ other }"), QUERY));
+        assertEquals("PERSISTED_QUERY_HASH_MISMATCH", errorCode(mismatch));
+
+        JsonObject registered = post(endpoint, persistedQueryBody(HASH, QUERY));
+        assertEquals("Awoo", registered.getAsJsonObject("data").get("greeting").getAsString());
+
+        JsonObject hit = post(endpoint, persistedQueryBody(HASH, null));
+        assertEquals("Awoo", hit.getAsJsonObject("data").get("greeting").getAsString(), "Registered queries should be executed by hash");
+    }
+
+    @Test
+    void testAllowlistOnlyEndpointRejectsUnknownQueries() throws Exception {
+        Path allowlist = tempDir.resolve("allowlist.json");
+        Files.writeString(allowlist, "{\"" + HASH + "\": \"" + QUERY + "\"}");
+        PersistedQueryStore store = new PersistedQueryStore(10, true);
+        store.loadAllowlist(allowlist);
+        GraphQLEndpoint endpoint = new GraphQLEndpoint(schema(), new RuntimeConfiguration(), store);
+
+        assertEquals("Awoo", post(endpoint, persistedQueryBody(HASH, null)).getAsJsonObject("data").get("greeting").getAsString());
+        assertEquals("Awoo", post(endpoint, "{\"query\": \"" + QUERY + "\"}").getAsJsonObject("data").get("greeting").getAsString(),
+                "Allowlisted queries should also be accepted as plain text");
+
+        String other = "{ other: greeting }";
+        assertEquals("PERSISTED_QUERY_NOT_ALLOWED", errorCode(post(endpoint, "{\"query\": \"" + other + "\"}")));
+        assertEquals("PERSISTED_QUERY_NOT_ALLOWED", errorCode(post(endpoint, persistedQueryBody(PersistedQueryStore.sha256Hex(other), other))));
+    }
+}
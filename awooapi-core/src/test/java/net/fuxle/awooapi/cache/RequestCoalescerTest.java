@@ -0,0 +1,198 @@
+package net.fuxle.awooapi.cache;
+
+import net.fuxle.awooapi.RuntimeConfiguration;
+import net.fuxle.awooapi.StubRequest;
+import net.fuxle.awooapi.annotations.CoalescedRequests;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.autodiscovery.dispatcher.RESTDispatcher;
+import net.fuxle.awooapi.core.cache.RequestCoalescer;
+import net.fuxle.awooapi.core.cache.ResponseCache;
+import net.fuxle.awooapi.core.exceptions.AwooApiHandlerExecutionException;
+import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import net.fuxle.awooapi.server.intf.Request;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link RequestCoalescer} class.
+ */
+class RequestCoalescerTest {
+
+    @CoalescedRequests
+    public static class ExportEndpoint extends AbstractEndpoint<Iterator<String>> {
+        @Override
+        public Iterator<String> handleRequest(Parameters params) {
+            return List.of("a", "b").iterator();
+        }
+    }
+
+    private final AtomicInteger renderCount = new AtomicInteger();
+    private final CountDownLatch leaderStarted = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final ResponseCache.ResponseRenderer blockingRenderer = ctx -> {
+        int count = renderCount.incrementAndGet();
+        leaderStarted.countDown();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+        ctx.contentType("application/json");
+        ctx.response().getOutputStream().write(String.valueOf(count).getBytes(StandardCharsets.UTF_8));
+    };
+
+    private static String serve(RequestCoalescer coalescer, Request request, ResponseCache.ResponseRenderer renderer) throws Exception {
+        BufferedResponse response = new BufferedResponse();
+        coalescer.serve(new HandlerContext(request, response, null), renderer);
+        return new String(response.getBodyBytes(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Starts a leader and the given number of followers, and waits until all followers are waiting for the leader.
+     */
+    private List<Future<String>> startConcurrent(ExecutorService executor, RequestCoalescer coalescer, Request request,
+                                                 ResponseCache.ResponseRenderer renderer, int followers) throws Exception {
+        List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(() -> serve(coalescer, request, renderer)));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS), "Leader should start rendering");
+        for (int i = 0; i < followers; i++) {
+            results.add(executor.submit(() -> serve(coalescer, request, renderer)));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescer.getStats().followers() < followers && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        return results;
+    }
+
+    @Test
+    void testConcurrentRequestsShareOneRendering() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(5, TimeUnit.SECONDS, List.of("q"), List.of());
+        StubRequest request = new StubRequest("/api/pets", Map.of("q", "wolf"), Map.of());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = startConcurrent(executor, coalescer, request, blockingRenderer, 20);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("1", result.get(5, TimeUnit.SECONDS), "All requests should receive the leader's response");
+            }
+        }
+
+        assertEquals(1, renderCount.get(), "The renderer should only run once");
+        RequestCoalescer.Stats stats = coalescer.getStats();
+        assertEquals(1, stats.leaders());
+        assertEquals(20, stats.followers());
+        assertEquals(0, stats.inFlight(), "Completed requests should leave the in-flight map");
+
+        assertEquals("2", serve(coalescer, request, blockingRenderer), "Later requests should not reuse the response");
+    }
+
+    @Test
+    void testOnlyIdenticalSafeRequestsAreCoalesced() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(5, TimeUnit.SECONDS, List.of("q"), List.of());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = startConcurrent(executor, coalescer, new StubRequest("/api/pets", Map.of("q", "wolf"), Map.of()), blockingRenderer, 0);
+            results.add(executor.submit(() -> serve(coalescer, new StubRequest("/api/pets", Map.of("q", "fox"), Map.of()), blockingRenderer)));
+            results.add(executor.submit(() -> serve(coalescer, new StubRequest("POST", "/api/pets", Map.of("q", "wolf"), Map.of(), new byte[0]), blockingRenderer)));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (renderCount.get() < 3 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                result.get(5, TimeUnit.SECONDS);
+            }
+        }
+
+        assertEquals(3, renderCount.get(), "Different parameters and POST requests should be rendered separately");
+        assertEquals(0, coalescer.getStats().followers());
+    }
+
+    @Test
+    void testResponsesSettingCookiesAreNotShared() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(5, TimeUnit.SECONDS, List.of(), List.of());
+        StubRequest request = new StubRequest("/api/pets", Map.of(), Map.of());
+        ResponseCache.ResponseRenderer withCookie = ctx -> {
+            blockingRenderer.render(ctx);
+            ctx.response().setHeader("Set-Cookie", "session=" + renderCount.get());
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = startConcurrent(executor, coalescer, request, withCookie, 3);
+            release.countDown();
+            List<String> bodies = new ArrayList<>();
+            for (Future<String> result : results) {
+                bodies.add(result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(4, bodies.stream().distinct().count(), "Every request should receive its own response");
+        }
+
+        assertEquals(4, renderCount.get(), "Followers should render their own response instead of sharing the cookie");
+    }
+
+    @Test
+    void testFollowersShareFailureOfLeader() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(5, TimeUnit.SECONDS, List.of(), List.of());
+        StubRequest request = new StubRequest("/api/pets", Map.of(), Map.of());
+        ResponseCache.ResponseRenderer failing = ctx -> {
+            blockingRenderer.render(ctx);
+            throw new AwooApiHandlerExecutionException("Database unavailable");
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = startConcurrent(executor, coalescer, request, failing, 5);
+            release.countDown();
+            for (Future<String> result : results) {
+                ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(AwooApiHandlerExecutionException.class, e.getCause());
+            }
+        }
+
+        assertEquals(1, renderCount.get(), "Followers should not retry a failed rendering");
+    }
+
+    @Test
+    void testFollowerStopsWaitingForHungLeader() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(20, TimeUnit.MILLISECONDS, List.of(), List.of());
+        StubRequest request = new StubRequest("/api/pets", Map.of(), Map.of());
+        ResponseCache.ResponseRenderer fast = ctx -> ctx.result("fast");
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = startConcurrent(executor, coalescer, request, blockingRenderer, 0).getFirst();
+
+            assertEquals("fast", serve(coalescer, request, fast), "Follower should render on its own after the timeout");
+            assertEquals(1, coalescer.getStats().timeouts());
+            assertEquals(0, coalescer.getStats().inFlight(), "The hung leader should no longer accept followers");
+
+            release.countDown();
+            assertEquals("1", leader.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testStreamingEndpointsCannotBeCoalesced() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new RESTDispatcher<>(new ExportEndpoint(), new RuntimeConfiguration()),
+                "Streamed result sets should not be buffered for followers");
+        assertTrue(e.getMessage().startsWith("@CoalescedRequests"), e.getMessage());
+    }
+}
@@ -0,0 +1,200 @@
+package net.fuxle.awooapi.cache;
+
+import net.fuxle.awooapi.RuntimeConfiguration;
+import net.fuxle.awooapi.StubRequest;
+import net.fuxle.awooapi.annotations.CachedResponse;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.autodiscovery.dispatcher.RESTDispatcher;
+import net.fuxle.awooapi.core.cache.ResponseCache;
+import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import net.fuxle.awooapi.server.intf.Request;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ResponseCache} class.
+ */
+class ResponseCacheTest {
+
+    @CachedResponse
+    public static class ExportEndpoint extends AbstractEndpoint<Stream<String>> {
+        @Override
+        public Stream<String> handleRequest(Parameters params) {
+            return Stream.of("a", "b");
+        }
+    }
+
+    private final AtomicInteger renderCount = new AtomicInteger();
+
+    private final ResponseCache.ResponseRenderer renderer = ctx -> {
+        int count = renderCount.incrementAndGet();
+        ctx.contentType("application/json");
+        ctx.response().getOutputStream().write(("{\"count\":" + count + ",\"q\":\"" + ctx.queryParam("q") + "\"}").getBytes(StandardCharsets.UTF_8));
+    };
+
+    private static String serve(ResponseCache cache, Request request, ResponseCache.ResponseRenderer renderer) throws Exception {
+        BufferedResponse response = new BufferedResponse();
+        cache.serve(new HandlerContext(request, response, null), renderer);
+        assertEquals("application/json", response.getHeader("Content-Type"), "Headers should be replayed");
+        return new String(response.getBodyBytes(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testHitSkipsRenderer() throws Exception {
+        ResponseCache cache = new ResponseCache(10, 1, 0, 0, TimeUnit.HOURS, List.of("q"), List.of());
+        StubRequest request = new StubRequest("/api/pets", Map.of("q", "wolf"), Map.of());
+
+        assertEquals("{\"count\":1,\"q\":\"wolf\"}", serve(cache, request, renderer));
+        assertEquals("{\"count\":1,\"q\":\"wolf\"}", serve(cache, request, renderer), "Second call should be served from cache");
+        assertEquals(1, renderCount.get(), "Renderer should only run on the miss");
+
+        ResponseCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.size());
+    }
+
+    @Test
+    void testKeyIncludesConfiguredQueryParamsAndHeaders() throws Exception {
+        ResponseCache cache = new ResponseCache(10, 1, 0, 0, TimeUnit.HOURS, List.of("q"), List.of("Accept-Language"));
+
+        serve(cache, new StubRequest("/api/pets", Map.of("q", "wolf"), Map.of("Accept-Language", "de")), renderer);
+        serve(cache, new StubRequest("/api/pets", Map.of("q", "fox"), Map.of("Accept-Language", "de")), renderer);
+        serve(cache, new StubRequest("/api/pets", Map.of("q", "fox"), Map.of("Accept-Language", "en")), renderer);
+        serve(cache, new StubRequest("/api/pets/1", Map.of("q", "fox"), Map.of("Accept-Language", "en")), renderer);
+        // Not part of the key
+        serve(cache, new StubRequest("/api/pets", Map.of("q", "wolf", "other", "x"), Map.of("Accept-Language", "de", "X-Other", "y")), renderer);
+
+        assertEquals(4, renderCount.get(), "Each distinct key should be rendered once");
+        assertEquals(1, cache.getStats().hits());
+    }
+
+    @Test
+    void testKeyIncludesStreamFormat() throws Exception {
+        ResponseCache cache = new ResponseCache(10, 1, 0, 0, TimeUnit.HOURS, List.of(), List.of());
+
+        serve(cache, new StubRequest("/api/pets", Map.of(), Map.of("Accept", "application/json")), renderer);
+        serve(cache, new StubRequest("/api/pets", Map.of(), Map.of("Accept", "application/x-ndjson")), renderer);
+        serve(cache, new StubRequest("/api/pets", Map.of(), Map.of()), renderer);
+        serve(cache, new StubRequest("/api/pets", Map.of(), Map.of("Accept", "application/x-ndjson;q=0, application/json")), renderer);
+
+        assertEquals(2, renderCount.get(), "JSON arrays and NDJSON should be cached separately");
+        assertEquals(2, cache.getStats().hits());
+    }
+
+    @Test
+    void testErrorResponsesAreNotCached() throws Exception {
+        ResponseCache cache = new ResponseCache(10, 1, 0, 0, TimeUnit.HOURS, List.of(), List.of());
+        StubRequest request = new StubRequest("/api/pets", Map.of(), Map.of());
+        ResponseCache.ResponseRenderer failing = ctx -> {
+            renderCount.incrementAndGet();
+            ctx.status(404);
+            ctx.contentType("application/json");
+        };
+
+        serve(cache, request, failing);
+        serve(cache, request, failing);
+
+        assertEquals(2, renderCount.get(), "Non-200 responses must not be cached");
+        assertEquals(0, cache.getStats().size());
+    }
+
+    @Test
+    void testResponsesSettingCookiesAreNotCached() throws Exception {
+        ResponseCache cache = new ResponseCache(10, 1, 0, 0, TimeUnit.HOURS, List.of(), List.of());
+        StubRequest request = new StubRequest("/api/pets", Map.of(), Map.of());
+        ResponseCache.ResponseRenderer withCookie = ctx -> {
+            renderer.render(ctx);
+            ctx.response().setHeader("set-cookie", "session=" + renderCount.get());
+        };
+
+        serve(cache, request, withCookie);
+        BufferedResponse second = new BufferedResponse();
+        cache.serve(new HandlerContext(request, second, null), withCookie);
+
+        assertEquals("session=2", second.getHeader("set-cookie"), "Cookies must not be shared between clients");
+        assertEquals(2, renderCount.get(), "Responses setting a cookie must not be cached");
+        assertEquals(0, cache.getStats().size());
+    }
+
+    @Test
+    void testExpiredEntryIsRenderedAgain() throws Exception {
+        ResponseCache cache = new ResponseCache(10, 1, 0, 0, TimeUnit.MILLISECONDS, List.of(), List.of());
+        StubRequest request = new StubRequest("/api/pets", Map.of(), Map.of());
+
+        serve(cache, request, renderer);
+        Thread.sleep(5);
+
+        assertEquals("{\"count\":2,\"q\":\"null\"}", serve(cache, request, renderer), "Expired entry should be rendered again");
+        assertEquals(2, cache.getStats().misses());
+    }
+
+    @Test
+    void testStaleEntryIsServedWhileRefreshedInBackground() throws Exception {
+        ResponseCache cache = new ResponseCache(10, 1, TimeUnit.HOURS.toMillis(1), 0, TimeUnit.MILLISECONDS, List.of(), List.of());
+        StubRequest request = new StubRequest("/api/pets", Map.of(), Map.of());
+        CountDownLatch refreshed = new CountDownLatch(1);
+
+        assertEquals("1", serve(cache, request, countingRenderer(refreshed)));
+        Thread.sleep(5);
+        assertEquals("1", serve(cache, request, countingRenderer(refreshed)), "Stale response should be served");
+        assertTrue(refreshed.await(5, TimeUnit.SECONDS), "Refresh should run in the background");
+
+        ResponseCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.staleHits());
+        assertEquals(1, stats.refreshes(), "One background refresh should have been started");
+        assertEquals(0, stats.refreshFailures());
+    }
+
+    @Test
+    void testRefreshAheadRefreshesBeforeExpiry() throws Exception {
+        // Refresh-ahead covers the whole ttl, so the first hit already triggers a refresh
+        ResponseCache cache = new ResponseCache(10, 1, 0, 1, TimeUnit.HOURS, List.of(), List.of());
+        StubRequest request = new StubRequest("/api/pets", Map.of(), Map.of());
+        CountDownLatch refreshed = new CountDownLatch(1);
+
+        assertEquals("1", serve(cache, request, countingRenderer(refreshed)));
+        assertEquals("1", serve(cache, request, countingRenderer(refreshed)), "Hit should serve the current response");
+        assertTrue(refreshed.await(5, TimeUnit.SECONDS), "Refresh should run in the background");
+        assertEquals(1, cache.getStats().refreshes(), "One background refresh should have been started");
+
+        // The refreshed entry is stored right after the renderer returns
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String body;
+        do {
+            body = serve(cache, request, countingRenderer(new CountDownLatch(0)));
+        } while ("1".equals(body) && System.nanoTime() < deadline);
+        assertNotEquals("1", body, "Refreshed response should replace the cached one");
+        assertEquals(1, cache.getStats().misses(), "Refreshes must not count as misses");
+    }
+
+    private ResponseCache.ResponseRenderer countingRenderer(CountDownLatch refreshed) {
+        return ctx -> {
+            int count = renderCount.incrementAndGet();
+            ctx.contentType("application/json");
+            ctx.response().getOutputStream().write(String.valueOf(count).getBytes(StandardCharsets.UTF_8));
+            if (count > 1) {
+                refreshed.countDown();
+            }
+        };
+    }
+
+    @Test
+    void testStreamingEndpointsCannotBeCached() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new RESTDispatcher<>(new ExportEndpoint(), new RuntimeConfiguration()),
+                "Streamed result sets should not be held in memory by the cache");
+        assertTrue(e.getMessage().contains(ExportEndpoint.class.getName()), e.getMessage());
+    }
+}
@@ -0,0 +1,198 @@
+package net.fuxle.awooapi.isolation;
+
+import net.fuxle.awooapi.RuntimeConfiguration;
+import net.fuxle.awooapi.StubRequest;
+import net.fuxle.awooapi.annotations.Bulkhead;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.autodiscovery.dispatcher.RESTDispatcher;
+import net.fuxle.awooapi.core.exceptions.AwooApiBulkheadFullException;
+import net.fuxle.awooapi.core.exceptions.AwooApiDeadlineExceededException;
+import net.fuxle.awooapi.core.isolation.Deadline;
+import net.fuxle.awooapi.core.isolation.EndpointBulkhead;
+import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link EndpointBulkhead} class.
+ */
+class EndpointBulkheadTest {
+
+    @Bulkhead(deadlineMillis = 50)
+    public static class SlowEndpoint extends AbstractEndpoint<String> {
+        @Override
+        public String handleRequest(Parameters params) throws Exception {
+            if (params.getHandlerContext().queryParam("sleep") != null) {
+                Thread.sleep(5000);
+            }
+            Duration remaining = params.getRemainingTime();
+            return remaining != null && remaining.compareTo(Duration.ofMillis(50)) <= 0 ? "deadline" : "none";
+        }
+    }
+
+    @Bulkhead(deadlineMillis = 50)
+    public static class LateWritingEndpoint extends AbstractEndpoint<String> {
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch written = new CountDownLatch(1);
+
+        @Override
+        public String handleRequest(Parameters params) {
+            params.getHandlerContext().header("X-Handler", "called");
+            if (params.getHandlerContext().queryParam("late") != null) {
+                // Ignores interruption, like a handler stuck in a blocking call
+                while (release.getCount() > 0) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+                params.getHandlerContext().status(201);
+                params.getHandlerContext().header("X-Late", "true");
+                params.getHandlerContext().result("late");
+                written.countDown();
+            }
+            return "ok";
+        }
+    }
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private String blockingHandler() throws InterruptedException {
+        started.countDown();
+        assertTrue(release.await(5, TimeUnit.SECONDS));
+        return "done";
+    }
+
+    @Test
+    void testRejectsWhenSlotsAndQueueAreTaken() throws Exception {
+        EndpointBulkhead bulkhead = new EndpointBulkhead(1, 1, 0, TimeUnit.MILLISECONDS);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> running = executor.submit(() -> bulkhead.execute(this::blockingHandler, null));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> queued = executor.submit(() -> bulkhead.execute(() -> "queued", null));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (bulkhead.getStats().queued() < 1 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+
+            assertThrows(AwooApiBulkheadFullException.class, () -> bulkhead.execute(() -> "rejected", null),
+                    "Executions beyond slots and queue should be rejected immediately");
+            release.countDown();
+            assertEquals("done", running.get(5, TimeUnit.SECONDS));
+            assertEquals("queued", queued.get(5, TimeUnit.SECONDS), "Queued executions should run once a slot is free");
+        }
+
+        assertEquals(1, bulkhead.getStats().rejections());
+        assertEquals("free", bulkhead.execute(() -> "free", null), "Slots should be released after execution");
+    }
+
+    @Test
+    void testDeadlineAbortsWaitingButKeepsSlotUntilHandlerReturns() throws Exception {
+        EndpointBulkhead bulkhead = new EndpointBulkhead(1, 1, 30, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        assertThrows(AwooApiDeadlineExceededException.class, () -> bulkhead.execute(() -> {
+            started.countDown();
+            // Ignores interruption, like a handler stuck in a blocking call
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+            return "late";
+        }, bulkhead.newDeadline()));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2), "The caller should not wait for the handler");
+
+        assertThrows(AwooApiDeadlineExceededException.class, () -> bulkhead.execute(() -> "queued", bulkhead.newDeadline()),
+                "The hung handler should still occupy its slot");
+        release.countDown();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String result = null;
+        while (result == null && System.nanoTime() < deadline) {
+            try {
+                result = bulkhead.execute(() -> "free", bulkhead.newDeadline());
+            } catch (AwooApiDeadlineExceededException e) {
+                // The slot is released asynchronously once the handler has returned
+            }
+        }
+        assertEquals("free", result);
+        assertTrue(bulkhead.getStats().deadlinesExceeded() >= 2);
+    }
+
+    @Test
+    void testHandlerExceptionsArePropagated() {
+        EndpointBulkhead bulkhead = new EndpointBulkhead(1, 0, 1, TimeUnit.SECONDS);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> bulkhead.execute(() -> {
+            throw new IllegalStateException("Handler failed");
+        }, bulkhead.newDeadline()));
+        assertEquals("Handler failed", e.getMessage());
+    }
+
+    @Test
+    void testRestDispatcherAnswersWithGatewayTimeout() throws Exception {
+        RESTDispatcher<String> dispatcher = new RESTDispatcher<>(new SlowEndpoint(), new RuntimeConfiguration());
+        assertSame(EndpointBulkhead.of(SlowEndpoint.class), dispatcher.getBulkhead(), "Dispatchers of an endpoint should share its bulkhead");
+
+        BufferedResponse ok = new BufferedResponse();
+        dispatcher.handle(new HandlerContext(new StubRequest("/api/slow", Map.of(), Map.of()), ok, null));
+        assertEquals(200, ok.getStatus());
+        assertEquals("\"deadline\"", new String(ok.getBodyBytes(), StandardCharsets.UTF_8), "The remaining time should be exposed to the handler");
+
+        BufferedResponse timedOut = new BufferedResponse();
+        long start = System.nanoTime();
+        dispatcher.handle(new HandlerContext(new StubRequest("/api/slow", Map.of("sleep", "true"), Map.of()), timedOut, null));
+        assertEquals(504, timedOut.getStatus());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2), "The request should not wait for the handler");
+    }
+
+    @Test
+    void testHandlersPassingTheirDeadlineDoNotWriteIntoTheResponse() throws Exception {
+        LateWritingEndpoint endpoint = new LateWritingEndpoint();
+        RESTDispatcher<String> dispatcher = new RESTDispatcher<>(endpoint, new RuntimeConfiguration());
+
+        BufferedResponse ok = new BufferedResponse();
+        dispatcher.handle(new HandlerContext(new StubRequest("/api/late", Map.of(), Map.of()), ok, null));
+        assertEquals(200, ok.getStatus());
+        assertEquals("called", ok.getHeader("X-Handler"), "Headers of handlers returning in time should be kept");
+        assertEquals("\"ok\"", new String(ok.getBodyBytes(), StandardCharsets.UTF_8));
+
+        BufferedResponse timedOut = new BufferedResponse();
+        dispatcher.handle(new HandlerContext(new StubRequest("/api/late", Map.of("late", "true"), Map.of()), timedOut, null));
+        byte[] body = timedOut.getBodyBytes();
+        endpoint.release.countDown();
+        assertTrue(endpoint.written.await(5, TimeUnit.SECONDS));
+
+        assertEquals(504, timedOut.getStatus());
+        assertNull(timedOut.getHeader("X-Handler"));
+        assertNull(timedOut.getHeader("X-Late"), "The abandoned handler should not write into the response");
+        assertArrayEquals(body, timedOut.getBodyBytes());
+    }
+
+    @Test
+    void testDeadlineRemainingTime() {
+        Deadline deadline = Deadline.after(1, TimeUnit.HOURS);
+        assertFalse(deadline.isExpired());
+        assertTrue(deadline.remaining().compareTo(Duration.ofMinutes(59)) > 0);
+
+        Deadline expired = Deadline.after(-1, TimeUnit.SECONDS);
+        assertTrue(expired.isExpired());
+        assertEquals(Duration.ZERO, expired.remaining());
+    }
+}
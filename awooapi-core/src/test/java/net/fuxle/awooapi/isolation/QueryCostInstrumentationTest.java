@@ -0,0 +1,127 @@
+package net.fuxle.awooapi.isolation;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import net.fuxle.awooapi.RuntimeConfiguration;
+import net.fuxle.awooapi.StubRequest;
+import net.fuxle.awooapi.annotations.GraphQlFieldType;
+import net.fuxle.awooapi.annotations.HandlerType;
+import net.fuxle.awooapi.annotations.MultiEndpoint;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.autodiscovery.GraphQLEndpoint;
+import net.fuxle.awooapi.core.autodiscovery.dispatcher.GraphQLDispatcher;
+import net.fuxle.awooapi.core.isolation.CostBudget;
+import net.fuxle.awooapi.core.isolation.QueryCostInstrumentation;
+import net.fuxle.awooapi.core.network.ClientAddressResolver;
+import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link QueryCostInstrumentation} class.
+ */
+class QueryCostInstrumentationTest {
+
+    @MultiEndpoint(graphQLFieldName = "expensive", graphQLFieldType = GraphQlFieldType.QUERY, graphQLCost = 10,
+            restType = HandlerType.GET, restPath = "/expensive")
+    public static class ExpensiveEndpoint extends AbstractEndpoint<String> {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String handleRequest(Parameters params) {
+            calls.incrementAndGet();
+            return "expensive";
+        }
+    }
+
+    private final ExpensiveEndpoint expensiveEndpoint = new ExpensiveEndpoint();
+
+    private GraphQLEndpoint endpoint(RuntimeConfiguration config) {
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type
+                        .dataFetcher("expensive", new GraphQLDispatcher<>(expensiveEndpoint, ClientAddressResolver.getDefault()))
+                        .dataFetcher("node", env -> Map.of()))
+                .type("Node", type -> type.dataFetcher("child", env -> Map.of()))
+                .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(
+                "type Query { expensive: String, cheap: String, node: Node } type Node { child: Node, name: String }"), wiring);
+        return new GraphQLEndpoint(schema, config, null);
+    }
+
+    private static JsonObject post(GraphQLEndpoint endpoint, String query) throws Exception {
+        BufferedResponse response = new BufferedResponse();
+        byte[] body = ("{\"query\": \"" + query + "\"}").getBytes(StandardCharsets.UTF_8);
+        endpoint.handle(new HandlerContext(new StubRequest("POST", "/api/graphql", Map.of(), Map.of(), body), response, null));
+        return JsonParser.parseString(new String(response.getBodyBytes(), StandardCharsets.UTF_8)).getAsJsonObject();
+    }
+
+    private static String errorCode(JsonObject response) {
+        assertNotNull(response.get("errors"), "The query should have been rejected");
+        return response.getAsJsonArray("errors").get(0).getAsJsonObject()
+                .getAsJsonObject("extensions").get("code").getAsString();
+    }
+
+    @Test
+    void testDeepAndLargeQueriesAreRejected() throws Exception {
+        RuntimeConfiguration config = new RuntimeConfiguration();
+        config.getApiConfig().setGraphQLMaxDepth(3);
+        config.getApiConfig().setGraphQLMaxFields(4);
+        GraphQLEndpoint endpoint = endpoint(config);
+
+        assertNull(post(endpoint, "{ node { child { name } } }").get("errors"), "A query at the maximum depth should be executed");
+        assertEquals("QUERY_TOO_DEEP", errorCode(post(endpoint, "{ node { child { child { name } } } }")));
+        assertEquals("QUERY_TOO_LARGE", errorCode(post(endpoint, "{ a: cheap b: cheap c: cheap d: cheap e: cheap }")));
+        assertEquals(2, endpoint.getQueryCostInstrumentation().getRejections());
+    }
+
+    @Test
+    void testFieldWeightsAreTakenFromMultiEndpoint() throws Exception {
+        RuntimeConfiguration config = new RuntimeConfiguration();
+        config.getApiConfig().setGraphQLMaxCost(15);
+        GraphQLEndpoint endpoint = endpoint(config);
+
+        JsonObject accepted = post(endpoint, "{ expensive cheap }");
+        assertEquals("expensive", accepted.getAsJsonObject("data").get("expensive").getAsString(), "A query within the cost limit should be executed");
+
+        JsonObject rejected = post(endpoint, "{ a: expensive b: expensive }");
+        assertEquals("QUERY_TOO_EXPENSIVE", errorCode(rejected));
+        assertNull(rejected.get("data"), "Rejected queries should not be executed");
+        assertEquals(1, expensiveEndpoint.calls.get(), "The endpoint should only have been called for the accepted query");
+    }
+
+    @Test
+    void testClientBudgetIsCharged() throws Exception {
+        RuntimeConfiguration config = new RuntimeConfiguration();
+        config.getApiConfig().setGraphQLCostBudget(25);
+        GraphQLEndpoint endpoint = endpoint(config);
+
+        assertNull(post(endpoint, "{ expensive cheap }").get("errors"));
+        assertNull(post(endpoint, "{ expensive cheap }").get("errors"));
+        assertEquals("QUERY_BUDGET_EXHAUSTED", errorCode(post(endpoint, "{ expensive cheap }")),
+                "A client should be throttled once its budget is spent");
+    }
+
+    @Test
+    void testCostBudgetRefillsOverTime() throws Exception {
+        CostBudget budget = new CostBudget(10, 20, 10);
+
+        assertTrue(budget.tryConsume("wolf", 10));
+        assertFalse(budget.tryConsume("wolf", 10), "The budget should be spent");
+        assertTrue(budget.tryConsume("fox", 10), "Clients should have separate budgets");
+
+        Thread.sleep(600);
+        assertTrue(budget.tryConsume("wolf", 10), "The budget should have been refilled");
+        assertEquals(1, budget.getRejections());
+    }
+}
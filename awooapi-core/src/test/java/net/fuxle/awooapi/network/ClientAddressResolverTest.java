@@ -0,0 +1,163 @@
+package net.fuxle.awooapi.network;
+
+import net.fuxle.awooapi.core.network.CidrTrie;
+import net.fuxle.awooapi.core.network.ClientAddress;
+import net.fuxle.awooapi.core.network.ClientAddressResolver;
+import net.fuxle.awooapi.core.network.ForwardingHeader;
+import net.fuxle.awooapi.core.network.IpAddress;
+import net.fuxle.awooapi.server.intf.Request;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ClientAddressResolver} and {@link CidrTrie} classes.
+ */
+class ClientAddressResolverTest {
+
+    private static final ClientAddressResolver RESOLVER = new ClientAddressResolver(
+            ClientAddressResolver.PRIVATE_RANGES, List.of("10.0.0.0/24", "2001:db8:ffff::/48"));
+
+    /**
+     * Request from the given peer with the given headers on the given connection.
+     */
+    private record PeerRequest(String ip, Map<String, String> headers, String connectionId) implements Request {
+        PeerRequest(String ip, Map<String, String> headers) {
+            this(ip, headers, null);
+        }
+
+        @Override
+        public String getPath() {
+            return "/";
+        }
+
+        @Override
+        public String getMethod() {
+            return "GET";
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return headers.get(name);
+        }
+
+        @Override
+        public String getBody() {
+            return "";
+        }
+
+        @Override
+        public String getIP() {
+            return ip;
+        }
+
+        @Override
+        public String getConnectionId() {
+            return connectionId;
+        }
+
+        @Override
+        public String getQueryParam(String name) {
+            return null;
+        }
+
+        @Override
+        public byte[] getBodyBytes() {
+            return new byte[0];
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return InputStream.nullInputStream();
+        }
+    }
+
+    @Test
+    void testTrieCollectsFlagsOfAllContainingRanges() {
+        CidrTrie trie = new CidrTrie();
+        trie.add("10.0.0.0/8", 1);
+        trie.add("10.1.0.0/16", 2);
+        trie.add("2001:db8::/32", 4);
+        trie.add("0.0.0.0/0", 8);
+
+        assertEquals(4, trie.size());
+        assertEquals(1 | 2 | 8, trie.lookup(IpAddress.parse("10.1.2.3")));
+        assertEquals(1 | 8, trie.lookup(IpAddress.parse("10.2.0.1")));
+        assertEquals(8, trie.lookup(IpAddress.parse("11.0.0.1")), "0.0.0.0/0 should only contain IPv4 addresses");
+        assertEquals(4, trie.lookup(IpAddress.parse("2001:db8::1")));
+        assertEquals(0, trie.lookup(IpAddress.parse("2001:db9::1")));
+        assertThrows(IllegalArgumentException.class, () -> trie.add("10.0.0.0/33", 1));
+        assertThrows(IllegalArgumentException.class, () -> trie.add("example.org/8", 1));
+    }
+
+    @Test
+    void testClassifiesPeerWithoutProxy() {
+        ClientAddress client = RESOLVER.resolve(new PeerRequest("192.168.1.1", Map.of("X-Forwarded-For", "8.8.8.8")));
+        assertEquals("192.168.1.1", client.ip(), "Forwarding headers from untrusted peers must be ignored");
+        assertTrue(client.isInternal());
+
+        client = RESOLVER.resolve(new PeerRequest("8.8.8.8", Map.of()));
+        assertFalse(client.isInternal());
+
+        client = RESOLVER.resolve(new PeerRequest("not-an-ip", Map.of()));
+        assertFalse(client.isInternal(), "Unparseable peers should be public");
+    }
+
+    @Test
+    void testXForwardedForFromTrustedProxy() {
+        // The client itself sent a spoofed entry, which comes before the real client address
+        ClientAddress client = RESOLVER.resolve(new PeerRequest("10.0.0.2",
+                Map.of("X-Forwarded-For", "192.168.7.7, 203.0.113.9, 10.0.0.1")));
+        assertEquals("203.0.113.9", client.ip());
+        assertFalse(client.isInternal());
+
+        client = RESOLVER.resolve(new PeerRequest("10.0.0.2", Map.of("X-Forwarded-For", "10.0.0.3:8080")));
+        assertEquals("10.0.0.3", client.ip(), "If all hops are trusted proxies, the leftmost is the client");
+    }
+
+    @Test
+    void testForwardedHeaderFromTrustedProxy() {
+        ClientAddressResolver resolver = new ClientAddressResolver(
+                ClientAddressResolver.PRIVATE_RANGES, List.of("10.0.0.0/24", "2001:db8:ffff::/48"), ForwardingHeader.FORWARDED);
+        ClientAddress client = resolver.resolve(new PeerRequest("2001:db8:ffff::1", Map.of(
+                "Forwarded", "for=198.51.100.17;proto=https, For=\"[2001:db8:cafe::17]:4711\";by=10.0.0.1",
+                "X-Forwarded-For", "8.8.8.8")));
+        assertEquals("2001:db8:cafe::17", client.ip());
+
+        client = resolver.resolve(new PeerRequest("10.0.0.2", Map.of("Forwarded", "for=198.51.100.17, for=unknown")));
+        assertEquals("10.0.0.2", client.ip(), "Nothing beyond an unknown hop can be trusted");
+
+        client = resolver.resolve(new PeerRequest("10.0.0.2", Map.of("X-Forwarded-For", "203.0.113.9")));
+        assertEquals("10.0.0.2", client.ip(), "Other forwarding headers must not be used as a fallback");
+    }
+
+    @Test
+    void testOnlyConfiguredHeaderIsEvaluated() {
+        // The proxy only appends X-Forwarded-For, the Forwarded header was sent by the client
+        ClientAddress client = RESOLVER.resolve(new PeerRequest("10.0.0.2", Map.of(
+                "Forwarded", "for=10.0.0.99",
+                "X-Forwarded-For", "203.0.113.9")));
+        assertEquals("203.0.113.9", client.ip(), "A client-supplied Forwarded header must not select the address");
+
+        client = RESOLVER.resolve(new PeerRequest("10.0.0.2", Map.of("Forwarded", "for=192.168.7.7")));
+        assertEquals("10.0.0.2", client.ip(), "Without the configured header the proxy itself is the client");
+    }
+
+    @Test
+    void testMemoizesPerConnection() {
+        ClientAddressResolver resolver = new ClientAddressResolver(List.of(), List.of("10.0.0.0/8"));
+        ClientAddress first = resolver.resolve(new PeerRequest("10.0.0.2", Map.of("X-Forwarded-For", "203.0.113.9"), "c1"));
+        ClientAddress second = resolver.resolve(new PeerRequest("10.0.0.2", Map.of("X-Forwarded-For", "203.0.113.9"), "c1"));
+        assertSame(first, second, "The same forwarding header on the same connection should not be resolved again");
+
+        ClientAddress other = resolver.resolve(new PeerRequest("10.0.0.2", Map.of("X-Forwarded-For", "203.0.113.10"), "c1"));
+        assertEquals("203.0.113.10", other.ip(), "Proxies multiplex clients over one connection");
+
+        ClientAddress reused = resolver.resolve(new PeerRequest("203.0.113.50", Map.of("X-Forwarded-For", "1.1.1.1"), "c1"));
+        assertEquals("203.0.113.50", reused.ip(), "A reused connection identifier must not keep the old peer");
+    }
+}
@@ -0,0 +1,61 @@
+package net.fuxle.awooapi.network;
+
+import net.fuxle.awooapi.core.network.IpAddress;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link IpAddress} class.
+ */
+class IpAddressTest {
+
+    private static IpAddress fromInetAddress(String literal) throws Exception {
+        ByteBuffer bytes = ByteBuffer.allocate(16);
+        byte[] raw = InetAddress.getByName(literal).getAddress();
+        if (raw.length == 4) {
+            bytes.putLong(0).putInt(0xFFFF).put(raw);
+        } else {
+            bytes.put(raw);
+        }
+        bytes.flip();
+        return new IpAddress(bytes.getLong(), bytes.getLong());
+    }
+
+    @Test
+    void testParsesLikeInetAddress() throws Exception {
+        for (String literal : new String[]{"0.0.0.0", "10.0.0.1", "192.168.255.255", "255.255.255.255",
+                "::", "::1", "1::", "fe80::1", "2001:db8::8a2e:370:7334", "2001:db8:0:0:1:0:0:1",
+                "1:2:3:4:5:6:7:8", "::ffff:1.2.3.4", "64:ff9b::192.0.2.33", "FC00::ABCD"}) {
+            assertEquals(fromInetAddress(literal), IpAddress.parse(literal), "Address " + literal);
+        }
+    }
+
+    @Test
+    void testIPv4() {
+        IpAddress address = IpAddress.parse("192.0.2.1");
+        assertNotNull(address);
+        assertTrue(address.isIPv4());
+        assertEquals("192.0.2.1", address.toString());
+        assertFalse(IpAddress.parse("2001:db8::1").isIPv4());
+    }
+
+    @Test
+    void testParsesRangeAndIgnoresZone() {
+        assertEquals(IpAddress.parse("10.1.2.3"), IpAddress.parse("for=10.1.2.3;proto=http", 4, 12));
+        assertEquals(IpAddress.parse("fe80::1"), IpAddress.parse("fe80::1%eth0"));
+    }
+
+    @Test
+    void testRejectsInvalidLiterals() {
+        for (String literal : new String[]{"", "localhost", "999.999.999.999", "1.2.3", "1.2.3.4.5", "01.2.3.4",
+                "1.2.3.4 ", ":", ":::", "1:2:3:4:5:6:7:8:9", "1::2::3", "12345::", ":1::", "1:", "g::1",
+                "1:2:3:4:5:6:7:1.2.3.4", "::1.2.3"}) {
+            assertNull(IpAddress.parse(literal), "Literal \"" + literal + "\" should be rejected");
+        }
+        assertNull(IpAddress.parse(null));
+    }
+}
@@ -0,0 +1,278 @@
+package net.fuxle.awooapi.subscription;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import net.fuxle.awooapi.RuntimeConfiguration;
+import net.fuxle.awooapi.StubRequest;
+import net.fuxle.awooapi.annotations.GraphQlFieldType;
+import net.fuxle.awooapi.annotations.MultiEndpoint;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.autodiscovery.GraphQLEndpoint;
+import net.fuxle.awooapi.core.autodiscovery.dispatcher.GraphQLSubscriptionDispatcher;
+import net.fuxle.awooapi.core.cache.PersistedQueryStore;
+import net.fuxle.awooapi.core.network.ClientAddressResolver;
+import net.fuxle.awooapi.core.subscription.GraphQLWebSocketHandler;
+import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+import net.fuxle.awooapi.server.intf.Request;
+import net.fuxle.awooapi.server.intf.websocket.WebSocketSession;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link GraphQLWebSocketHandler} class.
+ */
+class GraphQLWebSocketHandlerTest {
+
+    private static final String SUBSCRIBE = "{\"id\": \"%s\", \"type\": \"subscribe\", \"payload\": {\"query\": \"subscription { petAdded { name } }\"}}";
+
+    private final SubmissionPublisher<Map<String, Object>> pets = new SubmissionPublisher<>();
+    private final AtomicInteger subscriptionCalls = new AtomicInteger();
+
+    /**
+     * A WebSocket connection recording the messages sent to the client.
+     */
+    private static final class RecordingSession implements WebSocketSession {
+        private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+        private volatile CountDownLatch blockSends;
+        private volatile int closeCode;
+
+        @Override
+        public Request getRequest() {
+            return new StubRequest("/api/graphql", Map.of(), Map.of());
+        }
+
+        @Override
+        public String getSubprotocol() {
+            return GraphQLWebSocketHandler.SUBPROTOCOL;
+        }
+
+        @Override
+        public void sendText(String message) throws IOException {
+            CountDownLatch block = blockSends;
+            if (block != null) {
+                try {
+                    block.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            sent.add(message);
+        }
+
+        @Override
+        public void close(int code, String reason) {
+            closeCode = code;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return closeCode == 0;
+        }
+
+        private JsonObject next() throws InterruptedException {
+            String message = sent.poll(5, TimeUnit.SECONDS);
+            assertNotNull(message, "A message should have been sent");
+            return JsonParser.parseString(message).getAsJsonObject();
+        }
+    }
+
+    /**
+     * A subscription endpoint whose executions may be shared by all connections.
+     */
+    @MultiEndpoint(graphQLFieldName = "petAdded", graphQLFieldType = GraphQlFieldType.SUBSCRIPTION, graphQLSharedSubscription = true,
+            restType = {}, restPath = "")
+    private class SharedPetAdded extends AbstractEndpoint<Flow.Publisher<Map<String, Object>>> {
+        @Override
+        public Flow.Publisher<Map<String, Object>> handleRequest(Parameters params) {
+            subscriptionCalls.incrementAndGet();
+            return pets;
+        }
+    }
+
+    private GraphQLWebSocketHandler handler(int bufferSize) {
+        return handler(bufferSize, new SharedPetAdded(), null);
+    }
+
+    private GraphQLWebSocketHandler handler(int bufferSize, AbstractEndpoint<Flow.Publisher<Map<String, Object>>> endpoint,
+                                            PersistedQueryStore persistedQueries) {
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type.dataFetcher("ping", env -> "pong"))
+                .type("Subscription", type -> type.dataFetcher("petAdded", new GraphQLSubscriptionDispatcher<>(endpoint, ClientAddressResolver.getDefault())))
+                .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(
+                "type Query { ping: String } type Subscription { petAdded: Pet } type Pet { name: String }"), wiring);
+        return new GraphQLWebSocketHandler(new GraphQLEndpoint(schema, new RuntimeConfiguration(), persistedQueries), bufferSize);
+    }
+
+    private static RecordingSession connect(GraphQLWebSocketHandler handler) throws InterruptedException {
+        RecordingSession session = new RecordingSession();
+        handler.onOpen(session);
+        handler.onMessage(session, "{\"type\": \"connection_init\"}");
+        assertEquals("connection_ack", session.next().get("type").getAsString());
+        return session;
+    }
+
+    private void awaitSubscribers(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (pets.getNumberOfSubscribers() != count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, pets.getNumberOfSubscribers());
+    }
+
+    @Test
+    void testIdenticalSubscriptionsShareOneExecution() throws Exception {
+        GraphQLWebSocketHandler handler = handler(GraphQLWebSocketHandler.DEFAULT_BUFFER_SIZE);
+        RecordingSession wolf = connect(handler);
+        RecordingSession fox = connect(handler);
+
+        handler.onMessage(wolf, SUBSCRIBE.formatted("1"));
+        handler.onMessage(fox, SUBSCRIBE.formatted("a"));
+        assertEquals(1, subscriptionCalls.get(), "The second subscriber should join the running execution");
+        assertEquals(1, handler.getRunningSubscriptions());
+        awaitSubscribers(1);
+
+        pets.submit(Map.of("name", "Wolf"));
+        JsonObject toWolf = wolf.next();
+        JsonObject toFox = fox.next();
+        assertEquals("next", toWolf.get("type").getAsString());
+        assertEquals("1", toWolf.get("id").getAsString());
+        assertEquals("a", toFox.get("id").getAsString());
+        assertEquals("Wolf", toFox.getAsJsonObject("payload").getAsJsonObject("data").getAsJsonObject("petAdded").get("name").getAsString());
+        assertEquals(toWolf.get("payload"), toFox.get("payload"));
+
+        handler.onMessage(wolf, "{\"id\": \"1\", \"type\": \"complete\"}");
+        assertEquals(1, handler.getRunningSubscriptions(), "The execution should keep running for the other subscriber");
+        handler.onClose(fox, 1000, "");
+        assertEquals(0, handler.getRunningSubscriptions());
+        awaitSubscribers(0);
+    }
+
+    @Test
+    void testProtocolMessages() throws Exception {
+        GraphQLWebSocketHandler handler = handler(GraphQLWebSocketHandler.DEFAULT_BUFFER_SIZE);
+
+        RecordingSession uninitialised = new RecordingSession();
+        handler.onOpen(uninitialised);
+        handler.onMessage(uninitialised, SUBSCRIBE.formatted("1"));
+        assertEquals(4401, uninitialised.closeCode, "Subscribing before the connection is acknowledged should be rejected");
+
+        RecordingSession session = connect(handler);
+        handler.onMessage(session, "{\"type\": \"ping\"}");
+        assertEquals("pong", session.next().get("type").getAsString());
+
+        handler.onMessage(session, "{\"id\": \"q\", \"type\": \"subscribe\", \"payload\": {\"query\": \"{ ping }\"}}");
+        JsonObject result = session.next();
+        assertEquals("next", result.get("type").getAsString());
+        assertEquals("pong", result.getAsJsonObject("payload").getAsJsonObject("data").get("ping").getAsString());
+        assertEquals("complete", session.next().get("type").getAsString(), "Queries should complete after their result");
+
+        handler.onMessage(session, "{\"id\": \"bad\", \"type\": \"subscribe\", \"payload\": {\"query\": \"subscription { unknown }\"}}");
+        JsonObject error = session.next();
+        assertEquals("error", error.get("type").getAsString());
+        assertEquals("bad", error.get("id").getAsString());
+
+        handler.onMessage(session, SUBSCRIBE.formatted("1"));
+        handler.onMessage(session, SUBSCRIBE.formatted("1"));
+        assertEquals(4409, session.closeCode, "Reusing the id of a running subscription should be rejected");
+        assertEquals(0, handler.getRunningSubscriptions(), "Closing the connection should cancel its subscriptions");
+    }
+
+    @Test
+    void testSubscriptionsAreExecutedPerConnectionByDefault() throws Exception {
+        GraphQLWebSocketHandler handler = handler(GraphQLWebSocketHandler.DEFAULT_BUFFER_SIZE, new AbstractEndpoint<>() {
+            @Override
+            public Flow.Publisher<Map<String, Object>> handleRequest(Parameters params) {
+                subscriptionCalls.incrementAndGet();
+                return pets;
+            }
+        }, null);
+        RecordingSession wolf = connect(handler);
+        RecordingSession fox = connect(handler);
+
+        handler.onMessage(wolf, SUBSCRIBE.formatted("1"));
+        handler.onMessage(fox, SUBSCRIBE.formatted("1"));
+        assertEquals(2, subscriptionCalls.get(), "Every connection should call the endpoint with its own context");
+        assertEquals(2, handler.getRunningSubscriptions());
+        awaitSubscribers(2);
+
+        pets.submit(Map.of("name", "Wolf"));
+        assertEquals("next", wolf.next().get("type").getAsString());
+        assertEquals("next", fox.next().get("type").getAsString());
+
+        handler.onClose(wolf, 1000, "");
+        handler.onClose(fox, 1000, "");
+        assertEquals(0, handler.getRunningSubscriptions());
+        awaitSubscribers(0);
+    }
+
+    @Test
+    void testAllowlistOnlyEndpointRejectsUnlistedSubscriptions(@TempDir Path tempDir) throws Exception {
+        String listed = "subscription { petAdded { name } }";
+        Path allowlist = tempDir.resolve("allowlist.json");
+        Files.writeString(allowlist, "{\"" + PersistedQueryStore.sha256Hex(listed) + "\": \"" + listed + "\"}");
+        PersistedQueryStore store = new PersistedQueryStore(10, true);
+        store.loadAllowlist(allowlist);
+        GraphQLWebSocketHandler handler = handler(GraphQLWebSocketHandler.DEFAULT_BUFFER_SIZE, new SharedPetAdded(), store);
+        RecordingSession session = connect(handler);
+
+        handler.onMessage(session, "{\"id\": \"x\", \"type\": \"subscribe\", \"payload\": {\"query\": \"subscription { other: petAdded { name } }\"}}");
+        JsonObject error = session.next();
+        assertEquals("error", error.get("type").getAsString());
+        assertEquals("x", error.get("id").getAsString());
+        assertEquals("PERSISTED_QUERY_NOT_ALLOWED", error.getAsJsonArray("payload").get(0).getAsJsonObject()
+                .getAsJsonObject("extensions").get("code").getAsString());
+        assertEquals(0, subscriptionCalls.get(), "Unlisted subscriptions should not be executed");
+
+        handler.onMessage(session, "{\"id\": \"1\", \"type\": \"subscribe\", \"payload\": {\"extensions\": {\"persistedQuery\": {\"version\": 1, \"sha256Hash\": \""
+                + PersistedQueryStore.sha256Hex(listed) + "\"}}}}");
+        assertEquals(1, subscriptionCalls.get(), "Listed subscriptions should be executed by hash");
+        assertEquals(1, handler.getRunningSubscriptions());
+        assertEquals(0, session.closeCode);
+    }
+
+    @Test
+    void testSlowConsumerIsEvicted() throws Exception {
+        GraphQLWebSocketHandler handler = handler(2);
+        RecordingSession slow = connect(handler);
+        RecordingSession fast = connect(handler);
+        slow.blockSends = new CountDownLatch(1);
+
+        handler.onMessage(slow, SUBSCRIBE.formatted("1"));
+        handler.onMessage(fast, SUBSCRIBE.formatted("1"));
+        awaitSubscribers(1);
+
+        try {
+            for (int i = 0; i < 6; i++) {
+                pets.submit(Map.of("name", "Pet " + i));
+                assertEquals("Pet " + i, fast.next().getAsJsonObject("payload").getAsJsonObject("data")
+                        .getAsJsonObject("petAdded").get("name").getAsString(), "The fast client should receive every event");
+            }
+        } finally {
+            slow.blockSends.countDown();
+        }
+
+        assertEquals(1013, slow.closeCode, "The client that fell behind should have been closed");
+        assertEquals(0, fast.closeCode);
+        assertEquals(1, handler.getEvictedConnections());
+        assertEquals(1, handler.getRunningSubscriptions());
+    }
+}
@@ -0,0 +1,248 @@
+package net.fuxle.awooapi.subscription;
+
+import net.fuxle.awooapi.RuntimeConfiguration;
+import net.fuxle.awooapi.annotations.GeneratedGraphQLWiring;
+import net.fuxle.awooapi.annotations.GraphQlFieldType;
+import net.fuxle.awooapi.core.api.Parameters;
+import net.fuxle.awooapi.core.autodiscovery.ClassDiscovery;
+import net.fuxle.awooapi.core.autodiscovery.loader.GraphQLEndpointLoader;
+import net.fuxle.awooapi.core.subscription.GraphQLWebSocketHandler;
+import net.fuxle.awooapi.core.templates.AbstractEndpoint;
+import net.fuxle.awooapi.server.jetty.JettyWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end tests of GraphQL subscriptions served by the {@link JettyWebServer} over WebSocket connections.
+ */
+class GraphQLWebSocketJettyTest {
+
+    public static class PingEndpoint extends AbstractEndpoint<String> {
+        @Override
+        public String handleRequest(Parameters params) {
+            return "pong";
+        }
+    }
+
+    public static class PetAddedEndpoint extends AbstractEndpoint<Flow.Publisher<String>> {
+        private final Flow.Publisher<String> pets;
+
+        public PetAddedEndpoint(Flow.Publisher<String> pets) {
+            this.pets = pets;
+        }
+
+        @Override
+        public Flow.Publisher<String> handleRequest(Parameters params) {
+            return pets;
+        }
+    }
+
+    /**
+     * A minimal WebSocket client, since the core module does not read the HTTP client module of the JDK.
+     */
+    private static final class TestClient implements AutoCloseable {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final OutputStream out;
+        private final List<String> handshake = new ArrayList<>();
+
+        private TestClient(int port, String subprotocol) throws IOException {
+            socket = new Socket("localhost", port);
+            socket.setSoTimeout(5000);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = socket.getOutputStream();
+
+            byte[] key = new byte[16];
+            ThreadLocalRandom.current().nextBytes(key);
+            out.write(("GET /api/graphql HTTP/1.1\r\n"
+                    + "Host: localhost:" + port + "\r\n"
+                    + "Upgrade: websocket\r\n"
+                    + "Connection: Upgrade\r\n"
+                    + "Sec-WebSocket-Key: " + Base64.getEncoder().encodeToString(key) + "\r\n"
+                    + "Sec-WebSocket-Version: 13\r\n"
+                    + (subprotocol != null ? "Sec-WebSocket-Protocol: " + subprotocol + "\r\n" : "")
+                    + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            for (String line = readLine(); !line.isEmpty(); line = readLine()) {
+                handshake.add(line);
+            }
+        }
+
+        private String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            for (int b = in.read(); b != '\n'; b = in.read()) {
+                if (b < 0) {
+                    throw new IOException("Connection closed during handshake");
+                }
+                if (b != '\r') {
+                    line.write(b);
+                }
+            }
+            return line.toString(StandardCharsets.US_ASCII);
+        }
+
+        private void send(int opcode, byte[] payload) throws IOException {
+            ByteArrayOutputStream frame = new ByteArrayOutputStream();
+            frame.write(0x80 | opcode);
+            // Client frames are masked, lengths up to 64 KiB suffice for the tests
+            if (payload.length < 126) {
+                frame.write(0x80 | payload.length);
+            } else {
+                frame.write(0x80 | 126);
+                frame.write(payload.length >> 8);
+                frame.write(payload.length);
+            }
+            byte[] mask = new byte[4];
+            ThreadLocalRandom.current().nextBytes(mask);
+            frame.writeBytes(mask);
+            for (int i = 0; i < payload.length; i++) {
+                frame.write(payload[i] ^ mask[i & 3]);
+            }
+            out.write(frame.toByteArray());
+            out.flush();
+        }
+
+        private void sendText(String message) throws IOException {
+            send(0x1, message.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Reads the next frame, which must have the given opcode, and returns its payload.
+         */
+        private byte[] read(int expectedOpcode) throws IOException {
+            int first = in.readUnsignedByte();
+            int length = in.readUnsignedByte() & 0x7F;
+            if (length == 126) {
+                length = in.readUnsignedShort();
+            } else if (length == 127) {
+                length = (int) in.readLong();
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            assertEquals(expectedOpcode, first & 0x0F, "Unexpected frame");
+            return payload;
+        }
+
+        private String next() throws IOException {
+            return new String(read(0x1), StandardCharsets.UTF_8);
+        }
+
+        private int closeCode() throws IOException {
+            byte[] payload = read(0x8);
+            return ((payload[0] & 0xFF) << 8) | (payload[1] & 0xFF);
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    private final SubmissionPublisher<String> pets = new SubmissionPublisher<>();
+    private JettyWebServer webServer;
+    private int port;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        webServer = new JettyWebServer();
+        webServer.getWebServerConfig().setHttpPort(port);
+
+        RuntimeConfiguration config = new RuntimeConfiguration();
+        // Only the endpoints of the wiring, not the annotated endpoints of the other tests in the package
+        config.getSearchConfig().setPackagePrefix(GraphQLWebSocketJettyTest.class.getName());
+        GraphQLEndpointLoader loader = new GraphQLEndpointLoader(new ClassDiscovery(config, webServer));
+        loader.scanForGraphQl(List.of(new GeneratedGraphQLWiring() {
+            @Override
+            public InputStream openSchema() {
+                return new ByteArrayInputStream("type Query { ping: String } type Subscription { petAdded: String }".getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public List<Field> getFields() {
+                return List.of(
+                        new Field(GraphQlFieldType.QUERY, "ping", PingEndpoint.class, PingEndpoint::new),
+                        new Field(GraphQlFieldType.SUBSCRIPTION, "petAdded", PetAddedEndpoint.class, () -> new PetAddedEndpoint(pets)));
+            }
+        }));
+        loader.registerGraphQlEndpoint(webServer);
+        assertSame(loader.getSubscriptionHandler(), webServer.getWebSocketHandlers().get("/api/graphql"));
+
+        webServer.start();
+    }
+
+    @AfterEach
+    void stopServer() throws Exception {
+        webServer.stop();
+    }
+
+    @Test
+    void testSubscriptionsAreServedOnTheGraphQLPath() throws Exception {
+        try (TestClient client = new TestClient(port, GraphQLWebSocketHandler.SUBPROTOCOL)) {
+            assertEquals("HTTP/1.1 101 Switching Protocols", client.handshake.get(0));
+            assertTrue(client.handshake.contains("Sec-WebSocket-Protocol: " + GraphQLWebSocketHandler.SUBPROTOCOL), client.handshake.toString());
+
+            client.sendText("{\"type\": \"connection_init\"}");
+            assertEquals("{\"type\":\"connection_ack\"}", client.next());
+
+            client.sendText("{\"id\": \"1\", \"type\": \"subscribe\", \"payload\": {\"query\": \"subscription { petAdded }\"}}");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (pets.getNumberOfSubscribers() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            pets.submit("Wolf");
+            assertEquals("{\"id\":\"1\",\"type\":\"next\",\"payload\":{\"data\":{\"petAdded\":\"Wolf\"}}}", client.next());
+
+            client.sendText("{\"id\": \"1\", \"type\": \"complete\"}");
+            client.send(0x8, new byte[]{0x03, (byte) 0xE8});
+            assertEquals(1000, client.closeCode(), "The close frame should be answered");
+        }
+    }
+
+    @Test
+    void testConnectionsWithoutTheSubprotocolAreClosed() throws Exception {
+        try (TestClient client = new TestClient(port, null)) {
+            assertEquals("HTTP/1.1 101 Switching Protocols", client.handshake.get(0));
+            assertEquals(4406, client.closeCode());
+        }
+    }
+
+    @Test
+    void testQueriesAreStillServedOverHttp() throws Exception {
+        String query = URLEncoder.encode("{ ping }", StandardCharsets.UTF_8);
+        HttpURLConnection connection = (HttpURLConnection) URI.create("http://localhost:" + port + "/api/graphql?query=" + query).toURL().openConnection();
+        try {
+            assertEquals(200, connection.getResponseCode());
+            String body = new String(connection.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(body.contains("\"ping\":\"pong\""), body);
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package net.fuxle.awooapi.tracing;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import net.fuxle.awooapi.RuntimeConfiguration;
+import net.fuxle.awooapi.StubRequest;
+import net.fuxle.awooapi.core.autodiscovery.GraphQLEndpoint;
+import net.fuxle.awooapi.core.tracing.FieldTracingInstrumentation;
+import net.fuxle.awooapi.server.intf.BufferedResponse;
+import net.fuxle.awooapi.server.intf.HandlerContext;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link FieldTracingInstrumentation} class.
+ */
+class FieldTracingInstrumentationTest {
+
+    private static GraphQLEndpoint endpoint(RuntimeConfiguration config) {
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type
+                        .dataFetcher("slow", env -> {
+                            Thread.sleep(20);
+                            return "slow";
+                        })
+                        .dataFetcher("broken", env -> {
+                            throw new IllegalStateException("Backend down");
+                        })
+                        .dataFetcher("items", env -> List.of(Map.of("name", "a"), Map.of("name", "b"))))
+                .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(
+                "type Query { slow: String, broken: String, items: [Item] } type Item { name: String }"), wiring);
+        return new GraphQLEndpoint(schema, config, null);
+    }
+
+    private static JsonObject post(GraphQLEndpoint endpoint, String query, Map<String, String> headers) throws Exception {
+        BufferedResponse response = new BufferedResponse();
+        byte[] body = ("{\"query\": \"" + query + "\"}").getBytes(StandardCharsets.UTF_8);
+        endpoint.handle(new HandlerContext(new StubRequest("POST", "/api/graphql", Map.of(), headers, body), response, null));
+        return JsonParser.parseString(new String(response.getBodyBytes(), StandardCharsets.UTF_8)).getAsJsonObject();
+    }
+
+    @Test
+    void testTraceIsTriggeredByHeader() throws Exception {
+        RuntimeConfiguration config = new RuntimeConfiguration();
+        config.getApiConfig().setGraphQLTracingHeaderEnabled(true);
+        GraphQLEndpoint endpoint = endpoint(config);
+
+        assertNull(post(endpoint, "{ slow }", Map.of()).get("extensions"), "Unsampled requests should not be traced");
+
+        JsonObject traced = post(endpoint, "{ slow broken }", Map.of(FieldTracingInstrumentation.TRACE_HEADER, "1"));
+        JsonObject tracing = traced.getAsJsonObject("extensions").getAsJsonObject("tracing");
+        JsonArray resolvers = tracing.getAsJsonArray("resolvers");
+        assertEquals(2, resolvers.size());
+
+        JsonObject slow = resolvers.get(0).getAsJsonObject();
+        assertEquals("slow", slow.get("fieldName").getAsString());
+        assertEquals("Query", slow.get("parentType").getAsString());
+        assertTrue(slow.get("duration").getAsLong() >= 20_000_000L, "The duration should include the time spent in the resolver");
+        assertTrue(tracing.get("duration").getAsLong() >= slow.get("duration").getAsLong());
+
+        JsonObject broken = resolvers.get(1).getAsJsonObject();
+        assertTrue(broken.get("error").getAsBoolean(), "Failed fields should be marked");
+        assertEquals(1, endpoint.getFieldTracingInstrumentation().getTracedRequests());
+    }
+
+    @Test
+    void testSampledRequestsRecordNestedFieldsUpToLimit() throws Exception {
+        RuntimeConfiguration config = new RuntimeConfiguration();
+        config.getApiConfig().setGraphQLTracingSampleRate(1);
+        config.getApiConfig().setGraphQLTracingMaxFields(2);
+        GraphQLEndpoint endpoint = endpoint(config);
+
+        JsonObject tracing = post(endpoint, "{ items { name } }", Map.of()).getAsJsonObject("extensions").getAsJsonObject("tracing");
+
+        JsonArray resolvers = tracing.getAsJsonArray("resolvers");
+        assertEquals(2, resolvers.size());
+        assertEquals("[\"items\",0,\"name\"]", resolvers.get(1).getAsJsonObject().get("path").toString());
+        assertEquals(1, tracing.get("droppedResolvers").getAsInt(), "Fields beyond the limit should be counted");
+    }
+
+    @Test
+    void testTracingIsNotInstalledByDefault() {
+        assertNull(endpoint(new RuntimeConfiguration()).getFieldTracingInstrumentation());
+    }
+}
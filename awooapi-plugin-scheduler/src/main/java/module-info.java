@@ -2,7 +2,10 @@ module awooapi.plugin.scheduler {
     requires com.cronutils;
     requires org.reflections;
     requires awooapi.plugin.intf;
+    requires awooapi.annotations;
     requires org.slf4j;
 
     exports net.fuxle.awooapi.component.scheduler.intf;
+
+    uses net.fuxle.awooapi.annotations.GeneratedComponentRegistry;
 }
\ No newline at end of file
@@ -1,19 +1,25 @@
 package net.fuxle.awooapi.component.scheduler;
 
 import java.lang.invoke.MethodHandles;
+import java.net.URL;
+import java.security.CodeSource;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.Supplier;
 
 import com.cronutils.model.Cron;
 import com.cronutils.model.CronType;
 import com.cronutils.model.definition.CronDefinitionBuilder;
 import com.cronutils.model.time.ExecutionTime;
 import com.cronutils.parser.CronParser;
+import net.fuxle.awooapi.annotations.GeneratedComponentRegistry;
 import net.fuxle.awooapi.common.plugin.impl.PluginEnvironment;
 import net.fuxle.awooapi.common.plugin.intf.AbstractPlugin;
 import net.fuxle.awooapi.component.scheduler.annotation.CronJob;
 import net.fuxle.awooapi.component.scheduler.intf.AbstractCronJob;
 import org.reflections.Reflections;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,32 +46,82 @@ public class CronJobPlugin extends AbstractPlugin {
         this.scheduler = Executors.newScheduledThreadPool((Integer) env.getParameter().get(CronJobPluginConfig.THREAD_POOL_SIZE));
     }
 
-    public void discoverAndStartJobs(String packageName, Reflections reflections) {
-        Set<Class<?>> cronJobClasses = reflections.getTypesAnnotatedWith(CronJob.class);
+    /**
+     * Starts the cron jobs of the given package. Cron jobs of modules with a component registry generated by the
+     * annotation processor are taken from the registry, the classpath entries of all other modules are scanned.
+     *
+     * @param classLoader The class loader of the application.
+     * @param packageName The package containing the cron jobs.
+     */
+    public void discoverAndStartJobs(ClassLoader classLoader, String packageName) {
+        Set<String> registryLocations = new HashSet<>();
+        for (GeneratedComponentRegistry registry : ServiceLoader.load(GeneratedComponentRegistry.class, classLoader)) {
+            CodeSource codeSource = registry.getClass().getProtectionDomain().getCodeSource();
+            if (codeSource != null && codeSource.getLocation() != null) {
+                registryLocations.add(codeSource.getLocation().toExternalForm());
+            }
+            for (GeneratedComponentRegistry.Component<CronJob> component : registry.getComponents(CronJob.class)) {
+                // Registries list every component of their module, also those outside of the package
+                if (component.type().getName().startsWith(packageName + ".")) {
+                    startJob(component.type(), component.annotation(), component.constructor());
+                }
+            }
+        }
 
-        for (Class<?> clazz : cronJobClasses) {
-            CronJob annotation = clazz.getAnnotation(CronJob.class);
+        ConfigurationBuilder configuration = new ConfigurationBuilder().forPackages(packageName).addClassLoaders(classLoader);
+        Set<URL> urls = new HashSet<>(configuration.getUrls());
+        urls.removeIf(url -> isInLocation(url, registryLocations));
+        if (!urls.isEmpty()) {
+            discoverAndStartJobs(packageName, new Reflections(configuration.setUrls(urls)
+                    .filterInputsBy(new FilterBuilder().includePackage(packageName))));
+        }
+    }
 
-            if (!AbstractCronJob.class.isAssignableFrom(clazz)) {
-                throw new IllegalStateException(
-                        "Class " + clazz.getName() + " must extend " + AbstractCronJob.class.getName() + " to use @CronJob annotation."
-                );
+    private static boolean isInLocation(URL url, Set<String> locations) {
+        String external = url.toExternalForm();
+        for (String location : locations) {
+            if (external.equals(location) || (location.endsWith("/") && external.startsWith(location))
+                    || external.startsWith("jar:" + location + "!/")) {
+                return true;
             }
+        }
+        return false;
+    }
 
-            try {
-                AbstractCronJob jobInstance = (AbstractCronJob) clazz.getDeclaredConstructor().newInstance();
+    public void discoverAndStartJobs(String packageName, Reflections reflections) {
+        Set<Class<?>> cronJobClasses = reflections.getTypesAnnotatedWith(CronJob.class);
 
-                if (annotation.runOnAppStart()) {
-                    // Submitting the job to run immediately on application start
-                    scheduler.submit(jobInstance::execute);
+        for (Class<?> clazz : cronJobClasses) {
+            startJob(clazz, clazz.getAnnotation(CronJob.class), () -> {
+                try {
+                    return clazz.getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException(e);
                 }
+            });
+        }
+    }
 
-                // Schedule the job based on the cron expression
-                addJob(annotation.expression(), jobInstance);
+    private void startJob(Class<?> clazz, CronJob annotation, Supplier<?> constructor) {
+        if (!AbstractCronJob.class.isAssignableFrom(clazz)) {
+            throw new IllegalStateException(
+                    "Class " + clazz.getName() + " must extend " + AbstractCronJob.class.getName() + " to use @CronJob annotation."
+            );
+        }
 
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to instantiate CronJob class: " + clazz.getName(), e);
+        try {
+            AbstractCronJob jobInstance = (AbstractCronJob) constructor.get();
+
+            if (annotation.runOnAppStart()) {
+                // Submitting the job to run immediately on application start
+                scheduler.submit(jobInstance::execute);
             }
+
+            // Schedule the job based on the cron expression
+            addJob(annotation.expression(), jobInstance);
+
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to instantiate CronJob class: " + clazz.getName(), e);
         }
     }
 
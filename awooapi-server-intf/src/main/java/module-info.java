@@ -3,9 +3,14 @@ module awooapi.server.intf {
     requires org.slf4j;
     requires com.google.gson;
     exports net.fuxle.awooapi.server.intf;
+    exports net.fuxle.awooapi.server.intf.codec;
     exports net.fuxle.awooapi.server.intf.handler;
     exports net.fuxle.awooapi.server.intf.handler.staticfiles;
     exports net.fuxle.awooapi.server.intf.handler.common;
+    exports net.fuxle.awooapi.server.intf.websocket;
     exports net.fuxle.awooapi.server.common.mozillasslconfig;
     exports net.fuxle.awooapi.server.common;
+
+    uses net.fuxle.awooapi.server.intf.codec.JsonCodec;
+    uses com.google.gson.TypeAdapterFactory;
 }
@@ -0,0 +1,66 @@
+package net.fuxle.awooapi.server.intf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A {@link Response} that keeps status, headers and body in memory instead of sending them to a client.
+ * It is used to render a response once and replay it later, e.g. from a cache, or to collect
+ * the result of a handler that runs detached from the original connection.
+ */
+public class BufferedResponse extends Response {
+    private final Map<String, String> headers = new LinkedHashMap<>();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+
+    @Override
+    public void setHeader(String name, String value) {
+        headers.put(name, value);
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    @Override
+    public void setBodyBytes(byte[] data) {
+        body.writeBytes(data);
+    }
+
+    @Override
+    public Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return body;
+    }
+
+    /**
+     * Retrieves a copy of the body written so far.
+     *
+     * @return The buffered body as a byte array.
+     */
+    public byte[] getBodyBytes() {
+        return body.toByteArray();
+    }
+
+    /**
+     * Copies status, headers and body of this response into another response.
+     *
+     * @param target The response to copy into.
+     * @throws IOException If writing the body to the target fails.
+     */
+    public void writeTo(Response target) throws IOException {
+        target.setStatus(getStatus());
+        headers.forEach(target::setHeader);
+        if (body.size() > 0) {
+            body.writeTo(target.getOutputStream());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package net.fuxle.awooapi.server.intf;
+
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable snapshot of selected parts of a {@link Request} that stays valid after the original request has completed.
+ * Only the path, method, client IP and the explicitly captured headers and query parameters are retained; the body
+ * is always empty. Handlers can be re-run against a detached request, e.g. to refresh a cached response in the background.
+ */
+public final class DetachedRequest implements Request {
+    private final String path;
+    private final String method;
+    private final String ip;
+    private final Map<String, String> headers;
+    private final Map<String, String> queryParams;
+
+    private DetachedRequest(String path, String method, String ip, Map<String, String> headers, Map<String, String> queryParams) {
+        this.path = path;
+        this.method = method;
+        this.ip = ip;
+        this.headers = headers;
+        this.queryParams = queryParams;
+    }
+
+    /**
+     * Creates a snapshot of the given request.
+     *
+     * @param request     The request to take the snapshot of.
+     * @param headerNames The names of the headers to capture.
+     * @param queryNames  The names of the query parameters to capture.
+     * @return The detached request.
+     */
+    public static DetachedRequest of(Request request, Collection<String> headerNames, Collection<String> queryNames) {
+        // Header names are case-insensitive
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (String name : headerNames) {
+            String value = request.getHeader(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+
+        Map<String, String> queryParams = new TreeMap<>();
+        for (String name : queryNames) {
+            String value = request.getQueryParam(name);
+            if (value != null) {
+                queryParams.put(name, value);
+            }
+        }
+
+        return new DetachedRequest(request.getPath(), request.getMethod(), request.getIP(), headers, queryParams);
+    }
+
+    @Override
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    @Override
+    public String getBody() {
+        return "";
+    }
+
+    @Override
+    public String getIP() {
+        return ip;
+    }
+
+    @Override
+    public String getQueryParam(String name) {
+        return queryParams.get(name);
+    }
+
+    @Override
+    public byte[] getBodyBytes() {
+        return new byte[0];
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return InputStream.nullInputStream();
+    }
+}
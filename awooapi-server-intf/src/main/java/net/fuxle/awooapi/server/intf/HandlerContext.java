@@ -1,10 +1,12 @@
 package net.fuxle.awooapi.server.intf;
 
-import com.google.gson.Gson;
 import net.fuxle.awooapi.annotations.HandlerType;
 import net.fuxle.awooapi.server.common.Router;
+import net.fuxle.awooapi.server.intf.codec.JsonCodec;
+import net.fuxle.awooapi.server.intf.codec.JsonCodecs;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
@@ -16,8 +18,6 @@ import java.util.Map;
  */
 public record HandlerContext(Request request, Response response, Router router) {
 
-    private static Gson gson = new Gson();;
-
     /**
      * Sets a response header.
      *
@@ -147,10 +147,17 @@ public record HandlerContext(Request request, Response response, Router router)
         return response.getHeaders();
     }
 
-    public void json(Object objectToBeSerialized) {
-        String json = gson.toJson(objectToBeSerialized);
-        contentType("application/json"); // Set Content-Type as JSON
-        result(json); // Set the serialized JSON as the response body
+    /**
+     * Serializes the given object with the active {@link JsonCodec} directly into the response body
+     * and sets the Content-Type header accordingly.
+     *
+     * @param objectToBeSerialized The object to serialize.
+     * @throws IOException If writing the response body fails.
+     */
+    public void json(Object objectToBeSerialized) throws IOException {
+        JsonCodec codec = JsonCodecs.getDefault();
+        contentType(codec.getContentType()); // Set Content-Type before the body is committed
+        codec.write(objectToBeSerialized, response.getOutputStream());
     }
 
     public byte[] bodyAsBytes() throws IOException {
@@ -161,10 +168,26 @@ public record HandlerContext(Request request, Response response, Router router)
         return ByteBuffer.wrap(bodyAsBytes());
     }
 
+    /**
+     * Retrieves the body of the request as a stream, without buffering it in memory.
+     *
+     * @return The body of the request as an {@code InputStream}.
+     * @throws IOException If an input or output exception occurs while opening the body stream.
+     */
+    public InputStream bodyAsInputStream() throws IOException {
+        return request.getInputStream();
+    }
+
+    /**
+     * Deserializes the request body with the {@link JsonCodec} matching its Content-Type, reading directly from the request stream.
+     *
+     * @param <T>         The type of the target class.
+     * @param targetClazz The class to deserialize the request body into.
+     * @return The deserialized request body.
+     * @throws IOException If the request body cannot be read or parsed.
+     */
     public <T> T bodyAsClass(Class<T> targetClazz) throws IOException {
-        Gson gson = new Gson();
-        String requestBody = body(); // Get the request body as a string
-        return gson.fromJson(requestBody, targetClazz); // Deserialize into the specified class
+        return JsonCodecs.forContentType(contentType()).read(bodyAsInputStream(), targetClazz);
     }
 
     public HandlerType method(){
@@ -1,6 +1,7 @@
 package net.fuxle.awooapi.server.intf;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Represents an HTTP request that contains information about the client's request to the server.
@@ -46,6 +47,16 @@ public interface Request {
      */
     String getIP();
 
+    /**
+     * Retrieves an identifier of the connection the request was received on. Requests sent over the same
+     * keep-alive connection share the identifier, so per-connection state can be memoized.
+     *
+     * @return The connection identifier, or {@code null} if the server does not provide one.
+     */
+    default String getConnectionId() {
+        return null;
+    }
+
     /**
      * Retrieves the value of a specific query parameter from the request.
      *
@@ -61,4 +72,12 @@ public interface Request {
      * @throws IOException If an input or output exception occurs while reading the body content.
      */
     byte[] getBodyBytes() throws IOException;
+
+    /**
+     * Retrieves the body content of the HTTP request as a stream, without buffering it in memory.
+     *
+     * @return The body of the request as an {@code InputStream}.
+     * @throws IOException If an input or output exception occurs while opening the body stream.
+     */
+    InputStream getInputStream() throws IOException;
 }
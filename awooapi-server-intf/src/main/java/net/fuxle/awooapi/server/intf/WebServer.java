@@ -6,8 +6,12 @@ import net.fuxle.awooapi.server.common.WebServerConfig;
 import net.fuxle.awooapi.server.intf.handler.ExceptionHandler;
 import net.fuxle.awooapi.server.intf.handler.common.InternalServerErrorHandler;
 import net.fuxle.awooapi.server.intf.handler.staticfiles.StaticFileServingHandler;
+import net.fuxle.awooapi.server.intf.websocket.WebSocketHandler;
 
 import javax.net.ssl.SSLContext;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents an abstract web server that handles HTTP requests and responses.
@@ -20,6 +24,7 @@ public abstract class WebServer {
     private ExceptionHandler exceptionHandler = new InternalServerErrorHandler();
     private StaticFileServing staticFileServing = null;
     private final WebServerConfig webServerConfig = new WebServerConfig();
+    private final Map<String, WebSocketHandler> webSocketHandlers = new ConcurrentHashMap<>();
 
     /**
      * Retrieves the "Powered By" value of the server.
@@ -90,6 +95,25 @@ public abstract class WebServer {
     public abstract void reloadSslContext(SSLContext newSslContext) throws Exception;
 
 
+    /**
+     * Registers the handler of the WebSocket connections opened on a path.
+     *
+     * @param path    The path WebSocket upgrade requests are accepted on.
+     * @param handler The handler of the connections.
+     */
+    public void addWebSocketHandler(String path, WebSocketHandler handler) {
+        webSocketHandlers.put(path, handler);
+    }
+
+    /**
+     * Retrieves the registered WebSocket handlers, used by implementations to upgrade requests.
+     *
+     * @return An unmodifiable view of the handlers by path.
+     */
+    public Map<String, WebSocketHandler> getWebSocketHandlers() {
+        return Collections.unmodifiableMap(webSocketHandlers);
+    }
+
     public WebServerConfig getWebServerConfig() {
         return webServerConfig;
     }
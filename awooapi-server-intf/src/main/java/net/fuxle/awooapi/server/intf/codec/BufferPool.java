@@ -0,0 +1,41 @@
+package net.fuxle.awooapi.server.intf.codec;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Shared pool of byte buffers used by the codec writers, so serializing a response does not allocate a fresh buffer.
+ */
+final class BufferPool {
+
+    /**
+     * Size of the pooled buffers.
+     */
+    static final int BUFFER_SIZE = 8192;
+
+    private static final ArrayBlockingQueue<byte[]> POOL = new ArrayBlockingQueue<>(64);
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private BufferPool() {
+    }
+
+    /**
+     * Borrows a buffer from the pool, allocating a new one if the pool is empty.
+     *
+     * @return A buffer of {@link #BUFFER_SIZE} bytes.
+     */
+    static byte[] acquire() {
+        byte[] pooled = POOL.poll();
+        return pooled != null ? pooled : new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Returns a buffer to the pool. If the pool is full, the buffer is left to the garbage collector.
+     *
+     * @param buffer The buffer to return.
+     */
+    static void release(byte[] buffer) {
+        POOL.offer(buffer);
+    }
+}
@@ -0,0 +1,209 @@
+package net.fuxle.awooapi.server.intf.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Built-in {@link JsonCodec} for the compact binary CBOR representation ({@code application/cbor}, RFC 8949).
+ * <p>
+ * It reuses the type adapters of a {@link Gson} instance, so every type that can be written as JSON, including the
+ * generated adapters, is written as CBOR with the same structure and field names. Values are encoded straight into
+ * the output stream. Decoding first builds a {@link JsonElement} tree that is then bound by Gson.
+ * <p>
+ * Sequences are written as an indefinite-length CBOR array for {@link StreamFormat#JSON_ARRAY} and as a CBOR sequence
+ * ({@code application/cbor-seq}, RFC 8742) for {@link StreamFormat#NDJSON}.
+ */
+public class CborCodec implements JsonCodec {
+
+    /**
+     * The media type produced and consumed by this codec.
+     */
+    public static final String CONTENT_TYPE = "application/cbor";
+
+    /**
+     * The media type of a sequence of CBOR data items.
+     */
+    public static final String SEQUENCE_CONTENT_TYPE = "application/cbor-seq";
+
+    private final Gson gson;
+
+    /**
+     * Constructs a new codec using the type adapters of the given {@link Gson} instance.
+     *
+     * @param gson The Gson instance providing the type adapters.
+     */
+    public CborCodec(Gson gson) {
+        this.gson = gson;
+    }
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public String getContentType(StreamFormat format) {
+        return format == StreamFormat.NDJSON ? SEQUENCE_CONTENT_TYPE : CONTENT_TYPE;
+    }
+
+    @Override
+    public List<String> getMediaTypes() {
+        return List.of(CONTENT_TYPE, SEQUENCE_CONTENT_TYPE);
+    }
+
+    @Override
+    public void write(Object value, OutputStream out) throws IOException {
+        try (CborWriter writer = new CborWriter(out)) {
+            writeValue(value, writer);
+        }
+    }
+
+    private void writeValue(Object value, CborWriter writer) throws IOException {
+        try {
+            if (value == null) {
+                writer.nullValue();
+            } else {
+                gson.toJson(value, value.getClass(), writer);
+            }
+        } catch (JsonParseException e) {
+            throw new IOException("Unable to serialize value of type " + (value == null ? "null" : value.getClass().getName()), e);
+        }
+    }
+
+    @Override
+    public <T> T read(InputStream in, Type type) throws IOException {
+        try (CborReader reader = new CborReader(in)) {
+            if (reader.isAtEnd()) {
+                return null;
+            }
+            return bind(reader.readItem(), type);
+        }
+    }
+
+    private <T> T bind(JsonElement tree, Type type) throws IOException {
+        try {
+            @SuppressWarnings("unchecked")
+            T value = (T) gson.fromJson(tree, TypeToken.get(type));
+            return value;
+        } catch (JsonParseException | IllegalStateException | NumberFormatException e) {
+            throw new IOException("Unable to deserialize CBOR body into " + type.getTypeName(), e);
+        }
+    }
+
+    @Override
+    public JsonSequenceWriter openSequence(OutputStream out, StreamFormat format) throws IOException {
+        CborWriter writer = new CborWriter(out);
+        if (format == StreamFormat.JSON_ARRAY) {
+            writer.writeByte(CborWriter.INDEFINITE_ARRAY);
+        }
+
+        return new JsonSequenceWriter() {
+            private boolean closed = false;
+
+            @Override
+            public void write(Object value) throws IOException {
+                if (closed) {
+                    throw new IOException("Sequence has already been closed");
+                }
+                writeValue(value, writer);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                writer.flush();
+                out.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                if (format == StreamFormat.JSON_ARRAY) {
+                    writer.writeByte(CborWriter.BREAK);
+                }
+                writer.close();
+            }
+        };
+    }
+
+    @Override
+    public <T> JsonSequenceReader<T> openSequence(InputStream in, Type type, StreamFormat format) {
+        CborReader reader = new CborReader(in);
+
+        return new JsonSequenceReader<>() {
+            private boolean started = false;
+            private boolean finished = false;
+            // Remaining items of a definite-length array, -1 for an indefinite-length array
+            private long remaining = -1;
+
+            @Override
+            public boolean hasNext() throws IOException {
+                if (finished) {
+                    return false;
+                }
+                if (!started) {
+                    started = true;
+                    // An empty body is an empty sequence
+                    if (reader.isAtEnd()) {
+                        finished = true;
+                        return false;
+                    }
+                    if (format == StreamFormat.JSON_ARRAY) {
+                        remaining = reader.readArrayHeader();
+                    }
+                }
+
+                boolean hasNext;
+                if (format == StreamFormat.NDJSON) {
+                    hasNext = !reader.isAtEnd();
+                } else if (remaining >= 0) {
+                    hasNext = remaining > 0;
+                } else {
+                    hasNext = reader.peekByte() != CborWriter.BREAK;
+                    if (!hasNext) {
+                        reader.readByte();
+                    }
+                }
+                finished = !hasNext;
+                return hasNext;
+            }
+
+            @Override
+            public T next() throws IOException {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("No more values in sequence");
+                }
+                if (remaining > 0) {
+                    remaining--;
+                }
+                return bind(reader.readItem(), type);
+            }
+
+            @Override
+            public void close() {
+                finished = true;
+                reader.close();
+            }
+        };
+    }
+
+    /**
+     * Retrieves the {@link Gson} instance providing the type adapters of this codec.
+     *
+     * @return The Gson instance.
+     */
+    public Gson getGson() {
+        return gson;
+    }
+}
@@ -0,0 +1,314 @@
+package net.fuxle.awooapi.server.intf.codec;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Decodes CBOR (RFC 8949) data items into Gson {@link JsonElement} trees, which Gson then binds to the target type.
+ * <p>
+ * Byte strings become arrays of (signed) byte values, as Gson represents {@code byte[]}; bignums and decimal
+ * fractions become exact numbers; unknown tags are ignored. Nesting depth is limited, and lengths announced by the
+ * sender are never used to preallocate memory. Instances are not thread-safe.
+ */
+class CborReader implements Closeable {
+
+    /**
+     * Maximum nesting depth of arrays and maps.
+     */
+    static final int MAX_DEPTH = 512;
+
+    private static final int INDEFINITE = 31;
+
+    private final InputStream in;
+    private byte[] buffer;
+    private int position = 0;
+    private int limit = 0;
+
+    /**
+     * Constructs a new reader. The stream is buffered internally with a pooled buffer that is returned by {@link #close()}.
+     *
+     * @param in The stream containing the CBOR data items.
+     */
+    CborReader(InputStream in) {
+        this.in = in;
+        this.buffer = BufferPool.acquire();
+    }
+
+    /**
+     * Checks whether the stream has no more data.
+     *
+     * @return {@code true} if the end of the stream has been reached.
+     * @throws IOException If reading from the stream fails.
+     */
+    boolean isAtEnd() throws IOException {
+        return position == limit && !fill();
+    }
+
+    /**
+     * Returns the next initial byte without consuming it.
+     *
+     * @return The next byte.
+     * @throws IOException If reading from the stream fails or it has ended.
+     */
+    int peekByte() throws IOException {
+        if (isAtEnd()) {
+            throw new EOFException("Unexpected end of CBOR data");
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    /**
+     * Consumes one byte.
+     *
+     * @return The byte.
+     * @throws IOException If reading from the stream fails or it has ended.
+     */
+    int readByte() throws IOException {
+        if (position == limit && !fill()) {
+            throw new EOFException("Unexpected end of CBOR data");
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    /**
+     * Refills the buffer from the stream.
+     *
+     * @return {@code false} if the stream has ended.
+     */
+    private boolean fill() throws IOException {
+        if (buffer == null) {
+            throw new IOException("Reader has already been closed");
+        }
+        int read = in.read(buffer, 0, buffer.length);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0 || (read == 0 && fill());
+    }
+
+    /**
+     * Returns the buffer to the pool. The underlying stream stays open.
+     */
+    @Override
+    public void close() {
+        if (buffer != null) {
+            BufferPool.release(buffer);
+            buffer = null;
+        }
+    }
+
+    /**
+     * Reads the header of an array.
+     *
+     * @return The number of items, or {@code -1} for an indefinite-length array terminated by a break.
+     * @throws IOException If the next data item is not an array.
+     */
+    long readArrayHeader() throws IOException {
+        int initial = readByte();
+        if (initial >> 5 != CborWriter.MAJOR_ARRAY) {
+            throw new IOException("Expected a CBOR array but found major type " + (initial >> 5));
+        }
+        return (initial & 0x1F) == INDEFINITE ? -1 : readArgument(initial & 0x1F);
+    }
+
+    /**
+     * Decodes the next data item.
+     *
+     * @return The decoded item.
+     * @throws IOException If reading fails or the data is malformed.
+     */
+    JsonElement readItem() throws IOException {
+        return readItem(readByte(), 0);
+    }
+
+    private JsonElement readItem(int initial, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("CBOR data is nested deeper than " + MAX_DEPTH + " levels");
+        }
+
+        int majorType = initial >> 5;
+        int additional = initial & 0x1F;
+        return switch (majorType) {
+            case CborWriter.MAJOR_UNSIGNED -> {
+                long value = readArgument(additional);
+                yield new JsonPrimitive(value >= 0 ? (Number) value : unsigned(value));
+            }
+            case CborWriter.MAJOR_NEGATIVE -> {
+                long value = readArgument(additional);
+                yield new JsonPrimitive(value >= 0 ? (Number) (-1 - value) : unsigned(value).negate().subtract(BigInteger.ONE));
+            }
+            case CborWriter.MAJOR_BYTES -> {
+                byte[] bytes = readString(CborWriter.MAJOR_BYTES, additional);
+                JsonArray array = new JsonArray(bytes.length);
+                for (byte b : bytes) {
+                    array.add(b);
+                }
+                yield array;
+            }
+            case CborWriter.MAJOR_TEXT -> new JsonPrimitive(new String(readString(CborWriter.MAJOR_TEXT, additional), StandardCharsets.UTF_8));
+            case CborWriter.MAJOR_ARRAY -> {
+                JsonArray array = new JsonArray();
+                if (additional == INDEFINITE) {
+                    for (int next = readByte(); next != CborWriter.BREAK; next = readByte()) {
+                        array.add(readItem(next, depth + 1));
+                    }
+                } else {
+                    for (long i = readArgument(additional); i > 0; i--) {
+                        array.add(readItem(readByte(), depth + 1));
+                    }
+                }
+                yield array;
+            }
+            case CborWriter.MAJOR_MAP -> {
+                JsonObject object = new JsonObject();
+                if (additional == INDEFINITE) {
+                    for (int next = readByte(); next != CborWriter.BREAK; next = readByte()) {
+                        object.add(readKey(next, depth), readItem(readByte(), depth + 1));
+                    }
+                } else {
+                    for (long i = readArgument(additional); i > 0; i--) {
+                        object.add(readKey(readByte(), depth), readItem(readByte(), depth + 1));
+                    }
+                }
+                yield object;
+            }
+            case CborWriter.MAJOR_TAG -> readTagged(readArgument(additional), depth);
+            default -> readSimple(additional);
+        };
+    }
+
+    private String readKey(int initial, int depth) throws IOException {
+        JsonElement key = readItem(initial, depth + 1);
+        // JSON object keys are strings, other CBOR keys are converted to their textual representation
+        return key.isJsonPrimitive() ? key.getAsString() : key.toString();
+    }
+
+    private JsonElement readTagged(long tag, int depth) throws IOException {
+        JsonElement content = readItem(readByte(), depth + 1);
+
+        if ((tag == CborWriter.TAG_POSITIVE_BIGNUM || tag == CborWriter.TAG_NEGATIVE_BIGNUM) && content.isJsonArray()) {
+            JsonArray bytes = content.getAsJsonArray();
+            byte[] magnitude = new byte[bytes.size()];
+            for (int i = 0; i < magnitude.length; i++) {
+                magnitude[i] = bytes.get(i).getAsByte();
+            }
+            BigInteger value = new BigInteger(1, magnitude);
+            return new JsonPrimitive(tag == CborWriter.TAG_POSITIVE_BIGNUM ? value : value.negate().subtract(BigInteger.ONE));
+        }
+
+        if (tag == CborWriter.TAG_DECIMAL_FRACTION && content.isJsonArray() && content.getAsJsonArray().size() == 2) {
+            JsonArray fraction = content.getAsJsonArray();
+            int exponent = fraction.get(0).getAsInt();
+            return new JsonPrimitive(new BigDecimal(fraction.get(1).getAsBigInteger(), -exponent));
+        }
+
+        // Other tags only add semantics to the content, e.g. date/time strings
+        return content;
+    }
+
+    private JsonElement readSimple(int additional) throws IOException {
+        return switch (additional) {
+            case 20 -> new JsonPrimitive(false);
+            case 21 -> new JsonPrimitive(true);
+            case 22, 23 -> JsonNull.INSTANCE;
+            case 25 -> new JsonPrimitive(halfToFloat((int) readRaw(2)));
+            case 26 -> new JsonPrimitive(Float.intBitsToFloat((int) readRaw(4)));
+            case 27 -> new JsonPrimitive(Double.longBitsToDouble(readRaw(8)));
+            case INDEFINITE -> throw new IOException("Unexpected CBOR break");
+            default -> throw new IOException("Unsupported CBOR simple value " + additional);
+        };
+    }
+
+    private byte[] readString(int majorType, int additional) throws IOException {
+        if (additional != INDEFINITE) {
+            return readBytes(readArgument(additional));
+        }
+
+        // Indefinite-length strings are a sequence of definite-length chunks of the same major type
+        ByteArrayOutputStream chunks = new ByteArrayOutputStream();
+        for (int next = readByte(); next != CborWriter.BREAK; next = readByte()) {
+            if (next >> 5 != majorType || (next & 0x1F) == INDEFINITE) {
+                throw new IOException("Malformed indefinite-length CBOR string");
+            }
+            chunks.writeBytes(readBytes(readArgument(next & 0x1F)));
+        }
+        return chunks.toByteArray();
+    }
+
+    private byte[] readBytes(long length) throws IOException {
+        if (length < 0 || length > Integer.MAX_VALUE - 8) {
+            throw new IOException("CBOR string of " + Long.toUnsignedString(length) + " bytes is too large");
+        }
+        int buffered = Math.min(limit - position, (int) length);
+        if (buffered == length) {
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + buffered);
+            position += buffered;
+            return bytes;
+        }
+
+        // readNBytes grows its buffer as data arrives instead of trusting the announced length
+        byte[] rest = in.readNBytes((int) length - buffered);
+        if (rest.length != length - buffered) {
+            throw new EOFException("Unexpected end of CBOR data");
+        }
+        byte[] bytes = new byte[(int) length];
+        System.arraycopy(buffer, position, bytes, 0, buffered);
+        System.arraycopy(rest, 0, bytes, buffered, rest.length);
+        position += buffered;
+        return bytes;
+    }
+
+    /**
+     * Reads the argument of an initial byte. Arguments of 8 bytes may be negative when interpreted as signed.
+     */
+    private long readArgument(int additional) throws IOException {
+        if (additional < 24) {
+            return additional;
+        }
+        return switch (additional) {
+            case 24 -> readRaw(1);
+            case 25 -> readRaw(2);
+            case 26 -> readRaw(4);
+            case 27 -> readRaw(8);
+            default -> throw new IOException("Malformed CBOR argument " + additional);
+        };
+    }
+
+    private long readRaw(int bytes) throws IOException {
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = (value << 8) | readByte();
+        }
+        return value;
+    }
+
+    private static BigInteger unsigned(long value) {
+        return new BigInteger(Long.toUnsignedString(value));
+    }
+
+    private static float halfToFloat(int half) {
+        int exponent = (half >> 10) & 0x1F;
+        int mantissa = half & 0x3FF;
+        float value;
+        if (exponent == 0) {
+            value = mantissa * 0x1p-24f;
+        } else if (exponent == 31) {
+            value = mantissa == 0 ? Float.POSITIVE_INFINITY : Float.NaN;
+        } else {
+            value = (1 + mantissa / 1024f) * (float) Math.pow(2, exponent - 15);
+        }
+        return (half & 0x8000) != 0 ? -value : value;
+    }
+}
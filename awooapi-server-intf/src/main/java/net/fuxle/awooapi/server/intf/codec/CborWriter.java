@@ -0,0 +1,399 @@
+package net.fuxle.awooapi.server.intf.codec;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link JsonWriter} that emits CBOR (RFC 8949) instead of JSON text, so every Gson type adapter can write CBOR.
+ * <p>
+ * Objects and arrays are written with indefinite length, as their size is not known upfront. Integers use the
+ * shortest encoding, floating point numbers are written as single precision if that is lossless, {@link BigInteger}
+ * and {@link BigDecimal} use the bignum and decimal fraction tags. Output is collected in a pooled buffer that is
+ * drained into the target stream; like {@link Utf8StreamWriter}, closing does not close the stream.
+ */
+class CborWriter extends JsonWriter {
+
+    static final int MAJOR_UNSIGNED = 0;
+    static final int MAJOR_NEGATIVE = 1;
+    static final int MAJOR_BYTES = 2;
+    static final int MAJOR_TEXT = 3;
+    static final int MAJOR_ARRAY = 4;
+    static final int MAJOR_MAP = 5;
+    static final int MAJOR_TAG = 6;
+
+    static final int INDEFINITE_ARRAY = 0x9F;
+    static final int INDEFINITE_MAP = 0xBF;
+    static final int BREAK = 0xFF;
+    static final int FALSE = 0xF4;
+    static final int TRUE = 0xF5;
+    static final int NULL = 0xF6;
+    static final int FLOAT32 = 0xFA;
+    static final int FLOAT64 = 0xFB;
+
+    static final int TAG_POSITIVE_BIGNUM = 2;
+    static final int TAG_NEGATIVE_BIGNUM = 3;
+    static final int TAG_DECIMAL_FRACTION = 4;
+
+    private final OutputStream out;
+    private byte[] buffer;
+    private int position = 0;
+    private String deferredName;
+
+    /**
+     * Constructs a new writer draining into the given stream.
+     *
+     * @param out The stream receiving the CBOR bytes.
+     */
+    CborWriter(OutputStream out) {
+        super(Writer.nullWriter());
+        this.out = out;
+        this.buffer = BufferPool.acquire();
+    }
+
+    @Override
+    public JsonWriter beginArray() throws IOException {
+        writeDeferredName();
+        writeByte(INDEFINITE_ARRAY);
+        return this;
+    }
+
+    @Override
+    public JsonWriter endArray() throws IOException {
+        writeByte(BREAK);
+        return this;
+    }
+
+    @Override
+    public JsonWriter beginObject() throws IOException {
+        writeDeferredName();
+        writeByte(INDEFINITE_MAP);
+        return this;
+    }
+
+    @Override
+    public JsonWriter endObject() throws IOException {
+        if (deferredName != null) {
+            throw new IllegalStateException("Dangling name: " + deferredName);
+        }
+        writeByte(BREAK);
+        return this;
+    }
+
+    @Override
+    public JsonWriter name(String name) {
+        Objects.requireNonNull(name, "name == null");
+        if (deferredName != null) {
+            throw new IllegalStateException("Already wrote a name, expecting a value");
+        }
+        deferredName = name;
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        writeDeferredName();
+        writeText(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter jsonValue(String value) {
+        throw new UnsupportedOperationException("Raw JSON values cannot be written as CBOR");
+    }
+
+    @Override
+    public JsonWriter nullValue() throws IOException {
+        if (deferredName != null) {
+            if (!getSerializeNulls()) {
+                // Skip the name and the value, as the JSON writer does
+                deferredName = null;
+                return this;
+            }
+            writeDeferredName();
+        }
+        writeByte(NULL);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(boolean value) throws IOException {
+        writeDeferredName();
+        writeByte(value ? TRUE : FALSE);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Boolean value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        return value(value.booleanValue());
+    }
+
+    @Override
+    public JsonWriter value(float value) throws IOException {
+        writeDeferredName();
+        writeFloatingPoint(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(double value) throws IOException {
+        writeDeferredName();
+        writeFloatingPoint(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(long value) throws IOException {
+        writeDeferredName();
+        writeInteger(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Number value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        writeDeferredName();
+
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                || value instanceof AtomicInteger || value instanceof AtomicLong) {
+            writeInteger(value.longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            writeFloatingPoint(value.doubleValue());
+        } else if (value instanceof BigInteger bigInteger) {
+            writeBigInteger(bigInteger);
+        } else if (value instanceof BigDecimal bigDecimal) {
+            writeBigDecimal(bigDecimal);
+        } else {
+            // E.g. numbers parsed lazily by Gson, keep them exact
+            writeNumberString(value.toString());
+        }
+        return this;
+    }
+
+    /**
+     * Drains the buffered bytes into the underlying stream without flushing it.
+     *
+     * @throws IOException If writing to the stream fails.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        drain();
+    }
+
+    /**
+     * Drains the remaining bytes and returns the buffer to the pool. The underlying stream stays open.
+     *
+     * @throws IOException If writing to the stream fails.
+     */
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            drain();
+        } finally {
+            BufferPool.release(buffer);
+            buffer = null;
+        }
+    }
+
+    private void writeDeferredName() throws IOException {
+        if (deferredName != null) {
+            String name = deferredName;
+            deferredName = null;
+            writeText(name);
+        }
+    }
+
+    private void writeInteger(long value) throws IOException {
+        if (value >= 0) {
+            writeTypeAndArgument(MAJOR_UNSIGNED, value);
+        } else {
+            // -1 - value cannot overflow, even for Long.MIN_VALUE
+            writeTypeAndArgument(MAJOR_NEGATIVE, -1 - value);
+        }
+    }
+
+    private void writeFloatingPoint(double value) throws IOException {
+        float single = (float) value;
+        if (single == value || Double.isNaN(value)) {
+            ensureCapacity(5);
+            buffer[position++] = (byte) FLOAT32;
+            writeRaw(Float.floatToIntBits(single), 4);
+        } else {
+            ensureCapacity(9);
+            buffer[position++] = (byte) FLOAT64;
+            writeRaw(Double.doubleToLongBits(value), 8);
+        }
+    }
+
+    private void writeBigInteger(BigInteger value) throws IOException {
+        if (value.bitLength() < 64) {
+            writeInteger(value.longValue());
+            return;
+        }
+        boolean negative = value.signum() < 0;
+        BigInteger magnitude = negative ? value.negate().subtract(BigInteger.ONE) : value;
+        byte[] bytes = magnitude.toByteArray();
+        // Strip the sign byte of the two's complement representation
+        int offset = bytes[0] == 0 ? 1 : 0;
+        writeTypeAndArgument(MAJOR_TAG, negative ? TAG_NEGATIVE_BIGNUM : TAG_POSITIVE_BIGNUM);
+        writeTypeAndArgument(MAJOR_BYTES, bytes.length - offset);
+        writeBytes(bytes, offset, bytes.length - offset);
+    }
+
+    private void writeBigDecimal(BigDecimal value) throws IOException {
+        // Decimal fraction: [exponent, mantissa] with value = mantissa * 10^exponent
+        writeTypeAndArgument(MAJOR_TAG, TAG_DECIMAL_FRACTION);
+        writeTypeAndArgument(MAJOR_ARRAY, 2);
+        writeInteger(-(long) value.scale());
+        writeBigInteger(value.unscaledValue());
+    }
+
+    private void writeNumberString(String number) throws IOException {
+        try {
+            writeInteger(Long.parseLong(number));
+        } catch (NumberFormatException e) {
+            writeBigDecimal(new BigDecimal(number));
+        }
+    }
+
+    private void writeText(String value) throws IOException {
+        int length = value.length();
+        writeTypeAndArgument(MAJOR_TEXT, utf8Length(value));
+        for (int i = 0; i < length; i++) {
+            ensureCapacity(4);
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else {
+                    // Unpaired surrogate, replace it like the JDK encoders do
+                    buffer[position++] = '?';
+                }
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Calculates the number of bytes of the UTF-8 encoding of the given string, as written by {@link #writeText(String)}.
+     */
+    private static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    bytes += 1;
+                } else if (Character.isSurrogate(c)) {
+                    if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        // Two chars, four bytes
+                        bytes += 2;
+                        i++;
+                    }
+                } else {
+                    bytes += 2;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes an initial byte with the given major type and the shortest encoding of the argument.
+     */
+    void writeTypeAndArgument(int majorType, long argument) throws IOException {
+        ensureCapacity(9);
+        int type = majorType << 5;
+        if (argument < 24) {
+            buffer[position++] = (byte) (type | (int) argument);
+        } else if (argument <= 0xFFL) {
+            buffer[position++] = (byte) (type | 24);
+            writeRaw(argument, 1);
+        } else if (argument <= 0xFFFFL) {
+            buffer[position++] = (byte) (type | 25);
+            writeRaw(argument, 2);
+        } else if (argument <= 0xFFFFFFFFL) {
+            buffer[position++] = (byte) (type | 26);
+            writeRaw(argument, 4);
+        } else {
+            buffer[position++] = (byte) (type | 27);
+            writeRaw(argument, 8);
+        }
+    }
+
+    /**
+     * Writes a raw initial byte, e.g. a simple value or a break marker.
+     */
+    void writeByte(int value) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeRaw(long value, int bytes) {
+        for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+        if (length > buffer.length - position) {
+            drain();
+            out.write(bytes, offset, length);
+        } else {
+            System.arraycopy(bytes, offset, buffer, position, length);
+            position += length;
+        }
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        ensureOpen();
+        if (position + bytes > buffer.length) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("Writer has already been closed");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package net.fuxle.awooapi.server.intf.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Default {@link JsonSequenceWriter} that serializes every value with {@link JsonCodec#write(Object, OutputStream)}
+ * and adds the delimiters of the {@link StreamFormat} around them.
+ */
+class DelimitedSequenceWriter implements JsonSequenceWriter {
+
+    private final JsonCodec codec;
+    private final OutputStream out;
+    private final StreamFormat format;
+    private boolean first = true;
+    private boolean closed = false;
+
+    /**
+     * Constructs a new sequence writer and writes the opening delimiter, if any.
+     *
+     * @param codec  The codec serializing the values.
+     * @param out    The stream to write to.
+     * @param format The format of the sequence.
+     * @throws IOException If writing to the stream fails.
+     */
+    DelimitedSequenceWriter(JsonCodec codec, OutputStream out, StreamFormat format) throws IOException {
+        this.codec = codec;
+        this.out = out;
+        this.format = format;
+        if (format == StreamFormat.JSON_ARRAY) {
+            out.write('[');
+        }
+    }
+
+    @Override
+    public void write(Object value) throws IOException {
+        if (closed) {
+            throw new IOException("Sequence has already been closed");
+        }
+        if (format == StreamFormat.JSON_ARRAY && !first) {
+            out.write(',');
+        }
+        first = false;
+        codec.write(value, out);
+        if (format == StreamFormat.NDJSON) {
+            out.write('\n');
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (format == StreamFormat.JSON_ARRAY) {
+            out.write(']');
+        }
+    }
+}
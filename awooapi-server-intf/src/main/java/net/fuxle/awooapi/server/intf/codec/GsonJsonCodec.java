@@ -0,0 +1,206 @@
+package net.fuxle.awooapi.server.intf.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.Strictness;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Type;
+import java.util.NoSuchElementException;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Default {@link JsonCodec} implementation backed by Gson.
+ * Values are streamed through a {@link JsonWriter}/{@link JsonReader} pair, so no intermediate {@code String} is created.
+ * Output is UTF-8 encoded into a pooled buffer that is drained into the target stream.
+ */
+public class GsonJsonCodec implements JsonCodec {
+
+    private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * The media type produced and consumed by this codec.
+     */
+    public static final String CONTENT_TYPE = "application/json";
+
+    private final Gson gson;
+
+    /**
+     * Constructs a new codec using a default {@link Gson} instance.
+     * All {@link TypeAdapterFactory} services on the class path, such as the reflection-free adapters generated by the
+     * AwooAPI annotation processor, are registered with it.
+     */
+    public GsonJsonCodec() {
+        this(createDefaultGson());
+    }
+
+    /**
+     * Constructs a new codec using the given, preconfigured {@link Gson} instance.
+     *
+     * @param gson The Gson instance used for serialization and deserialization.
+     */
+    public GsonJsonCodec(Gson gson) {
+        this.gson = gson;
+    }
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public void write(Object value, OutputStream out) throws IOException {
+        // Closing the UTF-8 writer drains its pooled buffer into the stream, but leaves the stream itself open
+        try (Writer writer = new Utf8StreamWriter(out)) {
+            JsonWriter jsonWriter = gson.newJsonWriter(writer);
+            if (value == null) {
+                jsonWriter.nullValue();
+            } else {
+                gson.toJson(value, value.getClass(), jsonWriter);
+            }
+        } catch (JsonParseException e) {
+            throw new IOException("Unable to serialize value of type " + (value == null ? "null" : value.getClass().getName()), e);
+        }
+    }
+
+    @Override
+    public <T> T read(InputStream in, Type type) throws IOException {
+        JsonReader jsonReader = gson.newJsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try {
+            return gson.fromJson(jsonReader, type);
+        } catch (JsonParseException e) {
+            throw new IOException("Unable to deserialize request body into " + type.getTypeName(), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Both formats are parsed by a single {@link JsonReader}; for {@link StreamFormat#NDJSON} the reader is lenient,
+     * so it accepts multiple top-level values separated by whitespace.
+     */
+    @Override
+    public <T> JsonSequenceReader<T> openSequence(InputStream in, Type type, StreamFormat format) {
+        JsonReader jsonReader = gson.newJsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        if (format == StreamFormat.NDJSON) {
+            jsonReader.setStrictness(Strictness.LENIENT);
+        }
+        return new GsonSequenceReader<>(jsonReader, type, format);
+    }
+
+    /**
+     * Reads a JSON array or newline delimited JSON value by value.
+     */
+    private final class GsonSequenceReader<T> implements JsonSequenceReader<T> {
+        private final JsonReader jsonReader;
+        private final Type type;
+        private final StreamFormat format;
+        private boolean started = false;
+        private boolean finished = false;
+
+        GsonSequenceReader(JsonReader jsonReader, Type type, StreamFormat format) {
+            this.jsonReader = jsonReader;
+            this.type = type;
+            this.format = format;
+        }
+
+        @Override
+        public boolean hasNext() throws IOException {
+            if (finished) {
+                return false;
+            }
+            try {
+                if (!started) {
+                    started = true;
+                    // An empty body is an empty sequence
+                    if (isEmptyDocument()) {
+                        finished = true;
+                        return false;
+                    }
+                    if (format == StreamFormat.JSON_ARRAY) {
+                        jsonReader.beginArray();
+                    }
+                }
+
+                boolean hasNext = format == StreamFormat.JSON_ARRAY ? jsonReader.hasNext() : jsonReader.peek() != JsonToken.END_DOCUMENT;
+                if (!hasNext) {
+                    finished = true;
+                    if (format == StreamFormat.JSON_ARRAY) {
+                        jsonReader.endArray();
+                    }
+                }
+                return hasNext;
+            } catch (IllegalStateException | JsonParseException e) {
+                throw new IOException("Malformed " + format + " request body", e);
+            }
+        }
+
+        private boolean isEmptyDocument() throws IOException {
+            try {
+                return jsonReader.peek() == JsonToken.END_DOCUMENT;
+            } catch (EOFException e) {
+                // Strict readers reject an empty document instead of reporting its end
+                return true;
+            }
+        }
+
+        @Override
+        public T next() throws IOException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more values in sequence");
+            }
+            try {
+                return gson.fromJson(jsonReader, type);
+            } catch (JsonParseException e) {
+                throw new IOException("Unable to deserialize sequence value into " + type.getTypeName(), e);
+            }
+        }
+
+        @Override
+        public void close() {
+            finished = true;
+        }
+    }
+
+    /**
+     * Creates a default {@link Gson} instance with all {@link TypeAdapterFactory} services registered.
+     *
+     * @return The Gson instance.
+     */
+    private static Gson createDefaultGson() {
+        GsonBuilder builder = new GsonBuilder();
+        try {
+            for (TypeAdapterFactory factory : ServiceLoader.load(TypeAdapterFactory.class)) {
+                log.debug("Registering generated JSON adapters {}", factory.getClass().getName());
+                builder.registerTypeAdapterFactory(factory);
+            }
+        } catch (ServiceConfigurationError e) {
+            log.warn("Unable to load generated JSON adapters, falling back to reflection", e);
+        }
+        return builder.create();
+    }
+
+    /**
+     * Retrieves the {@link Gson} instance backing this codec.
+     *
+     * @return The Gson instance.
+     */
+    public Gson getGson() {
+        return gson;
+    }
+}
@@ -0,0 +1,126 @@
+package net.fuxle.awooapi.server.intf.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Service provider interface for the JSON engine used by AwooAPI to read request bodies and write response bodies.
+ * Implementations serialize straight into an {@link OutputStream} and deserialize straight from an {@link InputStream},
+ * so a response does not have to be materialized as an intermediate {@code String} or byte array.
+ * <p>
+ * A custom engine can be plugged in by registering it as a {@link java.util.ServiceLoader} provider of this interface
+ * or by calling {@link JsonCodecs#setDefault(JsonCodec)}. Codecs for other representations, such as the built-in
+ * {@link CborCodec}, implement this interface as well and are selected by content negotiation, see
+ * {@link JsonCodecs#negotiate(String)}. Implementations must be thread-safe.
+ */
+public interface JsonCodec {
+
+    /**
+     * Retrieves the media type produced and consumed by this codec.
+     *
+     * @return The media type, e.g. {@code application/json}.
+     */
+    String getContentType();
+
+    /**
+     * Retrieves the media type of a sequence written in the given format, see {@link #openSequence(OutputStream, StreamFormat)}.
+     *
+     * @param format The format of the sequence.
+     * @return The media type, by default {@code application/x-ndjson} for {@link StreamFormat#NDJSON} and
+     * {@link #getContentType()} otherwise.
+     */
+    default String getContentType(StreamFormat format) {
+        return format == StreamFormat.NDJSON ? format.getContentType() : getContentType();
+    }
+
+    /**
+     * Retrieves all media types this codec can read and write, used for content negotiation by {@link JsonCodecs}.
+     *
+     * @return The media types, by default the media types of the single value and the sequence formats.
+     */
+    default List<String> getMediaTypes() {
+        String contentType = getContentType();
+        String sequenceContentType = getContentType(StreamFormat.NDJSON);
+        return contentType.equals(sequenceContentType) ? List.of(contentType) : List.of(contentType, sequenceContentType);
+    }
+
+    /**
+     * Serializes the given value into the output stream. All bytes are written to the stream, which is neither
+     * flushed nor closed, so the server can still decide how to frame the response.
+     *
+     * @param value The value to serialize, may be {@code null}.
+     * @param out   The stream to write the serialized value to.
+     * @throws IOException If writing to the stream fails.
+     */
+    void write(Object value, OutputStream out) throws IOException;
+
+    /**
+     * Deserializes a value of the given type from the input stream. The stream is not closed.
+     *
+     * @param <T>  The type of the deserialized value.
+     * @param in   The stream to read the value from.
+     * @param type The type of the value, may be a parameterized type.
+     * @return The deserialized value, or {@code null} if the stream contains no value.
+     * @throws IOException If reading from the stream fails or the content is malformed.
+     */
+    <T> T read(InputStream in, Type type) throws IOException;
+
+    /**
+     * Deserializes a value of the given class from the input stream. The stream is not closed.
+     *
+     * @param <T>         The type of the deserialized value.
+     * @param in          The stream to read the value from.
+     * @param targetClass The class of the value.
+     * @return The deserialized value, or {@code null} if the stream contains no value.
+     * @throws IOException If reading from the stream fails or the content is malformed.
+     */
+    default <T> T read(InputStream in, Class<T> targetClass) throws IOException {
+        return read(in, (Type) targetClass);
+    }
+
+    /**
+     * Serializes the given value into a byte array. Prefer {@link #write(Object, OutputStream)} when a stream is available.
+     *
+     * @param value The value to serialize, may be {@code null}.
+     * @return The serialized value.
+     * @throws IOException If serialization fails.
+     */
+    default byte[] toBytes(Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        write(value, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Opens a writer for a sequence of values that are serialized one at a time into the output stream,
+     * e.g. to stream a large result set without collecting it first.
+     *
+     * @param out    The stream to write the sequence to; it is not closed when the sequence is closed.
+     * @param format The wire format of the sequence.
+     * @return The sequence writer.
+     * @throws IOException If writing to the stream fails.
+     */
+    default JsonSequenceWriter openSequence(OutputStream out, StreamFormat format) throws IOException {
+        return new DelimitedSequenceWriter(this, out, format);
+    }
+
+    /**
+     * Opens a reader for a sequence of values that are deserialized one at a time from the input stream,
+     * e.g. to ingest a large request body with bounded memory.
+     *
+     * @param <T>    The type of the values.
+     * @param in     The stream to read the sequence from; it is not closed when the reader is closed.
+     * @param type   The type of the values, may be a parameterized type.
+     * @param format The wire format of the sequence.
+     * @return The sequence reader.
+     * @throws IOException                   If reading from the stream fails.
+     * @throws UnsupportedOperationException If this codec cannot read sequences incrementally.
+     */
+    default <T> JsonSequenceReader<T> openSequence(InputStream in, Type type, StreamFormat format) throws IOException {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support reading sequences");
+    }
+}
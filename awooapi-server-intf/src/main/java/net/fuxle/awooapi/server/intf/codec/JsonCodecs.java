@@ -0,0 +1,214 @@
+package net.fuxle.awooapi.server.intf.codec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Holds the {@link JsonCodec} used across AwooAPI and the additional codecs available for content negotiation.
+ * <p>
+ * On first access the codec is discovered using {@link ServiceLoader}; if no provider is registered,
+ * the Gson based {@link GsonJsonCodec} is used. The codec can also be replaced programmatically
+ * before the web server is started.
+ * <p>
+ * Besides the default codec, the built-in {@link CborCodec} and all codecs added with {@link #register(JsonCodec)}
+ * can be selected by clients through the {@code Accept} and {@code Content-Type} headers.
+ */
+public final class JsonCodecs {
+
+    private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static volatile JsonCodec defaultCodec;
+    private static volatile JsonCodec cborCodec;
+    private static final List<JsonCodec> registeredCodecs = new CopyOnWriteArrayList<>();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private JsonCodecs() {
+    }
+
+    /**
+     * Retrieves the codec used for reading and writing JSON bodies.
+     *
+     * @return The active {@link JsonCodec}.
+     */
+    public static JsonCodec getDefault() {
+        JsonCodec codec = defaultCodec;
+        if (codec == null) {
+            synchronized (JsonCodecs.class) {
+                codec = defaultCodec;
+                if (codec == null) {
+                    codec = loadCodec();
+                    defaultCodec = codec;
+                }
+            }
+        }
+        return codec;
+    }
+
+    /**
+     * Replaces the codec used for reading and writing JSON bodies.
+     *
+     * @param codec The codec to use, must not be {@code null}.
+     */
+    public static void setDefault(JsonCodec codec) {
+        if (codec == null) {
+            throw new IllegalArgumentException("JSON codec cannot be null");
+        }
+        defaultCodec = codec;
+    }
+
+    /**
+     * Registers an additional codec for content negotiation. Codecs registered later take precedence
+     * over codecs registered earlier and over the built-in {@link CborCodec} for the same media type.
+     *
+     * @param codec The codec to register, must not be {@code null}.
+     */
+    public static void register(JsonCodec codec) {
+        if (codec == null) {
+            throw new IllegalArgumentException("Codec cannot be null");
+        }
+        registeredCodecs.addFirst(codec);
+    }
+
+    /**
+     * Retrieves all codecs available for content negotiation, starting with the default codec.
+     *
+     * @return The available codecs in order of precedence.
+     */
+    public static List<JsonCodec> getCodecs() {
+        List<JsonCodec> codecs = new ArrayList<>(registeredCodecs.size() + 2);
+        codecs.add(getDefault());
+        codecs.addAll(registeredCodecs);
+        codecs.add(getCborCodec());
+        return codecs;
+    }
+
+    /**
+     * Selects the codec for a request body with the given {@code Content-Type}.
+     *
+     * @param contentType The value of the {@code Content-Type} header, may be {@code null}.
+     * @return The codec handling the media type, or the default codec if the media type is unknown or missing.
+     */
+    public static JsonCodec forContentType(String contentType) {
+        JsonCodec defaultCodec = getDefault();
+        if (contentType == null || contentType.isEmpty()) {
+            return defaultCodec;
+        }
+        JsonCodec codec = findCodec(mediaTypeOf(contentType));
+        return codec != null ? codec : defaultCodec;
+    }
+
+    /**
+     * Selects the codec for a response according to the {@code Accept} header of the request.
+     * Quality values are honored; wildcards and unsupported media types select the default codec.
+     *
+     * @param accept The value of the {@code Accept} header, may be {@code null}.
+     * @return The codec producing the preferred supported media type.
+     */
+    public static JsonCodec negotiate(String accept) {
+        JsonCodec defaultCodec = getDefault();
+        // Fast path for clients that do not ask for anything in particular
+        if (accept == null || accept.isEmpty() || accept.equals("*/*") || accept.equals(defaultCodec.getContentType())) {
+            return defaultCodec;
+        }
+
+        JsonCodec best = defaultCodec;
+        double bestQuality = -1;
+        for (String range : accept.split(",")) {
+            String mediaType = mediaTypeOf(range);
+            double quality = qualityOf(range);
+            if (quality <= bestQuality) {
+                // Earlier entries win on equal quality
+                continue;
+            }
+
+            JsonCodec codec = mediaType.equals("*/*") || mediaType.equals("application/*") ? defaultCodec : findCodec(mediaType);
+            if (codec != null && quality > 0) {
+                best = codec;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    private static JsonCodec findCodec(String mediaType) {
+        JsonCodec defaultCodec = getDefault();
+        if (defaultCodec.getMediaTypes().contains(mediaType)) {
+            return defaultCodec;
+        }
+        for (JsonCodec codec : registeredCodecs) {
+            if (codec.getMediaTypes().contains(mediaType)) {
+                return codec;
+            }
+        }
+        JsonCodec cbor = getCborCodec();
+        return cbor.getMediaTypes().contains(mediaType) ? cbor : null;
+    }
+
+    /**
+     * Extracts the lower-case media type without parameters, e.g. {@code application/json} from {@code application/json; charset=utf-8}.
+     */
+    static String mediaTypeOf(String value) {
+        int parameters = value.indexOf(';');
+        return (parameters >= 0 ? value.substring(0, parameters) : value).trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Extracts the quality value of a media range, defaulting to 1.
+     */
+    static double qualityOf(String range) {
+        String[] parameters = range.split(";");
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Retrieves the built-in CBOR codec, sharing the type adapters of the default codec if it is Gson based.
+     */
+    private static JsonCodec getCborCodec() {
+        JsonCodec codec = cborCodec;
+        if (codec == null) {
+            synchronized (JsonCodecs.class) {
+                codec = cborCodec;
+                if (codec == null) {
+                    codec = new CborCodec(getDefault() instanceof GsonJsonCodec gsonCodec ? gsonCodec.getGson() : new GsonJsonCodec().getGson());
+                    cborCodec = codec;
+                }
+            }
+        }
+        return codec;
+    }
+
+    /**
+     * Discovers a {@link JsonCodec} provider, falling back to Gson.
+     *
+     * @return The discovered codec.
+     */
+    private static JsonCodec loadCodec() {
+        Iterator<JsonCodec> providers = ServiceLoader.load(JsonCodec.class).iterator();
+        if (providers.hasNext()) {
+            JsonCodec codec = providers.next();
+            log.info("Using JSON codec {}", codec.getClass().getName());
+            return codec;
+        }
+        return new GsonJsonCodec();
+    }
+}
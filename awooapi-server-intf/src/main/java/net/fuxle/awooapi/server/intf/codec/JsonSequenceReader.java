@@ -0,0 +1,40 @@
+package net.fuxle.awooapi.server.intf.codec;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads a sequence of values in a {@link StreamFormat} one at a time, so only the current value is held in memory.
+ * Obtained from {@link JsonCodec#openSequence(java.io.InputStream, java.lang.reflect.Type, StreamFormat)}.
+ * The stream is only read as far as values are requested, which gives natural backpressure towards the sender.
+ * Instances are not thread-safe.
+ *
+ * @param <T> The type of the values.
+ */
+public interface JsonSequenceReader<T> extends Closeable {
+
+    /**
+     * Checks whether the sequence has another value.
+     *
+     * @return {@code true} if {@link #next()} returns another value.
+     * @throws IOException If reading from the stream fails or the content is malformed.
+     */
+    boolean hasNext() throws IOException;
+
+    /**
+     * Reads the next value of the sequence.
+     *
+     * @return The next value, may be {@code null} if the sequence contains a JSON {@code null}.
+     * @throws IOException                      If reading from the stream fails or the content is malformed.
+     * @throws java.util.NoSuchElementException If the sequence has no more values.
+     */
+    T next() throws IOException;
+
+    /**
+     * Releases the resources of this reader. The underlying stream is not closed.
+     *
+     * @throws IOException If releasing the resources fails.
+     */
+    @Override
+    void close() throws IOException;
+}
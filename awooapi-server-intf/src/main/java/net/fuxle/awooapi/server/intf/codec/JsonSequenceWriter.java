@@ -0,0 +1,34 @@
+package net.fuxle.awooapi.server.intf.codec;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes a sequence of values incrementally in a {@link StreamFormat}, so the sequence never has to be held in memory.
+ * Obtained from {@link JsonCodec#openSequence(java.io.OutputStream, StreamFormat)}. Instances are not thread-safe.
+ */
+public interface JsonSequenceWriter extends Closeable {
+
+    /**
+     * Writes the next value of the sequence.
+     *
+     * @param value The value to write, may be {@code null}.
+     * @throws IOException If writing to the stream fails.
+     */
+    void write(Object value) throws IOException;
+
+    /**
+     * Flushes the underlying stream, so the values written so far are sent to the client.
+     *
+     * @throws IOException If flushing the stream fails.
+     */
+    void flush() throws IOException;
+
+    /**
+     * Terminates the sequence, e.g. by closing the JSON array. The underlying stream is not closed.
+     *
+     * @throws IOException If writing to the stream fails.
+     */
+    @Override
+    void close() throws IOException;
+}
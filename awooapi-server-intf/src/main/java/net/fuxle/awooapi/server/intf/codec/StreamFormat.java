@@ -0,0 +1,59 @@
+package net.fuxle.awooapi.server.intf.codec;
+
+/**
+ * Wire formats for a sequence of JSON values that is written or read incrementally.
+ */
+public enum StreamFormat {
+
+    /**
+     * A single JSON array, e.g. {@code [{...},{...}]}.
+     */
+    JSON_ARRAY("application/json"),
+
+    /**
+     * Newline delimited JSON, one value per line. Binary codecs write their own delimited sequence format instead,
+     * e.g. a CBOR sequence.
+     */
+    NDJSON("application/x-ndjson");
+
+    private final String contentType;
+
+    StreamFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    /**
+     * Retrieves the media type of this format.
+     *
+     * @return The media type.
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Selects the format requested by an HTTP {@code Accept} or {@code Content-Type} header.
+     * Quality values are honored, earlier media ranges win on equal quality.
+     *
+     * @param mediaType The header value, may be {@code null}.
+     * @return {@link #NDJSON} if the preferred media range is {@code application/x-ndjson} or
+     * {@code application/cbor-seq}, otherwise {@link #JSON_ARRAY}.
+     */
+    public static StreamFormat fromMediaType(String mediaType) {
+        if (mediaType == null || mediaType.isEmpty()) {
+            return JSON_ARRAY;
+        }
+        StreamFormat best = JSON_ARRAY;
+        double bestQuality = 0;
+        for (String range : mediaType.split(",")) {
+            double quality = JsonCodecs.qualityOf(range);
+            if (quality <= bestQuality) {
+                continue;
+            }
+            String type = JsonCodecs.mediaTypeOf(range);
+            best = type.equals(NDJSON.contentType) || type.equals(CborCodec.SEQUENCE_CONTENT_TYPE) ? NDJSON : JSON_ARRAY;
+            bestQuality = quality;
+        }
+        return best;
+    }
+}
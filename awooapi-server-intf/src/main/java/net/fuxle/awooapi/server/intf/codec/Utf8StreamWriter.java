@@ -0,0 +1,146 @@
+package net.fuxle.awooapi.server.intf.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * A {@link Writer} that encodes characters as UTF-8 straight into a pooled byte buffer, which is drained into the
+ * underlying {@link OutputStream} whenever it fills up.
+ * <p>
+ * Unlike {@link java.io.OutputStreamWriter}, this writer does not allocate a {@code CharBuffer} for every small
+ * write issued by a JSON writer, and the byte buffer itself is borrowed from the shared {@link BufferPool}. Instances are not
+ * thread-safe and must be {@link #close() closed} to return the buffer; closing does not close the underlying stream.
+ */
+class Utf8StreamWriter extends Writer {
+
+    private final OutputStream out;
+    private byte[] buffer;
+    private int position = 0;
+    private char pendingHighSurrogate = 0;
+
+    /**
+     * Constructs a new writer draining into the given stream.
+     *
+     * @param out The stream receiving the encoded bytes.
+     */
+    Utf8StreamWriter(OutputStream out) {
+        this.out = out;
+        this.buffer = BufferPool.acquire();
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        writeChar((char) c);
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            writeChar(chars[i]);
+        }
+    }
+
+    @Override
+    public void write(String str, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            writeChar(str.charAt(i));
+        }
+    }
+
+    /**
+     * Encodes a single UTF-16 code unit, combining surrogate pairs across calls.
+     *
+     * @param c The character to encode.
+     * @throws IOException If draining the buffer fails.
+     */
+    private void writeChar(char c) throws IOException {
+        ensureOpen();
+        if (position + 4 > buffer.length) {
+            drain();
+        }
+
+        if (pendingHighSurrogate != 0) {
+            char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                return;
+            }
+            // Unpaired high surrogate, replace it like the JDK encoders do
+            buffer[position++] = '?';
+            if (position + 4 > buffer.length) {
+                drain();
+            }
+        }
+
+        if (c < 0x80) {
+            buffer[position++] = (byte) c;
+        } else if (c < 0x800) {
+            buffer[position++] = (byte) (0xC0 | (c >> 6));
+            buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            pendingHighSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buffer[position++] = '?';
+        } else {
+            buffer[position++] = (byte) (0xE0 | (c >> 12));
+            buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    /**
+     * Writes the buffered bytes to the underlying stream without flushing it.
+     *
+     * @throws IOException If writing to the stream fails.
+     */
+    private void drain() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("Writer has already been closed");
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        drain();
+        out.flush();
+    }
+
+    /**
+     * Drains the remaining bytes and returns the buffer to the pool. The underlying stream stays open.
+     *
+     * @throws IOException If writing to the stream fails.
+     */
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            if (pendingHighSurrogate != 0) {
+                pendingHighSurrogate = 0;
+                if (position == buffer.length) {
+                    drain();
+                }
+                buffer[position++] = '?';
+            }
+            drain();
+        } finally {
+            BufferPool.release(buffer);
+            buffer = null;
+        }
+    }
+}
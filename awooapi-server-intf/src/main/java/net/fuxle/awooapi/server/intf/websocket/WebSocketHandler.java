@@ -0,0 +1,43 @@
+package net.fuxle.awooapi.server.intf.websocket;
+
+import java.util.List;
+
+/**
+ * Handles the WebSocket connections opened on a path. The transport accepting the connections must never invoke the
+ * callbacks of one session concurrently.
+ */
+public interface WebSocketHandler {
+
+    /**
+     * Retrieves the subprotocols this handler speaks, in order of preference.
+     *
+     * @return The supported subprotocols, empty to accept connections without subprotocol.
+     */
+    default List<String> getSubprotocols() {
+        return List.of();
+    }
+
+    /**
+     * Called once the handshake has completed.
+     *
+     * @param session The opened session.
+     */
+    void onOpen(WebSocketSession session);
+
+    /**
+     * Called for every text message received on the session.
+     *
+     * @param session The session that received the message.
+     * @param message The message.
+     */
+    void onMessage(WebSocketSession session, String message);
+
+    /**
+     * Called once the session has been closed, by either side or because the connection failed.
+     *
+     * @param session The closed session.
+     * @param code    The WebSocket close code.
+     * @param reason  The close reason, may be empty.
+     */
+    void onClose(WebSocketSession session, int code, String reason);
+}
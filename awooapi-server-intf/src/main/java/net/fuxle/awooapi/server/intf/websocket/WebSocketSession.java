@@ -0,0 +1,49 @@
+package net.fuxle.awooapi.server.intf.websocket;
+
+import net.fuxle.awooapi.server.intf.Request;
+
+import java.io.IOException;
+
+/**
+ * Represents an open WebSocket connection as seen by a {@link WebSocketHandler}.
+ * Implementations are provided by the web server and must allow sending from any thread, one message at a time.
+ */
+public interface WebSocketSession {
+
+    /**
+     * Retrieves the HTTP request that opened the connection. It remains readable for the lifetime of the session.
+     *
+     * @return The upgrade request.
+     */
+    Request getRequest();
+
+    /**
+     * Retrieves the subprotocol negotiated during the handshake.
+     *
+     * @return The subprotocol, or {@code null} if none was negotiated.
+     */
+    String getSubprotocol();
+
+    /**
+     * Sends a text message, blocking until it has been handed to the network.
+     *
+     * @param message The message to send.
+     * @throws IOException If the message cannot be sent, e.g. because the connection was closed.
+     */
+    void sendText(String message) throws IOException;
+
+    /**
+     * Closes the connection. Closing an already closed connection has no effect.
+     *
+     * @param code   The WebSocket close code.
+     * @param reason The close reason, at most 123 bytes.
+     */
+    void close(int code, String reason);
+
+    /**
+     * Checks whether the connection is still open.
+     *
+     * @return {@code true} if messages can still be sent.
+     */
+    boolean isOpen();
+}
@@ -0,0 +1,89 @@
+package net.fuxle.awooapi.server.intf.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmark comparing encoded size and encode/decode throughput of {@link CborCodec} and {@link GsonJsonCodec}
+ * on representative payloads.
+ * <p>
+ * This is not a unit test. Run it manually, e.g. {@code java ...CborCodecBenchmark}; each measurement runs
+ * for a fixed time after a warm-up phase, so the numbers are only comparable on the same machine.
+ */
+public class CborCodecBenchmark {
+
+    public record Item(long id, String name, double price, boolean available, List<String> tags) {
+    }
+
+    private static final long WARMUP_NANOS = 2_000_000_000L;
+    private static final long MEASURE_NANOS = 3_000_000_000L;
+
+    public static void main(String[] args) throws IOException {
+        Gson gson = new Gson();
+        JsonCodec json = new GsonJsonCodec(gson);
+        JsonCodec cbor = new CborCodec(gson);
+        Type itemList = new TypeToken<List<Item>>() {
+        }.getType();
+
+        Map<String, Object> payloads = new LinkedHashMap<>();
+        payloads.put("small object", new Item(1, "Awoo", 9.99, true, List.of("wolf", "fox")));
+        payloads.put("list of 100", createItems(100));
+        payloads.put("list of 10000", createItems(10_000));
+
+        OutputStream sink = OutputStream.nullOutputStream();
+        for (Map.Entry<String, Object> payload : payloads.entrySet()) {
+            Object value = payload.getValue();
+            Type type = value instanceof List<?> ? itemList : Item.class;
+            byte[] jsonBytes = json.toBytes(value);
+            byte[] cborBytes = cbor.toBytes(value);
+
+            double jsonEncode = throughput(() -> json.write(value, sink));
+            double cborEncode = throughput(() -> cbor.write(value, sink));
+            double jsonDecode = throughput(() -> json.read(new ByteArrayInputStream(jsonBytes), type));
+            double cborDecode = throughput(() -> cbor.read(new ByteArrayInputStream(cborBytes), type));
+
+            System.out.printf("%-14s | size JSON %9d B, CBOR %9d B (%5.1f%%) | encode JSON %10.0f op/s, CBOR %10.0f op/s | decode JSON %10.0f op/s, CBOR %10.0f op/s%n",
+                    payload.getKey(), jsonBytes.length, cborBytes.length, 100.0 * cborBytes.length / jsonBytes.length,
+                    jsonEncode, cborEncode, jsonDecode, cborDecode);
+        }
+    }
+
+    private static List<Item> createItems(int count) {
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new Item(i, "Item #" + i, i * 1.25, i % 2 == 0, List.of("tag" + (i % 7), "category" + (i % 3))));
+        }
+        return items;
+    }
+
+    private static double throughput(IOAction action) throws IOException {
+        run(action, WARMUP_NANOS);
+        long start = System.nanoTime();
+        long operations = run(action, MEASURE_NANOS);
+        return operations * 1e9 / (System.nanoTime() - start);
+    }
+
+    private static long run(IOAction action, long durationNanos) throws IOException {
+        long end = System.nanoTime() + durationNanos;
+        long operations = 0;
+        while (System.nanoTime() < end) {
+            action.run();
+            operations++;
+        }
+        return operations;
+    }
+
+    @FunctionalInterface
+    private interface IOAction {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,165 @@
+package net.fuxle.awooapi.server.intf.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link CborCodec} class. Encoded values are checked against the examples of RFC 8949, Appendix A.
+ */
+public class CborCodecTest {
+
+    public record Pet(String name, int age, List<String> tags, Double weight) {
+    }
+
+    private final CborCodec codec = new CborCodec(new Gson());
+
+    private String hex(Object value) throws IOException {
+        return HexFormat.of().formatHex(codec.toBytes(value));
+    }
+
+    private <T> T decode(String hex, Class<T> type) throws IOException {
+        return codec.read(new ByteArrayInputStream(HexFormat.of().parseHex(hex)), type);
+    }
+
+    @Test
+    public void testEncodeIntegers() throws IOException {
+        assertEquals("00", hex(0));
+        assertEquals("17", hex(23));
+        assertEquals("1818", hex(24));
+        assertEquals("1864", hex(100));
+        assertEquals("1903e8", hex(1000));
+        assertEquals("1a000f4240", hex(1000000));
+        assertEquals("1b000000e8d4a51000", hex(1000000000000L));
+        assertEquals("20", hex(-1));
+        assertEquals("3903e7", hex(-1000));
+        assertEquals("3b7fffffffffffffff", hex(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void testEncodeBignums() throws IOException {
+        assertEquals("c249010000000000000000", hex(new BigInteger("18446744073709551616")));
+        assertEquals("c349010000000000000000", hex(new BigInteger("-18446744073709551617")));
+        assertEquals("c48221196ab3", hex(new BigDecimal("273.15")));
+    }
+
+    @Test
+    public void testEncodeFloatingPoint() throws IOException {
+        assertEquals("fa3fc00000", hex(1.5), "Lossless doubles should use single precision");
+        assertEquals("fb3ff199999999999a", hex(1.1));
+    }
+
+    @Test
+    public void testEncodeSimpleValuesAndText() throws IOException {
+        assertEquals("f4", hex(false));
+        assertEquals("f5", hex(true));
+        assertEquals("f6", hex(null));
+        assertEquals("60", hex(""));
+        assertEquals("6161", hex("a"));
+        assertEquals("62c3bc", hex("ü"));
+        assertEquals("63e6b0b4", hex("水"));
+        assertEquals("64f0908591", hex("𐅑"));
+    }
+
+    @Test
+    public void testEncodeContainers() throws IOException {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("a", 1);
+        map.put("b", List.of(2, 3));
+
+        assertEquals("9f010203ff", hex(List.of(1, 2, 3)));
+        assertEquals("bf61610161629f0203ffff", hex(map));
+    }
+
+    @Test
+    public void testDecodeRfcExamples() throws IOException {
+        assertEquals(1000000000000L, decode("1b000000e8d4a51000", Long.class));
+        assertEquals(new BigInteger("18446744073709551615"), decode("1bffffffffffffffff", BigInteger.class));
+        assertEquals(new BigInteger("-18446744073709551616"), decode("3bffffffffffffffff", BigInteger.class));
+        assertEquals(new BigInteger("18446744073709551616"), decode("c249010000000000000000", BigInteger.class));
+        assertEquals(new BigDecimal("273.15"), decode("c48221196ab3", BigDecimal.class));
+        assertEquals(1.5, decode("f93e00", Double.class), "Half precision floats should be decoded");
+        assertEquals(-4.0, decode("f9c400", Double.class));
+        assertEquals(1.1, decode("fb3ff199999999999a", Double.class));
+        assertEquals("ü", decode("62c3bc", String.class));
+        assertEquals("streaming", decode("7f657374726561646d696e67ff", String.class));
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, decode("5f42010243030405ff", byte[].class));
+        assertEquals(List.of(1.0, 2.0, 3.0), decode("83010203", List.class));
+        assertEquals(Map.of("a", 1.0, "b", List.of(2.0, 3.0)), decode("a26161016162820203", Map.class));
+        assertNull(decode("f6", String.class));
+    }
+
+    @Test
+    public void testRoundTripObject() throws IOException {
+        Pet pet = new Pet("Wölfchen 🐺", 3, List.of("wolf", "fox"), 12.5);
+        byte[] bytes = codec.toBytes(pet);
+
+        assertEquals(pet, codec.read(new ByteArrayInputStream(bytes), Pet.class));
+        assertTrue(bytes.length < new Gson().toJson(pet).getBytes().length, "CBOR should be more compact than JSON");
+    }
+
+    @Test
+    public void testNullFieldsFollowGsonSettings() throws IOException {
+        Pet pet = new Pet("Awoo", 1, List.of(), null);
+
+        assertEquals(pet, codec.read(new ByteArrayInputStream(codec.toBytes(pet)), Pet.class));
+        assertFalse(hex(pet).contains(HexFormat.of().formatHex("weight".getBytes())), "Null fields should be omitted by default");
+
+        CborCodec serializeNulls = new CborCodec(new GsonBuilder().serializeNulls().create());
+        assertTrue(HexFormat.of().formatHex(serializeNulls.toBytes(pet)).contains(HexFormat.of().formatHex("weight".getBytes()) + "f6"));
+    }
+
+    @Test
+    public void testReadEmptyAndMalformedBody() {
+        assertDoesNotThrow(() -> assertNull(decode("", Pet.class)));
+        assertThrows(IOException.class, () -> decode("9f0102", List.class), "Truncated data should fail");
+        assertThrows(IOException.class, () -> decode("7b7fffffffffffffff", String.class), "Oversized lengths should be rejected");
+        assertThrows(IOException.class, () -> decode("9f".repeat(1000), List.class), "Deep nesting should be rejected");
+    }
+
+    @Test
+    public void testSequences() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonSequenceWriter writer = codec.openSequence(out, StreamFormat.JSON_ARRAY)) {
+            writer.write(1);
+            writer.write("a");
+        }
+        assertEquals("9f016161ff", HexFormat.of().formatHex(out.toByteArray()));
+
+        out.reset();
+        try (JsonSequenceWriter writer = codec.openSequence(out, StreamFormat.NDJSON)) {
+            writer.write(1);
+            writer.write("a");
+        }
+        assertEquals("016161", HexFormat.of().formatHex(out.toByteArray()));
+
+        assertEquals(List.of(1, 2, 3), readSequence("9f010203ff", StreamFormat.JSON_ARRAY));
+        assertEquals(List.of(1, 2, 3), readSequence("83010203", StreamFormat.JSON_ARRAY));
+        assertEquals(List.of(1, 2, 3), readSequence("010203", StreamFormat.NDJSON));
+        assertEquals(List.of(), readSequence("", StreamFormat.NDJSON));
+        assertEquals("application/cbor-seq", codec.getContentType(StreamFormat.NDJSON));
+    }
+
+    private List<Integer> readSequence(String hex, StreamFormat format) throws IOException {
+        List<Integer> values = new ArrayList<>();
+        try (JsonSequenceReader<Integer> reader = codec.openSequence(new ByteArrayInputStream(HexFormat.of().parseHex(hex)), Integer.class, format)) {
+            while (reader.hasNext()) {
+                values.add(reader.next());
+            }
+        }
+        return values;
+    }
+}
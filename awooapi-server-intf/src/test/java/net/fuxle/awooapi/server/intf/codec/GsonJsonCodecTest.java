@@ -0,0 +1,177 @@
+package net.fuxle.awooapi.server.intf.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link GsonJsonCodec} class.
+ */
+public class GsonJsonCodecTest {
+
+    public record Pet(String name, int age, List<String> tags) {
+    }
+
+    private final GsonJsonCodec codec = new GsonJsonCodec();
+
+    @Test
+    public void testWriteSerializesIntoStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.write(new Pet("Awoo", 3, List.of("wolf")), out);
+
+        assertEquals("{\"name\":\"Awoo\",\"age\":3,\"tags\":[\"wolf\"]}", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testWriteEncodesMultiByteCharactersAsUtf8() throws IOException {
+        String name = "Wölfchen \uD83D\uDC3A " + "x".repeat(10_000);
+        byte[] bytes = codec.toBytes(new Pet(name, 1, List.of()));
+
+        assertEquals("{\"name\":\"" + name + "\",\"age\":1,\"tags\":[]}", new String(bytes, StandardCharsets.UTF_8));
+        assertEquals(new Pet(name, 1, List.of()), codec.read(new ByteArrayInputStream(bytes), Pet.class));
+    }
+
+    @Test
+    public void testWriteNull() throws IOException {
+        assertEquals("null", new String(codec.toBytes(null), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testWriteDoesNotCloseStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                fail("Codec must not close the target stream");
+            }
+        };
+        codec.write(Map.of("a", 1), out);
+        out.write(' ');
+
+        assertEquals("{\"a\":1} ", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReadDeserializesFromStream() throws IOException {
+        InputStream in = new ByteArrayInputStream("{\"name\":\"Awoo\",\"age\":3,\"tags\":[\"wolf\",\"fox\"]}".getBytes(StandardCharsets.UTF_8));
+        Pet pet = codec.read(in, Pet.class);
+
+        assertEquals(new Pet("Awoo", 3, List.of("wolf", "fox")), pet);
+    }
+
+    @Test
+    public void testReadEmptyBodyReturnsNull() throws IOException {
+        assertNull(codec.read(new ByteArrayInputStream(new byte[0]), Pet.class));
+    }
+
+    @Test
+    public void testReadMalformedBodyThrowsIOException() {
+        InputStream in = new ByteArrayInputStream("{\"name\":".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> codec.read(in, Pet.class));
+    }
+
+    @Test
+    public void testDefaultCodecIsGson() {
+        assertInstanceOf(GsonJsonCodec.class, JsonCodecs.getDefault());
+        assertEquals("application/json", JsonCodecs.getDefault().getContentType());
+    }
+
+    @Test
+    public void testOpenSequenceWritesJsonArray() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonSequenceWriter writer = codec.openSequence(out, StreamFormat.JSON_ARRAY)) {
+            writer.write(new Pet("Awoo", 3, List.of()));
+            writer.write(null);
+            writer.write(1);
+        }
+
+        assertEquals("[{\"name\":\"Awoo\",\"age\":3,\"tags\":[]},null,1]", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testOpenSequenceWritesNdjson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonSequenceWriter writer = codec.openSequence(out, StreamFormat.NDJSON)) {
+            writer.write(Map.of("a", 1));
+            writer.write(Map.of("a", 2));
+        }
+
+        assertEquals("{\"a\":1}\n{\"a\":2}\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testEmptySequence() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.openSequence(out, StreamFormat.JSON_ARRAY).close();
+        assertEquals("[]", out.toString(StandardCharsets.UTF_8));
+
+        out.reset();
+        codec.openSequence(out, StreamFormat.NDJSON).close();
+        assertEquals("", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testStreamFormatFromMediaType() {
+        assertEquals(StreamFormat.NDJSON, StreamFormat.fromMediaType("application/x-ndjson"));
+        assertEquals(StreamFormat.NDJSON, StreamFormat.fromMediaType("application/json;q=0.5, application/X-NDJSON"));
+        assertEquals(StreamFormat.JSON_ARRAY, StreamFormat.fromMediaType("application/json"));
+        assertEquals(StreamFormat.JSON_ARRAY, StreamFormat.fromMediaType(null));
+        assertEquals(StreamFormat.JSON_ARRAY, StreamFormat.fromMediaType("application/x-ndjson;q=0, application/json"), "Rejected ranges must not be selected");
+        assertEquals(StreamFormat.JSON_ARRAY, StreamFormat.fromMediaType("application/json, application/x-ndjson;q=0.9"));
+        assertEquals(StreamFormat.NDJSON, StreamFormat.fromMediaType("application/cbor-seq; q=0.8, */*; q=0.1"));
+        assertEquals(StreamFormat.JSON_ARRAY, StreamFormat.fromMediaType("application/json; charset=utf-8"));
+    }
+
+    private List<Pet> readAll(String body, StreamFormat format) throws IOException {
+        List<Pet> pets = new java.util.ArrayList<>();
+        try (JsonSequenceReader<Pet> reader = codec.openSequence(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), Pet.class, format)) {
+            while (reader.hasNext()) {
+                pets.add(reader.next());
+            }
+        }
+        return pets;
+    }
+
+    @Test
+    public void testReadSequenceFromJsonArray() throws IOException {
+        List<Pet> pets = readAll("[{\"name\":\"Awoo\",\"age\":3,\"tags\":[]}, {\"name\":\"Fox\",\"age\":1,\"tags\":[\"red\"]}]", StreamFormat.JSON_ARRAY);
+
+        assertEquals(List.of(new Pet("Awoo", 3, List.of()), new Pet("Fox", 1, List.of("red"))), pets);
+    }
+
+    @Test
+    public void testReadSequenceFromNdjson() throws IOException {
+        List<Pet> pets = readAll("{\"name\":\"Awoo\",\"age\":3,\"tags\":[]}\n{\"name\":\"Fox\",\"age\":1,\"tags\":[]}\n", StreamFormat.NDJSON);
+
+        assertEquals(List.of(new Pet("Awoo", 3, List.of()), new Pet("Fox", 1, List.of())), pets);
+    }
+
+    @Test
+    public void testReadEmptySequence() throws IOException {
+        assertTrue(readAll("", StreamFormat.JSON_ARRAY).isEmpty());
+        assertTrue(readAll("[]", StreamFormat.JSON_ARRAY).isEmpty());
+        assertTrue(readAll("", StreamFormat.NDJSON).isEmpty());
+    }
+
+    @Test
+    public void testReadSequenceIsIncremental() throws IOException {
+        // The second value is broken, but the first one must be readable before the stream is consumed further
+        InputStream in = new ByteArrayInputStream("[{\"name\":\"Awoo\",\"age\":3,\"tags\":[]},{\"name\":".getBytes(StandardCharsets.UTF_8));
+        try (JsonSequenceReader<Pet> reader = codec.openSequence(in, Pet.class, StreamFormat.JSON_ARRAY)) {
+            assertEquals(new Pet("Awoo", 3, List.of()), reader.next());
+            assertThrows(IOException.class, reader::next);
+        }
+    }
+
+    @Test
+    public void testReadSequenceRejectsNonArray() {
+        assertThrows(IOException.class, () -> readAll("{\"name\":\"Awoo\"}", StreamFormat.JSON_ARRAY));
+    }
+}
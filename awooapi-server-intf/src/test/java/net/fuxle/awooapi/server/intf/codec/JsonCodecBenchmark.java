@@ -0,0 +1,83 @@
+package net.fuxle.awooapi.server.intf.codec;
+
+import com.google.gson.Gson;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Allocation benchmark comparing the previous {@code toJson -> String -> getBytes} response path
+ * with {@link JsonCodec#write(Object, OutputStream)} on representative payloads.
+ * <p>
+ * This is not a unit test. Run it manually with an allocation-exact, non-collecting heap, e.g.
+ * {@code java -XX:+UnlockExperimentalVMOptions -XX:+UseEpsilonGC -Xmx8g ...JsonCodecBenchmark},
+ * so that the used-heap delta equals the number of bytes allocated.
+ */
+public class JsonCodecBenchmark {
+
+    public record Item(long id, String name, double price, boolean available, List<String> tags) {
+    }
+
+    private static final int ITERATIONS = 2_000;
+
+    public static void main(String[] args) throws IOException {
+        Gson gson = new Gson();
+        JsonCodec codec = new GsonJsonCodec(gson);
+
+        Map<String, Object> payloads = Map.of(
+                "small object", new Item(1, "Awoo", 9.99, true, List.of("wolf", "fox")),
+                "list of 100", createItems(100),
+                "list of 10000", createItems(10_000)
+        );
+
+        // Simulates the servlet stream, which copies into its own buffer and discards the bytes
+        OutputStream sink = OutputStream.nullOutputStream();
+
+        for (Map.Entry<String, Object> payload : payloads.entrySet()) {
+            Object value = payload.getValue();
+            int iterations = value instanceof List<?> list && list.size() > 1000 ? ITERATIONS / 100 : ITERATIONS;
+
+            // Warm-up
+            for (int i = 0; i < iterations; i++) {
+                sink.write(gson.toJson(value).getBytes(StandardCharsets.UTF_8));
+                codec.write(value, sink);
+            }
+
+            long stringPath = measure(iterations, () -> sink.write(gson.toJson(value).getBytes(StandardCharsets.UTF_8)));
+            long streamPath = measure(iterations, () -> codec.write(value, sink));
+
+            ByteArrayOutputStream size = new ByteArrayOutputStream();
+            codec.write(value, size);
+
+            System.out.printf("%-14s %8d bytes payload | String path: %10d B/op | Stream path: %10d B/op%n",
+                    payload.getKey(), size.size(), stringPath / iterations, streamPath / iterations);
+        }
+    }
+
+    private static List<Item> createItems(int count) {
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new Item(i, "Item #" + i, i * 1.25, i % 2 == 0, List.of("tag" + (i % 7), "category" + (i % 3))));
+        }
+        return items;
+    }
+
+    private static long measure(int iterations, IOAction action) throws IOException {
+        Runtime runtime = Runtime.getRuntime();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+        for (int i = 0; i < iterations; i++) {
+            action.run();
+        }
+        return (runtime.totalMemory() - runtime.freeMemory()) - before;
+    }
+
+    @FunctionalInterface
+    private interface IOAction {
+        void run() throws IOException;
+    }
+}
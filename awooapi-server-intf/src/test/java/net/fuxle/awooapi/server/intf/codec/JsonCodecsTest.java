@@ -0,0 +1,36 @@
+package net.fuxle.awooapi.server.intf.codec;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the content negotiation of the {@link JsonCodecs} class.
+ */
+public class JsonCodecsTest {
+
+    @Test
+    public void testNegotiateDefaultsToJson() {
+        assertSame(JsonCodecs.getDefault(), JsonCodecs.negotiate(null));
+        assertSame(JsonCodecs.getDefault(), JsonCodecs.negotiate("*/*"));
+        assertSame(JsonCodecs.getDefault(), JsonCodecs.negotiate("application/json"));
+        assertSame(JsonCodecs.getDefault(), JsonCodecs.negotiate("text/html, application/xml"), "Unsupported types should fall back to JSON");
+    }
+
+    @Test
+    public void testNegotiateCbor() {
+        assertInstanceOf(CborCodec.class, JsonCodecs.negotiate("application/cbor"));
+        assertInstanceOf(CborCodec.class, JsonCodecs.negotiate("application/cbor-seq"));
+        assertInstanceOf(CborCodec.class, JsonCodecs.negotiate("application/json;q=0.5, application/cbor"));
+        assertSame(JsonCodecs.getDefault(), JsonCodecs.negotiate("application/json, application/cbor;q=0.9"), "Quality values should be honored");
+        assertSame(JsonCodecs.getDefault(), JsonCodecs.negotiate("application/cbor;q=0, */*"), "q=0 excludes a type");
+    }
+
+    @Test
+    public void testForContentType() {
+        assertSame(JsonCodecs.getDefault(), JsonCodecs.forContentType(null));
+        assertSame(JsonCodecs.getDefault(), JsonCodecs.forContentType("application/json; charset=utf-8"));
+        assertSame(JsonCodecs.getDefault(), JsonCodecs.forContentType("text/plain"));
+        assertInstanceOf(CborCodec.class, JsonCodecs.forContentType("Application/CBOR"));
+    }
+}
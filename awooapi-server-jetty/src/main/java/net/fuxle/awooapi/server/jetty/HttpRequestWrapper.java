@@ -4,6 +4,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import net.fuxle.awooapi.server.intf.Request;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 public class HttpRequestWrapper implements Request {
     private final HttpServletRequest request;
@@ -37,6 +38,11 @@ public class HttpRequestWrapper implements Request {
         return request.getRemoteAddr();
     }
 
+    @Override
+    public String getConnectionId() {
+        return request.getServletConnection().getConnectionId();
+    }
+
 
     @Override
     public String getQueryParam(String name) {
@@ -47,4 +53,9 @@ public class HttpRequestWrapper implements Request {
     public byte[] getBodyBytes() throws IOException {
         return request.getInputStream().readAllBytes();
     }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return request.getInputStream();
+    }
 }
@@ -70,7 +70,8 @@ public class JettyWebServer extends WebServer {
         // Configure our servlet
         ServletContextHandler context = new ServletContextHandler(ServletContextHandler.SESSIONS);
         context.setContextPath("/");
-        server.setHandler(context);
+        // WebSocket upgrades are answered before the servlet, which only sees plain HTTP requests
+        server.setHandler(new JettyWebSocketUpgradeHandler(this, context));
 
         // Add AwooAPI Servlet
         context.addServlet(new ServletHolder(new AwooApiServlet(this)), "/");
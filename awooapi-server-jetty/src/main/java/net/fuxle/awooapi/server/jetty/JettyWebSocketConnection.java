@@ -0,0 +1,422 @@
+package net.fuxle.awooapi.server.jetty;
+
+import net.fuxle.awooapi.server.intf.Request;
+import net.fuxle.awooapi.server.intf.websocket.WebSocketHandler;
+import net.fuxle.awooapi.server.intf.websocket.WebSocketSession;
+import org.eclipse.jetty.io.AbstractConnection;
+import org.eclipse.jetty.io.Connection;
+import org.eclipse.jetty.io.EndPoint;
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.FutureCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A WebSocket connection (RFC 6455) taking over the endpoint of an upgraded HTTP/1.1 connection.
+ * <p>
+ * Text messages are passed to the {@link WebSocketHandler}, pings are answered and the closing handshake is
+ * completed; binary messages and extensions are not supported. The callbacks of the handler are never invoked
+ * concurrently, messages can be sent from any thread.
+ */
+public class JettyWebSocketConnection extends AbstractConnection implements Connection.UpgradeTo, WebSocketSession {
+    private static final Logger log = LoggerFactory.getLogger(JettyWebSocketConnection.class);
+
+    /**
+     * Maximum size in bytes of a received message, across all of its fragments.
+     */
+    public static final int MAX_MESSAGE_SIZE = 64 * 1024;
+
+    private static final int OPCODE_CONTINUATION = 0x0;
+    private static final int OPCODE_TEXT = 0x1;
+    private static final int OPCODE_BINARY = 0x2;
+    private static final int OPCODE_CLOSE = 0x8;
+    private static final int OPCODE_PING = 0x9;
+    private static final int OPCODE_PONG = 0xA;
+
+    private final WebSocketHandler handler;
+    private final Request request;
+    private final String subprotocol;
+
+    private final ReentrantLock callbackLock = new ReentrantLock();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicBoolean closeNotified = new AtomicBoolean();
+    private volatile boolean closeSent;
+    private int closeCode;
+    private String closeReason;
+
+    private final ByteBuffer readBuffer = BufferUtil.allocate(8192);
+    private byte[] input = new byte[8192];
+    private int inputLength;
+    private final ByteArrayOutputStream message = new ByteArrayOutputStream();
+    private boolean inMessage;
+
+    public JettyWebSocketConnection(EndPoint endPoint, Executor executor, WebSocketHandler handler, Request request, String subprotocol) {
+        super(endPoint, executor);
+        this.handler = handler;
+        this.request = request;
+        this.subprotocol = subprotocol;
+    }
+
+    @Override
+    public void onUpgradeTo(ByteBuffer buffer) {
+        // Frames the client sent right after the handshake may have been read together with the upgrade request
+        if (BufferUtil.hasContent(buffer)) {
+            append(buffer);
+        }
+    }
+
+    @Override
+    public void onOpen() {
+        super.onOpen();
+        callbackLock.lock();
+        try {
+            handler.onOpen(this);
+        } catch (RuntimeException e) {
+            log.warn("WebSocket handler failed to open the connection", e);
+            close(1011, "Internal error");
+        } finally {
+            callbackLock.unlock();
+        }
+        if (process()) {
+            fillInterested();
+        }
+    }
+
+    @Override
+    public void onFillable() {
+        try {
+            while (true) {
+                int filled = getEndPoint().fill(readBuffer);
+                if (filled > 0) {
+                    append(readBuffer);
+                    BufferUtil.clear(readBuffer);
+                    if (!process()) {
+                        return;
+                    }
+                } else if (filled == 0) {
+                    fillInterested();
+                    return;
+                } else {
+                    // The client went away without the closing handshake
+                    getEndPoint().close();
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Reading from WebSocket connection failed", e);
+            getEndPoint().close();
+        }
+    }
+
+    @Override
+    public void onClose(Throwable cause) {
+        super.onClose(cause);
+        notifyClose(1006, "");
+    }
+
+    @Override
+    public Request getRequest() {
+        return request;
+    }
+
+    @Override
+    public String getSubprotocol() {
+        return subprotocol;
+    }
+
+    @Override
+    public void sendText(String message) throws IOException {
+        writeLock.lock();
+        try {
+            if (closeSent) {
+                throw new IOException("WebSocket connection is closed");
+            }
+            writeFrame(OPCODE_TEXT, message.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close(int code, String reason) {
+        boolean failed = false;
+        writeLock.lock();
+        try {
+            if (closeSent) {
+                return;
+            }
+            closeCode = code;
+            closeReason = reason;
+            closeSent = true;
+            writeFrame(OPCODE_CLOSE, closePayload(code, reason));
+        } catch (IOException e) {
+            log.debug("Sending close frame to WebSocket connection failed", e);
+            failed = true;
+        } finally {
+            writeLock.unlock();
+        }
+        // Closed outside the write lock, since closing the endpoint notifies the handler
+        if (failed) {
+            getEndPoint().close();
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closeSent && getEndPoint().isOpen();
+    }
+
+    private void append(ByteBuffer buffer) {
+        int length = buffer.remaining();
+        if (inputLength + length > input.length) {
+            input = Arrays.copyOf(input, Math.max(input.length * 2, inputLength + length));
+        }
+        buffer.get(input, inputLength, length);
+        inputLength += length;
+    }
+
+    /**
+     * Handles the complete frames received so far.
+     *
+     * @return {@code false} if the connection has been closed and must not be read from anymore.
+     */
+    private boolean process() {
+        int offset = 0;
+        boolean open = true;
+        while (open) {
+            int available = inputLength - offset;
+            if (available < 2) {
+                break;
+            }
+            int first = input[offset] & 0xFF;
+            int second = input[offset + 1] & 0xFF;
+            int opcode = first & 0x0F;
+
+            int headerLength = 2;
+            long payloadLength = second & 0x7F;
+            if (payloadLength == 126) {
+                headerLength += 2;
+                if (available < headerLength) {
+                    break;
+                }
+                payloadLength = ((input[offset + 2] & 0xFF) << 8) | (input[offset + 3] & 0xFF);
+            } else if (payloadLength == 127) {
+                headerLength += 8;
+                if (available < headerLength) {
+                    break;
+                }
+                payloadLength = 0;
+                for (int i = 0; i < 8; i++) {
+                    payloadLength = (payloadLength << 8) | (input[offset + 2 + i] & 0xFF);
+                }
+            }
+
+            if ((first & 0x70) != 0) {
+                return fail(1002, "Reserved bits must not be set");
+            }
+            if ((second & 0x80) == 0) {
+                return fail(1002, "Client frames must be masked");
+            }
+            if (opcode >= OPCODE_CLOSE && ((first & 0x80) == 0 || payloadLength > 125)) {
+                return fail(1002, "Control frames must not be fragmented or exceed 125 bytes");
+            }
+            // Checked before the payload is buffered, so a client cannot make the server buffer without limit
+            if (opcode < OPCODE_CLOSE && (payloadLength < 0 || payloadLength > MAX_MESSAGE_SIZE - message.size())) {
+                return fail(1009, "Message too big");
+            }
+
+            headerLength += 4;
+            if (available < headerLength + payloadLength) {
+                break;
+            }
+            int maskOffset = offset + headerLength - 4;
+            byte[] payload = new byte[(int) payloadLength];
+            for (int i = 0; i < payload.length; i++) {
+                payload[i] = (byte) (input[offset + headerLength + i] ^ input[maskOffset + (i & 3)]);
+            }
+            offset += headerLength + payload.length;
+
+            open = onFrame((first & 0x80) != 0, opcode, payload);
+        }
+
+        if (offset > 0) {
+            System.arraycopy(input, offset, input, 0, inputLength - offset);
+            inputLength -= offset;
+        }
+        return open;
+    }
+
+    private boolean onFrame(boolean fin, int opcode, byte[] payload) {
+        switch (opcode) {
+            case OPCODE_TEXT, OPCODE_CONTINUATION -> {
+                if (inMessage == (opcode == OPCODE_TEXT)) {
+                    return fail(1002, opcode == OPCODE_TEXT ? "Message started before the previous one ended" : "No message to continue");
+                }
+                message.writeBytes(payload);
+                inMessage = !fin;
+                if (fin) {
+                    byte[] data = message.toByteArray();
+                    message.reset();
+                    String text;
+                    try {
+                        text = StandardCharsets.UTF_8.newDecoder()
+                                .onMalformedInput(CodingErrorAction.REPORT)
+                                .onUnmappableCharacter(CodingErrorAction.REPORT)
+                                .decode(ByteBuffer.wrap(data))
+                                .toString();
+                    } catch (CharacterCodingException e) {
+                        return fail(1007, "Invalid UTF-8 in text message");
+                    }
+                    if (!closeSent) {
+                        notifyMessage(text);
+                    }
+                }
+                return true;
+            }
+            case OPCODE_BINARY -> {
+                return fail(1003, "Binary messages are not supported");
+            }
+            case OPCODE_PING -> {
+                writeLock.lock();
+                try {
+                    if (!closeSent) {
+                        writeFrame(OPCODE_PONG, payload);
+                    }
+                } catch (IOException e) {
+                    log.debug("Answering ping on WebSocket connection failed", e);
+                } finally {
+                    writeLock.unlock();
+                }
+                return true;
+            }
+            case OPCODE_PONG -> {
+                return true;
+            }
+            case OPCODE_CLOSE -> {
+                onCloseFrame(payload);
+                return false;
+            }
+            default -> {
+                return fail(1002, "Unknown opcode " + opcode);
+            }
+        }
+    }
+
+    private void onCloseFrame(byte[] payload) {
+        int code = 1005;
+        String reason = "";
+        if (payload.length == 1) {
+            code = 1002;
+        } else if (payload.length >= 2) {
+            code = ((payload[0] & 0xFF) << 8) | (payload[1] & 0xFF);
+            reason = new String(payload, 2, payload.length - 2, StandardCharsets.UTF_8);
+            if (!isValidCloseCode(code)) {
+                code = 1002;
+            }
+        }
+
+        if (!closeSent) {
+            // Echo the close code to complete the handshake initiated by the client
+            close(code == 1005 ? 1000 : code, code == 1002 ? "Invalid close frame" : "");
+            notifyClose(code, reason);
+        } else {
+            // The client answered our close frame
+            notifyClose(closeCode, closeReason);
+        }
+        getEndPoint().close();
+    }
+
+    private boolean fail(int code, String reason) {
+        log.debug("Closing WebSocket connection with {}: {}", code, reason);
+        close(code, reason);
+        notifyClose(code, reason);
+        getEndPoint().close();
+        return false;
+    }
+
+    private void notifyMessage(String text) {
+        callbackLock.lock();
+        try {
+            handler.onMessage(this, text);
+        } catch (RuntimeException e) {
+            log.warn("WebSocket handler failed to handle a message", e);
+            close(1011, "Internal error");
+        } finally {
+            callbackLock.unlock();
+        }
+    }
+
+    private void notifyClose(int code, String reason) {
+        if (!closeNotified.compareAndSet(false, true)) {
+            return;
+        }
+        if (closeSent && code == 1006) {
+            // The connection dropped after we initiated the closing handshake
+            code = closeCode;
+            reason = closeReason;
+        }
+        callbackLock.lock();
+        try {
+            handler.onClose(this, code, reason);
+        } catch (RuntimeException e) {
+            log.warn("WebSocket handler failed to handle the closed connection", e);
+        } finally {
+            callbackLock.unlock();
+        }
+    }
+
+    /**
+     * Writes a single unfragmented frame, blocking until it has been handed to the network. Must be called while
+     * holding the write lock.
+     */
+    private void writeFrame(int opcode, byte[] payload) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(10);
+        header.put((byte) (0x80 | opcode));
+        if (payload.length < 126) {
+            header.put((byte) payload.length);
+        } else if (payload.length <= 0xFFFF) {
+            header.put((byte) 126);
+            header.putShort((short) payload.length);
+        } else {
+            header.put((byte) 127);
+            header.putLong(payload.length);
+        }
+        header.flip();
+
+        FutureCallback callback = new FutureCallback();
+        getEndPoint().write(callback, header, ByteBuffer.wrap(payload));
+        callback.block();
+    }
+
+    private static byte[] closePayload(int code, String reason) {
+        byte[] reasonBytes = reason == null ? new byte[0] : reason.getBytes(StandardCharsets.UTF_8);
+        // Control frames carry at most 125 bytes, two of which are taken by the code
+        int reasonLength = Math.min(reasonBytes.length, 123);
+        while (reasonLength > 0 && reasonLength < reasonBytes.length && (reasonBytes[reasonLength] & 0xC0) == 0x80) {
+            reasonLength--;
+        }
+        byte[] payload = new byte[2 + reasonLength];
+        payload[0] = (byte) (code >> 8);
+        payload[1] = (byte) code;
+        System.arraycopy(reasonBytes, 0, payload, 2, reasonLength);
+        return payload;
+    }
+
+    private static boolean isValidCloseCode(int code) {
+        if (code >= 3000 && code <= 4999) {
+            return true;
+        }
+        return code >= 1000 && code <= 1014 && code != 1004 && code != 1005 && code != 1006;
+    }
+}
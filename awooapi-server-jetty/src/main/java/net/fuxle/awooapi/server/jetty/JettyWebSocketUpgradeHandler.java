@@ -0,0 +1,108 @@
+package net.fuxle.awooapi.server.jetty;
+
+import net.fuxle.awooapi.server.intf.WebServer;
+import net.fuxle.awooapi.server.intf.websocket.WebSocketHandler;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.HttpStream;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.util.Callback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Upgrades requests to WebSocket connections (RFC 6455) on the paths a {@link WebSocketHandler} is registered for
+ * with {@link WebServer#addWebSocketHandler(String, WebSocketHandler)}. All other requests, including plain GET
+ * requests on those paths, are passed on to the wrapped handler.
+ */
+public class JettyWebSocketUpgradeHandler extends Handler.Wrapper {
+    private static final Logger log = LoggerFactory.getLogger(JettyWebSocketUpgradeHandler.class);
+    private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final String VERSION = "13";
+
+    private final WebServer webServer;
+
+    public JettyWebSocketUpgradeHandler(WebServer webServer, Handler handler) {
+        super(handler);
+        this.webServer = webServer;
+    }
+
+    @Override
+    public boolean handle(Request request, Response response, Callback callback) throws Exception {
+        HttpFields headers = request.getHeaders();
+        WebSocketHandler handler = webServer.getWebSocketHandlers().get(request.getHttpURI().getPath());
+        if (handler == null || !headers.contains(HttpHeader.UPGRADE, "websocket")) {
+            return super.handle(request, response, callback);
+        }
+
+        String path = request.getHttpURI().getPath();
+        String key = headers.get(HttpHeader.SEC_WEBSOCKET_KEY);
+        // HTTP/2 connections cannot be upgraded, Jetty hands over the endpoint of HTTP/1.1 connections only
+        if (!"GET".equals(request.getMethod()) || request.getConnectionMetaData().getHttpVersion() != HttpVersion.HTTP_1_1
+                || !headers.contains(HttpHeader.CONNECTION, "upgrade") || !isValidKey(key)) {
+            log.info("Rejecting malformed WebSocket upgrade request for path: {}", path);
+            response.setStatus(HttpStatus.BAD_REQUEST_400);
+            callback.succeeded();
+            return true;
+        }
+        if (!VERSION.equals(headers.get(HttpHeader.SEC_WEBSOCKET_VERSION))) {
+            response.setStatus(HttpStatus.UPGRADE_REQUIRED_426);
+            response.getHeaders().put(HttpHeader.SEC_WEBSOCKET_VERSION, VERSION);
+            callback.succeeded();
+            return true;
+        }
+
+        // The first subprotocol of the handler the client offers. Without one the connection is still accepted,
+        // the handler decides whether to close it
+        List<String> offered = headers.getCSV(HttpHeader.SEC_WEBSOCKET_SUBPROTOCOL, false);
+        String subprotocol = handler.getSubprotocols().stream().filter(offered::contains).findFirst().orElse(null);
+
+        response.setStatus(HttpStatus.SWITCHING_PROTOCOLS_101);
+        response.getHeaders().put(HttpHeader.UPGRADE, "websocket");
+        response.getHeaders().put(HttpHeader.CONNECTION, "Upgrade");
+        response.getHeaders().put(HttpHeader.SEC_WEBSOCKET_ACCEPT, accept(key));
+        if (subprotocol != null) {
+            response.getHeaders().put(HttpHeader.SEC_WEBSOCKET_SUBPROTOCOL, subprotocol);
+        }
+        response.getHeaders().put("X-Powered-By", WebServer.getPoweredByValue());
+
+        // Jetty hands the endpoint over to this connection once the 101 response has been sent
+        JettyWebSocketConnection connection = new JettyWebSocketConnection(
+                request.getConnectionMetaData().getConnection().getEndPoint(),
+                request.getComponents().getExecutor(),
+                handler,
+                new WebSocketUpgradeRequest(request),
+                subprotocol);
+        request.setAttribute(HttpStream.UPGRADE_CONNECTION_ATTRIBUTE, connection);
+
+        log.info("Upgrading request for path {} to a WebSocket connection ({})", path, subprotocol);
+        callback.succeeded();
+        return true;
+    }
+
+    private static boolean isValidKey(String key) {
+        if (key == null) {
+            return false;
+        }
+        try {
+            return Base64.getDecoder().decode(key.trim()).length == 16;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String accept(String key) throws NoSuchAlgorithmException {
+        MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+        return Base64.getEncoder().encodeToString(sha1.digest((key.trim() + ACCEPT_GUID).getBytes(StandardCharsets.US_ASCII)));
+    }
+}
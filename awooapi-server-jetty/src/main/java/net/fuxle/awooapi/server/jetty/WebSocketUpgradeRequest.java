@@ -0,0 +1,75 @@
+package net.fuxle.awooapi.server.jetty;
+
+import net.fuxle.awooapi.server.intf.Request;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.util.Fields;
+
+import java.io.InputStream;
+
+/**
+ * The request that opened a WebSocket connection. Jetty recycles its request once the handshake has been answered,
+ * so path, headers and query parameters are copied to remain readable for the lifetime of the connection.
+ */
+public class WebSocketUpgradeRequest implements Request {
+    private final String path;
+    private final String method;
+    private final HttpFields headers;
+    private final Fields queryParameters;
+    private final String ip;
+    private final String connectionId;
+
+    public WebSocketUpgradeRequest(org.eclipse.jetty.server.Request request) {
+        this.path = request.getHttpURI().getPath();
+        this.method = request.getMethod();
+        this.headers = request.getHeaders().asImmutable();
+        this.queryParameters = org.eclipse.jetty.server.Request.extractQueryParameters(request);
+        this.ip = org.eclipse.jetty.server.Request.getRemoteAddr(request);
+        this.connectionId = request.getConnectionMetaData().getId();
+    }
+
+    @Override
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    @Override
+    public String getBody() {
+        // Upgrade requests have no body, the messages are received over the connection
+        return "";
+    }
+
+    @Override
+    public String getIP() {
+        return ip;
+    }
+
+    @Override
+    public String getConnectionId() {
+        return connectionId;
+    }
+
+    @Override
+    public String getQueryParam(String name) {
+        return queryParameters.getValue(name);
+    }
+
+    @Override
+    public byte[] getBodyBytes() {
+        return new byte[0];
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return InputStream.nullInputStream();
+    }
+}
@@ -0,0 +1,223 @@
+package net.fuxle.awooapi.server.jetty;
+
+import net.fuxle.awooapi.annotations.HandlerType;
+import net.fuxle.awooapi.server.intf.Endpoint;
+import net.fuxle.awooapi.server.intf.websocket.WebSocketHandler;
+import net.fuxle.awooapi.server.intf.websocket.WebSocketSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end tests of the WebSocket connections served by the {@link JettyWebServer}.
+ */
+class JettyWebSocketTest {
+
+    /**
+     * Echoes every message and records the callbacks it receives.
+     */
+    private static final class EchoHandler implements WebSocketHandler {
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public List<String> getSubprotocols() {
+            return List.of("echo");
+        }
+
+        @Override
+        public void onOpen(WebSocketSession session) {
+            events.add("open " + session.getSubprotocol() + " " + session.getRequest().getQueryParam("name"));
+        }
+
+        @Override
+        public void onMessage(WebSocketSession session, String message) {
+            if (message.equals("bye")) {
+                session.close(4000, "Bye");
+                return;
+            }
+            try {
+                session.sendText(message);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void onClose(WebSocketSession session, int code, String reason) {
+            events.add("close " + code + " " + reason);
+        }
+
+        private String next() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "The handler should have been called");
+            return event;
+        }
+    }
+
+    /**
+     * A client recording the messages and the close code it receives.
+     */
+    private static final class RecordingListener implements WebSocket.Listener {
+        private final BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        private final BlockingQueue<String> pongs = new LinkedBlockingQueue<>();
+        private final CompletableFuture<Integer> closed = new CompletableFuture<>();
+        private final StringBuilder partial = new StringBuilder();
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                messages.add(partial.toString());
+                partial.setLength(0);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onPong(WebSocket webSocket, ByteBuffer message) {
+            pongs.add(StandardCharsets.UTF_8.decode(message).toString());
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            closed.complete(statusCode);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            closed.completeExceptionally(error);
+        }
+
+        private String next() throws InterruptedException {
+            String message = messages.poll(5, TimeUnit.SECONDS);
+            assertNotNull(message, "A message should have been received");
+            return message;
+        }
+
+        private int closeCode() throws Exception {
+            return closed.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private final EchoHandler echoHandler = new EchoHandler();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private JettyWebServer webServer;
+    private String baseUri;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        webServer = new JettyWebServer();
+        webServer.getWebServerConfig().setHttpPort(port);
+        baseUri = "ws://localhost:" + port;
+
+        webServer.getRouter().addHandler(new Endpoint(HandlerType.GET, "/echo", context -> context.result("plain")));
+        webServer.addWebSocketHandler("/echo", echoHandler);
+
+        webServer.start();
+    }
+
+    @AfterEach
+    void stopServer() throws Exception {
+        webServer.stop();
+        client.close();
+    }
+
+    private WebSocket connect(String path, RecordingListener listener, String... subprotocols) throws Exception {
+        WebSocket.Builder builder = client.newWebSocketBuilder();
+        if (subprotocols.length > 0) {
+            builder.subprotocols(subprotocols[0], List.of(subprotocols).subList(1, subprotocols.length).toArray(String[]::new));
+        }
+        return builder.buildAsync(URI.create(baseUri + path), listener).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testRequestsWithoutUpgradeArePassedOn() throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUri.replace("ws:", "http:") + "/echo")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals("plain", response.body());
+    }
+
+    @Test
+    void testConnectionsWithoutMatchingSubprotocolAreAccepted() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        WebSocket webSocket = connect("/echo", listener, "chat");
+        assertEquals("", webSocket.getSubprotocol());
+        assertEquals("open null null", echoHandler.next(), "The handler should decide whether to keep the connection");
+        webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "").join();
+        assertEquals(WebSocket.NORMAL_CLOSURE, listener.closeCode());
+    }
+
+    @Test
+    void testMessagesArePassedToTheHandler() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        WebSocket webSocket = connect("/echo?name=wolf", listener, "chat", "echo");
+        assertEquals("echo", webSocket.getSubprotocol(), "The first subprotocol of the handler offered by the client should be chosen");
+        assertEquals("open echo wolf", echoHandler.next(), "The upgrade request should remain readable");
+
+        webSocket.sendText("Hel", false).join();
+        webSocket.sendText("lo", true).join();
+        assertEquals("Hello", listener.next(), "Fragments should be joined to one message");
+
+        String large = "a".repeat(70_000 / 2);
+        webSocket.sendText(large, true).join();
+        assertEquals(large, listener.next(), "Messages with extended lengths should be framed correctly");
+
+        webSocket.sendPing(ByteBuffer.wrap("awoo".getBytes(StandardCharsets.UTF_8))).join();
+        assertEquals("awoo", listener.pongs.poll(5, TimeUnit.SECONDS));
+
+        webSocket.sendClose(4001, "Done").join();
+        assertEquals("close 4001 Done", echoHandler.next());
+        assertEquals(4001, listener.closeCode(), "The close code should be echoed");
+    }
+
+    @Test
+    void testServerInitiatedClose() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        WebSocket webSocket = connect("/echo", listener, "echo");
+        echoHandler.next();
+
+        webSocket.sendText("bye", true).join();
+        assertEquals(4000, listener.closeCode());
+        // The client answers the close frame on its own, completing the closing handshake
+        assertEquals("close 4000 Bye", echoHandler.next());
+    }
+
+    @Test
+    void testTooLargeMessagesCloseTheConnection() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        WebSocket webSocket = connect("/echo", listener, "echo");
+        echoHandler.next();
+
+        webSocket.sendText("a".repeat(JettyWebSocketConnection.MAX_MESSAGE_SIZE + 1), true);
+        assertEquals(1009, listener.closeCode());
+        assertEquals("close 1009 Message too big", echoHandler.next());
+    }
+}